@@ -0,0 +1,91 @@
+package me.mrletsplay.mrcore.config.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.mrletsplay.mrcore.config.ConfigFlag;
+import me.mrletsplay.mrcore.config.ConfigLoader;
+import me.mrletsplay.mrcore.config.FileCustomConfig;
+
+/**
+ * Compares loading a config file by parsing its text to loading it from its {@link ConfigSnapshot}<br>
+ * The snapshot is written once when the benchmark is set up, so {@code loadSnapshot} only measures loads of unchanged files. Both benchmarks include reading the file and computing its checksum
+ * @author MrLetsplay2003
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConfigSnapshotBenchmark {
+
+	/**
+	 * The number of entries in the config. An entry consists of three properties and roughly matches the size of a locale entry
+	 */
+	@Param({"300", "3000"})
+	public int entries;
+
+	@Param({"false", "true"})
+	public boolean concurrent;
+
+	private File directory, file;
+
+	@Setup
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("mrcore-config-benchmark").toFile();
+		file = new File(directory, "config.yml");
+
+		DefaultFileCustomConfig cfg = new DefaultFileCustomConfig(file);
+		cfg.setHeader("Benchmark config");
+		for(int i = 0; i < entries; i++) {
+			cfg.set("entries.e" + i + ".name", "Entry number " + i);
+			cfg.set("entries.e" + i + ".value", i * 1.5);
+			cfg.set("entries.e" + i + ".tags", Arrays.asList("tag", i));
+			if(i % 10 == 0) cfg.setComment("entries.e" + i, "Comment for entry " + i);
+		}
+		cfg.saveToFile();
+
+		load(true);
+		if(!ConfigSnapshot.getSnapshotFile(file).isFile()) throw new IllegalStateException("Snapshot was not written");
+	}
+
+	@TearDown
+	public void tearDown() {
+		ConfigSnapshot.getSnapshotFile(file).delete();
+		file.delete();
+		directory.delete();
+	}
+
+	private FileCustomConfig load(boolean snapshot) {
+		ConfigFlag[] flags = snapshot ? new ConfigFlag[] {ConfigFlag.BINARY_SNAPSHOT} : new ConfigFlag[0];
+		return concurrent ? ConfigLoader.loadConcurrentFileConfig(file, flags) : ConfigLoader.loadFileConfig(file, flags);
+	}
+
+	@Benchmark
+	public FileCustomConfig loadText() {
+		return load(false);
+	}
+
+	@Benchmark
+	public FileCustomConfig loadSnapshot() {
+		return load(true);
+	}
+
+}
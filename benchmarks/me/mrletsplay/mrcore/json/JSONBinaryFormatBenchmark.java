@@ -0,0 +1,67 @@
+package me.mrletsplay.mrcore.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the binary JSON format of {@link JSONBinaryFormat} to the text format of {@link JSONFormatter} and {@link JSONParser}<br>
+ * The size of both encodings of the document is printed when the benchmark is set up
+ * @author MrLetsplay2003
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JSONBinaryFormatBenchmark {
+
+	@Param({"search", "versions"})
+	public String document;
+
+	private JSONArray value;
+	private String text;
+	private byte[] binary;
+
+	@Setup
+	public void setup() {
+		text = document.equals("search") ? SpiGetResponses.search(100) : SpiGetResponses.versions(500);
+		value = new JSONArray(text);
+		binary = value.toBinary();
+		System.out.println();
+		System.out.println("Text: " + text.getBytes(StandardCharsets.UTF_8).length + " bytes, binary: " + binary.length + " bytes");
+	}
+
+	@Benchmark
+	public String formatText() {
+		return value.toString();
+	}
+
+	@Benchmark
+	public byte[] formatBinary() {
+		return value.toBinary();
+	}
+
+	@Benchmark
+	public JSONArray parseText() {
+		return new JSONArray(text);
+	}
+
+	@Benchmark
+	public JSONArray parseBinary() {
+		return JSONArray.fromBinary(binary);
+	}
+
+}
@@ -0,0 +1,78 @@
+package me.mrletsplay.mrcore.json;
+
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link JSONParser} on typical SpiGet API responses<br>
+ * {@code parseStrings} and {@code parseEscapedStrings} parse the same strings, but every string of the latter starts with an escape sequence. This keeps the parser on the char-by-char path for the whole string, which is how every string was read before the fast path was added.<br>
+ * Run with {@code -prof gc} to see the allocation per parsed document as {@code gc.alloc.rate.norm}
+ * @author MrLetsplay2003
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JSONParserBenchmark {
+
+	private String search, versions, strings, escapedStrings;
+
+	@Setup
+	public void setup() {
+		search = SpiGetResponses.search(100);
+		versions = SpiGetResponses.versions(500);
+
+		Random r = new Random(0);
+		JSONArray plain = new JSONArray(), escaped = new JSONArray();
+		for(int i = 0; i < 1000; i++) {
+			byte[] b = new byte[100 + r.nextInt(200)];
+			r.nextBytes(b);
+			// The URL-safe alphabet contains no '/', which the formatter would escape
+			String s = Base64.getUrlEncoder().encodeToString(b);
+			plain.add(s);
+			escaped.add("\t" + s);
+		}
+		strings = plain.toString();
+		escapedStrings = escaped.toString();
+	}
+
+	@Benchmark
+	public Object parseSearch() {
+		return JSONParser.parse(search);
+	}
+
+	@Benchmark
+	public Object parseSearchLazy() {
+		return JSONParser.parse(search, JSONParseFlag.LAZY_OBJECTS);
+	}
+
+	@Benchmark
+	public Object parseVersions() {
+		return JSONParser.parse(versions);
+	}
+
+	@Benchmark
+	public Object parseStrings() {
+		return JSONParser.parse(strings);
+	}
+
+	@Benchmark
+	public Object parseEscapedStrings() {
+		return JSONParser.parse(escapedStrings);
+	}
+
+}
@@ -0,0 +1,100 @@
+package me.mrletsplay.mrcore.json;
+
+import java.util.Base64;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates JSON documents shaped like the responses of the SpiGet API, which are used as typical input by the JSON benchmarks<br>
+ * The generated documents only depend on the given parameters, so every run of a benchmark parses the same input
+ * @author MrLetsplay2003
+ */
+class SpiGetResponses {
+
+	private static final String[] VERSIONS = {"1.8", "1.9", "1.10", "1.11", "1.12", "1.13", "1.14", "1.15", "1.16"};
+
+	/**
+	 * Creates a response like the one returned by {@code search/resources/<query>}
+	 * @param resources The number of resources in the response
+	 * @return The response as a JSON string
+	 */
+	public static String search(int resources) {
+		Random r = new Random(resources);
+		JSONArray arr = new JSONArray();
+		for(int i = 0; i < resources; i++) {
+			arr.add(resource(r, 10000 + i));
+		}
+		return arr.toString();
+	}
+
+	/**
+	 * Creates a response like the one returned by {@code resources/<id>/versions}
+	 * @param versions The number of versions in the response
+	 * @return The response as a JSON string
+	 */
+	public static String versions(int versions) {
+		Random r = new Random(versions);
+		JSONArray arr = new JSONArray();
+		for(int i = 0; i < versions; i++) {
+			JSONObject v = new JSONObject();
+			v.put("uuid", new UUID(r.nextLong(), r.nextLong()).toString());
+			v.put("name", (i / 10) + "." + (i % 10));
+			v.put("releaseDate", 1500000000L + r.nextInt(100000000));
+			v.put("downloads", r.nextInt(50000));
+			JSONObject rating = new JSONObject();
+			rating.put("count", r.nextInt(100));
+			rating.put("average", r.nextInt(50) / 10d);
+			v.put("rating", rating);
+			v.put("id", 200000 + i);
+			arr.add(v);
+		}
+		return arr.toString();
+	}
+
+	private static JSONObject resource(Random r, int id) {
+		JSONObject res = new JSONObject();
+		res.put("external", false);
+		JSONObject file = new JSONObject();
+		file.put("type", ".jar");
+		file.put("size", r.nextInt(5000) / 10d);
+		file.put("sizeUnit", "KB");
+		file.put("url", "resources/example-plugin." + id + "/download?version=" + (id * 3));
+		res.put("file", file);
+		res.put("description", base64(r, 300 + r.nextInt(1500)));
+		res.put("likes", r.nextInt(1000));
+		JSONArray tested = new JSONArray();
+		for(int i = r.nextInt(VERSIONS.length); i < VERSIONS.length; i++) tested.add(VERSIONS[i]);
+		res.put("testedVersions", tested);
+		JSONArray links = new JSONArray();
+		links.add("https://github.com/example/plugin-" + id);
+		res.put("links", links);
+		JSONObject rating = new JSONObject();
+		rating.put("count", r.nextInt(200));
+		rating.put("average", r.nextInt(50) / 10d);
+		res.put("rating", rating);
+		res.put("releaseDate", 1400000000L + r.nextInt(200000000));
+		res.put("updateDate", 1500000000L + r.nextInt(100000000));
+		res.put("downloads", r.nextInt(1000000));
+		JSONObject icon = new JSONObject();
+		icon.put("url", "data/resource_icons/" + (id / 1000) + "/" + id + ".jpg");
+		icon.put("data", base64(r, 200 + r.nextInt(800)));
+		res.put("icon", icon);
+		res.put("premium", r.nextInt(10) == 0);
+		res.put("price", 0.0);
+		res.put("currency", "");
+		res.put("name", "Example Plugin " + id);
+		res.put("tag", "An example plugin for benchmarking");
+		JSONObject version = new JSONObject();
+		version.put("id", 300000 + id);
+		res.put("version", version);
+		res.put("id", id);
+		return res;
+	}
+
+	private static String base64(Random r, int bytes) {
+		byte[] b = new byte[bytes];
+		r.nextBytes(b);
+		return Base64.getEncoder().encodeToString(b);
+	}
+
+}
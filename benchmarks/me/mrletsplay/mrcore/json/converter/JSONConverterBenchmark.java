@@ -0,0 +1,274 @@
+package me.mrletsplay.mrcore.json.converter;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.mrletsplay.mrcore.json.JSONArray;
+import me.mrletsplay.mrcore.json.JSONObject;
+import me.mrletsplay.mrcore.json.JSONType;
+import me.mrletsplay.mrcore.misc.FriendlyException;
+
+/**
+ * Compares converting {@link JSONConvertible} objects with {@link JSONConverter} to the reflective path it used before conversion plans were cached and to hand-written code<br>
+ * {@link ReflectiveConverter} is a copy of the old conversion, reduced to the value types used by {@link Player}: it walks the class hierarchy, reads the annotations and looks up the constructors on every call
+ * @author MrLetsplay2003
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JSONConverterBenchmark {
+
+	private Player player;
+	private JSONObject json;
+
+	@Setup
+	public void setup() {
+		player = new Player();
+		player.name = "MrLetsplay2003";
+		player.level = 42;
+		player.balance = 1337.5;
+		player.online = true;
+		player.home = new Location();
+		player.home.world = "world";
+		player.home.x = 128.5;
+		player.home.y = 64;
+		player.home.z = -512.25;
+		player.permissions = Arrays.asList("mrcore.admin", "mrcore.reload", "mrcore.config.edit", "mrcore.locale.edit");
+		json = JSONConverter.encodeObject(player, false);
+	}
+
+	@Benchmark
+	public JSONObject encodeCached() {
+		return JSONConverter.encodeObject(player, false);
+	}
+
+	@Benchmark
+	public JSONObject encodeReflective() {
+		return (JSONObject) ReflectiveConverter.encode(player);
+	}
+
+	@Benchmark
+	public JSONObject encodeHandWritten() {
+		return player.encodeManually();
+	}
+
+	@Benchmark
+	public Player decodeCached() {
+		return JSONConverter.decodeObject(json, Player.class);
+	}
+
+	@Benchmark
+	public Player decodeReflective() {
+		return (Player) ReflectiveConverter.decode(json, Player.class);
+	}
+
+	@Benchmark
+	public Player decodeHandWritten() {
+		return Player.decodeManually(json);
+	}
+
+	public static class Player implements JSONConvertible {
+
+		@JSONValue
+		private String name;
+
+		@JSONValue
+		private int level;
+
+		@JSONValue
+		private double balance;
+
+		@JSONValue
+		private boolean online;
+
+		@JSONValue
+		private Location home;
+
+		@JSONValue
+		@JSONListType(JSONType.STRING)
+		private List<String> permissions;
+
+		@JSONConstructor
+		private Player() {}
+
+		private JSONObject encodeManually() {
+			JSONObject o = new JSONObject();
+			o.set("name", name);
+			o.set("level", level);
+			o.set("balance", balance);
+			o.set("online", online);
+			o.set("home", home.encodeManually());
+			o.set("permissions", new JSONArray(permissions));
+			return o;
+		}
+
+		private static Player decodeManually(JSONObject o) {
+			Player p = new Player();
+			p.name = o.getString("name");
+			p.level = o.getInt("level");
+			p.balance = o.getDouble("balance");
+			p.online = o.getBoolean("online");
+			p.home = Location.decodeManually(o.getJSONObject("home"));
+			p.permissions = o.getJSONArray("permissions").stream().map(String.class::cast).collect(Collectors.toList());
+			return p;
+		}
+
+	}
+
+	public static class Location implements JSONConvertible {
+
+		@JSONValue
+		private String world;
+
+		@JSONValue
+		private double x, y, z;
+
+		@JSONConstructor
+		private Location() {}
+
+		private JSONObject encodeManually() {
+			JSONObject o = new JSONObject();
+			o.set("world", world);
+			o.set("x", x);
+			o.set("y", y);
+			o.set("z", z);
+			return o;
+		}
+
+		private static Location decodeManually(JSONObject o) {
+			Location l = new Location();
+			l.world = o.getString("world");
+			l.x = o.getDouble("x");
+			l.y = o.getDouble("y");
+			l.z = o.getDouble("z");
+			return l;
+		}
+
+	}
+
+	private static class ReflectiveConverter {
+
+		private static Object encode(Object value) {
+			if(value == null) return null;
+			if(value instanceof List<?>) {
+				JSONArray arr = new JSONArray();
+				for(Object o : (List<?>) value) {
+					arr.add(encode(o));
+				}
+				return arr;
+			}else if(value instanceof JSONConvertible) {
+				JSONObject obj = new JSONObject();
+				((JSONConvertible) value).preSerialize(obj);
+				for(Field f : getFields(value.getClass())) {
+					JSONValue v = f.getAnnotation(JSONValue.class);
+					if(v == null || !v.encode()) continue;
+					String fName = v.value().isEmpty() ? f.getName() : v.value();
+					f.setAccessible(true);
+					try {
+						obj.set(fName, encode(f.get(value)));
+					} catch (IllegalArgumentException | IllegalAccessException e) {
+						throw new FriendlyException(e);
+					}
+				}
+				for(Method m : getMethods(value.getClass())) {
+					JSONValue v = m.getAnnotation(JSONValue.class);
+					if(v == null || !v.encode()) continue;
+					String fName = v.value().isEmpty() ? m.getName() : v.value();
+					m.setAccessible(true);
+					try {
+						obj.set(fName, encode(m.invoke(value)));
+					} catch (IllegalArgumentException | IllegalAccessException | InvocationTargetException e) {
+						throw new FriendlyException(e);
+					}
+				}
+				return obj;
+			}
+			return value;
+		}
+
+		private static Object decode(Object value, Class<?> clazz) {
+			if(value == null) return null;
+			if(!JSONConvertible.class.isAssignableFrom(clazz)) return JSONType.castJSONValueTo(value, clazz, false);
+			JSONObject o = (JSONObject) value;
+			List<Constructor<?>> constrs = Arrays.stream(clazz.getDeclaredConstructors()).filter(c -> c.isAnnotationPresent(JSONConstructor.class)).collect(Collectors.toList());
+			JSONConvertible t = null;
+			for(Constructor<?> c : constrs) {
+				c.setAccessible(true);
+				try {
+					t = (JSONConvertible) c.newInstance();
+				} catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+					continue;
+				}
+			}
+			if(t == null) throw new IllegalArgumentException("No suitable/working constructor found for class " + clazz.getName());
+			t.preDeserialize(o);
+			for(Field f : getFields(clazz)) {
+				JSONValue v = f.getAnnotation(JSONValue.class);
+				JSONListType lT = f.getAnnotation(JSONListType.class);
+				if(v == null || !v.decode()) continue;
+				String fName = v.value().isEmpty() ? f.getName() : v.value();
+				if(o.has(fName)) {
+					f.setAccessible(true);
+					try {
+						if(lT != null) {
+							List<Object> list = new ArrayList<>();
+							for(Object e : o.getJSONArray(fName)) list.add(lT.value().cast(e));
+							f.set(t, list);
+						}else {
+							f.set(t, decode(o.get(fName), f.getType()));
+						}
+					} catch (IllegalAccessException ignored) {}
+				}
+			}
+			return t;
+		}
+
+		private static Set<Field> getFields(Class<?> clz) {
+			Set<Field> fs = new HashSet<>();
+			Class<?> cls = clz;
+			while(!cls.equals(Object.class)) {
+				fs.addAll(Arrays.asList(cls.getDeclaredFields()));
+				cls = cls.getSuperclass();
+				if(cls == null) break;
+			}
+			return fs;
+		}
+
+		private static Set<Method> getMethods(Class<?> clz) {
+			Set<Method> fs = new HashSet<>();
+			Class<?> cls = clz;
+			while(!cls.equals(Object.class)) {
+				fs.addAll(Arrays.asList(cls.getDeclaredMethods()));
+				Arrays.stream(cls.getInterfaces()).forEach(i -> fs.addAll(getMethods(i)));
+				cls = cls.getSuperclass();
+				if(cls == null) break;
+			}
+			return fs;
+		}
+
+	}
+
+}
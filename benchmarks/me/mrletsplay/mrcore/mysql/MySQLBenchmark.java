@@ -0,0 +1,139 @@
+package me.mrletsplay.mrcore.mysql;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import me.mrletsplay.mrcore.mysql.impl.MySQLConnection;
+import me.mrletsplay.mrcore.mysql.impl.ResultCursor;
+import me.mrletsplay.mrcore.mysql.impl.ResultSet;
+import me.mrletsplay.mrcore.mysql.impl.statement.PreparedStatement;
+import me.mrletsplay.mrcore.mysql.impl.table.TableRow;
+import me.mrletsplay.mrcore.mysql.protocol.type.MySQLDataType;
+import me.mrletsplay.mrcore.mysql.protocol.type.MySQLDataTypes;
+import me.mrletsplay.mrcore.mysql.server.MySQLFakeResult;
+import me.mrletsplay.mrcore.mysql.server.MySQLFakeServer;
+
+/**
+ * Measures the MySQL client against a {@link MySQLFakeServer} running in the same JVM<br>
+ * The {@code roundTrip*} benchmarks measure the latency of a single command, the {@code decode*} benchmarks measure how many result rows per second the client can read and decode.<br>
+ * The decode benchmarks count every row as one operation, so running them with {@code -prof gc} reports the allocation per row as {@code gc.alloc.rate.norm}. This includes the allocations of the fake server, which only sends prebuilt rows
+ * @author MrLetsplay2003
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MySQLBenchmark {
+
+	private static final int ROWS = 1000;
+
+	private static final String[] COLUMN_NAMES = {"id", "name", "balance", "uuid"};
+	private static final MySQLDataType<?>[] COLUMN_TYPES = {MySQLDataTypes.LONGLONG, MySQLDataTypes.VARCHAR, MySQLDataTypes.DOUBLE, MySQLDataTypes.VARCHAR};
+
+	@Param({"false", "true"})
+	public boolean compress;
+
+	private MySQLFakeServer server;
+	private MySQLConnection connection;
+	private PreparedStatement selectOne, selectAll;
+
+	@Setup
+	public void setup() throws IOException {
+		MySQLFakeResult one = createResult(1), all = createResult(ROWS);
+		server = new MySQLFakeServer()
+			.setQueryHandler((query, parameters) -> {
+				if(query.startsWith("SELECT * FROM players WHERE")) return one;
+				if(query.startsWith("SELECT")) return all;
+				return MySQLFakeResult.ok(1, 0);
+			})
+			.start();
+		connection = MySQL.connect("127.0.0.1", server.getPort(), "root", "", null, compress);
+		selectOne = connection.prepareStatement("SELECT * FROM players WHERE id = ?");
+		selectAll = connection.prepareStatement("SELECT * FROM players LIMIT ?");
+	}
+
+	@TearDown
+	public void tearDown() {
+		connection.disconnect();
+		server.close();
+	}
+
+	private static MySQLFakeResult createResult(int rows) {
+		MySQLFakeResult r = MySQLFakeResult.resultSet(COLUMN_NAMES, COLUMN_TYPES);
+		for(int i = 0; i < rows; i++) {
+			r.addRow((long) i, "player" + i, i * 1.25, "00000000-0000-0000-0000-" + String.format("%012d", i));
+		}
+		return r;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public boolean roundTripPing() {
+		return connection.ping();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public ResultSet roundTripUpdate() {
+		return connection.query("UPDATE players SET balance = balance + 1 WHERE id = 1");
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public ResultSet roundTripPreparedSelect() {
+		selectOne.getParameter(0).setValue(1L);
+		return selectOne.execute();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@OperationsPerInvocation(ROWS)
+	public void decodeTextRows(Blackhole bh) {
+		try(ResultCursor c = connection.queryCursor("SELECT * FROM players")) {
+			for(TableRow row : c) {
+				bh.consume(row);
+			}
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@OperationsPerInvocation(ROWS)
+	public void decodeBinaryRows(Blackhole bh) {
+		selectAll.getParameter(0).setValue((long) ROWS);
+		try(ResultCursor c = selectAll.executeCursor()) {
+			for(TableRow row : c) {
+				bh.consume(row);
+			}
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@OperationsPerInvocation(ROWS)
+	public ResultSet decodeResultSet() {
+		return connection.query("SELECT * FROM players");
+	}
+
+}
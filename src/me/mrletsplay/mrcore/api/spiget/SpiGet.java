@@ -10,6 +10,8 @@ import java.util.stream.Collectors;
 import me.mrletsplay.mrcore.http.HttpRequest;
 import me.mrletsplay.mrcore.json.JSONArray;
 import me.mrletsplay.mrcore.json.JSONObject;
+import me.mrletsplay.mrcore.json.JSONParseFlag;
+import me.mrletsplay.mrcore.json.JSONParser;
 import me.mrletsplay.mrcore.misc.FriendlyException;
 
 public class SpiGet {
@@ -18,7 +20,7 @@ public class SpiGet {
 	
 	public static List<SpiGetResource.Search> searchResource(String query) {
 		try {
-			return new JSONArray(makeRequest(API_BASE_URL + "search/resources/" + urlEncode(query) + "?size=1000&field=name")).stream()
+			return ((JSONArray) JSONParser.parse(makeRequest(API_BASE_URL + "search/resources/" + urlEncode(query) + "?size=1000&field=name"), JSONParseFlag.LAZY_OBJECTS)).stream()
 				.map(res -> new SpiGetResource.Search((JSONObject) res))
 				.collect(Collectors.toList());
 		}catch(IllegalStateException e) {
@@ -29,7 +31,7 @@ public class SpiGet {
 	}
 	
 	public static SpiGetResource getResource(int resourceID) {
-		return new SpiGetResource(new JSONObject(makeRequest(API_BASE_URL + "resources/" + resourceID)));
+		return new SpiGetResource((JSONObject) JSONParser.parse(makeRequest(API_BASE_URL + "resources/" + resourceID), JSONParseFlag.LAZY_OBJECTS));
 	}
 	
 	protected static String urlEncode(String str) {
@@ -12,6 +12,8 @@ import javax.imageio.ImageIO;
 
 import me.mrletsplay.mrcore.json.JSONArray;
 import me.mrletsplay.mrcore.json.JSONObject;
+import me.mrletsplay.mrcore.json.JSONParseFlag;
+import me.mrletsplay.mrcore.json.JSONParser;
 import me.mrletsplay.mrcore.misc.FriendlyException;
 
 public class SpiGetResource {
@@ -60,7 +62,7 @@ public class SpiGetResource {
 		supportedLanguages = spigetResponse.has("supportedLanguages") ? spigetResponse.getString("supportedLanguages") : null;
 		id = spigetResponse.getInt("id");
 		latestVersionID = spigetResponse.getJSONObject("version").getInt("id");
-		versions = new JSONArray(SpiGet.makeRequest(SpiGet.API_BASE_URL + "resources/" + id + "/versions?size=1000&sort=-id")).stream()
+		versions = ((JSONArray) JSONParser.parse(SpiGet.makeRequest(SpiGet.API_BASE_URL + "resources/" + id + "/versions?size=1000&sort=-id"), JSONParseFlag.LAZY_OBJECTS)).stream()
 					.map(r -> new SpiGetResourceVersion((JSONObject) r))
 					.collect(Collectors.toList());
 	}
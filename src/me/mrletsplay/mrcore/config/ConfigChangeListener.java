@@ -0,0 +1,19 @@
+package me.mrletsplay.mrcore.config;
+
+import java.util.Set;
+
+/**
+ * Listener which is notified when a config was reloaded by a {@link ConfigFileWatcher} because its file changed
+ * @author MrLetsplay2003
+ */
+@FunctionalInterface
+public interface ConfigChangeListener {
+
+	/**
+	 * Called after the new contents of the file have been loaded into the config
+	 * @param config The config which was reloaded
+	 * @param changedKeys The full paths (e.g. "{@code somepath.somesubpath}") of all properties which were added, removed or changed
+	 */
+	public void onConfigChanged(FileCustomConfig config, Set<String> changedKeys);
+	
+}
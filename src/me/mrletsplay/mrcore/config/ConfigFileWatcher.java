@@ -0,0 +1,352 @@
+package me.mrletsplay.mrcore.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import me.mrletsplay.mrcore.config.impl.ConcurrentFileCustomConfig;
+import me.mrletsplay.mrcore.config.impl.DefaultFileCustomConfig;
+
+/**
+ * Watches the files of {@link FileCustomConfig}s using a {@link WatchService} and reloads the configs when their files are changed.<br>
+ * Changed files are read and parsed on the watcher's background thread. The new contents are then compared to the current contents of the config and, if anything changed, applied to the config and passed on to the registered {@link ConfigChangeListener}s.<br>
+ * Applying the changes happens on the executor specified when registering the config. {@link ConcurrentFileCustomConfig}s can safely be updated from the watcher thread and are swapped in a single step. Other configs aren't thread-safe, so an executor running on the thread which uses the config (e.g. the server's main thread) should be specified for them<br>
+ * Changes which were made by a {@link DefaultFileCustomConfig} itself (i.e. the file contains exactly what the config last saved or loaded) are ignored, so unsaved changes to the config are never overwritten by its own saves. For other configs, the file is compared to the current contents of the config instead<br>
+ * If a file can't be parsed (e.g. because of a syntax error), the config is left unchanged. Errors like this and exceptions thrown by listeners are passed to the {@link #setErrorHandler(Consumer) error handler}
+ * @author MrLetsplay2003
+ */
+public class ConfigFileWatcher implements AutoCloseable {
+
+	/**
+	 * The default time to wait for more changes to a file before reloading it, in milliseconds
+	 */
+	public static final long DEFAULT_DELAY = 100;
+	
+	private WatchService watchService;
+	private Map<Path, WatchKey> directories;
+	private Map<Path, List<WatchedConfig>> files;
+	private Thread thread;
+	private volatile boolean running;
+	private volatile long delay;
+	private volatile Consumer<ConfigException> errorHandler;
+	
+	public ConfigFileWatcher() throws ConfigException {
+		try {
+			this.watchService = FileSystems.getDefault().newWatchService();
+		}catch(IOException e) {
+			throw new ConfigException("Failed to create watch service", e);
+		}
+		this.directories = new HashMap<>();
+		this.files = new HashMap<>();
+		this.delay = DEFAULT_DELAY;
+		this.errorHandler = e -> {
+			Thread t = Thread.currentThread();
+			t.getUncaughtExceptionHandler().uncaughtException(t, e);
+		};
+	}
+	
+	/**
+	 * Sets the handler for errors which happen while reloading configs, e.g. files which can't be parsed or listeners throwing an exception.<br>
+	 * By default, errors are passed to the uncaught exception handler of the current thread
+	 * @param errorHandler The error handler
+	 * @return This watcher
+	 */
+	public ConfigFileWatcher setErrorHandler(Consumer<ConfigException> errorHandler) {
+		if(errorHandler == null) throw new IllegalArgumentException("Error handler must not be null");
+		this.errorHandler = errorHandler;
+		return this;
+	}
+	
+	public Consumer<ConfigException> getErrorHandler() {
+		return errorHandler;
+	}
+	
+	/**
+	 * Sets the time to wait for more changes to a file before reloading it. Editors often write a file in multiple steps, which would otherwise cause the file to be reloaded multiple times
+	 * @param delay The delay in milliseconds
+	 * @return This watcher
+	 */
+	public ConfigFileWatcher setDelay(long delay) {
+		this.delay = delay;
+		return this;
+	}
+	
+	public long getDelay() {
+		return delay;
+	}
+	
+	/**
+	 * Watches the file of the given config, applying the changes on the watcher thread.<br>
+	 * This should only be used for thread-safe configs like {@link ConcurrentFileCustomConfig}
+	 * @param config The config to watch
+	 * @param listener The listener to call after the config was reloaded, may be null
+	 * @see #watch(FileCustomConfig, Executor, ConfigChangeListener)
+	 */
+	public void watch(FileCustomConfig config, ConfigChangeListener listener) throws ConfigException {
+		watch(config, Runnable::run, listener);
+	}
+	
+	/**
+	 * Watches the file of the given config. If the config is already being watched, the listener is added to the existing listeners
+	 * @param config The config to watch
+	 * @param applyExecutor The executor to apply the changes to the config and call the listeners on
+	 * @param listener The listener to call after the config was reloaded, may be null
+	 * @throws ConfigException If the config doesn't have a file or the file's directory can't be watched
+	 */
+	public synchronized void watch(FileCustomConfig config, Executor applyExecutor, ConfigChangeListener listener) throws ConfigException {
+		if(config.getConfigFile() == null) throw new ConfigException("Config doesn't have a file");
+		Path file = config.getConfigFile().getAbsoluteFile().toPath().normalize();
+		Path dir = file.getParent();
+		try {
+			if(!directories.containsKey(dir)) {
+				Files.createDirectories(dir);
+				directories.put(dir, dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+			}
+		}catch(IOException e) {
+			throw new ConfigException("Failed to watch directory " + dir, e);
+		}
+	
+		List<WatchedConfig> configs = files.computeIfAbsent(file, f -> new CopyOnWriteArrayList<>());
+		WatchedConfig w = configs.stream().filter(c -> c.config == config).findFirst().orElse(null);
+		if(w == null) {
+			w = new WatchedConfig(config, applyExecutor);
+			configs.add(w);
+		}
+		if(listener != null) w.listeners.add(listener);
+	
+		if(thread == null) {
+			running = true;
+			thread = new Thread(this::run, "CustomConfig-Watcher");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+	
+	/**
+	 * Stops watching the file of the given config
+	 * @param config The config to stop watching
+	 */
+	public synchronized void unwatch(FileCustomConfig config) {
+		if(config.getConfigFile() == null) return;
+		Path file = config.getConfigFile().getAbsoluteFile().toPath().normalize();
+		List<WatchedConfig> configs = files.get(file);
+		if(configs == null) return;
+		configs.removeIf(c -> c.config == config);
+		if(!configs.isEmpty()) return;
+		files.remove(file);
+		Path dir = file.getParent();
+		if(files.keySet().stream().noneMatch(f -> f.getParent().equals(dir))) {
+			WatchKey key = directories.remove(dir);
+			if(key != null) key.cancel();
+		}
+	}
+	
+	public synchronized boolean isWatching(FileCustomConfig config) {
+		if(config.getConfigFile() == null) return false;
+		List<WatchedConfig> configs = files.get(config.getConfigFile().getAbsoluteFile().toPath().normalize());
+		return configs != null && configs.stream().anyMatch(c -> c.config == config);
+	}
+	
+	/**
+	 * Stops watching all files and stops the watcher thread
+	 */
+	@Override
+	public void close() {
+		running = false;
+		try {
+			watchService.close();
+		}catch(IOException e) {
+			errorHandler.accept(new ConfigException("Failed to close watch service", e));
+		}
+	}
+	
+	private void run() {
+		Map<Path, Long> pending = new LinkedHashMap<>();
+		while(running) {
+			try {
+				WatchKey key;
+				if(pending.isEmpty()) {
+					key = watchService.take();
+				}else {
+					long wait = pending.values().stream().mapToLong(Long::longValue).min().getAsLong() - System.currentTimeMillis();
+					key = wait > 0 ? watchService.poll(wait, TimeUnit.MILLISECONDS) : watchService.poll();
+				}
+	
+				if(key != null) {
+					Path dir = (Path) key.watchable();
+					for(WatchEvent<?> event : key.pollEvents()) {
+						if(event.kind() == StandardWatchEventKinds.OVERFLOW) {
+							for(Path f : getWatchedFiles()) {
+								if(f.getParent().equals(dir)) pending.put(f, System.currentTimeMillis() + delay);
+							}
+							continue;
+						}
+						Path file = dir.resolve((Path) event.context()).normalize();
+						if(isWatched(file)) pending.put(file, System.currentTimeMillis() + delay);
+					}
+					key.reset();
+				}
+	
+				long now = System.currentTimeMillis();
+				Iterator<Map.Entry<Path, Long>> it = pending.entrySet().iterator();
+				while(it.hasNext()) {
+					Map.Entry<Path, Long> en = it.next();
+					if(en.getValue() > now) continue;
+					it.remove();
+					reload(en.getKey());
+				}
+			}catch(ClosedWatchServiceException e) {
+				break;
+			}catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}catch(Exception e) {
+				errorHandler.accept(new ConfigException("Unexpected error while watching config files", e));
+			}
+		}
+	}
+	
+	private synchronized Set<Path> getWatchedFiles() {
+		return new HashSet<>(files.keySet());
+	}
+	
+	private synchronized boolean isWatched(Path file) {
+		return files.containsKey(file);
+	}
+	
+	private synchronized List<WatchedConfig> getWatchedConfigs(Path file) {
+		List<WatchedConfig> configs = files.get(file);
+		return configs == null ? new ArrayList<>() : new ArrayList<>(configs);
+	}
+	
+	private void reload(Path file) {
+		List<WatchedConfig> configs = getWatchedConfigs(file);
+		if(configs.isEmpty() || !Files.exists(file)) return;
+	
+		byte[] content;
+		try {
+			content = Files.readAllBytes(file);
+		}catch(IOException e) {
+			errorHandler.accept(new ConfigException("Failed to read config file " + file + ", keeping the current contents", e));
+			return;
+		}
+	
+		configs.removeIf(w -> w.config instanceof DefaultFileCustomConfig && ((DefaultFileCustomConfig) w.config).isKnownFileContent(content)); // Changed by the config itself
+		if(configs.isEmpty()) return;
+	
+		DefaultFileCustomConfig parsed = new DefaultFileCustomConfig(null);
+		try {
+			parsed.load(new ByteArrayInputStream(content));
+		}catch(ConfigException e) {
+			errorHandler.accept(new ConfigException("Failed to reload config file " + file + ", keeping the current contents", e));
+			return;
+		}
+	
+		Map<String, Object> newProperties = parsed.toMap();
+		Map<String, String> newComments = parsed.commentsToMap();
+		for(WatchedConfig w : configs) {
+			w.executor.execute(() -> apply(w, content, newProperties, newComments));
+		}
+	}
+	
+	private void apply(WatchedConfig w, byte[] content, Map<String, Object> newProperties, Map<String, String> newComments) {
+		FileCustomConfig config = w.config;
+		if(config instanceof DefaultFileCustomConfig) ((DefaultFileCustomConfig) config).setKnownFileContent(content);
+		Set<String> changedKeys = getChangedKeys(config.toMap(), newProperties);
+		if(changedKeys.isEmpty() && config.commentsToMap().equals(newComments)) return; // Nothing changed
+	
+		if(config instanceof ConcurrentFileCustomConfig) {
+			((ConcurrentFileCustomConfig) config).replaceContents(newProperties, newComments);
+		}else {
+			config.clear();
+			config.loadFromMap(newProperties);
+			config.loadCommentsFromMap(newComments);
+		}
+	
+		for(ConfigChangeListener l : w.listeners) {
+			try {
+				l.onConfigChanged(config, changedKeys);
+			}catch(Exception e) {
+				errorHandler.accept(new ConfigException("Change listener failed for config file " + config.getConfigFile(), e));
+			}
+		}
+	}
+	
+	private static Set<String> getChangedKeys(Map<String, Object> oldProperties, Map<String, Object> newProperties) {
+		Map<String, Object> oldFlat = new LinkedHashMap<>(), newFlat = new LinkedHashMap<>();
+		flatten(null, oldProperties, oldFlat);
+		flatten(null, newProperties, newFlat);
+		Set<String> changed = new HashSet<>();
+		for(Map.Entry<String, Object> en : oldFlat.entrySet()) {
+			if(!newFlat.containsKey(en.getKey()) || !Objects.equals(en.getValue(), newFlat.get(en.getKey()))) changed.add(en.getKey());
+		}
+		for(String key : newFlat.keySet()) {
+			if(!oldFlat.containsKey(key)) changed.add(key);
+		}
+		return changed;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static void flatten(String prefix, Map<String, Object> map, Map<String, Object> out) {
+		for(Map.Entry<String, Object> en : map.entrySet()) {
+			String key = prefix == null ? en.getKey() : prefix + "." + en.getKey();
+			if(en.getValue() instanceof Map) {
+				flatten(key, (Map<String, Object>) en.getValue(), out);
+			}else {
+				out.put(key, normalize(en.getValue()));
+			}
+		}
+	}
+	
+	/**
+	 * Normalizes a value for comparison, because e.g. an int which was set in the config will be read back as a long
+	 * @param value The value to normalize
+	 * @return The normalized value
+	 */
+	private static Object normalize(Object value) {
+		if(value instanceof Number) return value.toString();
+		if(value instanceof List) return ((List<?>) value).stream().map(ConfigFileWatcher::normalize).collect(Collectors.toList());
+		if(value instanceof Map) {
+			Map<Object, Object> m = new LinkedHashMap<>();
+			((Map<?, ?>) value).forEach((k, v) -> m.put(k, normalize(v)));
+			return m;
+		}
+		return value;
+	}
+	
+	private static class WatchedConfig {
+	
+		private final FileCustomConfig config;
+		private final Executor executor;
+		private final List<ConfigChangeListener> listeners;
+	
+		public WatchedConfig(FileCustomConfig config, Executor executor) {
+			this.config = config;
+			this.executor = executor;
+			this.listeners = new CopyOnWriteArrayList<>();
+		}
+	
+	}
+	
+}
@@ -24,6 +24,12 @@ public enum ConfigFlag {
 	/**
 	 * When saving the config, delete the file if there wouldn't be anything in it
 	 */
-	DELETE_EMPTY_FILE;
+	DELETE_EMPTY_FILE,
+	
+	/**
+	 * When loading the config from a file, store a binary snapshot of the parsed config next to the file and load the snapshot instead of parsing the file again as long as the file doesn't change<br>
+	 * Only supported by {@link me.mrletsplay.mrcore.config.impl.DefaultFileCustomConfig DefaultFileCustomConfig} and its subclasses
+	 */
+	BINARY_SNAPSHOT;
 	
 }
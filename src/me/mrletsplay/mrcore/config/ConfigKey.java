@@ -0,0 +1,145 @@
+package me.mrletsplay.mrcore.config;
+
+import me.mrletsplay.mrcore.misc.Complex;
+import me.mrletsplay.mrcore.misc.NullableOptional;
+
+/**
+ * A precompiled key for a config property.<br>
+ * The path of the key is only split once when the key is created. Additionally, the last value read using this key is cached together with the {@link CustomConfig#getModificationCount() modification count} of the config, so repeated reads of an unchanged config don't need to look up or cast the value again.<br>
+ * Keys are meant to be created once (e.g. as a constant) and reused. They can safely be used from multiple threads and with multiple sections, although only the value of the section used last is cached<br>
+ * Values which were constructed using {@link me.mrletsplay.mrcore.config.mapper.ObjectMapper ObjectMappers} are cached as well, so the same instance is returned until the config changes
+ * @author MrLetsplay2003
+ * @param <T> The type of the value
+ */
+public class ConfigKey<T> {
+
+	private String key;
+	private String[] path;
+	private Complex<T> type;
+	private T defaultValue;
+	private volatile CachedValue<T> cached;
+	
+	public ConfigKey(String key, Complex<T> type, T defaultValue) {
+		if(key == null) throw new IllegalArgumentException("Key must not be null");
+		this.key = key;
+		this.path = ConfigPath.of(key).getPath();
+		this.type = type;
+		this.defaultValue = defaultValue;
+	}
+	
+	public String getKey() {
+		return key;
+	}
+	
+	public Complex<T> getType() {
+		return type;
+	}
+	
+	public T getDefaultValue() {
+		return defaultValue;
+	}
+	
+	/**
+	 * Gets the value of this key from the given section and casts it to the type of this key.<br>
+	 * If the value isn't set, the default value is returned
+	 * @param section The section to get the value from
+	 * @return The cast value or the default value, if none is set
+	 * @throws IncompatibleTypeException If the value set in the config cannot be cast to the type of this key
+	 */
+	public T get(ConfigSection section) throws IncompatibleTypeException {
+		long modificationCount = section.getConfig().getModificationCount();
+		CachedValue<T> c = cached;
+		if(c != null && c.section == section && c.modificationCount == modificationCount && modificationCount != -1) return c.value;
+	
+		T value = resolve(section);
+		if(modificationCount != -1) cached = new CachedValue<>(section, modificationCount, value);
+		return value;
+	}
+	
+	/**
+	 * Gets the value of this key from the given section. If the value isn't set, the default value is set and returned
+	 * @param section The section to get the value from
+	 * @return The cast value or the default value, if none was set
+	 * @throws IncompatibleTypeException If the value set in the config cannot be cast to the type of this key
+	 * @see #get(ConfigSection)
+	 */
+	public T getOrApplyDefault(ConfigSection section) throws IncompatibleTypeException {
+		if(getProperty(section) == null) section.set(key, defaultValue);
+		return get(section);
+	}
+	
+	/**
+	 * Sets the value of this key in the given section
+	 * @param section The section to set the value in
+	 * @param value The value to set
+	 */
+	public void set(ConfigSection section, T value) {
+		section.set(key, value);
+	}
+	
+	/**
+	 * Checks whether this key is set in the given section
+	 * @param section The section to check
+	 * @return Whether this key is set
+	 */
+	public boolean isSet(ConfigSection section) {
+		return getProperty(section) != null;
+	}
+	
+	private T resolve(ConfigSection section) {
+		ConfigProperty prop = getProperty(section);
+		if(prop == null) return defaultValue;
+		NullableOptional<T> value = type.cast(prop.getValue(), section::castType);
+		if(!value.isPresent()) {
+			throw new IncompatibleTypeException("Incompatible types, " + prop.getValue().getClass().getName() + " cannot be cast/formatted to " + type.getFriendlyClassName());
+		}
+		return value.get();
+	}
+	
+	private ConfigProperty getProperty(ConfigSection section) {
+		ConfigSection s = section;
+		for(int i = 0; i < path.length - 1; i++) {
+			s = s.getSubsection(path[i]);
+			if(s == null) return null;
+		}
+		ConfigProperty prop = s.getAllProperties().get(path[path.length - 1]);
+		if(prop == null || prop.isUndefined()) return null;
+		return prop;
+	}
+	
+	public static <T> ConfigKey<T> of(String key, Complex<T> type, T defaultValue) {
+		return new ConfigKey<>(key, type, defaultValue);
+	}
+	
+	public static <T> ConfigKey<T> of(String key, Complex<T> type) {
+		return new ConfigKey<>(key, type, null);
+	}
+	
+	public static <T> ConfigKey<T> of(String key, Class<T> type, T defaultValue) {
+		return new ConfigKey<>(key, Complex.value(type), defaultValue);
+	}
+	
+	public static <T> ConfigKey<T> of(String key, Class<T> type) {
+		return new ConfigKey<>(key, Complex.value(type), null);
+	}
+	
+	@Override
+	public String toString() {
+		return "[K: " + key + "]";
+	}
+	
+	private static class CachedValue<T> {
+	
+		private final ConfigSection section;
+		private final long modificationCount;
+		private final T value;
+	
+		public CachedValue(ConfigSection section, long modificationCount, T value) {
+			this.section = section;
+			this.modificationCount = modificationCount;
+			this.value = value;
+		}
+	
+	}
+	
+}
@@ -6,6 +6,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
+import me.mrletsplay.mrcore.config.impl.ConcurrentFileCustomConfig;
 import me.mrletsplay.mrcore.config.impl.DefaultFileCustomConfig;
 import me.mrletsplay.mrcore.io.IOUtils;
 
@@ -47,6 +48,24 @@ public class ConfigLoader {
 		return loadStreamConfig(stream, closeAfterLoad, new ConfigFlag[0]);
 	}
 	
+	/**
+	 * Loads a thread-safe config from the specified file. See {@link ConcurrentFileCustomConfig}
+	 * @param configFile The file to load the config from
+	 * @param saveConverted Whether to save the config if it was converted from an older version
+	 * @param flags The flags to add to the config
+	 * @return The loaded config
+	 * @throws ConfigException If the config can't be loaded
+	 */
+	public static ConcurrentFileCustomConfig loadConcurrentFileConfig(File configFile, boolean saveConverted, ConfigFlag... flags) throws ConfigException {
+		ConcurrentFileCustomConfig cfg = new ConcurrentFileCustomConfig(configFile);
+		cfg.addFlags(flags);
+		return loadConfigFromFile(cfg, configFile, saveConverted);
+	}
+	
+	public static ConcurrentFileCustomConfig loadConcurrentFileConfig(File configFile, ConfigFlag... flags) throws ConfigException {
+		return loadConcurrentFileConfig(configFile, false, flags);
+	}
+	
 	public static <T extends CustomConfig> T loadConfigFromStream(T config, InputStream stream, boolean closeAfterLoad) throws ConfigException {
 		byte[] b;
 		try {
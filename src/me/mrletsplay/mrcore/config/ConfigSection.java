@@ -1,7 +1,6 @@
 package me.mrletsplay.mrcore.config;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -12,6 +11,7 @@ import me.mrletsplay.mrcore.config.mapper.ObjectMapper;
 import me.mrletsplay.mrcore.config.mapper.ObjectMappingException;
 import me.mrletsplay.mrcore.json.JSONArray;
 import me.mrletsplay.mrcore.json.JSONObject;
+import me.mrletsplay.mrcore.json.JSONWriter;
 import me.mrletsplay.mrcore.misc.ClassUtils;
 import me.mrletsplay.mrcore.misc.Complex;
 import me.mrletsplay.mrcore.misc.NullableOptional;
@@ -254,6 +254,23 @@ public interface ConfigSection {
 		return o;
 	}
 	
+	/**
+	 * Writes all the (raw) properties as well as subsections of this section to the given {@link JSONWriter} as a JSON object.<br>
+	 * The output is equivalent to formatting the result of {@link #toJSON()}, but does not require building the full JSONObject first
+	 * @param writer The writer to write to
+	 */
+	public default void writeJSON(JSONWriter writer) {
+		writer.beginObject();
+		for(Map.Entry<String, ConfigProperty> en : getProperties().entrySet()) {
+			writer.name(en.getKey()).writeValue(en.getValue().getJSONValue());
+		}
+		for(Entry<String, ConfigSection> sub : getSubsections().entrySet()) {
+			writer.name(sub.getKey());
+			sub.getValue().writeJSON(writer);
+		}
+		writer.endObject();
+	}
+	
 	/**
 	 * Sets all the values and subsections (represented by other {@link JSONObject}s) of the specified JSONObject in this subsection.<br>
 	 * Any JSONObject created by {@link #toJSON()} may be passed to this function
@@ -308,13 +325,8 @@ public interface ConfigSection {
 			return NullableOptional.of(typeClass.cast(o));
 		}else {
 			if(!allowComplex) return NullableOptional.empty();
-			List<ObjectMapper<?, ?>> llms = section.getConfig().getLowLevelMappers().entrySet().stream()
-					.filter(en -> en.getKey().canConstruct(o, section::castPrimitiveType))
-					.sorted(Comparator.<Map.Entry<ObjectMapper<?, ?>, Integer>>comparingInt(Map.Entry::getValue).reversed())
-					.map(Map.Entry::getKey)
-					.collect(Collectors.toList());
-			
-			for(ObjectMapper<?, ?> om : llms) {
+			for(ObjectMapper<?, ?> om : section.getConfig().getLowLevelMapperIndex().getConstructingCandidates(o.getClass(), true)) {
+				if(!om.canConstruct(o, section::castPrimitiveType)) continue;
 				try {
 					Object c = om.constructRawObject(section, o, section::castType);
 					if(exactType.isInstance(c, section::castPrimitiveType)) {
@@ -345,12 +357,13 @@ public interface ConfigSection {
 	 * @return
 	 */
 	public static <T> NullableOptional<T> constructTopLevelType(ConfigSection section, Object o, Class<T> toClass, Complex<?> toExactType) {
-		ObjectMapper<?, ?> tlm = section.getConfig().getMappers().entrySet().stream()
-				.filter(en -> en.getKey().canConstruct(o, section::castPrimitiveType))
-				.filter(en -> toExactType.isAssignableFrom(en.getKey().getMappingClass()))
-				.sorted(Comparator.comparingInt(Map.Entry::getValue))
-				.map(Map.Entry::getKey)
-				.findFirst().orElse(null);
+		ObjectMapper<?, ?> tlm = null;
+		for(ObjectMapper<?, ?> om : section.getConfig().getMapperIndex().getConstructingCandidates(o == null ? null : o.getClass(), false)) {
+			if(om.canConstruct(o, section::castPrimitiveType) && toExactType.isAssignableFrom(om.getMappingClass())) {
+				tlm = om;
+				break;
+			}
+		}
 		
 		if(tlm == null) return NullableOptional.empty();
 		try {
@@ -428,6 +441,18 @@ public interface ConfigSection {
 		}
 	}
 	
+	/**
+	 * Gets a value from this section using a precompiled {@link ConfigKey}.<br>
+	 * Equivalent to calling {@link ConfigKey#get(ConfigSection)} with this section
+	 * @param <T> The type of the value
+	 * @param key The key of the value
+	 * @return The cast value or the key's default value, if none is set
+	 * @throws IncompatibleTypeException If the value set in the config cannot be cast to the key's type
+	 */
+	public default <T> T get(ConfigKey<T> key) throws IncompatibleTypeException {
+		return key.get(this);
+	}
+	
 	public default <T> T getGeneric(String key, Class<T> clazz, T defaultValue, boolean applyDefault) {
 		return getComplex(key, Complex.value(clazz), defaultValue, applyDefault);
 	}
@@ -1,9 +1,7 @@
 package me.mrletsplay.mrcore.config;
 
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 import me.mrletsplay.mrcore.config.mapper.ObjectMapper;
@@ -83,12 +81,8 @@ public enum ConfigValueType {
 	public static NullableOptional<?> createCompatible(ConfigSection forSection, Object o) {
 		ConfigValueType type = getRawTypeOf(o);
 		if(type != null) return NullableOptional.of(o);
-		List<ObjectMapper<?, ?>> tlms = forSection.getConfig().getMappers().entrySet().stream()
-				.filter(en -> en.getKey().canMap(o, forSection::castPrimitiveType))
-				.sorted(Comparator.comparingInt(Map.Entry::getValue))
-				.map(Map.Entry::getKey)
-				.collect(Collectors.toList());
-		for(ObjectMapper<?, ?> om : tlms) {
+		for(ObjectMapper<?, ?> om : forSection.getConfig().getMapperIndex().getMappingCandidates(o.getClass())) {
+			if(!om.canMap(o, forSection::castPrimitiveType)) continue;
 			try {
 				Object c = om.mapRawObject(forSection, o, forSection::castPrimitiveType);
 				if(isConfigPrimitive(om.getMappedClass())) return NullableOptional.of(c); // ct -> tlm -> cc
@@ -103,12 +97,8 @@ public enum ConfigValueType {
 	}
 	
 	public static NullableOptional<?> mapLowLevelType(ConfigSection section, Object o) {
-		List<ObjectMapper<?, ?>> llms = section.getConfig().getLowLevelMappers().entrySet().stream()
-				.filter(en -> en.getKey().canMap(o, section::castPrimitiveType))
-				.sorted(Comparator.comparingInt(Map.Entry::getValue))
-				.map(Map.Entry::getKey)
-				.collect(Collectors.toList());
-		for(ObjectMapper<?, ?> tom : llms) {
+		for(ObjectMapper<?, ?> tom : section.getConfig().getLowLevelMapperIndex().getMappingCandidates(o == null ? null : o.getClass())) {
+			if(!tom.canMap(o, section::castPrimitiveType)) continue;
 			try {
 				Object c2 = tom.mapRawObject(section, o, section::castPrimitiveType);
 				if(isConfigPrimitive(tom.getMappedClass())) return NullableOptional.of(c2);
@@ -10,6 +10,7 @@ import java.util.Map;
 import java.util.Set;
 
 import me.mrletsplay.mrcore.config.mapper.ObjectMapper;
+import me.mrletsplay.mrcore.config.mapper.ObjectMapperIndex;
 import me.mrletsplay.mrcore.io.IOUtils;
 import me.mrletsplay.mrcore.misc.Complex;
 
@@ -134,6 +135,40 @@ public interface CustomConfig extends ConfigSection {
 		applyDefaults(false);
 	}
 	
+	/**
+	 * Returns a counter which changes every time a property or comment of this config or one of its sections is changed.<br>
+	 * This is used by {@link ConfigKey} to check whether a cached value is still valid. Implementations which don't track modifications return -1, which disables caching
+	 * @return The modification count of this config, -1 if not supported
+	 */
+	public default long getModificationCount() {
+		return -1;
+	}
+	
+	/**
+	 * Notifies this config that a property or comment of it or one of its sections has changed.<br>
+	 * This needs to be called by section implementations after every modification
+	 */
+	public default void markModified() {}
+	
+	/**
+	 * Returns an index of the (top-level) mappers of this config, used to find the mappers for a specific object.<br>
+	 * The default implementation creates a new index on every call, implementations should keep the index around and update it when a mapper is registered
+	 * @return An index of the mappers of this config
+	 */
+	public default ObjectMapperIndex getMapperIndex() {
+		return new ObjectMapperIndex(getMappers());
+	}
+	
+	/**
+	 * Returns an index of the low-level mappers of this config.<br>
+	 * The default implementation creates a new index on every call, implementations should keep the index around and update it when a mapper is registered
+	 * @return An index of the low-level mappers of this config
+	 * @see #getMapperIndex()
+	 */
+	public default ObjectMapperIndex getLowLevelMapperIndex() {
+		return new ObjectMapperIndex(getLowLevelMappers());
+	}
+	
 	// Must be implemented
 	
 	public ConfigSection getMainSection();
@@ -0,0 +1,278 @@
+package me.mrletsplay.mrcore.config.impl;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import me.mrletsplay.mrcore.config.ConfigException;
+import me.mrletsplay.mrcore.config.ConfigPath;
+import me.mrletsplay.mrcore.config.ConfigProperty;
+import me.mrletsplay.mrcore.config.ConfigSection;
+import me.mrletsplay.mrcore.config.ConfigValueType;
+import me.mrletsplay.mrcore.config.CustomConfig;
+import me.mrletsplay.mrcore.config.StringifiableConfigSection;
+
+/**
+ * A {@link ConfigSection} which can safely be shared between threads<br>
+ * The properties and comments of this section are kept in an immutable snapshot which is replaced as a whole on every modification (copy-on-write). Reads only need to access the current snapshot and therefore never block, while writes are serialized by synchronizing on the config this section belongs to<br>
+ * Contrary to {@link DefaultConfigSectionImpl}, reading a property never creates any subsections.<br>
+ * The maps returned by {@link #getAllProperties()} and {@link #getComments()} as well as list values are unmodifiable
+ * @author MrLetsplay2003
+ */
+public class ConcurrentConfigSectionImpl implements StringifiableConfigSection, FormatCachingConfigSection {
+
+	private CustomConfig config;
+	private volatile Snapshot snapshot;
+	private ConfigFormatCache formatCache;
+	
+	public ConcurrentConfigSectionImpl(CustomConfig config) {
+		this.config = config;
+		this.snapshot = new Snapshot(Collections.emptyMap(), Collections.emptyMap());
+		this.formatCache = new ConfigFormatCache();
+	}
+	
+	@Override
+	public CustomConfig getConfig() {
+		return config;
+	}
+	
+	@Override
+	public Map<String, ConfigProperty> getAllProperties() {
+		return snapshot.properties;
+	}
+	
+	@Override
+	public Map<String, String> getComments() {
+		return snapshot.comments;
+	}
+	
+	/**
+	 * The format cache of this section. It's only accessed while holding the lock of the config
+	 */
+	@Override
+	public ConfigFormatCache getFormatCache() {
+		return formatCache;
+	}
+	
+	@Override
+	public ConfigSection getOrCreateSubsection(String name) {
+		ConfigSection s = getSubsection(name);
+		if(s != null) return s;
+		synchronized (config) {
+			s = getSubsection(name);
+			if(s == null) {
+				s = config.createEmptySection();
+				putProperty(name, DefaultConfigPropertyImpl.create(this, name, s));
+			}
+			return s;
+		}
+	}
+	
+	@Override
+	public void set(String key, Object value) {
+		ConfigPath path = ConfigPath.of(key);
+		synchronized (config) {
+			if(path.hasSubpaths()) {
+				ConfigSection section = getOrCreateSubsection(path.getName());
+				section.set(path.traverseDown().toRawPath(), value);
+			}else {
+				putProperty(path.getName(), DefaultConfigPropertyImpl.create(this, path.getName(), value));
+			}
+		}
+	}
+	
+	@Override
+	public void unset(String key) {
+		ConfigPath path = ConfigPath.of(key);
+		synchronized (config) {
+			if(path.hasSubpaths()) {
+				ConfigSection section = getSubsection(path.getName());
+				if(section != null) section.unset(path.traverseDown().toRawPath());
+			}else {
+				Snapshot s = snapshot;
+				if(!s.properties.containsKey(path.getName())) return;
+				Map<String, ConfigProperty> properties = new LinkedHashMap<>(s.properties);
+				properties.remove(path.getName());
+				snapshot = new Snapshot(Collections.unmodifiableMap(properties), s.comments);
+				formatCache.invalidate();
+				config.markModified();
+			}
+		}
+	}
+	
+	@Override
+	public void clear() {
+		synchronized (config) {
+			snapshot = new Snapshot(Collections.emptyMap(), snapshot.comments);
+			formatCache.invalidate();
+			config.markModified();
+		}
+	}
+	
+	@Override
+	public ConfigProperty getProperty(String key) throws ConfigException {
+		ConfigPath path = ConfigPath.of(key);
+		if(path.hasSubpaths()) {
+			ConfigSection section = getSubsection(path.getName());
+			if(section == null) return null;
+			return section.getProperty(path.traverseDown().toRawPath());
+		}else {
+			return snapshot.properties.get(path.getName());
+		}
+	}
+	
+	@Override
+	public void setComment(String key, String value) {
+		ConfigPath path = ConfigPath.of(key);
+		synchronized (config) {
+			if(path.hasSubpaths()) {
+				ConfigSection section = getOrCreateSubsection(path.getName());
+				section.setComment(path.traverseDown().toRawPath(), value);
+			}else {
+				putComments(Collections.singletonMap(path.getName(), value));
+			}
+		}
+	}
+	
+	@Override
+	public String getComment(String key) {
+		ConfigPath path = ConfigPath.of(key);
+		if(path.hasSubpaths()) {
+			ConfigSection section = getSubsection(path.getName());
+			if(section == null) return null;
+			return section.getComment(path.traverseDown().toRawPath());
+		}else {
+			return snapshot.comments.get(path.getName());
+		}
+	}
+	
+	/**
+	 * Sets all the properties in a single step instead of copying the properties of this section once per property
+	 */
+	@Override
+	public void loadFromMap(Map<String, Object> map) {
+		synchronized (config) {
+			Map<String, ConfigProperty> properties = new LinkedHashMap<>();
+			for(Map.Entry<String, Object> en : map.entrySet()) {
+				ConfigPath path = ConfigPath.of(en.getKey());
+				if(path.hasSubpaths()) {
+					if(!properties.isEmpty()) putProperties(properties);
+					properties.clear();
+					set(en.getKey(), en.getValue());
+				}else {
+					properties.put(path.getName(), DefaultConfigPropertyImpl.create(this, path.getName(), en.getValue()));
+				}
+			}
+			if(!properties.isEmpty()) putProperties(properties);
+		}
+	}
+	
+	/**
+	 * Sets all the comments in a single step instead of copying the comments of this section once per comment
+	 */
+	@Override
+	public void loadCommentsFromMap(Map<String, String> map) {
+		synchronized (config) {
+			Map<String, String> comments = new LinkedHashMap<>();
+			for(Map.Entry<String, String> en : map.entrySet()) {
+				ConfigPath path = ConfigPath.of(en.getKey());
+				if(path.hasSubpaths()) {
+					if(!comments.isEmpty()) putComments(comments);
+					comments.clear();
+					setComment(en.getKey(), en.getValue());
+				}else {
+					comments.put(path.getName(), en.getValue());
+				}
+			}
+			if(!comments.isEmpty()) putComments(comments);
+		}
+	}
+	
+	/**
+	 * Replaces all properties and comments of this section with the ones of the given section in a single step.<br>
+	 * Readers will either see the old or the new contents of this section, but never a mix of both
+	 * @param other The section to take the contents from
+	 */
+	public void replaceContents(ConcurrentConfigSectionImpl other) {
+		Snapshot o = other.snapshot;
+		Map<String, ConfigProperty> properties = new LinkedHashMap<>();
+		for(Map.Entry<String, ConfigProperty> en : o.properties.entrySet()) {
+			ConfigProperty p = en.getValue();
+			properties.put(en.getKey(), new DefaultConfigPropertyImpl(this, p.getName(), p.getValueType(), p.getValue()));
+		}
+		synchronized (config) {
+			snapshot = new Snapshot(Collections.unmodifiableMap(properties), o.comments);
+			formatCache.invalidate();
+			config.markModified();
+		}
+	}
+	
+	private void putProperty(String name, ConfigProperty property) {
+		putProperties(Collections.singletonMap(name, property));
+	}
+	
+	private void putProperties(Map<String, ConfigProperty> newProperties) {
+		Snapshot s = snapshot;
+		Map<String, ConfigProperty> properties = new LinkedHashMap<>(s.properties);
+		newProperties.forEach((name, property) -> {
+			if(property.getValueType() == ConfigValueType.LIST) {
+				property = new DefaultConfigPropertyImpl(this, name, ConfigValueType.LIST, Collections.unmodifiableList((List<?>) property.getValue()));
+			}
+			properties.put(name, property);
+		});
+		snapshot = new Snapshot(Collections.unmodifiableMap(properties), s.comments);
+		formatCache.invalidate();
+		config.markModified();
+	}
+	
+	private void putComments(Map<String, String> newComments) {
+		Snapshot s = snapshot;
+		Map<String, String> comments = new LinkedHashMap<>(s.comments);
+		comments.putAll(newComments);
+		snapshot = new Snapshot(s.properties, Collections.unmodifiableMap(comments));
+		formatCache.invalidate();
+		config.markModified();
+	}
+	
+	@Override
+	public String saveToString() {
+		return saveToString(0);
+	}
+	
+	public String saveToString(int indents) {
+		ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+		BufferedWriter w = new BufferedWriter(new OutputStreamWriter(bOut));
+		DefaultConfigFormatter f = new DefaultConfigFormatter(w);
+		try {
+			synchronized (config) {
+				f.writeSection(indents, this);
+			}
+			w.close();
+		} catch (IOException e) {}
+		return new String(bOut.toByteArray(), StandardCharsets.UTF_8);
+	}
+	
+	@Override
+	public String toString() {
+		return "[S: " + snapshot.properties + "]";
+	}
+	
+	private static class Snapshot {
+	
+		private final Map<String, ConfigProperty> properties;
+		private final Map<String, String> comments;
+	
+		public Snapshot(Map<String, ConfigProperty> properties, Map<String, String> comments) {
+			this.properties = properties;
+			this.comments = comments;
+		}
+	
+	}
+	
+}
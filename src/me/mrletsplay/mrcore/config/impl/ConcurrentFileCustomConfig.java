@@ -0,0 +1,60 @@
+package me.mrletsplay.mrcore.config.impl;
+
+import java.io.File;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import me.mrletsplay.mrcore.config.ConfigException;
+import me.mrletsplay.mrcore.config.ConfigSection;
+
+/**
+ * A thread-safe version of {@link DefaultFileCustomConfig}<br>
+ * All sections of this config are {@link ConcurrentConfigSectionImpl}s, so properties can be read from any thread without locking while writes are serialized by synchronizing on this config. Multiple writes can be grouped by synchronizing on the config object as well<br>
+ * Loading the config first parses the data into a new section and then replaces the contents of the main section in a single step, so other threads never see a partially loaded config. Contrary to {@link DefaultFileCustomConfig}, loading replaces all existing properties instead of merging them.<br>
+ * Saving formats the config while holding the lock and writes it afterwards, so reads and writes are not blocked by IO<br>
+ * Mappers and flags are not synchronized and should be registered before sharing the config between threads
+ * @author MrLetsplay2003
+ */
+public class ConcurrentFileCustomConfig extends DefaultFileCustomConfig {
+
+	public ConcurrentFileCustomConfig(File configFile) {
+		super(configFile);
+	}
+	
+	@Override
+	public ConcurrentConfigSectionImpl getMainSection() {
+		return (ConcurrentConfigSectionImpl) super.getMainSection();
+	}
+	
+	@Override
+	public ConcurrentConfigSectionImpl createEmptySection() {
+		return new ConcurrentConfigSectionImpl(this);
+	}
+	
+	@Override
+	protected void loadSection(Consumer<ConfigSection> loader) throws ConfigException {
+		ConcurrentConfigSectionImpl section = createEmptySection();
+		loader.accept(section);
+		getMainSection().replaceContents(section);
+	}
+	
+	/**
+	 * Replaces all properties and comments of this config in a single step
+	 * @param properties The new properties, as returned by {@link ConfigSection#toMap()}
+	 * @param comments The new comments, as returned by {@link ConfigSection#commentsToMap()}
+	 */
+	public void replaceContents(Map<String, Object> properties, Map<String, String> comments) {
+		ConcurrentConfigSectionImpl section = createEmptySection();
+		section.loadFromMap(properties);
+		section.loadCommentsFromMap(comments);
+		getMainSection().replaceContents(section);
+	}
+	
+	@Override
+	protected String format() throws ConfigException {
+		synchronized (this) {
+			return super.format();
+		}
+	}
+	
+}
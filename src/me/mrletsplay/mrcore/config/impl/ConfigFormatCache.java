@@ -0,0 +1,70 @@
+package me.mrletsplay.mrcore.config.impl;
+
+/**
+ * Holds the formatted text of a config section, so it can be reused when saving the config if the section hasn't changed since the last save.<br>
+ * Sections need to call {@link #invalidate()} every time one of their properties or comments changes. Changes to subsections are detected by {@link DefaultConfigFormatter} itself<br>
+ * The text of sections containing lists is never reused, because lists can be modified in place
+ * @author MrLetsplay2003
+ */
+public class ConfigFormatCache {
+
+	private boolean dirty;
+	private int indents;
+	private String text;
+	private boolean empty;
+	private boolean mutable;
+	
+	public ConfigFormatCache() {
+		this.dirty = true;
+		this.indents = -1;
+	}
+	
+	/**
+	 * Marks the section as changed, so it will be formatted again the next time it's saved
+	 */
+	public void invalidate() {
+		dirty = true;
+	}
+	
+	public boolean isDirty() {
+		return dirty;
+	}
+	
+	boolean isValid(int indents) {
+		return !dirty && this.indents == indents;
+	}
+	
+	void update(int indents, String text, boolean empty, boolean mutable) {
+		this.dirty = false;
+		this.indents = indents;
+		this.text = text;
+		this.empty = empty;
+		this.mutable = mutable;
+	}
+	
+	/**
+	 * Marks the section as unchanged and discards the cached text
+	 * @return Whether the section was dirty before
+	 */
+	boolean consume() {
+		boolean wasDirty = dirty;
+		this.dirty = false;
+		this.indents = -1;
+		this.text = null;
+		this.mutable = false;
+		return wasDirty;
+	}
+	
+	String getText() {
+		return text;
+	}
+	
+	boolean isEmpty() {
+		return empty;
+	}
+	
+	boolean hasMutableValues() {
+		return mutable;
+	}
+	
+}
@@ -0,0 +1,280 @@
+package me.mrletsplay.mrcore.config.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import me.mrletsplay.mrcore.config.ConfigException;
+import me.mrletsplay.mrcore.config.ConfigProperty;
+import me.mrletsplay.mrcore.config.ConfigSection;
+
+/**
+ * A compact binary representation of a parsed config, used to load configs without parsing their text again.<br>
+ * A snapshot contains all properties (including their exact types) and comments of a config, together with the length and CRC32 checksum of the file it was created from. It is only used if the file still matches, otherwise the file needs to be parsed again<br>
+ * Snapshots are a cache and not meant to be portable. They are stored next to their file as a hidden file (see {@link #getSnapshotFile(File)}) and can be deleted at any time
+ * @author MrLetsplay2003
+ */
+public class ConfigSnapshot {
+
+	private static final int MAGIC = 0x4D43534E; // "MCSN"
+	private static final int FORMAT_VERSION = 1;
+	
+	private static final int
+		TYPE_NULL = 0,
+		TYPE_STRING = 1,
+		TYPE_CHARACTER = 2,
+		TYPE_BOOLEAN = 3,
+		TYPE_BYTE = 4,
+		TYPE_SHORT = 5,
+		TYPE_INTEGER = 6,
+		TYPE_LONG = 7,
+		TYPE_FLOAT = 8,
+		TYPE_DOUBLE = 9,
+		TYPE_LIST = 10,
+		TYPE_SECTION = 11;
+	
+	/**
+	 * @param configFile The config file
+	 * @return The file to store the snapshot of the given config file in
+	 */
+	public static File getSnapshotFile(File configFile) {
+		configFile = configFile.getAbsoluteFile();
+		return new File(configFile.getParentFile(), "." + configFile.getName() + ".snapshot");
+	}
+	
+	/**
+	 * Computes the checksum a snapshot is keyed by
+	 * @param source The contents of the config file
+	 * @return The checksum
+	 */
+	public static long checksum(byte[] source) {
+		CRC32 crc = new CRC32();
+		crc.update(source);
+		return crc.getValue();
+	}
+	
+	/**
+	 * Writes a snapshot of the given section to a byte array
+	 * @param source The contents of the config file the section was parsed from
+	 * @param section The parsed section
+	 * @return The snapshot
+	 * @throws ConfigException If the section contains a value which can't be stored in a snapshot
+	 */
+	public static byte[] write(byte[] source, ConfigSection section) throws ConfigException {
+		try {
+			ByteArrayOutputStream bOut = new ByteArrayOutputStream(Math.max(64, source.length));
+			DataOutputStream out = new DataOutputStream(bOut);
+			out.writeInt(MAGIC);
+			out.writeByte(FORMAT_VERSION);
+			out.writeLong(source.length);
+			out.writeLong(checksum(source));
+			writeSection(out, section);
+			out.flush();
+			return bOut.toByteArray();
+		}catch(IOException e) {
+			throw new ConfigException("Unexpected IO exception", e);
+		}
+	}
+	
+	/**
+	 * Writes a snapshot of the given section to the snapshot file of the given config file, replacing it atomically
+	 * @param configFile The config file
+	 * @param source The contents of the config file
+	 * @param section The section parsed from the contents
+	 * @throws ConfigException If the snapshot can't be written
+	 */
+	public static void write(File configFile, byte[] source, ConfigSection section) throws ConfigException {
+		DefaultFileCustomConfig.writeFile(getSnapshotFile(configFile), write(source, section));
+	}
+	
+	/**
+	 * Reads a snapshot into the given section, if it was created from the given source.<br>
+	 * If this method returns false, the section may contain parts of the snapshot and should be discarded
+	 * @param snapshot The snapshot
+	 * @param source The current contents of the config file
+	 * @param section The (empty) section to read the snapshot into
+	 * @return Whether the snapshot was valid and matched the source
+	 */
+	public static boolean read(byte[] snapshot, byte[] source, ConfigSection section) {
+		try {
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot));
+			if(in.readInt() != MAGIC || in.readUnsignedByte() != FORMAT_VERSION) return false;
+			if(in.readLong() != source.length || in.readLong() != checksum(source)) return false;
+			readSection(in, section);
+			return in.read() == -1;
+		}catch(IOException | RuntimeException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Reads the snapshot file of the given config file into the given section, if it exists and matches the source
+	 * @param configFile The config file
+	 * @param source The current contents of the config file
+	 * @param section The (empty) section to read the snapshot into
+	 * @return Whether a valid snapshot was read
+	 * @see #read(byte[], byte[], ConfigSection)
+	 */
+	public static boolean read(File configFile, byte[] source, ConfigSection section) {
+		File f = getSnapshotFile(configFile);
+		if(!f.isFile()) return false;
+		try {
+			return read(Files.readAllBytes(f.toPath()), source, section);
+		}catch(IOException e) {
+			return false;
+		}
+	}
+	
+	private static void writeSection(DataOutputStream out, ConfigSection section) throws IOException {
+		Map<String, String> comments = section.getComments();
+		out.writeInt(comments.size());
+		for(Map.Entry<String, String> en : comments.entrySet()) {
+			writeString(out, en.getKey());
+			writeString(out, en.getValue());
+		}
+	
+		Map<String, ConfigProperty> properties = section.getAllProperties();
+		out.writeInt(properties.size());
+		for(Map.Entry<String, ConfigProperty> en : properties.entrySet()) {
+			writeString(out, en.getKey());
+			writeValue(out, en.getValue().getValue());
+		}
+	}
+	
+	private static void writeValue(DataOutputStream out, Object value) throws IOException {
+		if(value == null) {
+			out.writeByte(TYPE_NULL);
+		}else if(value instanceof String) {
+			out.writeByte(TYPE_STRING);
+			writeString(out, (String) value);
+		}else if(value instanceof Character) {
+			out.writeByte(TYPE_CHARACTER);
+			out.writeChar((Character) value);
+		}else if(value instanceof Boolean) {
+			out.writeByte(TYPE_BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		}else if(value instanceof Byte) {
+			out.writeByte(TYPE_BYTE);
+			out.writeByte((Byte) value);
+		}else if(value instanceof Short) {
+			out.writeByte(TYPE_SHORT);
+			out.writeShort((Short) value);
+		}else if(value instanceof Integer) {
+			out.writeByte(TYPE_INTEGER);
+			out.writeInt((Integer) value);
+		}else if(value instanceof Long) {
+			out.writeByte(TYPE_LONG);
+			out.writeLong((Long) value);
+		}else if(value instanceof Float) {
+			out.writeByte(TYPE_FLOAT);
+			out.writeFloat((Float) value);
+		}else if(value instanceof Double) {
+			out.writeByte(TYPE_DOUBLE);
+			out.writeDouble((Double) value);
+		}else if(value instanceof List) {
+			List<?> l = (List<?>) value;
+			out.writeByte(TYPE_LIST);
+			out.writeInt(l.size());
+			for(Object o : l) {
+				writeValue(out, o);
+			}
+		}else if(value instanceof ConfigSection) {
+			out.writeByte(TYPE_SECTION);
+			writeSection(out, (ConfigSection) value);
+		}else {
+			throw new ConfigException("Unsupported type: " + value.getClass().getName());
+		}
+	}
+	
+	private static void writeString(DataOutputStream out, String str) throws IOException {
+		if(str == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] b = str.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(b.length);
+		out.write(b);
+	}
+	
+	private static void readSection(DataInputStream in, ConfigSection section) throws IOException {
+		int commentCount = in.readInt();
+		if(commentCount < 0) throw new IOException("Invalid comment count");
+		Map<String, String> comments = new LinkedHashMap<>();
+		for(int i = 0; i < commentCount; i++) {
+			comments.put(readString(in), readString(in));
+		}
+		section.loadCommentsFromMap(comments);
+	
+		int propertyCount = in.readInt();
+		if(propertyCount < 0) throw new IOException("Invalid property count");
+		Map<String, Object> properties = new LinkedHashMap<>();
+		for(int i = 0; i < propertyCount; i++) {
+			properties.put(readString(in), readValue(in, section));
+		}
+		section.loadFromMap(properties);
+	}
+	
+	private static Object readValue(DataInputStream in, ConfigSection section) throws IOException {
+		int type = in.readUnsignedByte();
+		switch(type) {
+			case TYPE_NULL:
+				return null;
+			case TYPE_STRING:
+				return readString(in);
+			case TYPE_CHARACTER:
+				return in.readChar();
+			case TYPE_BOOLEAN:
+				return in.readBoolean();
+			case TYPE_BYTE:
+				return in.readByte();
+			case TYPE_SHORT:
+				return in.readShort();
+			case TYPE_INTEGER:
+				return in.readInt();
+			case TYPE_LONG:
+				return in.readLong();
+			case TYPE_FLOAT:
+				return in.readFloat();
+			case TYPE_DOUBLE:
+				return in.readDouble();
+			case TYPE_LIST:
+			{
+				int size = in.readInt();
+				if(size < 0) throw new IOException("Invalid list size");
+				List<Object> l = new ArrayList<>(Math.min(size, 1024));
+				for(int i = 0; i < size; i++) {
+					l.add(readValue(in, section));
+				}
+				return l;
+			}
+			case TYPE_SECTION:
+			{
+				ConfigSection s = section.getConfig().createEmptySection();
+				readSection(in, s);
+				return s;
+			}
+			default:
+				throw new IOException("Invalid value type: " + type);
+		}
+	}
+	
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if(length == -1) return null;
+		if(length < 0 || length > in.available()) throw new IOException("Invalid string length");
+		byte[] b = new byte[length];
+		in.readFully(b);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+	
+}
@@ -2,11 +2,16 @@ package me.mrletsplay.mrcore.config.impl;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import me.mrletsplay.mrcore.config.ConfigProperty;
+import me.mrletsplay.mrcore.config.ConfigSection;
 import me.mrletsplay.mrcore.misc.Complex;
 import me.mrletsplay.mrcore.misc.MiscUtils;
 import me.mrletsplay.mrcore.misc.NullableOptional;
@@ -14,9 +19,11 @@ import me.mrletsplay.mrcore.misc.NullableOptional;
 public class DefaultConfigFormatter {
 
 	private BufferedWriter w;
+	private Map<ConfigSection, ConfigFormatCache> temporaryCaches;
 	
 	public DefaultConfigFormatter(BufferedWriter out) {
 		this.w = out;
+		this.temporaryCaches = new IdentityHashMap<>();
 	}
 	
 	public void writeHeader(String header) throws IOException {
@@ -69,14 +76,7 @@ public class DefaultConfigFormatter {
 			if(isEmptyProperty(p.getValue())) {
 				continue;
 			}
-			String comment = comments.get(p.getKey());
-			if(comment != null) {
-				String[] sComment = comment.split("\n");
-				for(String c : sComment) {
-					w.write(space(indents) + "#" + c);
-					w.newLine();
-				}
-			}
+			writeComment(indents, comments.get(p.getKey()));
 			w.write(space(indents) + p.getKey());
 			w.write(": ");
 			Complex<Map<String, Object>> c = Complex.map(String.class, Object.class);
@@ -97,6 +97,113 @@ public class DefaultConfigFormatter {
 		}
 	}
 	
+	/**
+	 * Writes the properties and subsections of the given section. This produces the same output as calling {@link #writeSubsection(int, Map, Map)} with the section's {@link ConfigSection#toMap() properties} and {@link ConfigSection#commentsToMap() comments}.<br>
+	 * For sections implementing {@link FormatCachingConfigSection}, the formatted text is cached and reused for all subsections which haven't changed since they were last written. Sections containing lists (directly or in a subsection) are always formatted again, because lists can be modified in place without the section noticing
+	 * @param indents The indentation level of the section's properties
+	 * @param section The section to write
+	 * @throws IOException If an IO error occurs
+	 */
+	public void writeSection(int indents, ConfigSection section) throws IOException {
+		updateFormatCache(indents, section);
+		w.write(getFormatCache(section).getText());
+	}
+	
+	private ConfigFormatCache getFormatCache(ConfigSection section) {
+		if(section instanceof FormatCachingConfigSection) return ((FormatCachingConfigSection) section).getFormatCache();
+		return temporaryCaches.computeIfAbsent(section, s -> new ConfigFormatCache());
+	}
+	
+	private boolean updateFormatCache(int indents, ConfigSection section) throws IOException {
+		ConfigFormatCache cache = getFormatCache(section);
+		boolean changed = !cache.isValid(indents);
+		boolean mutable = false;
+		Map<String, ConfigProperty> properties = section.getAllProperties();
+		for(ConfigProperty p : properties.values()) {
+			if(p.isSubsection()) {
+				ConfigSection s = (ConfigSection) p.getValue();
+				changed |= updateFormatCache(indents + 1, s);
+				mutable |= getFormatCache(s).hasMutableValues();
+			}else if(p.getValue() instanceof List) {
+				consumeListChanges((List<?>) p.getValue());
+				mutable = true;
+			}
+		}
+		if(!changed && !mutable) return false;
+		
+		StringWriter sw = new StringWriter();
+		BufferedWriter bw = new BufferedWriter(sw);
+		DefaultConfigFormatter f = new DefaultConfigFormatter(bw);
+		Map<String, String> comments = section.getComments();
+		boolean empty = true;
+		for(Map.Entry<String, ConfigProperty> p : properties.entrySet()) {
+			if(p.getValue().isSubsection()) continue;
+			if(!p.getValue().isEmpty()) empty = false;
+			f.writeComment(indents, comments.get(p.getKey()));
+			bw.write(space(indents) + p.getKey());
+			bw.write(": ");
+			f.writePropertyValue(indents + 1, toRawValue(p.getValue().getValue()));
+			bw.newLine();
+		}
+		for(Map.Entry<String, ConfigProperty> p : properties.entrySet()) {
+			if(!p.getValue().isSubsection()) continue;
+			ConfigFormatCache c = getFormatCache((ConfigSection) p.getValue().getValue());
+			if(c.isEmpty()) continue;
+			empty = false;
+			f.writeComment(indents, comments.get(p.getKey()));
+			bw.write(space(indents) + p.getKey());
+			bw.write(": ");
+			bw.newLine();
+			bw.write(c.getText());
+		}
+		bw.flush();
+		cache.update(indents, sw.toString(), empty, mutable);
+		return true;
+	}
+	
+	/**
+	 * Checks whether the text of the given section, as last written by {@link #writeSection(int, ConfigSection)}, depends on values which can be modified without the config noticing (i.e. lists)
+	 * @param section The section
+	 * @return Whether the section contains mutable values and needs to be formatted again every time
+	 */
+	public boolean hasMutableValues(ConfigSection section) {
+		return getFormatCache(section).hasMutableValues();
+	}
+	
+	private void consumeListChanges(List<?> list) {
+		for(Object o : list) {
+			if(o instanceof ConfigSection) {
+				ConfigSection s = (ConfigSection) o;
+				getFormatCache(s).consume();
+				for(ConfigProperty p : s.getAllProperties().values()) {
+					if(p.isSubsection()) {
+						consumeListChanges(Collections.singletonList(p.getValue()));
+					}else if(p.getValue() instanceof List) {
+						consumeListChanges((List<?>) p.getValue());
+					}
+				}
+			}else if(o instanceof List) {
+				consumeListChanges((List<?>) o);
+			}
+		}
+	}
+	
+	private static Object toRawValue(Object value) {
+		if(!(value instanceof List)) return value;
+		return ((List<?>) value).stream()
+				.map(v -> v instanceof ConfigSection ? ((ConfigSection) v).toMap() : v)
+				.collect(Collectors.toList());
+	}
+	
+	private void writeComment(int indents, String comment) throws IOException {
+		if(comment == null) return;
+		String[] sComment = comment.split("\n");
+		for(String c : sComment) {
+			w.write(space(indents) + "#" + c);
+			w.newLine();
+		}
+	}
+	
 	private boolean isEmptyProperty(Object o) {
 		if(o == null) return false;
 		Complex<Map<String, Object>> c = Complex.map(String.class, Object.class);
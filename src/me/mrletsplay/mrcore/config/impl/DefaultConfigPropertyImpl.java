@@ -47,7 +47,7 @@ public class DefaultConfigPropertyImpl implements ConfigProperty {
 	public static DefaultConfigPropertyImpl create(ConfigSection section, String name, Object value) {
 		if(value instanceof ConfigSectionDescriptor) {
 			ConfigSectionDescriptor d = (ConfigSectionDescriptor) value;
-			ConfigSection s = new DefaultConfigSectionImpl(section.getConfig());
+			ConfigSection s = section.getConfig().createEmptySection();
 			s.loadFromMap(d.toPropertyMap());
 			s.loadCommentsFromMap(d.toCommentMap());
 			return new DefaultConfigPropertyImpl(section, name, ConfigValueType.SECTION, s);
@@ -15,16 +15,18 @@ import me.mrletsplay.mrcore.config.ConfigSection;
 import me.mrletsplay.mrcore.config.CustomConfig;
 import me.mrletsplay.mrcore.config.StringifiableConfigSection;
 
-public class DefaultConfigSectionImpl implements StringifiableConfigSection {
+public class DefaultConfigSectionImpl implements StringifiableConfigSection, FormatCachingConfigSection {
 
 	private CustomConfig config;
 	private Map<String, ConfigProperty> rawProperties;
 	private Map<String, String> comments;
+	private ConfigFormatCache formatCache;
 	
 	public DefaultConfigSectionImpl(CustomConfig config) {
 		this.config = config;
 		this.rawProperties = new LinkedHashMap<>();
 		this.comments = new LinkedHashMap<>();
+		this.formatCache = new ConfigFormatCache();
 	}
 	
 	@Override
@@ -42,12 +44,18 @@ public class DefaultConfigSectionImpl implements StringifiableConfigSection {
 		return comments;
 	}
 
+	@Override
+	public ConfigFormatCache getFormatCache() {
+		return formatCache;
+	}
+
 	@Override
 	public ConfigSection getOrCreateSubsection(String name) {
 		ConfigSection s = getSubsection(name);
 		if(s == null) {
 			s = new DefaultConfigSectionImpl(config);
 			rawProperties.put(name, DefaultConfigPropertyImpl.create(this, name, s));
+			formatCache.invalidate();
 		}
 		return s;
 	}
@@ -60,6 +68,8 @@ public class DefaultConfigSectionImpl implements StringifiableConfigSection {
 			section.set(path.traverseDown().toRawPath(), value);
 		}else {
 			rawProperties.put(path.getName(), DefaultConfigPropertyImpl.create(this, path.getName(), value));
+			formatCache.invalidate();
+			config.markModified();
 		}
 	}
 
@@ -71,12 +81,16 @@ public class DefaultConfigSectionImpl implements StringifiableConfigSection {
 			section.unset(path.traverseDown().toRawPath());
 		}else {
 			rawProperties.remove(path.getName());
+			formatCache.invalidate();
+			config.markModified();
 		}
 	}
 
 	@Override
 	public void clear() {
 		rawProperties.clear();
+		formatCache.invalidate();
+		config.markModified();
 	}
 	
 	@Override
@@ -100,6 +114,8 @@ public class DefaultConfigSectionImpl implements StringifiableConfigSection {
 			section.setComment(path.traverseDown().toRawPath(), value);
 		}else {
 			comments.put(path.getName(), value);
+			formatCache.invalidate();
+			config.markModified();
 		}
 	}
 
@@ -124,7 +140,7 @@ public class DefaultConfigSectionImpl implements StringifiableConfigSection {
 		BufferedWriter w = new BufferedWriter(new OutputStreamWriter(bOut));
 		DefaultConfigFormatter f = new DefaultConfigFormatter(w);
 		try {
-			f.writeSubsection(indents, toMap(), commentsToMap());
+			f.writeSection(indents, this);
 			w.close();
 		} catch (IOException e) {}
 		return new String(bOut.toByteArray(), StandardCharsets.UTF_8);
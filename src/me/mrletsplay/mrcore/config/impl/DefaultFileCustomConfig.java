@@ -1,21 +1,28 @@
 package me.mrletsplay.mrcore.config.impl;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import me.mrletsplay.mrcore.config.ConfigException;
 import me.mrletsplay.mrcore.config.ConfigFlag;
@@ -25,26 +32,40 @@ import me.mrletsplay.mrcore.config.DefaultConfigMappers;
 import me.mrletsplay.mrcore.config.FileCustomConfig;
 import me.mrletsplay.mrcore.config.IncompatibleConfigVersionException;
 import me.mrletsplay.mrcore.config.impl.DefaultConfigParser.ConfigSectionDescriptor;
-import me.mrletsplay.mrcore.config.impl.DefaultConfigParser.Marker;
 import me.mrletsplay.mrcore.config.mapper.ObjectMapper;
+import me.mrletsplay.mrcore.config.mapper.ObjectMapperIndex;
 
 public class DefaultFileCustomConfig implements FileCustomConfig {
 
 	private static final String VERSION = "2.0";
 	
+	private static final ScheduledExecutorService SAVE_EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "CustomConfig-Save");
+		t.setDaemon(true);
+		return t;
+	});
+	
 	private File configFile;
 	private ConfigSection mainSection;
-	private Map<ObjectMapper<?, ?>, Integer> lowLevelMappers;
-	private Map<ObjectMapper<?, ?>, Integer> mappers;
+	private ObjectMapperIndex lowLevelMappers;
+	private ObjectMapperIndex mappers;
 	private EnumSet<ConfigFlag> flags;
 	
 	private Map<String, Object> defaults;
+	private volatile long modificationCount;
+	
+	private volatile long saveDelay;
+	private final Object saveLock = new Object(), writeLock = new Object();
+	private PendingSave pendingSave;
+	private String formatted;
+	private long formattedModificationCount;
+	private volatile FileContent knownFileContent;
 	
 	public DefaultFileCustomConfig(File configFile) {
 		this.configFile = configFile;
-		this.mainSection = new DefaultConfigSectionImpl(this);
-		this.mappers = new LinkedHashMap<>();
-		this.lowLevelMappers = new LinkedHashMap<>();
+		this.mainSection = createEmptySection();
+		this.mappers = new ObjectMapperIndex();
+		this.lowLevelMappers = new ObjectMapperIndex();
 		this.defaults = new LinkedHashMap<>();
 		this.flags = EnumSet.noneOf(ConfigFlag.class);
 		registerLowLevelMapper(0, DefaultConfigMappers.JSON_OBJECT_MAPPER);
@@ -64,25 +85,35 @@ public class DefaultFileCustomConfig implements FileCustomConfig {
 	
 	@Override
 	public void load(InputStream in) throws ConfigException {
+		loadSection(section -> load(in, section));
+	}
+	
+	/**
+	 * Loads data into this config. The loader is called with the section the data should be loaded into, which is the main section of this config
+	 * @param loader The function loading the data into the given section
+	 * @throws ConfigException If the loader throws an exception
+	 */
+	protected void loadSection(Consumer<ConfigSection> loader) throws ConfigException {
+		loader.accept(mainSection);
+	}
+	
+	/**
+	 * Loads the config from the given input stream into the specified section instead of the main section of this config
+	 * @param in The input stream to read from
+	 * @param mainSection The section to load into
+	 * @throws ConfigException If the config can't be parsed
+	 */
+	protected void load(InputStream in, ConfigSection mainSection) throws ConfigException {
 		try {
-			BufferedReader r = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
-			List<String> lines = new ArrayList<>();
-			String s;
-			while((s = r.readLine()) != null) {
-				if(s.trim().isEmpty()) continue;
-				lines.add(s + "\n");
-			}
-			DefaultConfigParser p = new DefaultConfigParser(lines.toArray(new String[lines.size()]));
-			if(!p.hasMore()) {
-				return;
-			}
+			StreamingConfigParser p = new StreamingConfigParser(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+			if(!p.hasMore()) return;
 			String version = p.readVersionDescriptor();
 			if(!version.equals(VERSION)) throw new IncompatibleConfigVersionException(version, VERSION);
 			if(!p.hasMore()) return;
 			String header = p.readHeader();
 			if(header != null && !header.isEmpty()) mainSection.setComment(null, header);
 			if(!p.hasMore()) return;
-			ConfigSectionDescriptor d = p.readSubsection(new Marker(0, 0), 0);
+			ConfigSectionDescriptor d = p.readSubsection(0);
 			mainSection.loadFromMap(d.getProperties());
 			d.getComments().forEach(mainSection::setComment);
 		}catch(IOException e) {
@@ -93,16 +124,210 @@ public class DefaultFileCustomConfig implements FileCustomConfig {
 	@Override
 	public void save(OutputStream out) {
 		try {
-			BufferedWriter o = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+			out.write(format().getBytes(StandardCharsets.UTF_8));
+			out.flush();
+		}catch(IOException e) {
+			throw new ConfigException("Unexpected IO exception", e);
+		}
+	}
+	
+	/**
+	 * Formats this config, including the version descriptor and header.<br>
+	 * Sections which haven't changed since the config was last formatted are not formatted again, their previous text is reused instead. This doesn't apply to sections containing lists, because lists can be modified in place without the config noticing
+	 * @return The formatted config
+	 * @throws ConfigException If an IO error occurs
+	 */
+	protected String format() throws ConfigException {
+		long modificationCount = this.modificationCount;
+		if(formatted != null && formattedModificationCount == modificationCount) return formatted;
+		try {
+			StringWriter sw = new StringWriter();
+			BufferedWriter o = new BufferedWriter(sw);
 			DefaultConfigFormatter f = new DefaultConfigFormatter(o);
 			f.writeConfigVersionDescriptor(VERSION);
-			if(getHeader() != null) f.writeHeader(getHeader());
-			f.writeSubsection(0, getMainSection().toMap(), getMainSection().commentsToMap());
+			String header = getHeader();
+			if(header != null) f.writeHeader(header);
+			f.writeSection(0, getMainSection());
 			o.flush();
+			String text = sw.toString();
+			formatted = f.hasMutableValues(getMainSection()) ? null : text;
+			formattedModificationCount = modificationCount;
+			return text;
 		}catch(IOException e) {
 			throw new ConfigException("Unexpected IO exception", e);
 		}
 	}
+	
+	/**
+	 * Saves this config to the specified file.<br>
+	 * The config is first written to a temporary file which then replaces the actual file, so the file can't be left partially written if the process crashes while saving.<br>
+	 * If a {@link #setSaveDelay(long) save delay} is set, the config is formatted immediately, but writing the file happens on a background thread after the delay. Saving again before that only replaces the data which is going to be written
+	 */
+	@Override
+	public void save(File file) {
+		if(isEmpty()) {
+			flushSaves();
+			if(file.exists() && getFlags().contains(ConfigFlag.DELETE_EMPTY_FILE)) {
+				file.delete();
+				return;
+			}
+			
+			if(!file.exists() && !getFlags().contains(ConfigFlag.CREATE_EMPTY_FILE)) return;
+		}
+		
+		String text = format();
+		synchronized (saveLock) {
+			if(saveDelay > 0 && (pendingSave == null || pendingSave.file.equals(file))) {
+				if(pendingSave == null) {
+					pendingSave = new PendingSave(file, text);
+					SAVE_EXECUTOR.schedule(this::flushSaves, saveDelay, TimeUnit.MILLISECONDS);
+				}else {
+					pendingSave.text = text;
+				}
+				return;
+			}
+		}
+		
+		synchronized (writeLock) {
+			flushSaves();
+			writeConfigFile(file, text);
+		}
+	}
+	
+	/**
+	 * Loads the config from the specified file.<br>
+	 * If the {@link ConfigFlag#BINARY_SNAPSHOT} flag is set, a valid {@link ConfigSnapshot} of the file is loaded instead of parsing the file. If there is none, the file is parsed and a new snapshot is written. Failing to write the snapshot (e.g. because the directory is read-only) is ignored
+	 */
+	@Override
+	public void load(File file) {
+		flushSaves();
+		if(!file.isFile()) {
+			FileCustomConfig.super.load(file);
+			if(file.isFile()) setKnownFileContent(file, new byte[0]);
+			return;
+		}
+		
+		byte[] source;
+		try {
+			source = Files.readAllBytes(file.toPath());
+		}catch(IOException e) {
+			throw new ConfigException(e);
+		}
+		
+		if(!getFlags().contains(ConfigFlag.BINARY_SNAPSHOT)) {
+			load(new ByteArrayInputStream(source));
+			setKnownFileContent(file, source);
+			return;
+		}
+		
+		ConfigSection parsed = createEmptySection();
+		if(!ConfigSnapshot.read(file, source, parsed)) {
+			parsed = createEmptySection();
+			load(new ByteArrayInputStream(source), parsed);
+			try {
+				ConfigSnapshot.write(file, source, parsed);
+			}catch(ConfigException e) {
+				// The snapshot is only a cache, the file will just be parsed again next time
+			}
+		}
+		
+		// Same as loading directly into the section: top-level properties are replaced, everything else is kept
+		ConfigSection loaded = parsed;
+		loadSection(section -> {
+			loaded.getComments().forEach(section::setComment);
+			loaded.getAllProperties().forEach((k, v) -> section.set(k, v.getValue()));
+		});
+		setKnownFileContent(file, source);
+	}
+	
+	/**
+	 * Checks whether the given data is what this config last wrote to or loaded from its file.<br>
+	 * This is used by {@link me.mrletsplay.mrcore.config.ConfigFileWatcher ConfigFileWatcher} to ignore changes to the file which were made by the config itself
+	 * @param content The current content of the file
+	 * @return Whether the content matches the last known content of the file
+	 */
+	public boolean isKnownFileContent(byte[] content) {
+		FileContent c = knownFileContent;
+		return c != null && c.matches(content);
+	}
+	
+	/**
+	 * Remembers the given data as the content of this config's file, e.g. after the config was updated to match the file
+	 * @param content The content of the file
+	 */
+	public void setKnownFileContent(byte[] content) {
+		knownFileContent = new FileContent(content);
+	}
+	
+	private void setKnownFileContent(File file, byte[] content) {
+		if(configFile != null && file.getAbsoluteFile().equals(configFile.getAbsoluteFile())) setKnownFileContent(content);
+	}
+	
+	/**
+	 * Sets the delay after which the config is written to its file when it is saved. Multiple saves during that time will result in the file only being written once.<br>
+	 * Make sure to call {@link #flushSaves()} before the application exits, because the background thread won't wait for pending saves
+	 * @param saveDelay The delay in milliseconds, 0 to write the file immediately when saving
+	 */
+	public void setSaveDelay(long saveDelay) {
+		this.saveDelay = saveDelay;
+		if(saveDelay <= 0) flushSaves();
+	}
+	
+	public long getSaveDelay() {
+		return saveDelay;
+	}
+	
+	/**
+	 * @return Whether there is a save which hasn't been written to the file yet
+	 */
+	public boolean hasPendingSave() {
+		synchronized (saveLock) {
+			return pendingSave != null;
+		}
+	}
+	
+	/**
+	 * Immediately writes a pending save to the file, if there is one
+	 * @throws ConfigException If the file can't be written
+	 */
+	public void flushSaves() throws ConfigException {
+		synchronized (writeLock) {
+			PendingSave save;
+			synchronized (saveLock) {
+				save = pendingSave;
+				pendingSave = null;
+			}
+			if(save != null) writeConfigFile(save.file, save.text);
+		}
+	}
+	
+	private void writeConfigFile(File file, String text) throws ConfigException {
+		byte[] data = text.getBytes(StandardCharsets.UTF_8);
+		setKnownFileContent(file, data); // Before writing, so the watcher can't see the new file before the content is known
+		writeFile(file, data);
+	}
+	
+	static void writeFile(File file, byte[] data) throws ConfigException {
+		file = file.getAbsoluteFile();
+		File dir = file.getParentFile();
+		File tmp = null;
+		try {
+			dir.mkdirs();
+			tmp = File.createTempFile(file.getName(), ".tmp", dir);
+			try(FileOutputStream out = new FileOutputStream(tmp)) {
+				out.write(data);
+				out.getFD().sync();
+			}
+			try {
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}catch(AtomicMoveNotSupportedException e) {
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}catch(IOException e) {
+			if(tmp != null) tmp.delete();
+			throw new ConfigException(e);
+		}
+	}
 
 	@Override
 	public void addDefaults(CustomConfig defaultConfig) {
@@ -127,23 +352,45 @@ public class DefaultFileCustomConfig implements FileCustomConfig {
 		return configFile;
 	}
 
+	@Override
+	public long getModificationCount() {
+		return modificationCount;
+	}
+	
+	@Override
+	public void markModified() {
+		modificationCount++;
+	}
+
 	@Override
 	public void registerMapper(int priority, ObjectMapper<?, ?> mapper) {
-		mappers.put(mapper, priority);
+		mappers.register(priority, mapper);
+		markModified();
 	}
 
 	@Override
 	public Map<ObjectMapper<?, ?>, Integer> getMappers() {
+		return mappers.getMappers();
+	}
+	
+	@Override
+	public ObjectMapperIndex getMapperIndex() {
 		return mappers;
 	}
 
 	@Override
 	public void registerLowLevelMapper(int priority, ObjectMapper<?, ?> lowLevelMapper) {
-		lowLevelMappers.put(lowLevelMapper, priority);
+		lowLevelMappers.register(priority, lowLevelMapper);
+		markModified();
 	}
 	
 	@Override
 	public Map<ObjectMapper<?, ?>, Integer> getLowLevelMappers() {
+		return lowLevelMappers.getMappers();
+	}
+	
+	@Override
+	public ObjectMapperIndex getLowLevelMapperIndex() {
 		return lowLevelMappers;
 	}
 	
@@ -162,4 +409,32 @@ public class DefaultFileCustomConfig implements FileCustomConfig {
 		return flags;
 	}
 	
+	private static class FileContent {
+		
+		private final int length;
+		private final long checksum;
+		
+		public FileContent(byte[] content) {
+			this.length = content.length;
+			this.checksum = ConfigSnapshot.checksum(content);
+		}
+		
+		public boolean matches(byte[] content) {
+			return content.length == length && ConfigSnapshot.checksum(content) == checksum;
+		}
+		
+	}
+	
+	private static class PendingSave {
+		
+		private final File file;
+		private String text;
+		
+		public PendingSave(File file, String text) {
+			this.file = file;
+			this.text = text;
+		}
+		
+	}
+	
 }
@@ -0,0 +1,13 @@
+package me.mrletsplay.mrcore.config.impl;
+
+import me.mrletsplay.mrcore.config.ConfigSection;
+
+/**
+ * A config section which keeps track of its changes in a {@link ConfigFormatCache}, allowing {@link DefaultConfigFormatter} to skip formatting it if it hasn't changed
+ * @author MrLetsplay2003
+ */
+public interface FormatCachingConfigSection extends ConfigSection {
+
+	public ConfigFormatCache getFormatCache();
+	
+}
@@ -0,0 +1,301 @@
+package me.mrletsplay.mrcore.config.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import me.mrletsplay.mrcore.config.ConfigException;
+import me.mrletsplay.mrcore.config.impl.DefaultConfigParser.ConfigSectionDescriptor;
+
+/**
+ * A single-pass parser for the default config format<br>
+ * Unlike {@link DefaultConfigParser}, this parser doesn't need the whole file as an array of lines. It reads one line at a time from a {@link BufferedReader} and never goes back, so parsing takes linear time and only the current line and one entry per nesting level are kept in addition to the parsed values.<br>
+ * Errors report the actual line and column in the file, including blank lines
+ * @author MrLetsplay2003
+ */
+public class StreamingConfigParser {
+
+	private static final String VERSION_PREFIX = "CustomConfig version: ";
+	
+	private BufferedReader reader;
+	private String line;
+	private int lineNumber, indent, position;
+	private StringBuilder buffer;
+	
+	public StreamingConfigParser(Reader reader) throws IOException {
+		this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+		this.lineNumber = -1;
+		this.buffer = new StringBuilder();
+		nextLine();
+	}
+	
+	/**
+	 * Advances to the next line which isn't blank
+	 * @throws IOException If an I/O error occurs
+	 */
+	private void nextLine() throws IOException {
+		while((line = reader.readLine()) != null) {
+			lineNumber++;
+			indent = 0;
+			while(indent < line.length() && Character.isWhitespace(line.charAt(indent))) indent++;
+			if(indent < line.length()) break;
+		}
+		position = indent;
+	}
+	
+	/**
+	 * @return Whether there are any non-blank lines left
+	 */
+	public boolean hasMore() {
+		return line != null;
+	}
+	
+	private ConfigException error(String message) {
+		return new ConfigException(message, lineNumber, position);
+	}
+	
+	private ConfigException error(String message, Throwable cause) {
+		return new ConfigException(message, cause, lineNumber, position);
+	}
+	
+	private boolean startsWith(String prefix) {
+		return line.startsWith(prefix, position);
+	}
+	
+	private void expectLineEnd() {
+		while(position < line.length() && Character.isWhitespace(line.charAt(position))) position++;
+		if(position < line.length()) throw error("Unexpected character '" + line.charAt(position) + "'");
+	}
+	
+	public String readVersionDescriptor() throws IOException {
+		if(line == null) throw error("Failed to read version descriptor: EOF reached");
+		if(!startsWith("###")) throw error("Version descriptor expected");
+		String vDesc = line.substring(position + 3).trim();
+		if(!vDesc.startsWith(VERSION_PREFIX)) throw error("Invalid version descriptor");
+		nextLine();
+		return vDesc.substring(VERSION_PREFIX.length()).trim();
+	}
+	
+	public String readHeader() throws IOException {
+		StringBuilder header = new StringBuilder();
+		boolean first = true;
+		while(line != null && startsWith("##")) {
+			if(!first) header.append('\n');
+			header.append(line, position + 2, line.length());
+			first = false;
+			nextLine();
+		}
+		return header.toString();
+	}
+	
+	/**
+	 * Reads a subsection whose properties are indented by the given level. Reading stops at the first line which is indented less or at the end of the input
+	 * @param indents The indentation level of the subsection
+	 * @return The subsection
+	 * @throws IOException If an I/O error occurs
+	 */
+	public ConfigSectionDescriptor readSubsection(int indents) throws IOException {
+		ConfigSectionDescriptor section = new ConfigSectionDescriptor();
+		int startLine = lineNumber;
+		List<String> commentBuffer = null;
+		while(line != null) {
+			if(line.charAt(position) == '#') {
+				if(indent / 2 < indents) break; // Comment of a property in one of the parent sections
+				if(commentBuffer == null) commentBuffer = new ArrayList<>();
+				commentBuffer.add(line.substring(position + 1));
+				nextLine();
+				continue;
+			}
+			int level = readIndentLevel();
+			if(level < indents) break;
+			if(level > indents) throw error("Invalid amount of indents");
+			int colon = line.indexOf(':', position);
+			if(colon == -1) throw error("Invalid property descriptor");
+			String key = line.substring(position, colon);
+			position = colon + 1;
+			if(commentBuffer != null) {
+				section.getComments().put(key, String.join("\n", commentBuffer));
+				commentBuffer = null;
+			}
+			section.getProperties().put(key, readPropertyValue(indents));
+		}
+		if(section.getProperties().isEmpty() && indents > 0) throw new ConfigException("Empty subsection", startLine, 0);
+		return section;
+	}
+	
+	private int readIndentLevel() {
+		if(indent % 2 != 0) throw error("Invalid indentation: indents % 2 != 0");
+		return indent / 2;
+	}
+	
+	private Object readPropertyValue(int indents) throws IOException {
+		while(position < line.length() && Character.isWhitespace(line.charAt(position))) position++;
+		if(position == line.length()) { // Value continues on the next line
+			nextLine();
+			return readListOrSubsection(indents + 1);
+		}
+		Object value = readInlineValue();
+		expectLineEnd();
+		nextLine();
+		return value;
+	}
+	
+	private Object readListOrSubsection(int indents) throws IOException {
+		if(line == null) throw error("Empty subsection: EOF reached");
+		if(line.charAt(position) == '-') return readList(indents);
+		return readSubsection(indents);
+	}
+	
+	/**
+	 * Reads a list whose entries are indented by the given level
+	 * @param indents The indentation level of the list
+	 * @return The list
+	 * @throws IOException If an I/O error occurs
+	 */
+	public List<Object> readList(int indents) throws IOException {
+		List<Object> list = new ArrayList<>();
+		int startLine = lineNumber;
+		while(line != null) {
+			int level = readIndentLevel();
+			if(level < indents) break;
+			if(level > indents) throw error("Invalid amount of indents");
+			if(line.charAt(position) != '-') throw error("Invalid list entry, unexpected character '" + line.charAt(position) + "'");
+			position++;
+			while(position < line.length() && Character.isWhitespace(line.charAt(position))) position++;
+			if(position == line.length()) throw error("Empty list entry value");
+			if(line.charAt(position) == '{') {
+				position++;
+				expectLineEnd();
+				nextLine();
+				list.add(readListOrSubsection(indents + 1));
+				readClosingBracket(indents);
+			}else {
+				list.add(readInlineValue());
+				expectLineEnd();
+				nextLine();
+			}
+		}
+		if(list.isEmpty()) throw new ConfigException("Empty list", startLine, 0);
+		return list;
+	}
+	
+	private void readClosingBracket(int indents) throws IOException {
+		if(line == null) throw error("Failed to read closing bracket: EOF reached");
+		if(readIndentLevel() != indents || line.charAt(position) != '}') throw error("Missing closing bracket, unexpected character '" + line.charAt(position) + "'");
+		position++;
+		expectLineEnd();
+		nextLine();
+	}
+	
+	private Object readInlineValue() {
+		char c = line.charAt(position);
+		if(Character.isDigit(c) || c == '-') return readNumber();
+		switch(c) {
+			case 'n':
+				return readLiteral("null", null);
+			case 't':
+				return readLiteral("true", true);
+			case 'f':
+				return readLiteral("false", false);
+			case '"':
+				return readString();
+			case '\'':
+				return readCharacter();
+			case '[':
+				if(!startsWith("[]")) throw error("Invalid property value");
+				position += 2;
+				return Collections.emptyList();
+			default:
+				throw error("Invalid property value: " + c);
+		}
+	}
+	
+	private Object readLiteral(String literal, Object value) {
+		if(!startsWith(literal)) throw error("Invalid property value");
+		position += literal.length();
+		return value;
+	}
+	
+	private Number readNumber() {
+		int start = position;
+		boolean isDouble = false;
+		while(position < line.length()) {
+			char c = line.charAt(position);
+			if(c == '.' || c == 'e' || c == 'E') {
+				isDouble = true;
+			}else if(c != '-' && !Character.isDigit(c)) {
+				break;
+			}
+			position++;
+		}
+		String number = line.substring(start, position);
+		try {
+			return isDouble ? (Number) Double.valueOf(number) : (Number) Long.valueOf(number);
+		}catch(NumberFormatException e) {
+			throw error("Failed to parse number", e);
+		}
+	}
+	
+	private String readString() {
+		position++; // Opening quote
+		buffer.setLength(0);
+		while(position < line.length()) {
+			char c = line.charAt(position++);
+			switch(c) {
+				case '"':
+					return buffer.toString();
+				case '\\':
+					buffer.append(readEscaped());
+					break;
+				default:
+					buffer.append(c);
+					break;
+			}
+		}
+		throw error("Missing end of string");
+	}
+	
+	private char readCharacter() {
+		position++; // Opening quote
+		if(position >= line.length()) throw error("Missing end of string");
+		char c = line.charAt(position++);
+		if(c == '\\') c = readEscaped();
+		if(position >= line.length() || line.charAt(position++) != '\'') throw error("Missing end of string");
+		return c;
+	}
+	
+	private char readEscaped() {
+		if(position >= line.length()) throw error("Failed to read special character: EOL reached");
+		char c = line.charAt(position++); // After the backslash
+		switch(c) {
+			case 'b':
+				return '\b';
+			case 'f':
+				return '\f';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 't':
+				return '\t';
+			case 'u':
+				if(position + 4 > line.length()) throw error("Failed to read special character: EOL reached");
+				String hex = line.substring(position, position + 4);
+				try {
+					char ch = (char) Integer.parseInt(hex, 16);
+					position += 4;
+					return ch;
+				}catch(NumberFormatException e) {
+					throw error("Invalid special char: \\u" + hex, e);
+				}
+			case '"':
+			case '\\':
+			default:
+				return c;
+		}
+	}
+	
+}
@@ -0,0 +1,154 @@
+package me.mrletsplay.mrcore.config.mapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import me.mrletsplay.mrcore.misc.CastingFunction;
+
+/**
+ * A set of {@link ObjectMapper}s with their priorities, indexed by the runtime class of the objects to map/construct.<br>
+ * Instead of checking every registered mapper for every object, the mappers which could possibly map or construct objects of a specific class are computed once per class and cached until another mapper is registered.<br>
+ * The candidates returned by this index are a superset of the mappers which can actually map/construct a specific object, so {@link ObjectMapper#canMap(Object, CastingFunction)} and {@link ObjectMapper#canConstruct(Object, CastingFunction)} still need to be checked for them. Mappers which override these methods are always included
+ * @author MrLetsplay2003
+ */
+public class ObjectMapperIndex {
+
+	private Map<ObjectMapper<?, ?>, Integer> mappers;
+	private volatile List<Entry> entries;
+	private volatile Map<Class<?>, List<ObjectMapper<?, ?>>> mappingCandidates;
+	private volatile Map<Class<?>, List<ObjectMapper<?, ?>>> constructingCandidates;
+	private volatile Map<Class<?>, List<ObjectMapper<?, ?>>> constructingCandidatesDescending;
+	private volatile List<ObjectMapper<?, ?>> allMappers;
+
+	public ObjectMapperIndex() {
+		this.mappers = new LinkedHashMap<>();
+		rebuild();
+	}
+
+	public ObjectMapperIndex(Map<ObjectMapper<?, ?>, Integer> mappers) {
+		this.mappers = new LinkedHashMap<>(mappers);
+		rebuild();
+	}
+
+	/**
+	 * Registers a mapper with the given priority and clears all cached candidates
+	 * @param priority The priority of the mapper
+	 * @param mapper The mapper to register
+	 */
+	public synchronized void register(int priority, ObjectMapper<?, ?> mapper) {
+		mappers.put(mapper, priority);
+		rebuild();
+	}
+
+	/**
+	 * @return An unmodifiable map containing all registered mappers and their priorities
+	 */
+	public Map<ObjectMapper<?, ?>, Integer> getMappers() {
+		return Collections.unmodifiableMap(mappers);
+	}
+
+	/**
+	 * Returns all mappers which might be able to map an object of the given class, sorted by ascending priority
+	 * @param clazz The runtime class of the object, null for {@code null}
+	 * @return The candidate mappers
+	 */
+	public List<ObjectMapper<?, ?>> getMappingCandidates(Class<?> clazz) {
+		if(clazz == null) return allMappers;
+		Map<Class<?>, List<ObjectMapper<?, ?>>> cache = mappingCandidates;
+		List<ObjectMapper<?, ?>> c = cache.get(clazz);
+		if(c == null) {
+			c = computeCandidates(entries, clazz, true);
+			cache.put(clazz, c);
+		}
+		return c;
+	}
+
+	/**
+	 * Returns all mappers which might be able to construct an object from an object of the given class
+	 * @param clazz The runtime class of the object, null for {@code null}
+	 * @param highestPriorityFirst Whether to sort the mappers by descending instead of ascending priority
+	 * @return The candidate mappers
+	 */
+	public List<ObjectMapper<?, ?>> getConstructingCandidates(Class<?> clazz, boolean highestPriorityFirst) {
+		if(clazz == null) return Collections.emptyList();
+		Map<Class<?>, List<ObjectMapper<?, ?>>> cache = highestPriorityFirst ? constructingCandidatesDescending : constructingCandidates;
+		List<ObjectMapper<?, ?>> c = cache.get(clazz);
+		if(c == null) {
+			List<Entry> es = entries;
+			if(highestPriorityFirst) {
+				es = new ArrayList<>(es);
+				es.sort(Comparator.comparingInt((Entry e) -> e.priority).reversed());
+			}
+			c = computeCandidates(es, clazz, false);
+			cache.put(clazz, c);
+		}
+		return c;
+	}
+
+	private void rebuild() {
+		List<Entry> es = new ArrayList<>();
+		mappers.forEach((m, p) -> es.add(new Entry(m, p)));
+		es.sort(Comparator.comparingInt(e -> e.priority));
+		List<ObjectMapper<?, ?>> all = new ArrayList<>();
+		es.forEach(e -> all.add(e.mapper));
+
+		// Replace the caches instead of clearing them, so lookups which are running concurrently can't put stale results into the new caches
+		this.entries = Collections.unmodifiableList(es);
+		this.allMappers = Collections.unmodifiableList(all);
+		this.mappingCandidates = new ConcurrentHashMap<>();
+		this.constructingCandidates = new ConcurrentHashMap<>();
+		this.constructingCandidatesDescending = new ConcurrentHashMap<>();
+	}
+
+	private static List<ObjectMapper<?, ?>> computeCandidates(List<Entry> entries, Class<?> clazz, boolean mapping) {
+		List<ObjectMapper<?, ?>> c = new ArrayList<>();
+		for(Entry e : entries) {
+			if(mapping ? e.customCanMap || isCastable(clazz, e.mapper.getMappingClass().getBaseClass()) : e.customCanConstruct || e.mapper.getMappedClass().getBaseClass().isAssignableFrom(clazz)) {
+				c.add(e.mapper);
+			}
+		}
+		return c.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(c);
+	}
+
+	/**
+	 * Checks whether objects of the class {@code from} can be cast to {@code to} by the default casting function of a config section
+	 * @param from The class to cast from
+	 * @param to The class to cast to
+	 * @return Whether the objects might be castable
+	 */
+	private static boolean isCastable(Class<?> from, Class<?> to) {
+		if(to.isAssignableFrom(from)) return true;
+		if(Number.class.isAssignableFrom(to)) return Number.class.isAssignableFrom(from);
+		if(to.equals(String.class)) return Number.class.isAssignableFrom(from) || Character.class.equals(from);
+		return false;
+	}
+
+	private static boolean overrides(ObjectMapper<?, ?> mapper, String methodName) {
+		try {
+			return !mapper.getClass().getMethod(methodName, Object.class, CastingFunction.class).getDeclaringClass().equals(ObjectMapper.class);
+		}catch(NoSuchMethodException e) {
+			return true;
+		}
+	}
+
+	private static class Entry {
+
+		private final ObjectMapper<?, ?> mapper;
+		private final int priority;
+		private final boolean customCanMap, customCanConstruct;
+
+		public Entry(ObjectMapper<?, ?> mapper, int priority) {
+			this.mapper = mapper;
+			this.priority = priority;
+			this.customCanMap = overrides(mapper, "canMap");
+			this.customCanConstruct = overrides(mapper, "canConstruct");
+		}
+
+	}
+
+}
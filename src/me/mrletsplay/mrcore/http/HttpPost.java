@@ -1,5 +1,6 @@
 package me.mrletsplay.mrcore.http;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.Proxy;
@@ -10,6 +11,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import me.mrletsplay.mrcore.json.JSONBinaryFormat;
+import me.mrletsplay.mrcore.json.JSONWriter;
+
 public class HttpPost implements HttpRequest {
 
 	private String url;
@@ -19,6 +23,7 @@ public class HttpPost implements HttpRequest {
 		headerParameters,
 		postParameters;
 	
+	private byte[] content;
 	private int timeout;
 	private Proxy proxy;
 
@@ -67,6 +72,46 @@ public class HttpPost implements HttpRequest {
 		return this;
 	}
 	
+	/**
+	 * Sets the raw content of this request<br>
+	 * If content is set, it will be sent instead of the post parameters
+	 * @param content The content to send
+	 * @return This request
+	 */
+	public HttpPost setContent(byte[] content) {
+		this.content = content;
+		return this;
+	}
+	
+	/**
+	 * Sets the content of this request to the given JSON value and sets the Content-Type header to {@code application/json}<br>
+	 * The value is written using a {@link JSONWriter}, so no intermediate string representation is created
+	 * @param json The JSON value to send
+	 * @return This request
+	 * @see #setContent(byte[])
+	 */
+	public HttpPost setJSONContent(Object json) {
+		ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+		try(JSONWriter w = new JSONWriter(bOut, false)) {
+			w.writeValue(json);
+		} catch (IOException e) {
+			throw new HttpException(e);
+		}
+		setHeaderParameter("Content-Type", "application/json");
+		return setContent(bOut.toByteArray());
+	}
+	
+	/**
+	 * Sets the content of this request to the binary form of the given JSON value and sets the Content-Type header to {@code application/cbor}
+	 * @param json The JSON value to send
+	 * @return This request
+	 * @see JSONBinaryFormat
+	 */
+	public HttpPost setBinaryJSONContent(Object json) {
+		setHeaderParameter("Content-Type", "application/cbor");
+		return setContent(JSONBinaryFormat.formatObject(json));
+	}
+	
 	@Override
 	public HttpPost setTimeout(int timeout) {
 		this.timeout = timeout;
@@ -79,15 +124,18 @@ public class HttpPost implements HttpRequest {
 		return this;
 	}
 
+	private byte[] getPostData() {
+		if(content != null) return content;
+		if(postParameters.isEmpty()) return null;
+		return postParameters.entrySet().stream()
+				.map(e -> HttpUtils.urlEncode(e.getKey()) + "=" + HttpUtils.urlEncode(e.getValue()))
+				.collect(Collectors.joining("&")).getBytes(StandardCharsets.UTF_8);
+	}
+
 	@Override
 	public HttpResult execute() {
 		try {
-			byte[] postData = null;
-			if(postParameters.size() > 0) {
-				postData = postParameters.entrySet().stream()
-						.map(e -> HttpUtils.urlEncode(e.getKey()) + "=" + HttpUtils.urlEncode(e.getValue()))
-						.collect(Collectors.joining("&")).getBytes(StandardCharsets.UTF_8);
-			}
+			byte[] postData = getPostData();
 			return HttpResult.retrieveFrom(url, "POST", queryParameters, headerParameters, postData, timeout, proxy, false);
 		} catch (IOException e) {
 			throw new HttpException(e);
@@ -97,12 +145,7 @@ public class HttpPost implements HttpRequest {
 	@Override
 	public HttpResult executeUntilUnavailable() {
 		try {
-			byte[] postData = null;
-			if(postParameters.size() > 0) {
-				postData = postParameters.entrySet().stream()
-						.map(e -> HttpUtils.urlEncode(e.getKey()) + "=" + HttpUtils.urlEncode(e.getValue()))
-						.collect(Collectors.joining("&")).getBytes(StandardCharsets.UTF_8);
-			}
+			byte[] postData = getPostData();
 			return HttpResult.retrieveFrom(url, "POST", queryParameters, headerParameters, postData, timeout, proxy, true);
 		} catch (IOException e) {
 			throw new HttpException(e);
@@ -112,12 +155,7 @@ public class HttpPost implements HttpRequest {
 	@Override
 	public InputStream executeAsInputStream() {
 		try {
-			byte[] postData = null;
-			if(postParameters.size() > 0) {
-				postData = postParameters.entrySet().stream()
-						.map(e -> HttpUtils.urlEncode(e.getKey()) + "=" + HttpUtils.urlEncode(e.getValue()))
-						.collect(Collectors.joining("&")).getBytes(StandardCharsets.UTF_8);
-			}
+			byte[] postData = getPostData();
 			return HttpResult.retrieveAsInputStreamFrom(url, "POST", queryParameters, headerParameters, postData, timeout, proxy);
 		} catch (IOException e) {
 			throw new HttpException(e);
@@ -3,6 +3,8 @@ package me.mrletsplay.mrcore.http;
 import java.io.InputStream;
 import java.net.Proxy;
 
+import me.mrletsplay.mrcore.json.JSONReader;
+
 public interface HttpRequest {
 	
 	/**
@@ -69,6 +71,16 @@ public interface HttpRequest {
 	 * @throws HttpException If an I/O error occurs while executing the request
 	 */
 	public InputStream executeAsInputStream();
+	
+	/**
+	 * Executes the request and returns a {@link JSONReader} reading directly from the response stream<br>
+	 * This allows large JSON responses to be processed without keeping the entire response in memory
+	 * @return A JSON reader for the result received after execution
+	 * @throws HttpException If an I/O error occurs while executing the request
+	 */
+	public default JSONReader executeAsJSONReader() {
+		return new JSONReader(executeAsInputStream());
+	}
 
 	/**
 	 * Creates a generic request represented by an {@link HttpGeneric} instance
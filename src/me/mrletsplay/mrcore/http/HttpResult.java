@@ -1,5 +1,6 @@
 package me.mrletsplay.mrcore.http;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -15,7 +16,11 @@ import java.util.stream.Collectors;
 
 import me.mrletsplay.mrcore.io.IOUtils;
 import me.mrletsplay.mrcore.json.JSONArray;
+import me.mrletsplay.mrcore.json.JSONBinaryFormat;
 import me.mrletsplay.mrcore.json.JSONObject;
+import me.mrletsplay.mrcore.json.JSONParseFlag;
+import me.mrletsplay.mrcore.json.JSONParser;
+import me.mrletsplay.mrcore.json.JSONReader;
 
 public class HttpResult {
 
@@ -43,11 +48,48 @@ public class HttpResult {
 	}
 	
 	public JSONObject asJSONObject() {
-		return new JSONObject(asString());
+		return (JSONObject) JSONParser.parse(new ByteArrayInputStream(asRaw()));
 	}
 	
 	public JSONArray asJSONArray() {
-		return new JSONArray(asString());
+		return (JSONArray) JSONParser.parse(new ByteArrayInputStream(asRaw()));
+	}
+	
+	/**
+	 * Parses the raw content of this result as a JSON object using the given flags
+	 * @param flags The flags to use for parsing
+	 * @return The parsed JSON object
+	 * @see JSONParseFlag
+	 */
+	public JSONObject asJSONObject(JSONParseFlag... flags) {
+		return (JSONObject) JSONParser.parse(new ByteArrayInputStream(asRaw()), flags);
+	}
+	
+	/**
+	 * Parses the raw content of this result as a JSON array using the given flags
+	 * @param flags The flags to use for parsing
+	 * @return The parsed JSON array
+	 * @see JSONParseFlag
+	 */
+	public JSONArray asJSONArray(JSONParseFlag... flags) {
+		return (JSONArray) JSONParser.parse(new ByteArrayInputStream(asRaw()), flags);
+	}
+	
+	/**
+	 * Creates a {@link JSONReader} reading from the raw content of this result without building an intermediate string or JSON tree
+	 * @return A JSON reader for this result
+	 */
+	public JSONReader asJSONReader() {
+		return new JSONReader(new ByteArrayInputStream(asRaw()));
+	}
+	
+	/**
+	 * Decodes the raw content of this result as a binary encoded JSON value
+	 * @return The decoded JSON value
+	 * @see JSONBinaryFormat
+	 */
+	public Object asBinaryJSON() {
+		return JSONBinaryFormat.parse(asRaw());
 	}
 	
 	public String asString() {
@@ -0,0 +1,514 @@
+package me.mrletsplay.mrcore.json;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A {@link JSONObject} which stores its properties in a small array instead of a hash table.<br>
+ * Lookups are done using a linear scan, which is cheaper than hashing for small objects and requires far less memory.<br>
+ * Once more than {@link #MAX_COMPACT_SIZE} properties are added, the object transparently switches to the regular hash table representation of {@link JSONObject}<br>
+ * <br>
+ * Instances behave exactly like normal JSON objects, including preserving the insertion order of properties
+ * @author MrLetsplay2003
+ * @see JSONParseFlag#COMPACT_OBJECTS
+ */
+public class CompactJSONObject extends JSONObject {
+
+	private static final long serialVersionUID = -3153491876493004167L;
+
+	/**
+	 * The maximum amount of properties this object can hold before switching to the hash table representation
+	 */
+	public static final int MAX_COMPACT_SIZE = 8;
+
+	private static final int INITIAL_CAPACITY = 4;
+
+	private transient Object[] table;
+	private transient int size;
+	private transient int modCount;
+	private transient boolean inflated;
+
+	/**
+	 * Creates an empty compact JSON object
+	 */
+	public CompactJSONObject() {
+		super();
+	}
+
+	/**
+	 * Creates a compact JSON object which has identical properties to the Map parameter<br>
+	 * Giving null as a parameter will result in an empty JSONObject, no exception will be thrown
+	 * @param fromMap The Map to copy
+	 */
+	public CompactJSONObject(Map<String, ?> fromMap) {
+		super();
+		if(fromMap != null) putAll(fromMap);
+	}
+
+	/**
+	 * @return Whether this object has switched to the hash table representation because it contains too many properties
+	 */
+	public boolean isInflated() {
+		return inflated;
+	}
+
+	private int indexOf(Object key) {
+		for(int i = 0; i < size; i++) {
+			Object k = table[i * 2];
+			if(k == key || (key != null && key.equals(k))) return i;
+		}
+		return -1;
+	}
+
+	private void inflate() {
+		if(inflated) return;
+		inflated = true;
+		for(int i = 0; i < size; i++) {
+			super.put((String) table[i * 2], table[i * 2 + 1]);
+		}
+		table = null;
+		size = 0;
+		modCount++;
+	}
+
+	private void removeAt(int index) {
+		int next = (index + 1) * 2;
+		System.arraycopy(table, next, table, index * 2, (size * 2) - next);
+		size--;
+		table[size * 2] = null;
+		table[size * 2 + 1] = null;
+		modCount++;
+	}
+
+	@Override
+	public int size() {
+		return inflated ? super.size() : size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if(inflated) return super.containsKey(key);
+		return indexOf(key) != -1;
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		if(inflated) return super.containsValue(value);
+		for(int i = 0; i < size; i++) {
+			if(Objects.equals(table[i * 2 + 1], value)) return true;
+		}
+		return false;
+	}
+
+	@Override
+	public Object get(String key) {
+		if(inflated) return super.get(key);
+		int idx = indexOf(key);
+		if(idx == -1) throw new JSONException("Object doesn't have the property \""+key+"\"");
+		return table[idx * 2 + 1];
+	}
+
+	@Override
+	public Object get(Object key) {
+		if(inflated) return super.get(key);
+		int idx = indexOf(key);
+		return idx == -1 ? null : table[idx * 2 + 1];
+	}
+
+	@Override
+	public Object getOrDefault(Object key, Object defaultValue) {
+		if(inflated) return super.getOrDefault(key, defaultValue);
+		int idx = indexOf(key);
+		return idx == -1 ? defaultValue : table[idx * 2 + 1];
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		if(inflated) return super.put(key, value);
+		int idx = indexOf(key);
+		if(idx != -1) {
+			Object old = table[idx * 2 + 1];
+			table[idx * 2 + 1] = value;
+			return old;
+		}
+		if(size == MAX_COMPACT_SIZE) {
+			inflate();
+			return super.put(key, value);
+		}
+		if(table == null) {
+			table = new Object[INITIAL_CAPACITY * 2];
+		}else if(size * 2 == table.length) {
+			table = Arrays.copyOf(table, Math.min(table.length * 2, MAX_COMPACT_SIZE * 2));
+		}
+		table[size * 2] = key;
+		table[size * 2 + 1] = value;
+		size++;
+		modCount++;
+		return null;
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends Object> m) {
+		if(!inflated && size + m.size() > MAX_COMPACT_SIZE) inflate();
+		if(inflated) {
+			super.putAll(m);
+			return;
+		}
+		for(Map.Entry<? extends String, ? extends Object> en : m.entrySet()) {
+			put(en.getKey(), en.getValue());
+		}
+	}
+
+	@Override
+	public Object remove(Object key) {
+		if(inflated) return super.remove(key);
+		int idx = indexOf(key);
+		if(idx == -1) return null;
+		Object old = table[idx * 2 + 1];
+		removeAt(idx);
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		if(inflated) {
+			super.clear();
+			inflated = false;
+		}
+		table = null;
+		size = 0;
+		modCount++;
+	}
+
+	@Override
+	public Object putIfAbsent(String key, Object value) {
+		if(inflated) return super.putIfAbsent(key, value);
+		Object v = get((Object) key);
+		if(v == null) v = put(key, value);
+		return v;
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		if(inflated) return super.remove(key, value);
+		int idx = indexOf(key);
+		if(idx == -1 || !Objects.equals(table[idx * 2 + 1], value)) return false;
+		removeAt(idx);
+		return true;
+	}
+
+	@Override
+	public boolean replace(String key, Object oldValue, Object newValue) {
+		if(inflated) return super.replace(key, oldValue, newValue);
+		int idx = indexOf(key);
+		if(idx == -1 || !Objects.equals(table[idx * 2 + 1], oldValue)) return false;
+		table[idx * 2 + 1] = newValue;
+		return true;
+	}
+
+	@Override
+	public Object replace(String key, Object value) {
+		if(inflated) return super.replace(key, value);
+		int idx = indexOf(key);
+		if(idx == -1) return null;
+		Object old = table[idx * 2 + 1];
+		table[idx * 2 + 1] = value;
+		return old;
+	}
+
+	@Override
+	public Object computeIfAbsent(String key, Function<? super String, ? extends Object> mappingFunction) {
+		if(inflated) return super.computeIfAbsent(key, mappingFunction);
+		Object v = get((Object) key);
+		if(v == null) {
+			v = mappingFunction.apply(key);
+			if(v != null) put(key, v);
+		}
+		return v;
+	}
+
+	@Override
+	public Object computeIfPresent(String key, BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+		if(inflated) return super.computeIfPresent(key, remappingFunction);
+		Object old = get((Object) key);
+		if(old == null) return null;
+		Object v = remappingFunction.apply(key, old);
+		if(v == null) {
+			remove(key);
+		}else {
+			put(key, v);
+		}
+		return v;
+	}
+
+	@Override
+	public Object compute(String key, BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+		if(inflated) return super.compute(key, remappingFunction);
+		Object old = get((Object) key);
+		Object v = remappingFunction.apply(key, old);
+		if(v == null) {
+			if(old != null || containsKey(key)) remove(key);
+			return null;
+		}
+		put(key, v);
+		return v;
+	}
+
+	@Override
+	public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction) {
+		if(inflated) return super.merge(key, value, remappingFunction);
+		Objects.requireNonNull(value);
+		Object old = get((Object) key);
+		Object v = old == null ? value : remappingFunction.apply(old, value);
+		if(v == null) {
+			remove(key);
+		}else {
+			put(key, v);
+		}
+		return v;
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super String, ? super Object> action) {
+		if(inflated) {
+			super.forEach(action);
+			return;
+		}
+		int mc = modCount;
+		for(int i = 0; i < size; i++) {
+			action.accept((String) table[i * 2], table[i * 2 + 1]);
+			if(mc != modCount) throw new ConcurrentModificationException();
+		}
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super String, ? super Object, ? extends Object> function) {
+		if(inflated) {
+			super.replaceAll(function);
+			return;
+		}
+		int mc = modCount;
+		for(int i = 0; i < size; i++) {
+			table[i * 2 + 1] = function.apply((String) table[i * 2], table[i * 2 + 1]);
+			if(mc != modCount) throw new ConcurrentModificationException();
+		}
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		if(inflated) return super.entrySet();
+		return new EntrySet();
+	}
+
+	@Override
+	public Set<String> keySet() {
+		if(inflated) return super.keySet();
+		return new KeySet();
+	}
+
+	@Override
+	public Collection<Object> values() {
+		if(inflated) return super.values();
+		return new Values();
+	}
+
+	@Override
+	public Object clone() {
+		return new CompactJSONObject(this);
+	}
+
+	private Object writeReplace() {
+		return new JSONObject(this);
+	}
+
+	private abstract class CompactIterator<T> implements Iterator<T> {
+
+		private int index, expectedModCount = modCount;
+		private boolean canRemove;
+
+		@Override
+		public boolean hasNext() {
+			// Report a pending element after a modification (e.g. inflation, which clears the compact table), so next() fails fast
+			return index < size || expectedModCount != modCount;
+		}
+
+		@Override
+		public T next() {
+			if(expectedModCount != modCount) throw new ConcurrentModificationException();
+			if(index >= size) throw new NoSuchElementException();
+			canRemove = true;
+			return get(index++);
+		}
+
+		@Override
+		public void remove() {
+			if(!canRemove) throw new IllegalStateException();
+			if(expectedModCount != modCount) throw new ConcurrentModificationException();
+			removeAt(--index);
+			expectedModCount = modCount;
+			canRemove = false;
+		}
+
+		protected abstract T get(int index);
+
+	}
+
+	private class CompactEntry implements Map.Entry<String, Object> {
+
+		private int index;
+
+		public CompactEntry(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public String getKey() {
+			return (String) table[index * 2];
+		}
+
+		@Override
+		public Object getValue() {
+			return table[index * 2 + 1];
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			Object old = table[index * 2 + 1];
+			table[index * 2 + 1] = value;
+			return old;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Map.Entry)) return false;
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+			return Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+		}
+
+		@Override
+		public String toString() {
+			return getKey() + "=" + getValue();
+		}
+
+	}
+
+	private class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+		@Override
+		public Iterator<Map.Entry<String, Object>> iterator() {
+			if(inflated) return CompactJSONObject.super.entrySet().iterator();
+			return new CompactIterator<Map.Entry<String, Object>>() {
+
+				@Override
+				protected Map.Entry<String, Object> get(int index) {
+					return new CompactEntry(index);
+				}
+
+			};
+		}
+
+		@Override
+		public int size() {
+			return CompactJSONObject.this.size();
+		}
+
+		@Override
+		public void clear() {
+			CompactJSONObject.this.clear();
+		}
+
+	}
+
+	private class KeySet extends AbstractSet<String> {
+
+		@Override
+		public Iterator<String> iterator() {
+			if(inflated) return CompactJSONObject.super.keySet().iterator();
+			return new CompactIterator<String>() {
+
+				@Override
+				protected String get(int index) {
+					return (String) table[index * 2];
+				}
+
+			};
+		}
+
+		@Override
+		public int size() {
+			return CompactJSONObject.this.size();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return containsKey(o);
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if(!containsKey(o)) return false;
+			CompactJSONObject.this.remove(o);
+			return true;
+		}
+
+		@Override
+		public void clear() {
+			CompactJSONObject.this.clear();
+		}
+
+	}
+
+	private class Values extends AbstractCollection<Object> {
+
+		@Override
+		public Iterator<Object> iterator() {
+			if(inflated) return CompactJSONObject.super.values().iterator();
+			return new CompactIterator<Object>() {
+
+				@Override
+				protected Object get(int index) {
+					return table[index * 2 + 1];
+				}
+
+			};
+		}
+
+		@Override
+		public int size() {
+			return CompactJSONObject.this.size();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return containsValue(o);
+		}
+
+		@Override
+		public void clear() {
+			CompactJSONObject.this.clear();
+		}
+
+	}
+
+}
@@ -136,7 +136,7 @@ public class JSONArray extends ArrayList<Object> {
 	 */
 	@Override
 	public String toString() {
-		return JSONFormatter.formatArray(this, 0, false).toString();
+		return JSONFormatter.formatObject(this, false);
 	}
 	
 	/**
@@ -144,7 +144,30 @@ public class JSONArray extends ArrayList<Object> {
 	 * @throws JSONException If a conversion error occurs (e.g. a property has an invalid type)
 	 */
 	public String toFancyString() {
-		return JSONFormatter.formatArray(this, 0, true).toString();
+		return JSONFormatter.formatObject(this, true);
+	}
+	
+	/**
+	 * Encodes this JSON array into its compact binary form
+	 * @return The binary form of this array
+	 * @throws JSONFormatException If a conversion error occurs (e.g. a property has an invalid type)
+	 * @see JSONBinaryFormat
+	 */
+	public byte[] toBinary() {
+		return JSONBinaryFormat.formatObject(this);
+	}
+	
+	/**
+	 * Decodes a JSON array from its binary form as created by {@link #toBinary()}
+	 * @param data The binary form of the array
+	 * @return The decoded JSON array
+	 * @throws JSONParseException If the data is not a valid encoded JSON array
+	 * @see JSONBinaryFormat
+	 */
+	public static JSONArray fromBinary(byte[] data) {
+		Object o = JSONBinaryFormat.parse(data);
+		if(!(o instanceof JSONArray)) throw new JSONParseException("Encoded value is not a JSON array", 0);
+		return (JSONArray) o;
 	}
 	
 }
@@ -0,0 +1,393 @@
+package me.mrletsplay.mrcore.json;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Provides methods for encoding JSON values into a compact binary form and decoding them again<br>
+ * The binary form is a subset of <a href="https://www.rfc-editor.org/rfc/rfc8949">CBOR</a>, so it can also be read by other CBOR implementations<br>
+ * <br>
+ * Values round-trip exactly as they would be returned by {@link JSONParser#parse(String)}, meaning integers are decoded as {@link Long}s and floating point numbers as {@link Double}s.<br>
+ * {@link BigInteger}s and {@link BigDecimal}s are encoded as integers or floating point numbers as well. Values which can't be represented exactly as a {@code long} or {@code double} can't be encoded<br>
+ * When decoding, declared lengths are checked against the remaining input (if it is known) before allocating any memory, so malformed or malicious data can't cause huge allocations
+ * @author MrLetsplay2003
+ */
+public class JSONBinaryFormat {
+
+	private static final int
+		MAJOR_UNSIGNED = 0,
+		MAJOR_NEGATIVE = 1,
+		MAJOR_BYTES = 2,
+		MAJOR_TEXT = 3,
+		MAJOR_ARRAY = 4,
+		MAJOR_MAP = 5,
+		MAJOR_TAG = 6,
+		MAJOR_SIMPLE = 7;
+
+	private static final int
+		SIMPLE_FALSE = 0xF4,
+		SIMPLE_TRUE = 0xF5,
+		SIMPLE_NULL = 0xF6,
+		FLOAT_16 = 0xF9,
+		FLOAT_32 = 0xFA,
+		FLOAT_64 = 0xFB;
+
+	private static final int CHUNK_SIZE = 8192;
+
+	private JSONBinaryFormat() {}
+
+	/**
+	 * Encodes the JSON value into its binary form.<br>
+	 * Allowed types are the same as for {@link JSONFormatter#formatObject(Object, boolean)}
+	 * @param object The value to encode
+	 * @return The binary form of the value
+	 * @throws JSONFormatException If the value can't be encoded
+	 */
+	public static byte[] formatObject(Object object) {
+		ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+		try {
+			writeGeneric(bOut, object);
+		} catch (IOException e) {
+			throw new JSONFormatException("Failed to encode object", e);
+		}
+		return bOut.toByteArray();
+	}
+
+	/**
+	 * Encodes the JSON value into its binary form and writes it to the given output stream
+	 * @param object The value to encode
+	 * @param out The output stream to write to
+	 * @throws JSONFormatException If the value can't be encoded or an I/O error occurs
+	 * @see #formatObject(Object)
+	 */
+	public static void formatObject(Object object, OutputStream out) {
+		try {
+			BufferedOutputStream bOut = new BufferedOutputStream(out);
+			writeGeneric(bOut, object);
+			bOut.flush();
+		} catch (IOException e) {
+			throw new JSONFormatException("Failed to encode object", e);
+		}
+	}
+
+	/**
+	 * Decodes a JSON value from its binary form
+	 * @param data The binary form of the value
+	 * @return The decoded value
+	 * @throws JSONParseException If the data is not a valid encoded JSON value
+	 */
+	public static Object parse(byte[] data) {
+		if(data == null) return null;
+		BinaryReader r = new BinaryReader(data);
+		Object v = r.readGeneric();
+		if(r.position != data.length) throw new JSONParseException("Didn't reach end after parsed value", r.position);
+		return v;
+	}
+
+	/**
+	 * Decodes a single JSON value from the given input stream<br>
+	 * This will read exactly one value. Any data following that value will not be consumed from the stream, so the stream should be buffered for better performance
+	 * @param in The input stream to read from
+	 * @return The decoded value
+	 * @throws JSONParseException If the data is not a valid encoded JSON value or an I/O error occurs
+	 */
+	public static Object parse(InputStream in) {
+		if(in == null) return null;
+		return new BinaryReader(in, -1).readGeneric();
+	}
+
+	private static void writeGeneric(OutputStream out, Object object) throws IOException {
+		if(object == null) {
+			out.write(SIMPLE_NULL);
+		}else if(object instanceof Boolean) {
+			out.write((Boolean) object ? SIMPLE_TRUE : SIMPLE_FALSE);
+		}else if(object instanceof Long || object instanceof Integer || object instanceof Short || object instanceof Byte) {
+			writeInteger(out, ((Number) object).longValue());
+		}else if(object instanceof BigInteger) {
+			BigInteger v = (BigInteger) object;
+			if(v.bitLength() >= 64) throw new JSONFormatException("Integer can't be encoded without losing precision: " + v);
+			writeInteger(out, v.longValue());
+		}else if(object instanceof BigDecimal) {
+			BigDecimal v = (BigDecimal) object;
+			double d = v.doubleValue();
+			if(Double.isInfinite(d) || new BigDecimal(d).compareTo(v) != 0) throw new JSONFormatException("Decimal can't be encoded without losing precision: " + v);
+			out.write(FLOAT_64);
+			writeLong(out, Double.doubleToRawLongBits(d));
+		}else if(object instanceof Number) {
+			long bits = Double.doubleToRawLongBits(((Number) object).doubleValue());
+			out.write(FLOAT_64);
+			writeLong(out, bits);
+		}else if(object instanceof String) {
+			byte[] bytes = ((String) object).getBytes(StandardCharsets.UTF_8);
+			writeHead(out, MAJOR_TEXT, bytes.length);
+			out.write(bytes);
+		}else if(object instanceof Map<?, ?>) {
+			Map<?, ?> map = (Map<?, ?>) object;
+			writeHead(out, MAJOR_MAP, map.size());
+			for(Map.Entry<?, ?> en : map.entrySet()) {
+				if(!(en.getKey() instanceof String)) throw new JSONFormatException("Cannot format object key of type " + (en.getKey() == null ? "null" : en.getKey().getClass().getName()));
+				writeGeneric(out, en.getKey());
+				writeGeneric(out, en.getValue());
+			}
+		}else if(object instanceof List<?>) {
+			List<?> list = (List<?>) object;
+			writeHead(out, MAJOR_ARRAY, list.size());
+			for(Object o : list) {
+				writeGeneric(out, o);
+			}
+		}else {
+			throw new JSONFormatException("Cannot format object of type " + object.getClass().getName());
+		}
+	}
+
+	private static void writeInteger(OutputStream out, long value) throws IOException {
+		if(value >= 0) {
+			writeHead(out, MAJOR_UNSIGNED, value);
+		}else {
+			writeHead(out, MAJOR_NEGATIVE, -1 - value);
+		}
+	}
+
+	private static void writeHead(OutputStream out, int majorType, long value) throws IOException {
+		int major = majorType << 5;
+		if(value < 24) {
+			out.write(major | (int) value);
+		}else if(value <= 0xFF) {
+			out.write(major | 24);
+			out.write((int) value);
+		}else if(value <= 0xFFFF) {
+			out.write(major | 25);
+			out.write((int) (value >> 8));
+			out.write((int) value);
+		}else if(value <= 0xFFFFFFFFL) {
+			out.write(major | 26);
+			out.write((int) (value >> 24));
+			out.write((int) (value >> 16));
+			out.write((int) (value >> 8));
+			out.write((int) value);
+		}else {
+			out.write(major | 27);
+			writeLong(out, value);
+		}
+	}
+
+	private static void writeLong(OutputStream out, long value) throws IOException {
+		for(int i = 56; i >= 0; i -= 8) {
+			out.write((int) (value >> i));
+		}
+	}
+
+	private static class BinaryReader {
+
+		private InputStream in;
+		private byte[] data;
+		private int position;
+		private long length;
+
+		/**
+		 * @param in The input stream to read from
+		 * @param length The total length of the input, -1 if unknown
+		 */
+		public BinaryReader(InputStream in, long length) {
+			this.in = in;
+			this.length = length;
+		}
+
+		/**
+		 * Creates a reader which reads directly from the given array instead of going through an input stream
+		 * @param data The input to read from
+		 */
+		public BinaryReader(byte[] data) {
+			this.data = data;
+			this.length = data.length;
+		}
+
+		/**
+		 * Checks that at least the given number of bytes are left in the input, if the length of the input is known
+		 * @param count The minimum number of bytes required
+		 */
+		private void checkRemaining(long count) {
+			if(length != -1 && count > length - position) throw new JSONParseException("Declared length exceeds the remaining input (" + count + " > " + (length - position) + ")", position);
+		}
+
+		private int read() {
+			if(data != null) {
+				if(position == data.length) throw new JSONParseException("Unexpected end of input", position);
+				return data[position++] & 0xFF;
+			}
+			try {
+				int b = in.read();
+				if(b == -1) throw new EOFException();
+				position++;
+				return b;
+			} catch (IOException e) {
+				throw new JSONParseException("Unexpected end of input", position, e);
+			}
+		}
+
+		private String readText(int len) {
+			if(data != null) {
+				checkRemaining(len);
+				String s = new String(data, position, len, StandardCharsets.UTF_8);
+				position += len;
+				return s;
+			}
+			return new String(readBytes(len), StandardCharsets.UTF_8);
+		}
+
+		private byte[] readBytes(int len) {
+			checkRemaining(len);
+			if(length == -1 && len > CHUNK_SIZE) {
+				// The length of the input is unknown, so only allocate memory for data which has actually been received
+				ByteArrayOutputStream bOut = new ByteArrayOutputStream(CHUNK_SIZE);
+				byte[] chunk = new byte[CHUNK_SIZE];
+				while(bOut.size() < len) {
+					int n = Math.min(CHUNK_SIZE, len - bOut.size());
+					readFully(chunk, n);
+					bOut.write(chunk, 0, n);
+				}
+				return bOut.toByteArray();
+			}
+			byte[] bytes = new byte[len];
+			readFully(bytes, len);
+			return bytes;
+		}
+
+		private void readFully(byte[] bytes, int len) {
+			int off = 0;
+			try {
+				while(off < len) {
+					int r = in.read(bytes, off, len - off);
+					if(r == -1) throw new EOFException();
+					off += r;
+					position += r;
+				}
+			} catch (IOException e) {
+				throw new JSONParseException("Unexpected end of input", position, e);
+			}
+		}
+
+		private long readUnsigned(int bytes) {
+			long v = 0;
+			for(int i = 0; i < bytes; i++) {
+				v = (v << 8) | read();
+			}
+			return v;
+		}
+
+		private long readArgument(int info) {
+			if(info < 24) return info;
+			switch(info) {
+				case 24:
+					return readUnsigned(1);
+				case 25:
+					return readUnsigned(2);
+				case 26:
+					return readUnsigned(4);
+				case 27:
+					return readUnsigned(8);
+				default:
+					throw new JSONParseException("Unsupported length encoding: " + info, position);
+			}
+		}
+
+		private int readLength(int info) {
+			long len = readArgument(info);
+			if(len < 0 || len > Integer.MAX_VALUE) throw new JSONParseException("Length too large: " + Long.toUnsignedString(len), position);
+			return (int) len;
+		}
+
+		public Object readGeneric() {
+			int initial = read();
+			int major = initial >> 5;
+			int info = initial & 0x1F;
+			switch(major) {
+				case MAJOR_UNSIGNED:
+				{
+					long v = readArgument(info);
+					if(v < 0) throw new JSONParseException("Integer too large", position);
+					return v;
+				}
+				case MAJOR_NEGATIVE:
+				{
+					long v = readArgument(info);
+					if(v < 0) throw new JSONParseException("Integer too small", position);
+					return -1 - v;
+				}
+				case MAJOR_TEXT:
+				{
+					int len = readLength(info);
+					return readText(len);
+				}
+				case MAJOR_ARRAY:
+				{
+					int len = readLength(info);
+					checkRemaining(len); // Every element takes at least one byte
+					JSONArray arr = new JSONArray();
+					for(int i = 0; i < len; i++) {
+						arr.add(readGeneric());
+					}
+					return arr;
+				}
+				case MAJOR_MAP:
+				{
+					int len = readLength(info);
+					checkRemaining(2L * len); // Every key and value takes at least one byte
+					JSONObject obj = new JSONObject();
+					for(int i = 0; i < len; i++) {
+						Object key = readGeneric();
+						if(!(key instanceof String)) throw new JSONParseException("Object keys must be strings", position);
+						obj.set((String) key, readGeneric());
+					}
+					return obj;
+				}
+				case MAJOR_SIMPLE:
+					switch(initial) {
+						case SIMPLE_FALSE:
+							return false;
+						case SIMPLE_TRUE:
+							return true;
+						case SIMPLE_NULL:
+							return null;
+						case FLOAT_16:
+							return decodeHalf((int) readUnsigned(2));
+						case FLOAT_32:
+							return (double) Float.intBitsToFloat((int) readUnsigned(4));
+						case FLOAT_64:
+							return Double.longBitsToDouble(readUnsigned(8));
+						default:
+							throw new JSONParseException("Unsupported simple value: " + info, position);
+					}
+				case MAJOR_BYTES:
+				case MAJOR_TAG:
+				default:
+					throw new JSONParseException("Unsupported data type: " + major, position);
+			}
+		}
+
+		private static double decodeHalf(int half) {
+			int exp = (half >> 10) & 0x1F;
+			int mant = half & 0x3FF;
+			double val;
+			if(exp == 0) {
+				val = mant * Math.pow(2, -24);
+			}else if(exp != 31) {
+				val = (mant + 1024) * Math.pow(2, exp - 25);
+			}else {
+				val = mant == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+			}
+			return (half & 0x8000) != 0 ? -val : val;
+		}
+
+	}
+
+}
@@ -8,4 +8,8 @@ public class JSONFormatException extends JSONException {
 		super(message);
 	}
 	
+	public JSONFormatException(String message, Throwable cause) {
+		super(message, cause);
+	}
+	
 }
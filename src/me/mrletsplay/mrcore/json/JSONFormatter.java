@@ -1,19 +1,19 @@
 package me.mrletsplay.mrcore.json;
 
-import java.util.Collections;
-import java.util.stream.Collectors;
+import java.io.IOException;
 
 /**
  * Provides methods for formatting objects into JSON strings
  * @author MrLetsplay2003
+ * @see JSONWriter
  */
 public class JSONFormatter {
 
 	/**
 	 * Tries to format the object into a JSON strings.<br>
 	 * Allowed types are:<br>
-	 * - JSON objects<br>
-	 * - JSON arrays<br>
+	 * - JSON objects (or any other {@link java.util.Map Map} with string keys)<br>
+	 * - JSON arrays (or any other {@link java.util.List List})<br>
 	 * - null<br>
 	 * - Booleans<br>
 	 * - Numbers<br>
@@ -24,66 +24,49 @@ public class JSONFormatter {
 	 * @throws JSONFormatException If a formatting error occurs
 	 */
 	public static String formatObject(Object object, boolean fancy) {
-		return formatGeneric(object, 0, fancy).toString();
+		StringBuilder builder = new StringBuilder();
+		formatObject(object, builder, fancy);
+		return builder.toString();
 	}
 	
-	protected static CharSequence formatObject(JSONObject object, int indents, boolean fancy) {
-		StringBuilder builder = new StringBuilder("{").append(fancy ? "\n" : "").append(fancy ? space(indents + 1) : "");
-		builder.append(object.entrySet().stream()
-			.map(en -> new StringBuilder()
-					.append("\"")
-					.append(escapeString(en.getKey()))
-					.append("\"")
-					.append(":")
-					.append(fancy ? " " : "")
-					.append(formatGeneric(en.getValue(), indents + 1, fancy)))
-			.collect(Collectors.joining(new StringBuilder(",").append(fancy ? "\n" : "").append(fancy ? space(indents + 1) : ""))));
-		return builder.append(fancy ? "\n" : "").append(fancy ? space(indents) : "").append("}");
-	}
-	
-	protected static CharSequence formatArray(JSONArray array, int indents, boolean fancy) {
-		StringBuilder builder = new StringBuilder("[").append(fancy ? "\n" : "").append(fancy ? space(indents + 1) : "");
-		builder.append(array.stream()
-			.map(en -> formatGeneric(en, indents + 1, fancy))
-			.collect(Collectors.joining(new StringBuilder(",").append(fancy ? "\n" + space(indents + 1) : ""))));
-		return builder.append(fancy ? "\n" : "").append(fancy ? space(indents) : "").append("]");
-	}
-	
-	private static String space(int len){
-		return String.join("", Collections.nCopies(len * 2, " "));
+	/**
+	 * Formats the object into JSON and writes it directly to the given appendable.<br>
+	 * See {@link #formatObject(Object, boolean)} for the allowed types
+	 * @param object The object to format
+	 * @param out The appendable to write to
+	 * @param fancy Whether the output should be in a more human-readable form
+	 * @throws JSONFormatException If a formatting error occurs
+	 */
+	public static void formatObject(Object object, Appendable out, boolean fancy) {
+		new JSONWriter(out, fancy).writeValue(object);
 	}
 	
-	private static CharSequence formatGeneric(Object object, int indents, boolean fancy) {
-		if(object == null) return "null";
-		if(object instanceof Number || object instanceof Boolean) return object.toString();
-		if(object instanceof String) return new StringBuilder("\"").append(escapeString((String)object)).append("\"");
-		if(object instanceof JSONObject) return formatObject((JSONObject) object, indents, fancy);
-		if(object instanceof JSONArray) return formatArray((JSONArray) object, indents, fancy);
-		throw new JSONFormatException("Cannot format object of type "+object.getClass().getName());
+	/**
+	 * Formats a JSON object as if it was nested at the given indentation level.<br>
+	 * Kept for subclasses, new code should use a {@link JSONWriter} instead
+	 * @param object The object to format
+	 * @param indents The indentation level of the object
+	 * @param fancy Whether the output should be in a more human-readable form
+	 * @return The formatted object
+	 */
+	protected static CharSequence formatObject(JSONObject object, int indents, boolean fancy) {
+		StringBuilder builder = new StringBuilder();
+		new JSONWriter(builder, fancy, indents).writeValue(object);
+		return builder;
 	}
 	
-	private static String escapeChar(char c) {
-		switch(c) {
-			case '"':
-				return "\\\"";
-			case '\\':
-				return "\\\\";
-			case '/':
-				return "\\/";
-			case '\b':
-				return "\\b";
-			case '\f':
-				return "\\f";
-			case '\n':
-				return "\\n";
-			case '\r':
-				return "\\r";
-			case '\t':
-				return "\\t";
-			default:
-				if(Character.isISOControl(c)) return "\\u" + String.format("%04X", (int) c); // => \\uXXXX
-				return Character.toString(c);
-		}
+	/**
+	 * Formats a JSON array as if it was nested at the given indentation level.<br>
+	 * Kept for subclasses, new code should use a {@link JSONWriter} instead
+	 * @param array The array to format
+	 * @param indents The indentation level of the array
+	 * @param fancy Whether the output should be in a more human-readable form
+	 * @return The formatted array
+	 */
+	protected static CharSequence formatArray(JSONArray array, int indents, boolean fancy) {
+		StringBuilder builder = new StringBuilder();
+		new JSONWriter(builder, fancy, indents).writeValue(array);
+		return builder;
 	}
 	
 	/**
@@ -92,17 +75,14 @@ public class JSONFormatter {
 	 * @return The escaped string
 	 */
 	public static String escapeJSON(String string) {
-		return escapeString(string).toString();
-	}
-	
-	private static CharSequence escapeString(String string) {
 		if(string == null) return null;
-		StringBuilder escaped = new StringBuilder();
-		string.chars()
-			.mapToObj(i -> (char)i)
-			.map(c -> escapeChar(c))
-			.forEach(escaped::append);
-		return escaped;
+		StringBuilder escaped = new StringBuilder(string.length());
+		try {
+			JSONWriter.escape(string, escaped);
+		} catch (IOException e) {
+			throw new JSONFormatException("Failed to escape string", e);
+		}
+		return escaped.toString();
 	}
 	
 }
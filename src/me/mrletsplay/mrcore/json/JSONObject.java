@@ -238,7 +238,7 @@ public class JSONObject extends LinkedHashMap<String, Object> {
 	 */
 	@Override
 	public String toString() {
-		return JSONFormatter.formatObject(this, false).toString();
+		return JSONFormatter.formatObject(this, false);
 	}
 	
 	/**
@@ -246,7 +246,30 @@ public class JSONObject extends LinkedHashMap<String, Object> {
 	 * @throws JSONException If a conversion error occurs (e.g. a property has an invalid type)
 	 */
 	public String toFancyString() {
-		return JSONFormatter.formatObject(this, true).toString();
+		return JSONFormatter.formatObject(this, true);
+	}
+	
+	/**
+	 * Encodes this JSON object into its compact binary form
+	 * @return The binary form of this object
+	 * @throws JSONFormatException If a conversion error occurs (e.g. a property has an invalid type)
+	 * @see JSONBinaryFormat
+	 */
+	public byte[] toBinary() {
+		return JSONBinaryFormat.formatObject(this);
+	}
+	
+	/**
+	 * Decodes a JSON object from its binary form as created by {@link #toBinary()}
+	 * @param data The binary form of the object
+	 * @return The decoded JSON object
+	 * @throws JSONParseException If the data is not a valid encoded JSON object
+	 * @see JSONBinaryFormat
+	 */
+	public static JSONObject fromBinary(byte[] data) {
+		Object o = JSONBinaryFormat.parse(data);
+		if(!(o instanceof JSONObject)) throw new JSONParseException("Encoded value is not a JSON object", 0);
+		return (JSONObject) o;
 	}
 	
 }
@@ -0,0 +1,26 @@
+package me.mrletsplay.mrcore.json;
+
+/**
+ * Flags which can be passed to {@link JSONParser} and {@link JSONReader} to change how parsed values are represented
+ * @author MrLetsplay2003
+ */
+public enum JSONParseFlag {
+
+	/**
+	 * When parsing, keys of JSON objects will be deduplicated for the duration of the parse, so that objects sharing the same schema (e.g. records inside of a large array) also share the same key instances
+	 */
+	INTERN_KEYS,
+
+	/**
+	 * When parsing, JSON objects will be created as {@link CompactJSONObject}s, which are backed by a small array instead of a hash table as long as they contain at most {@link CompactJSONObject#MAX_COMPACT_SIZE} properties
+	 */
+	COMPACT_OBJECTS,
+
+	/**
+	 * When parsing a string using {@link JSONParser#parse(String, JSONParseFlag...)}, JSON objects will be created as {@link LazyJSONObject}s, which only index the positions of their properties and parse their values when they are first accessed<br>
+	 * This flag takes precedence over {@link #COMPACT_OBJECTS} and is ignored when parsing from a {@link java.io.Reader} or {@link java.io.InputStream}
+	 */
+	LAZY_OBJECTS,
+	;
+
+}
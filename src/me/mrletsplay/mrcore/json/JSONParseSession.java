@@ -0,0 +1,37 @@
+package me.mrletsplay.mrcore.json;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Holds the state shared by all values created during a single parse
+ * @author MrLetsplay2003
+ */
+class JSONParseSession {
+	
+	private Set<JSONParseFlag> flags;
+	private Map<String, String> keys;
+	
+	public JSONParseSession(JSONParseFlag... flags) {
+		this.flags = flags.length == 0 ? EnumSet.noneOf(JSONParseFlag.class) : EnumSet.copyOf(Arrays.asList(flags));
+		if(this.flags.contains(JSONParseFlag.INTERN_KEYS)) this.keys = new HashMap<>();
+	}
+	
+	public JSONObject createObject() {
+		return flags.contains(JSONParseFlag.COMPACT_OBJECTS) ? new CompactJSONObject() : new JSONObject();
+	}
+	
+	public boolean isLazy() {
+		return flags.contains(JSONParseFlag.LAZY_OBJECTS);
+	}
+	
+	public String internKey(String key) {
+		if(keys == null) return key;
+		String k = keys.putIfAbsent(key, key);
+		return k == null ? key : k;
+	}
+	
+}
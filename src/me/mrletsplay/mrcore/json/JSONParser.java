@@ -1,5 +1,9 @@
 package me.mrletsplay.mrcore.json;
 
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Arrays;
+
 import me.mrletsplay.mrcore.misc.FriendlyException;
 
 /**
@@ -22,15 +26,96 @@ public class JSONParser {
 	 * @throws JSONParseException If a parsing error occurs
 	 */
 	public static Object parse(String source) {
+		return parse(source, new JSONParseFlag[0]);
+	}
+	
+	/**
+	 * Tries to parse the string into a JSON generic value using the given flags.<br>
+	 * See {@link #parse(String)} for the possible types
+	 * @param source The string to parse
+	 * @param flags The flags to use for parsing
+	 * @return An object of any of the types mentioned in {@link #parse(String)}
+	 * @throws JSONParseException If a parsing error occurs
+	 * @see JSONParseFlag
+	 */
+	public static Object parse(String source, JSONParseFlag... flags) {
 		if(source == null) return null;
-		CharReader r = new CharReader(source);
+		CharReader r = new CharReader(source, new JSONParseSession(flags));
 		Object v = readGeneric(r);
 		if(r.nextIgnoreWhitespaces() != '\0') throw new JSONParseException("Didn't reach string end after parsed object", r.currentIndex);
 		return v;
 	}
 	
+	/**
+	 * Tries to parse the contents of the reader into a JSON generic value.<br>
+	 * Unlike {@link #parse(String)}, this does not require the whole document to be loaded into memory as a string beforehand
+	 * @param source The reader to read from
+	 * @return An object of any of the types mentioned in {@link #parse(String)}
+	 * @throws JSONParseException If a parsing error occurs
+	 * @see JSONReader
+	 */
+	public static Object parse(Reader source) {
+		return parse(source, new JSONParseFlag[0]);
+	}
+	
+	/**
+	 * Tries to parse the contents of the reader into a JSON generic value using the given flags
+	 * @param source The reader to read from
+	 * @param flags The flags to use for parsing
+	 * @return An object of any of the types mentioned in {@link #parse(String)}
+	 * @throws JSONParseException If a parsing error occurs
+	 * @see #parse(Reader)
+	 * @see JSONParseFlag
+	 */
+	public static Object parse(Reader source, JSONParseFlag... flags) {
+		if(source == null) return null;
+		JSONReader r = new JSONReader(source);
+		r.setFlags(flags);
+		r.next();
+		Object v = r.readValue();
+		r.next();
+		return v;
+	}
+	
+	/**
+	 * Tries to parse the UTF-8 encoded contents of the input stream into a JSON generic value
+	 * @param source The input stream to read from
+	 * @return An object of any of the types mentioned in {@link #parse(String)}
+	 * @throws JSONParseException If a parsing error occurs
+	 * @see #parse(Reader)
+	 */
+	public static Object parse(InputStream source) {
+		return parse(source, new JSONParseFlag[0]);
+	}
+	
+	/**
+	 * Tries to parse the UTF-8 encoded contents of the input stream into a JSON generic value using the given flags
+	 * @param source The input stream to read from
+	 * @param flags The flags to use for parsing
+	 * @return An object of any of the types mentioned in {@link #parse(String)}
+	 * @throws JSONParseException If a parsing error occurs
+	 * @see #parse(Reader)
+	 * @see JSONParseFlag
+	 */
+	public static Object parse(InputStream source, JSONParseFlag... flags) {
+		if(source == null) return null;
+		JSONReader r = new JSONReader(source);
+		r.setFlags(flags);
+		r.next();
+		Object v = r.readValue();
+		r.next();
+		return v;
+	}
+	
+	static Object parseValue(String source, int position, JSONParseSession session) {
+		CharReader r = new CharReader(source, session);
+		r.currentIndex = position;
+		return readGeneric(r);
+	}
+	
 	private static JSONObject readObject(CharReader reader) {
-		JSONObject obj = new JSONObject();
+		if(reader.session.isLazy()) return indexObject(reader);
+		JSONObject obj = reader.session.createObject();
 		boolean hasComma = false;
 		while(reader.hasNext()) {
 			char c = reader.nextIgnoreWhitespaces();
@@ -43,7 +128,7 @@ public class JSONParser {
 					return obj;
 				case '"':
 					if(!hasComma && !obj.isEmpty()) throw new JSONParseException("Missing comma separator", reader.currentIndex);
-					String key = readString(reader);
+					String key = reader.session.internKey(readString(reader));
 					if(reader.nextIgnoreWhitespaces() != ':') throw new JSONParseException("Invalid name/value pair", reader.currentIndex);
 					obj.set(key, readGeneric(reader));
 					hasComma = false;
@@ -55,6 +140,109 @@ public class JSONParser {
 		throw new JSONParseException("Missing end of object", reader.currentIndex);
 	}
 	
+	private static LazyJSONObject indexObject(CharReader reader) {
+		LazyJSONObject obj = new LazyJSONObject(reader.string, reader.session);
+		boolean hasComma = false;
+		while(reader.hasNext()) {
+			char c = reader.nextIgnoreWhitespaces();
+			switch(c) {
+				case ',':
+					if(hasComma) throw new JSONParseException("Double comma", reader.currentIndex);
+					hasComma = true;
+					break;
+				case '}':
+					return obj;
+				case '"':
+					if(!hasComma && !obj.isEmpty()) throw new JSONParseException("Missing comma separator", reader.currentIndex);
+					String key = reader.session.internKey(readString(reader));
+					if(reader.nextIgnoreWhitespaces() != ':') throw new JSONParseException("Invalid name/value pair", reader.currentIndex);
+					obj.addProperty(key, reader.currentIndex);
+					skipGeneric(reader);
+					hasComma = false;
+					break;
+				default:
+					throw new JSONParseException("Unexpected char: "+c, reader.currentIndex);
+			}
+		}
+		throw new JSONParseException("Missing end of object", reader.currentIndex);
+	}
+	
+	// Skips over the next value without materializing it. This accepts exactly the same input as readGeneric, open objects and arrays are tracked on a small stack so brackets have to match
+	private static void skipGeneric(CharReader reader) {
+		boolean[] isObject = null;
+		int depth = 0;
+		boolean hasElements, hasComma;
+		while(true) {
+			char c = reader.nextIgnoreWhitespaces();
+			if(c == '{' || c == '[') {
+				if(isObject == null) {
+					isObject = new boolean[8];
+				}else if(depth == isObject.length) {
+					isObject = Arrays.copyOf(isObject, depth * 2);
+				}
+				isObject[depth++] = c == '{';
+				hasElements = false;
+			}else {
+				if(c == '"') {
+					skipString(reader);
+				}else {
+					// Scalars are cheap to read, so they are validated by actually parsing them
+					reader.revert(1);
+					readGeneric(reader);
+				}
+				if(depth == 0) return;
+				hasElements = true;
+			}
+			hasComma = false;
+			
+			// Find the start of the next value, closing all objects and arrays which end before it
+			while(true) {
+				boolean object = isObject[depth - 1];
+				if(!reader.hasNext()) throw new JSONParseException(object ? "Missing end of object" : "Missing end of array", reader.currentIndex);
+				c = reader.nextIgnoreWhitespaces();
+				if(c == ',') {
+					if(hasComma) throw new JSONParseException("Double comma", reader.currentIndex);
+					hasComma = true;
+				}else if(c == (object ? '}' : ']')) {
+					if(--depth == 0) return;
+					hasElements = true;
+					hasComma = false;
+				}else if(object) {
+					if(c != '"') throw new JSONParseException("Unexpected char: "+c, reader.currentIndex);
+					if(!hasComma && hasElements) throw new JSONParseException("Missing comma separator", reader.currentIndex);
+					skipString(reader);
+					if(reader.nextIgnoreWhitespaces() != ':') throw new JSONParseException("Invalid name/value pair", reader.currentIndex);
+					break;
+				}else {
+					reader.revert(1);
+					if(!hasComma && hasElements) throw new JSONParseException("Missing comma separator", reader.currentIndex);
+					break;
+				}
+			}
+		}
+	}
+	
+	private static void skipString(CharReader reader) {
+		String source = reader.string;
+		for(int i = reader.currentIndex; i < source.length(); i++) {
+			char c = source.charAt(i);
+			if(c == '"') {
+				reader.currentIndex = i + 1;
+				return;
+			}
+			if(c == '\\' && ++i < source.length() && source.charAt(i) == 'u') {
+				for(int j = 0; j < 4; j++) {
+					if(++i >= source.length() || Character.digit(source.charAt(i), 16) == -1) {
+						reader.currentIndex = Math.min(i + 1, source.length());
+						throw new JSONParseException("Invalid special char", reader.currentIndex);
+					}
+				}
+			}
+		}
+		reader.currentIndex = source.length();
+		throw new JSONParseException("Missing end of string", reader.currentIndex);
+	}
+	
 	private static JSONArray readArray(CharReader reader) {
 		JSONArray arr = new JSONArray();
 		boolean hasComma = false;
@@ -81,23 +269,21 @@ public class JSONParser {
 	
 	private static Object readGeneric(CharReader reader) {
 		char c = reader.nextIgnoreWhitespaces();
-		if(Character.isDigit(c)) {
-			reader.revert(1);
-			return readNumber(reader);
-		}
 		switch(c) {
 			case 'n':
-				if(!reader.next(3).equals("ull")) throw new JSONParseException("Invalid property value", reader.currentIndex);
+				if(!reader.nextMatches("ull")) throw new JSONParseException("Invalid property value", reader.currentIndex);
 				return null;
 			case 't':
-				if(!reader.next(3).equals("rue")) throw new JSONParseException("Invalid property value", reader.currentIndex);
+				if(!reader.nextMatches("rue")) throw new JSONParseException("Invalid property value", reader.currentIndex);
 				return true;
 			case 'f':
-				if(!reader.next(4).equals("alse")) throw new JSONParseException("Invalid property value", reader.currentIndex);
+				if(!reader.nextMatches("alse")) throw new JSONParseException("Invalid property value", reader.currentIndex);
 				return false;
 			case '"':
 				return readString(reader);
 			case '-':
+			case '0': case '1': case '2': case '3': case '4':
+			case '5': case '6': case '7': case '8': case '9':
 				reader.revert(1);
 				return readNumber(reader);
 			case '{':
@@ -110,7 +296,28 @@ public class JSONParser {
 	}
 	
 	private static String readString(CharReader reader) {
-		StringBuilder sb = new StringBuilder();
+		String source = reader.string;
+		int start = reader.currentIndex;
+		
+		// Fast path: Strings without escape sequences can be sliced directly out of the source
+		for(int i = start; i < source.length(); i++) {
+			char c = source.charAt(i);
+			if(c == '"') {
+				reader.currentIndex = i + 1;
+				return source.substring(start, i);
+			}
+			if(c == '\\') {
+				reader.currentIndex = i;
+				return readEscapedString(reader, start);
+			}
+		}
+		reader.currentIndex = source.length();
+		throw new JSONParseException("Missing end of string", reader.currentIndex);
+	}
+	
+	private static String readEscapedString(CharReader reader, int start) {
+		StringBuilder sb = new StringBuilder(reader.currentIndex - start + 16);
+		sb.append(reader.string, start, reader.currentIndex);
 		while(reader.hasNext()) {
 			char c = reader.next();
 			switch(c) {
@@ -142,13 +349,13 @@ public class JSONParser {
 			case 't':
 				return '\t';
 			case 'u':
-				String hex = reader.next(4);
-				try {
-					int ch = Integer.parseInt(hex, 16);
-					return (char) ch;
-				}catch(NumberFormatException e) {
-					throw new JSONParseException("Invalid special char: "+hex, reader.currentIndex, e);
+				int ch = 0;
+				for(int i = 0; i < 4; i++) {
+					int d = Character.digit(reader.next(), 16);
+					if(d == -1) throw new JSONParseException("Invalid special char", reader.currentIndex);
+					ch = (ch << 4) | d;
 				}
+				return (char) ch;
 			case '"':
 			case '\\':
 			case '/':
@@ -158,39 +365,56 @@ public class JSONParser {
 	}
 	
 	private static Number readNumber(CharReader reader) {
-		StringBuilder numberString = new StringBuilder();
-		boolean isDouble = false;
-		while(reader.hasNext()) {
-			char c = reader.nextIgnoreWhitespaces();
-			if(c == '-' || Character.isDigit(c)) {
-				numberString.append(c);
-			}else if(c == '.' || c == 'e' || c == 'E') {
+		String source = reader.string;
+		int start = reader.currentIndex;
+		int i = start;
+		boolean negative = false, isDouble = false, overflow = false;
+		if(i < source.length() && source.charAt(i) == '-') {
+			negative = true;
+			i++;
+		}
+		
+		// Fast path: Accumulate integers directly instead of creating a temporary string
+		long value = 0;
+		int digitsStart = i;
+		for(; i < source.length(); i++) {
+			char c = source.charAt(i);
+			if(c >= '0' && c <= '9') {
+				int d = c - '0';
+				if(value < (Long.MIN_VALUE + d) / 10) {
+					overflow = true;
+				}else {
+					value = value * 10 - d; // Accumulate negatively to be able to represent Long.MIN_VALUE
+				}
+			}else if(c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
 				isDouble = true;
-				numberString.append(c);
 			}else {
-				reader.revert(1);
-				try {
-					if(isDouble) {
-						return Double.parseDouble(numberString.toString());
-					}else {
-						return Long.parseLong(numberString.toString());
-					}
-				}catch(NumberFormatException e) {
-					throw new JSONParseException("Failed to parse number", reader.currentIndex, e);
-				}
+				break;
 			}
 		}
-		throw new JSONParseException("Invalid number", reader.currentIndex);
+		reader.currentIndex = i;
+		if(i == digitsStart) throw new JSONParseException("Invalid number", reader.currentIndex);
+		if(!isDouble) {
+			if(overflow || (!negative && value == Long.MIN_VALUE)) throw new JSONParseException("Failed to parse number", reader.currentIndex);
+			return negative ? value : -value;
+		}
+		try {
+			return Double.parseDouble(source.substring(start, i));
+		}catch(NumberFormatException e) {
+			throw new JSONParseException("Failed to parse number", reader.currentIndex, e);
+		}
 	}
 	
 	private static class CharReader {
 		
 		private int currentIndex;
 		private String string;
+		private JSONParseSession session;
 		
-		public CharReader(String string) {
+		public CharReader(String string, JSONParseSession session) {
 			this.string = string;
 			this.currentIndex = 0;
+			this.session = session;
 		}
 		
 		public char next() {
@@ -198,10 +422,10 @@ public class JSONParser {
 			return string.charAt(currentIndex++);
 		}
 		
-		public String next(int amount) {
-			char[] chs = new char[amount];
-			for(int i = 0; i < amount; i++) chs[i] = next();
-			return new String(chs);
+		public boolean nextMatches(String str) {
+			if(!string.startsWith(str, currentIndex)) return false;
+			currentIndex += str.length();
+			return true;
 		}
 		
 		public char nextIgnoreWhitespaces() {
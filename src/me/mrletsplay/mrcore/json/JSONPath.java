@@ -0,0 +1,183 @@
+package me.mrletsplay.mrcore.json;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compiled path pointing to a single value inside of a JSON document<br>
+ * Paths consist of property names separated by dots and array indices in square brackets, optionally preceded by {@code $} to denote the root value, e.g. {@code $.version.id} or {@code versions[0].name}.<br>
+ * Property names containing special characters can be written as {@code ['name']}<br>
+ * <br>
+ * Values can either be extracted directly from the JSON text using a {@link JSONReader}, in which case every value not on the path is skipped without being materialized, or from an already parsed value
+ * @author MrLetsplay2003
+ */
+public class JSONPath {
+
+	private String path;
+	private Object[] segments;
+
+	private JSONPath(String path, Object[] segments) {
+		this.path = path;
+		this.segments = segments;
+	}
+
+	/**
+	 * Compiles the given path
+	 * @param path The path to compile
+	 * @return The compiled path
+	 * @throws IllegalArgumentException If the path is not valid
+	 */
+	public static JSONPath compile(String path) {
+		List<Object> segments = new ArrayList<>();
+		int i = 0, len = path.length();
+		if(path.startsWith("$")) i++;
+		boolean first = true;
+		while(i < len) {
+			char c = path.charAt(i);
+			if(c == '[') {
+				int end = path.indexOf(']', i);
+				if(end == -1) throw new IllegalArgumentException("Missing closing bracket at " + i + " in path: " + path);
+				String content = path.substring(i + 1, end);
+				if(content.length() >= 2 && content.startsWith("'") && content.endsWith("'")) {
+					segments.add(content.substring(1, content.length() - 1));
+				}else {
+					try {
+						int index = Integer.parseInt(content);
+						if(index < 0) throw new IllegalArgumentException("Negative index at " + i + " in path: " + path);
+						segments.add(index);
+					}catch(NumberFormatException e) {
+						throw new IllegalArgumentException("Invalid index at " + i + " in path: " + path, e);
+					}
+				}
+				i = end + 1;
+			}else {
+				if(c == '.') {
+					i++;
+				}else if(!first || i != 0) {
+					throw new IllegalArgumentException("Unexpected char '" + c + "' at " + i + " in path: " + path);
+				}
+				int start = i;
+				while(i < len && path.charAt(i) != '.' && path.charAt(i) != '[') i++;
+				if(start == i) throw new IllegalArgumentException("Empty property name at " + start + " in path: " + path);
+				segments.add(path.substring(start, i));
+			}
+			first = false;
+		}
+		return new JSONPath(path, segments.toArray());
+	}
+
+	/**
+	 * Extracts the value this path points to from the given JSON string<br>
+	 * Only the part of the document up to the end of the value is read, so errors in the rest of the document will not be detected
+	 * @param json The JSON string to extract from
+	 * @return The value this path points to
+	 * @throws JSONException If the document doesn't contain a value at this path
+	 * @throws JSONParseException If the document is malformed
+	 * @see #extract(JSONReader)
+	 */
+	public Object extract(String json) {
+		return extract(new JSONReader(json));
+	}
+
+	/**
+	 * Extracts the value this path points to from the UTF-8 encoded JSON read from the given input stream<br>
+	 * Only the part of the document up to the end of the value is read
+	 * @param in The input stream to read from
+	 * @return The value this path points to
+	 * @throws JSONException If the document doesn't contain a value at this path
+	 * @throws JSONParseException If the document is malformed or an I/O error occurs
+	 * @see #extract(JSONReader)
+	 */
+	public Object extract(InputStream in) {
+		return extract(new JSONReader(in));
+	}
+
+	/**
+	 * Extracts the value this path points to from the next value of the given reader.<br>
+	 * All properties and array elements which are not on the path are skipped using {@link JSONReader#skipValue()}, only the value this path points to is materialized using {@link JSONReader#readValue()}.<br>
+	 * If an object contains the same property more than once, the first occurrence is used.<br>
+	 * If the reader hasn't read any token yet, the next value is read first. After this method returns, the reader will be positioned at the last token of the extracted value
+	 * @param reader The reader to read from
+	 * @return The value this path points to
+	 * @throws JSONException If the document doesn't contain a value at this path
+	 * @throws JSONParseException If the document is malformed
+	 */
+	public Object extract(JSONReader reader) {
+		if(reader.getCurrentToken() == null || reader.getCurrentToken() == JSONToken.FIELD_NAME) reader.next();
+		for(int i = 0; i < segments.length; i++) {
+			Object s = segments[i];
+			if(s instanceof String) {
+				if(reader.getCurrentToken() != JSONToken.START_OBJECT) throw notFound(i);
+				while(true) {
+					JSONToken t = reader.next();
+					if(t != JSONToken.FIELD_NAME) throw notFound(i);
+					if(reader.getFieldName().equals(s)) break;
+					reader.skipValue();
+				}
+				reader.next();
+			}else {
+				if(reader.getCurrentToken() != JSONToken.START_ARRAY) throw notFound(i);
+				int index = (int) s;
+				for(int j = 0; ; j++) {
+					if(reader.next() == JSONToken.END_ARRAY) throw notFound(i);
+					if(j == index) break;
+					reader.skipValue();
+				}
+			}
+		}
+		return reader.readValue();
+	}
+
+	/**
+	 * Gets the value this path points to from an already parsed JSON value<br>
+	 * When used on a {@link LazyJSONObject}, only the values on the path are materialized
+	 * @param value The value to start from, as returned by {@link JSONParser#parse(String)}
+	 * @return The value this path points to
+	 * @throws JSONException If there is no value at this path
+	 */
+	public Object get(Object value) {
+		Object current = value;
+		for(int i = 0; i < segments.length; i++) {
+			Object s = segments[i];
+			if(s instanceof String) {
+				if(!(current instanceof JSONObject)) throw notFound(i);
+				JSONObject obj = (JSONObject) current;
+				if(!obj.has((String) s)) throw notFound(i);
+				current = obj.get((String) s);
+			}else {
+				if(!(current instanceof JSONArray)) throw notFound(i);
+				JSONArray arr = (JSONArray) current;
+				int index = (int) s;
+				if(index >= arr.size()) throw notFound(i);
+				current = arr.get(index);
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Checks whether there is a value at this path in the given JSON value
+	 * @param value The value to start from
+	 * @return true if there is a value at this path, false otherwise
+	 * @see #get(Object)
+	 */
+	public boolean isPresent(Object value) {
+		try {
+			get(value);
+			return true;
+		}catch(JSONException e) {
+			return false;
+		}
+	}
+
+	private JSONException notFound(int segment) {
+		return new JSONException("No value at path " + path + " (missing " + (segments[segment] instanceof String ? "property \"" + segments[segment] + "\"" : "index " + segments[segment]) + ")");
+	}
+
+	@Override
+	public String toString() {
+		return path;
+	}
+
+}
@@ -0,0 +1,518 @@
+package me.mrletsplay.mrcore.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A streaming pull-parser for JSON documents<br>
+ * Instead of building a complete {@link JSONObject}/{@link JSONArray} tree like {@link JSONParser#parse(String)}, this reader emits one {@link JSONToken} at a time while reading from the underlying {@link Reader} through a fixed-size buffer<br>
+ * <br>
+ * Example usage:
+ * <pre>
+ * try(JSONReader r = new JSONReader(in)) {
+ *   r.next(); // START_OBJECT
+ *   while(r.next() == JSONToken.FIELD_NAME) {
+ *     String name = r.getFieldName();
+ *     r.next();
+ *     if(name.equals("id")) id = r.getLong();
+ *     else r.skipValue();
+ *   }
+ * }
+ * </pre>
+ * @author MrLetsplay2003
+ */
+public class JSONReader implements Closeable {
+
+	/**
+	 * The default size of the internal char buffer
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	private static final byte
+		CONTEXT_OBJECT_START = 0,
+		CONTEXT_OBJECT_NAME = 1,
+		CONTEXT_OBJECT_VALUE = 2,
+		CONTEXT_ARRAY_START = 3,
+		CONTEXT_ARRAY_VALUE = 4;
+
+	private Reader reader;
+	private char[] buffer;
+	private int bufferPosition, bufferLength, bufferOffset;
+
+	private byte[] contextStack;
+	private int depth;
+	private boolean rootRead;
+	private boolean skipping;
+
+	private JSONParseSession session;
+
+	private JSONToken currentToken;
+	private String fieldName;
+	private StringBuilder valueBuilder;
+	private String stringValue;
+	private long longValue;
+	private double doubleValue;
+
+	/**
+	 * Creates a JSON reader reading from the given reader using a buffer of the given size
+	 * @param reader The reader to read from
+	 * @param bufferSize The size of the internal char buffer
+	 */
+	public JSONReader(Reader reader, int bufferSize) {
+		if(bufferSize <= 0) throw new IllegalArgumentException("Buffer size must be positive");
+		this.reader = reader;
+		this.buffer = new char[bufferSize];
+		this.contextStack = new byte[16];
+		this.valueBuilder = new StringBuilder();
+		this.session = new JSONParseSession();
+	}
+
+	/**
+	 * Creates a JSON reader reading from the given reader using a buffer of {@link #DEFAULT_BUFFER_SIZE} chars
+	 * @param reader The reader to read from
+	 */
+	public JSONReader(Reader reader) {
+		this(reader, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Creates a JSON reader reading UTF-8 encoded text from the given input stream
+	 * @param in The input stream to read from
+	 */
+	public JSONReader(InputStream in) {
+		this(new InputStreamReader(in, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Creates a JSON reader reading from the given string
+	 * @param source The string to read from
+	 */
+	public JSONReader(String source) {
+		this(new StringReader(source), Math.max(1, Math.min(source.length(), DEFAULT_BUFFER_SIZE)));
+	}
+
+	/**
+	 * Sets the flags used when materializing values using {@link #readValue()}<br>
+	 * This also resets the set of interned keys if {@link JSONParseFlag#INTERN_KEYS} is used
+	 * @param flags The flags to use
+	 * @see JSONParseFlag
+	 */
+	public void setFlags(JSONParseFlag... flags) {
+		this.session = new JSONParseSession(flags);
+	}
+
+	/**
+	 * Reads the next token from the source
+	 * @return The token that was read or {@code null} if the end of the document was reached
+	 * @throws JSONParseException If the document is malformed or an I/O error occurs
+	 */
+	public JSONToken next() {
+		currentToken = readToken();
+		return currentToken;
+	}
+
+	private JSONToken readToken() {
+		if(depth == 0) {
+			if(rootRead) {
+				if(nextIgnoreWhitespaces() != -1) throw new JSONParseException("Didn't reach end after parsed value", getPosition());
+				return null;
+			}
+			rootRead = true;
+			int c = nextIgnoreWhitespaces();
+			if(c == -1) throw new JSONParseException("Unexpected end of input", getPosition());
+			return readValueToken(c);
+		}
+		byte context = contextStack[depth - 1];
+		int c = nextIgnoreWhitespaces();
+		if(c == -1) throw new JSONParseException(context == CONTEXT_ARRAY_START || context == CONTEXT_ARRAY_VALUE ? "Missing end of array" : "Missing end of object", getPosition());
+		switch(context) {
+			case CONTEXT_OBJECT_START:
+				if(c == '}') return endObject();
+				if(c != '"') throw new JSONParseException("Unexpected char: " + describe(c), getPosition());
+				return readFieldName();
+			case CONTEXT_OBJECT_VALUE:
+				if(c == '}') return endObject();
+				if(c != ',') throw new JSONParseException(c == '"' ? "Missing comma separator" : "Unexpected char: " + describe(c), getPosition());
+				c = nextIgnoreWhitespaces();
+				if(c == '}') return endObject();
+				if(c != '"') throw new JSONParseException(c == ',' ? "Double comma" : "Unexpected char: " + describe(c), getPosition());
+				return readFieldName();
+			case CONTEXT_OBJECT_NAME:
+				if(c != ':') throw new JSONParseException("Invalid name/value pair", getPosition());
+				contextStack[depth - 1] = CONTEXT_OBJECT_VALUE;
+				return readValueToken(nextIgnoreWhitespaces());
+			case CONTEXT_ARRAY_START:
+				if(c == ']') return endArray();
+				contextStack[depth - 1] = CONTEXT_ARRAY_VALUE;
+				return readValueToken(c);
+			case CONTEXT_ARRAY_VALUE:
+				if(c == ']') return endArray();
+				if(c != ',') throw new JSONParseException("Missing comma separator", getPosition());
+				c = nextIgnoreWhitespaces();
+				if(c == ']') return endArray();
+				if(c == ',') throw new JSONParseException("Double comma", getPosition());
+				return readValueToken(c);
+			default:
+				throw new IllegalStateException("Invalid reader state");
+		}
+	}
+
+	private JSONToken readFieldName() {
+		String name = readString();
+		if(!skipping) fieldName = session.internKey(name);
+		contextStack[depth - 1] = CONTEXT_OBJECT_NAME;
+		return JSONToken.FIELD_NAME;
+	}
+
+	private JSONToken endObject() {
+		depth--;
+		return JSONToken.END_OBJECT;
+	}
+
+	private JSONToken endArray() {
+		depth--;
+		return JSONToken.END_ARRAY;
+	}
+
+	private JSONToken readValueToken(int c) {
+		switch(c) {
+			case '{':
+				push(CONTEXT_OBJECT_START);
+				return JSONToken.START_OBJECT;
+			case '[':
+				push(CONTEXT_ARRAY_START);
+				return JSONToken.START_ARRAY;
+			case '"':
+				stringValue = readString();
+				return JSONToken.VALUE_STRING;
+			case 'n':
+				expectLiteral("ull");
+				return JSONToken.VALUE_NULL;
+			case 't':
+				expectLiteral("rue");
+				return JSONToken.VALUE_TRUE;
+			case 'f':
+				expectLiteral("alse");
+				return JSONToken.VALUE_FALSE;
+			case '-':
+			case '0': case '1': case '2': case '3': case '4':
+			case '5': case '6': case '7': case '8': case '9':
+				return readNumber((char) c);
+			case -1:
+				throw new JSONParseException("Unexpected end of input", getPosition());
+			default:
+				throw new JSONParseException("Invalid generic value: " + describe(c), getPosition());
+		}
+	}
+
+	private void push(byte context) {
+		if(depth == contextStack.length) contextStack = Arrays.copyOf(contextStack, depth * 2);
+		contextStack[depth++] = context;
+	}
+
+	private void expectLiteral(String remaining) {
+		for(int i = 0; i < remaining.length(); i++) {
+			if(nextChar() != remaining.charAt(i)) throw new JSONParseException("Invalid property value", getPosition());
+		}
+	}
+
+	private String readString() {
+		if(skipping) {
+			skipString();
+			return null;
+		}
+		StringBuilder b = valueBuilder;
+		b.setLength(0);
+		while(true) {
+			int c = nextChar();
+			switch(c) {
+				case '"':
+					return b.toString();
+				case '\\':
+					b.append(unescapeSpecial());
+					break;
+				case -1:
+					throw new JSONParseException("Missing end of string", getPosition());
+				default:
+					b.append((char) c);
+					break;
+			}
+		}
+	}
+
+	private void skipString() {
+		while(true) {
+			int c = nextChar();
+			if(c == '"') return;
+			if(c == '\\') c = nextChar();
+			if(c == -1) throw new JSONParseException("Missing end of string", getPosition());
+		}
+	}
+
+	private char unescapeSpecial() {
+		int c = nextChar();
+		switch(c) {
+			case 'b':
+				return '\b';
+			case 'f':
+				return '\f';
+			case 'n':
+				return '\n';
+			case 'r':
+				return '\r';
+			case 't':
+				return '\t';
+			case 'u':
+				int ch = 0;
+				for(int i = 0; i < 4; i++) {
+					int d = Character.digit(nextChar(), 16);
+					if(d == -1) throw new JSONParseException("Invalid special char", getPosition());
+					ch = (ch << 4) | d;
+				}
+				return (char) ch;
+			case -1:
+				throw new JSONParseException("Missing end of string", getPosition());
+			case '"':
+			case '\\':
+			case '/':
+			default:
+				return (char) c;
+		}
+	}
+
+	private JSONToken readNumber(char first) {
+		if(skipping) {
+			int c;
+			while((c = peekChar()) != -1 && ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-')) nextChar();
+			return JSONToken.VALUE_NUMBER_INT;
+		}
+		StringBuilder b = valueBuilder;
+		b.setLength(0);
+		b.append(first);
+		boolean isDouble = false, negative = first == '-', overflow = false;
+		long value = negative ? 0 : -(first - '0'); // Accumulate negatively to be able to represent Long.MIN_VALUE, like JSONParser does
+		int c;
+		while((c = peekChar()) != -1) {
+			if(c >= '0' && c <= '9') {
+				if(!isDouble && !overflow) {
+					int d = c - '0';
+					if(value < (Long.MIN_VALUE + d) / 10) {
+						overflow = true;
+					}else {
+						value = value * 10 - d;
+					}
+				}
+			}else if(c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+				isDouble = true;
+			}else {
+				break;
+			}
+			b.append((char) nextChar());
+		}
+		if(negative && b.length() == 1) throw new JSONParseException("Invalid number", getPosition());
+		if(!isDouble) {
+			if(overflow || (!negative && value == Long.MIN_VALUE)) throw new JSONParseException("Failed to parse number", getPosition());
+			longValue = negative ? value : -value;
+			return JSONToken.VALUE_NUMBER_INT;
+		}
+		try {
+			doubleValue = Double.parseDouble(b.toString());
+		}catch(NumberFormatException e) {
+			throw new JSONParseException("Failed to parse number", getPosition(), e);
+		}
+		return JSONToken.VALUE_NUMBER_FLOAT;
+	}
+
+	/**
+	 * Skips the value belonging to the current token<br>
+	 * If the current token is {@link JSONToken#START_OBJECT} or {@link JSONToken#START_ARRAY}, all tokens up to and including the matching end token are skipped.<br>
+	 * If the current token is {@link JSONToken#FIELD_NAME}, the property's value is skipped.<br>
+	 * For all other tokens, this method does nothing.<br>
+	 * The skipped strings and numbers are not materialized, so their values are not available using the get[type] methods
+	 * @throws JSONParseException If the document is malformed or an I/O error occurs
+	 */
+	public void skipValue() {
+		skipping = true;
+		try {
+			if(currentToken == JSONToken.FIELD_NAME) next();
+			if(currentToken != JSONToken.START_OBJECT && currentToken != JSONToken.START_ARRAY) return;
+			int targetDepth = depth - 1;
+			while(depth > targetDepth) {
+				if(next() == null) throw new JSONParseException("Unexpected end of input", getPosition());
+			}
+		}finally {
+			skipping = false;
+		}
+	}
+
+	/**
+	 * Reads the value belonging to the current token and materializes it into its generic representation as returned by {@link JSONParser#parse(String)}<br>
+	 * If the current token is {@link JSONToken#FIELD_NAME}, the property's value is read instead.<br>
+	 * After this method returns, the current token will be the last token of the value that was read
+	 * @return The value that was read
+	 * @throws JSONParseException If the document is malformed or an I/O error occurs
+	 */
+	public Object readValue() {
+		if(currentToken == JSONToken.FIELD_NAME) next();
+		if(currentToken == null) throw new JSONParseException("No current value", getPosition());
+		switch(currentToken) {
+			case START_OBJECT:
+				JSONObject obj = session.createObject();
+				while(next() == JSONToken.FIELD_NAME) {
+					String key = fieldName;
+					next();
+					obj.set(key, readValue());
+				}
+				return obj;
+			case START_ARRAY:
+				JSONArray arr = new JSONArray();
+				while(next() != JSONToken.END_ARRAY) {
+					arr.add(readValue());
+				}
+				return arr;
+			case VALUE_STRING:
+				return stringValue;
+			case VALUE_NUMBER_INT:
+				return longValue;
+			case VALUE_NUMBER_FLOAT:
+				return doubleValue;
+			case VALUE_TRUE:
+				return true;
+			case VALUE_FALSE:
+				return false;
+			case VALUE_NULL:
+				return null;
+			default:
+				throw new JSONParseException("Unexpected token: " + currentToken, getPosition());
+		}
+	}
+
+	/**
+	 * @return The token that was last read by {@link #next()}
+	 */
+	public JSONToken getCurrentToken() {
+		return currentToken;
+	}
+
+	/**
+	 * Returns the name of the property that was last read<br>
+	 * The value returned by this method stays the same until the next {@link JSONToken#FIELD_NAME} is read
+	 * @return The name of the property that was last read
+	 */
+	public String getFieldName() {
+		return fieldName;
+	}
+
+	/**
+	 * @return The value of the current {@link JSONToken#VALUE_STRING} or {@link JSONToken#FIELD_NAME} token
+	 * @throws JSONException If the current token is not a string or field name
+	 */
+	public String getString() {
+		if(currentToken == JSONToken.FIELD_NAME) return fieldName;
+		if(currentToken != JSONToken.VALUE_STRING) throw new JSONException("Current token is not a string: " + currentToken);
+		return stringValue;
+	}
+
+	/**
+	 * @return The value of the current number token, either as a {@link Long} or {@link Double}
+	 * @throws JSONException If the current token is not a number
+	 */
+	public Number getNumber() {
+		if(currentToken == JSONToken.VALUE_NUMBER_INT) return longValue;
+		if(currentToken == JSONToken.VALUE_NUMBER_FLOAT) return doubleValue;
+		throw new JSONException("Current token is not a number: " + currentToken);
+	}
+
+	/**
+	 * @see #getNumber()
+	 */
+	public long getLong() {
+		if(currentToken == JSONToken.VALUE_NUMBER_INT) return longValue;
+		return getNumber().longValue();
+	}
+
+	/**
+	 * @see #getNumber()
+	 */
+	public int getInt() {
+		return (int) getLong();
+	}
+
+	/**
+	 * @see #getNumber()
+	 */
+	public double getDouble() {
+		if(currentToken == JSONToken.VALUE_NUMBER_FLOAT) return doubleValue;
+		return getNumber().doubleValue();
+	}
+
+	/**
+	 * @return The value of the current {@link JSONToken#VALUE_TRUE} or {@link JSONToken#VALUE_FALSE} token
+	 * @throws JSONException If the current token is not a boolean
+	 */
+	public boolean getBoolean() {
+		if(currentToken == JSONToken.VALUE_TRUE) return true;
+		if(currentToken == JSONToken.VALUE_FALSE) return false;
+		throw new JSONException("Current token is not a boolean: " + currentToken);
+	}
+
+	/**
+	 * @return The current nesting depth, 0 meaning that the reader is not inside of any object or array
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * @return The index of the next char to be read
+	 */
+	public int getPosition() {
+		return bufferOffset + bufferPosition;
+	}
+
+	private int nextIgnoreWhitespaces() {
+		int c = nextChar();
+		while(c != -1 && Character.isWhitespace(c)) c = nextChar();
+		return c;
+	}
+
+	private int nextChar() {
+		if(bufferPosition == bufferLength && !fill()) return -1;
+		return buffer[bufferPosition++];
+	}
+
+	private int peekChar() {
+		if(bufferPosition == bufferLength && !fill()) return -1;
+		return buffer[bufferPosition];
+	}
+
+	private boolean fill() {
+		try {
+			bufferOffset += bufferLength;
+			bufferPosition = 0;
+			bufferLength = 0;
+			int len = reader.read(buffer, 0, buffer.length);
+			if(len <= 0) return false;
+			bufferLength = len;
+			return true;
+		} catch (IOException e) {
+			throw new JSONParseException("Failed to read from source", getPosition(), e);
+		}
+	}
+
+	private static String describe(int c) {
+		return c == -1 ? "<EOF>" : String.valueOf((char) c);
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+}
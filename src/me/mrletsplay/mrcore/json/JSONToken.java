@@ -0,0 +1,72 @@
+package me.mrletsplay.mrcore.json;
+
+/**
+ * Represents the type of a token read by a {@link JSONReader}
+ * @author MrLetsplay2003
+ */
+public enum JSONToken {
+
+	/**
+	 * The start of a JSON object ({@code &#123;})
+	 */
+	START_OBJECT,
+
+	/**
+	 * The end of a JSON object ({@code &#125;})
+	 */
+	END_OBJECT,
+
+	/**
+	 * The start of a JSON array ({@code [})
+	 */
+	START_ARRAY,
+
+	/**
+	 * The end of a JSON array ({@code ]})
+	 */
+	END_ARRAY,
+
+	/**
+	 * The name of a property inside a JSON object
+	 */
+	FIELD_NAME,
+
+	/**
+	 * A string value
+	 */
+	VALUE_STRING,
+
+	/**
+	 * An integer value which fits into a {@code long}
+	 */
+	VALUE_NUMBER_INT,
+
+	/**
+	 * A floating point value
+	 */
+	VALUE_NUMBER_FLOAT,
+
+	/**
+	 * The literal {@code true}
+	 */
+	VALUE_TRUE,
+
+	/**
+	 * The literal {@code false}
+	 */
+	VALUE_FALSE,
+
+	/**
+	 * The literal {@code null}
+	 */
+	VALUE_NULL,
+	;
+
+	/**
+	 * @return Whether this token represents a primitive value (string, number, boolean or null)
+	 */
+	public boolean isScalarValue() {
+		return this == VALUE_STRING || this == VALUE_NUMBER_INT || this == VALUE_NUMBER_FLOAT || this == VALUE_TRUE || this == VALUE_FALSE || this == VALUE_NULL;
+	}
+
+}
@@ -0,0 +1,384 @@
+package me.mrletsplay.mrcore.json;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A streaming writer for JSON documents<br>
+ * Values are written to the underlying {@link Appendable} in a single pass without building the whole document in memory first<br>
+ * <br>
+ * Example usage:
+ * <pre>
+ * try(JSONWriter w = new JSONWriter(out, false)) {
+ *   w.beginObject();
+ *   w.name("id").value(1);
+ *   w.name("tags").writeValue(tags);
+ *   w.endObject();
+ * }
+ * </pre>
+ * @author MrLetsplay2003
+ */
+public class JSONWriter implements Closeable, Flushable {
+
+	private static final char[] HEX_CHARS = "0123456789ABCDEF".toCharArray();
+
+	private Appendable out;
+	private boolean fancy;
+
+	private boolean[] hasElements;
+	private boolean[] isObject;
+	private int depth;
+	private boolean nameWritten;
+
+	private String[] indents;
+	private int baseIndent;
+
+	/**
+	 * Creates a JSON writer writing to the given appendable
+	 * @param out The appendable to write to (e.g. a {@link StringBuilder} or a {@link java.io.Writer})
+	 * @param fancy Whether the output should be formatted in a more human-readable form
+	 */
+	public JSONWriter(Appendable out, boolean fancy) {
+		this.out = out;
+		this.fancy = fancy;
+		this.hasElements = new boolean[16];
+		this.isObject = new boolean[16];
+		this.indents = new String[] {""};
+	}
+
+	/**
+	 * Creates a JSON writer writing UTF-8 encoded text to the given output stream
+	 * @param out The output stream to write to
+	 * @param fancy Whether the output should be formatted in a more human-readable form
+	 */
+	public JSONWriter(OutputStream out, boolean fancy) {
+		this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), fancy);
+	}
+
+	JSONWriter(Appendable out, boolean fancy, int baseIndent) {
+		this(out, fancy);
+		this.baseIndent = baseIndent;
+	}
+
+	/**
+	 * Starts a new JSON object
+	 * @return This writer
+	 * @throws JSONFormatException If a value is not allowed at this position or an I/O error occurs
+	 */
+	public JSONWriter beginObject() {
+		return begin('{', true);
+	}
+
+	/**
+	 * Ends the current JSON object
+	 * @return This writer
+	 * @throws JSONFormatException If there is no object to end or an I/O error occurs
+	 */
+	public JSONWriter endObject() {
+		return end('}', true);
+	}
+
+	/**
+	 * Starts a new JSON array
+	 * @return This writer
+	 * @throws JSONFormatException If a value is not allowed at this position or an I/O error occurs
+	 */
+	public JSONWriter beginArray() {
+		return begin('[', false);
+	}
+
+	/**
+	 * Ends the current JSON array
+	 * @return This writer
+	 * @throws JSONFormatException If there is no array to end or an I/O error occurs
+	 */
+	public JSONWriter endArray() {
+		return end(']', false);
+	}
+
+	/**
+	 * Writes the name of the next property of the current object
+	 * @param name The name of the property
+	 * @return This writer
+	 * @throws JSONFormatException If the writer is not inside of an object or an I/O error occurs
+	 */
+	public JSONWriter name(String name) {
+		if(depth == 0 || !isObject[depth - 1]) throw new JSONFormatException("Property names are only allowed inside of objects");
+		if(nameWritten) throw new JSONFormatException("Property name was already written");
+		if(name == null) throw new JSONFormatException("Property name must not be null");
+		try {
+			separate();
+			out.append('"');
+			escape(name, out);
+			out.append(fancy ? "\": " : "\":");
+			nameWritten = true;
+			return this;
+		}catch(IOException e) {
+			throw new JSONFormatException("Failed to write property name", e);
+		}
+	}
+
+	/**
+	 * Writes a string value
+	 * @param value The value to write, may be {@code null}
+	 * @return This writer
+	 * @throws JSONFormatException If a value is not allowed at this position or an I/O error occurs
+	 */
+	public JSONWriter value(String value) {
+		if(value == null) return nullValue();
+		try {
+			beforeValue();
+			out.append('"');
+			escape(value, out);
+			out.append('"');
+			return this;
+		}catch(IOException e) {
+			throw new JSONFormatException("Failed to write value", e);
+		}
+	}
+
+	/**
+	 * Writes an integer value
+	 * @param value The value to write
+	 * @return This writer
+	 * @throws JSONFormatException If a value is not allowed at this position or an I/O error occurs
+	 */
+	public JSONWriter value(long value) {
+		return raw(Long.toString(value));
+	}
+
+	/**
+	 * Writes a floating point value
+	 * @param value The value to write
+	 * @return This writer
+	 * @throws JSONFormatException If a value is not allowed at this position or an I/O error occurs
+	 */
+	public JSONWriter value(double value) {
+		return raw(Double.toString(value));
+	}
+
+	/**
+	 * Writes a boolean value
+	 * @param value The value to write
+	 * @return This writer
+	 * @throws JSONFormatException If a value is not allowed at this position or an I/O error occurs
+	 */
+	public JSONWriter value(boolean value) {
+		return raw(value ? "true" : "false");
+	}
+
+	/**
+	 * Writes a number value
+	 * @param value The value to write, may be {@code null}
+	 * @return This writer
+	 * @throws JSONFormatException If a value is not allowed at this position or an I/O error occurs
+	 */
+	public JSONWriter value(Number value) {
+		if(value == null) return nullValue();
+		return raw(value.toString());
+	}
+
+	/**
+	 * Writes a {@code null} value
+	 * @return This writer
+	 * @throws JSONFormatException If a value is not allowed at this position or an I/O error occurs
+	 */
+	public JSONWriter nullValue() {
+		return raw("null");
+	}
+
+	/**
+	 * Writes a JSON generic value.<br>
+	 * Allowed types are:<br>
+	 * - JSON objects (or any other {@link Map} with string keys)<br>
+	 * - JSON arrays (or any other {@link List})<br>
+	 * - null<br>
+	 * - Booleans<br>
+	 * - Numbers<br>
+	 * - Strings
+	 * @param value The value to write
+	 * @return This writer
+	 * @throws JSONFormatException If the value can't be formatted or an I/O error occurs
+	 */
+	public JSONWriter writeValue(Object value) {
+		if(value == null) return nullValue();
+		if(value instanceof String) return value((String) value);
+		if(value instanceof Number) return value((Number) value);
+		if(value instanceof Boolean) return value((boolean) value);
+		if(value instanceof Map<?, ?>) {
+			beginObject();
+			for(Map.Entry<?, ?> en : ((Map<?, ?>) value).entrySet()) {
+				if(!(en.getKey() instanceof String)) throw new JSONFormatException("Cannot format object key of type " + (en.getKey() == null ? "null" : en.getKey().getClass().getName()));
+				name((String) en.getKey());
+				writeValue(en.getValue());
+			}
+			return endObject();
+		}
+		if(value instanceof List<?>) {
+			beginArray();
+			for(Object o : (List<?>) value) {
+				writeValue(o);
+			}
+			return endArray();
+		}
+		throw new JSONFormatException("Cannot format object of type " + value.getClass().getName());
+	}
+
+	/**
+	 * @return The current nesting depth, 0 meaning that the writer is not inside of any object or array
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	private JSONWriter raw(String value) {
+		try {
+			beforeValue();
+			out.append(value);
+			return this;
+		}catch(IOException e) {
+			throw new JSONFormatException("Failed to write value", e);
+		}
+	}
+
+	private JSONWriter begin(char c, boolean object) {
+		try {
+			beforeValue();
+			out.append(c);
+			if(depth == hasElements.length) {
+				hasElements = Arrays.copyOf(hasElements, depth * 2);
+				isObject = Arrays.copyOf(isObject, depth * 2);
+			}
+			hasElements[depth] = false;
+			isObject[depth] = object;
+			depth++;
+			return this;
+		}catch(IOException e) {
+			throw new JSONFormatException("Failed to write value", e);
+		}
+	}
+
+	private JSONWriter end(char c, boolean object) {
+		if(depth == 0 || isObject[depth - 1] != object) throw new JSONFormatException("Not inside of " + (object ? "an object" : "an array"));
+		if(nameWritten) throw new JSONFormatException("Missing value for property");
+		try {
+			depth--;
+			if(fancy && hasElements[depth]) {
+				out.append('\n');
+				out.append(indent(baseIndent + depth));
+			}
+			out.append(c);
+			return this;
+		}catch(IOException e) {
+			throw new JSONFormatException("Failed to write value", e);
+		}
+	}
+
+	private void beforeValue() throws IOException {
+		if(depth == 0) return;
+		if(isObject[depth - 1]) {
+			if(!nameWritten) throw new JSONFormatException("Expected property name");
+			nameWritten = false;
+			return;
+		}
+		separate();
+	}
+
+	private void separate() throws IOException {
+		if(hasElements[depth - 1]) out.append(',');
+		hasElements[depth - 1] = true;
+		if(fancy) {
+			out.append('\n');
+			out.append(indent(baseIndent + depth));
+		}
+	}
+
+	private String indent(int level) {
+		if(level >= indents.length) {
+			int oldLength = indents.length;
+			indents = Arrays.copyOf(indents, Math.max(level + 1, oldLength * 2));
+			for(int i = oldLength; i < indents.length; i++) indents[i] = indents[i - 1] + "  ";
+		}
+		return indents[level];
+	}
+
+	/**
+	 * Escapes the given string into a JSON-compatible format and appends it to the given appendable
+	 * @param string The string to escape
+	 * @param out The appendable to append the escaped string to
+	 * @throws IOException If an I/O error occurs
+	 */
+	public static void escape(CharSequence string, Appendable out) throws IOException {
+		int len = string.length();
+		int start = 0;
+		for(int i = 0; i < len; i++) {
+			char c = string.charAt(i);
+			String replacement;
+			switch(c) {
+				case '"':
+					replacement = "\\\"";
+					break;
+				case '\\':
+					replacement = "\\\\";
+					break;
+				case '/':
+					replacement = "\\/";
+					break;
+				case '\b':
+					replacement = "\\b";
+					break;
+				case '\f':
+					replacement = "\\f";
+					break;
+				case '\n':
+					replacement = "\\n";
+					break;
+				case '\r':
+					replacement = "\\r";
+					break;
+				case '\t':
+					replacement = "\\t";
+					break;
+				default:
+					if(!Character.isISOControl(c)) continue;
+					replacement = null;
+					break;
+			}
+			if(start < i) out.append(string, start, i);
+			if(replacement != null) {
+				out.append(replacement);
+			}else {
+				out.append("\\u")
+					.append(HEX_CHARS[(c >> 12) & 0xF])
+					.append(HEX_CHARS[(c >> 8) & 0xF])
+					.append(HEX_CHARS[(c >> 4) & 0xF])
+					.append(HEX_CHARS[c & 0xF]);
+			}
+			start = i + 1;
+		}
+		if(start < len) out.append(string, start, len);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if(out instanceof Flushable) ((Flushable) out).flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if(out instanceof Closeable) {
+			((Closeable) out).close();
+		}else {
+			flush();
+		}
+	}
+
+}
@@ -0,0 +1,268 @@
+package me.mrletsplay.mrcore.json;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A {@link JSONObject} which only knows the names and source positions of its properties after parsing.<br>
+ * The value of a property is only parsed when it is first accessed using {@link #get(String)} (or any of the get[type] methods), so large parts of a document which are never accessed don't have to be materialized at all.<br>
+ * Any other operation which requires all of the values (e.g. iterating, modifying or formatting the object) will parse all of the remaining values and switch to the regular representation of {@link JSONObject}<br>
+ * <br>
+ * Note that the values are only validated once they are parsed, meaning that syntax errors inside of a nested value might only be detected when that value is accessed.<br>
+ * Unlike normal JSON objects, instances of this class are not safe to be read from multiple threads concurrently until they have been materialized
+ * @author MrLetsplay2003
+ * @see JSONParseFlag#LAZY_OBJECTS
+ */
+public class LazyJSONObject extends JSONObject {
+
+	private static final long serialVersionUID = 5066924187513312840L;
+
+	private static final int INITIAL_CAPACITY = 8;
+	private static final int MIN_HASHED_SIZE = 8;
+
+	private static final Object UNPARSED = new Object();
+
+	private transient String source;
+	private transient JSONParseSession session;
+	private transient String[] keys;
+	private transient int[] positions;
+	private transient Object[] values;
+	private transient int size;
+	private transient Map<String, Integer> lookup;
+
+	LazyJSONObject(String source, JSONParseSession session) {
+		super();
+		this.source = source;
+		this.session = session;
+		this.keys = new String[INITIAL_CAPACITY];
+		this.positions = new int[INITIAL_CAPACITY];
+		this.values = new Object[INITIAL_CAPACITY];
+	}
+
+	void addProperty(String key, int position) {
+		int idx = indexOf(key);
+		if(idx != -1) {
+			positions[idx] = position;
+			values[idx] = UNPARSED;
+			return;
+		}
+		if(size == keys.length) {
+			keys = Arrays.copyOf(keys, size * 2);
+			positions = Arrays.copyOf(positions, size * 2);
+			values = Arrays.copyOf(values, size * 2);
+		}
+		keys[size] = key;
+		positions[size] = position;
+		values[size] = UNPARSED;
+		if(lookup != null) {
+			lookup.put(key, size);
+		}else if(size + 1 > MIN_HASHED_SIZE) {
+			lookup = new HashMap<>();
+			for(int i = 0; i <= size; i++) lookup.put(keys[i], i);
+		}
+		size++;
+	}
+
+	/**
+	 * @return Whether all values of this object have been parsed and it has switched to the regular representation of {@link JSONObject}
+	 */
+	public boolean isMaterialized() {
+		return source == null;
+	}
+
+	private int indexOf(Object key) {
+		if(lookup != null) {
+			Integer idx = lookup.get(key);
+			return idx == null ? -1 : idx;
+		}
+		for(int i = 0; i < size; i++) {
+			if(keys[i].equals(key)) return i;
+		}
+		return -1;
+	}
+
+	private Object valueAt(int index) {
+		Object v = values[index];
+		if(v == UNPARSED) {
+			v = JSONParser.parseValue(source, positions[index], session);
+			values[index] = v;
+		}
+		return v;
+	}
+
+	private void materialize() {
+		if(source == null) return;
+		for(int i = 0; i < size; i++) {
+			super.put(keys[i], valueAt(i));
+		}
+		source = null;
+		session = null;
+		keys = null;
+		positions = null;
+		values = null;
+		lookup = null;
+		size = 0;
+	}
+
+	@Override
+	public int size() {
+		return source == null ? super.size() : size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if(source == null) return super.containsKey(key);
+		return indexOf(key) != -1;
+	}
+
+	@Override
+	public Object get(String key) {
+		if(source == null) return super.get(key);
+		int idx = indexOf(key);
+		if(idx == -1) throw new JSONException("Object doesn't have the property \""+key+"\"");
+		return valueAt(idx);
+	}
+
+	@Override
+	public Object get(Object key) {
+		if(source == null) return super.get(key);
+		int idx = indexOf(key);
+		return idx == -1 ? null : valueAt(idx);
+	}
+
+	@Override
+	public Object getOrDefault(Object key, Object defaultValue) {
+		if(source == null) return super.getOrDefault(key, defaultValue);
+		int idx = indexOf(key);
+		return idx == -1 ? defaultValue : valueAt(idx);
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		materialize();
+		return super.containsValue(value);
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		materialize();
+		return super.put(key, value);
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends Object> m) {
+		materialize();
+		super.putAll(m);
+	}
+
+	@Override
+	public Object remove(Object key) {
+		materialize();
+		return super.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		materialize();
+		super.clear();
+	}
+
+	@Override
+	public Object putIfAbsent(String key, Object value) {
+		materialize();
+		return super.putIfAbsent(key, value);
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		materialize();
+		return super.remove(key, value);
+	}
+
+	@Override
+	public boolean replace(String key, Object oldValue, Object newValue) {
+		materialize();
+		return super.replace(key, oldValue, newValue);
+	}
+
+	@Override
+	public Object replace(String key, Object value) {
+		materialize();
+		return super.replace(key, value);
+	}
+
+	@Override
+	public Object computeIfAbsent(String key, Function<? super String, ? extends Object> mappingFunction) {
+		materialize();
+		return super.computeIfAbsent(key, mappingFunction);
+	}
+
+	@Override
+	public Object computeIfPresent(String key, BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+		materialize();
+		return super.computeIfPresent(key, remappingFunction);
+	}
+
+	@Override
+	public Object compute(String key, BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+		materialize();
+		return super.compute(key, remappingFunction);
+	}
+
+	@Override
+	public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction) {
+		materialize();
+		return super.merge(key, value, remappingFunction);
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super String, ? super Object> action) {
+		materialize();
+		super.forEach(action);
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super String, ? super Object, ? extends Object> function) {
+		materialize();
+		super.replaceAll(function);
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		materialize();
+		return super.entrySet();
+	}
+
+	@Override
+	public Set<String> keySet() {
+		materialize();
+		return super.keySet();
+	}
+
+	@Override
+	public Collection<Object> values() {
+		materialize();
+		return super.values();
+	}
+
+	@Override
+	public Object clone() {
+		return new JSONObject(this);
+	}
+
+	private Object writeReplace() {
+		return new JSONObject(this);
+	}
+
+}
@@ -0,0 +1,393 @@
+package me.mrletsplay.mrcore.json.converter;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import me.mrletsplay.mrcore.json.JSONObject;
+
+/**
+ * Caches everything {@link JSONConverter} needs to know about a class, so the class hierarchy, annotations and accessibility only have to be looked up once per class instead of once per conversion
+ * @author MrLetsplay2003
+ */
+class JSONClassCodec {
+
+	private static final ClassValue<JSONClassCodec> CODECS = new ClassValue<JSONClassCodec>() {
+
+		@Override
+		protected JSONClassCodec computeValue(Class<?> type) {
+			return new JSONClassCodec(type);
+		}
+
+	};
+
+	private Class<?> type;
+	private List<ValueEncoder> encoders;
+	private List<FieldDecoder> decoders;
+	private List<ConstructorDecoder> constructors;
+	private Map<String, ValueSpec> properties;
+	private Set<String> propertyNames;
+	private boolean customPreDeserialize;
+	private Method decodePrimitiveMethod;
+	private IllegalArgumentException decodePrimitiveException;
+
+	private JSONClassCodec(Class<?> type) {
+		this.type = type;
+		this.encoders = new ArrayList<>();
+		this.decoders = new ArrayList<>();
+		this.constructors = new ArrayList<>();
+		this.properties = new HashMap<>();
+		this.propertyNames = new HashSet<>();
+
+		if(JSONConvertible.class.isAssignableFrom(type)) {
+			for(Field f : getFields(type)) {
+				JSONValue v = f.getAnnotation(JSONValue.class);
+				if(v == null) continue;
+				String name = v.value().isEmpty() ? f.getName() : v.value();
+				if(v.encode()) {
+					f.setAccessible(true);
+					encoders.add(new ValueEncoder(name, f, null));
+				}
+				if(v.decode()) {
+					f.setAccessible(true);
+					FieldDecoder d = new FieldDecoder(name, f, ListType.of(f));
+					decoders.add(d);
+					addProperty(name, d.getSpec());
+				}
+			}
+
+			for(Method m : getMethods(type)) {
+				JSONValue v = m.getAnnotation(JSONValue.class);
+				if(v == null || !v.encode()) continue;
+				if(m.getParameterCount() != 0) throw new IllegalArgumentException("Method has parameters");
+				String name = v.value().isEmpty() ? m.getName() : v.value();
+				m.setAccessible(true);
+				encoders.add(new ValueEncoder(name, null, m));
+			}
+
+			for(Constructor<?> c : type.getDeclaredConstructors()) {
+				if(!c.isAnnotationPresent(JSONConstructor.class)) continue;
+				Parameter[] ps = c.getParameters();
+				ParameterDecoder[] params = new ParameterDecoder[ps.length];
+				for(int i = 0; i < ps.length; i++) {
+					Parameter p = ps[i];
+					JSONParameter param = p.getAnnotation(JSONParameter.class);
+					params[i] = param == null ? null : new ParameterDecoder(param.value(), param.mustBePresent(), p.getType(), ListType.of(p), p.toString());
+					if(params[i] != null) addProperty(params[i].getName(), params[i].getSpec());
+				}
+				c.setAccessible(true);
+				constructors.add(new ConstructorDecoder(c, params));
+			}
+
+			try {
+				customPreDeserialize = !type.getMethod("preDeserialize", JSONObject.class).getDeclaringClass().equals(JSONConvertible.class);
+			} catch (NoSuchMethodException | SecurityException e) {
+				customPreDeserialize = true;
+			}
+		}
+
+		if(JSONPrimitiveConvertible.class.isAssignableFrom(type)) {
+			try {
+				decodePrimitiveMethod = type.getMethod("decodePrimitive", Object.class);
+				decodePrimitiveMethod.setAccessible(true);
+			} catch (NoSuchMethodException | SecurityException e) {
+				decodePrimitiveException = new IllegalArgumentException("Class " + type.getName() + " doesn't have the static method decodePrimitive(Object)", e);
+			}
+		}
+
+		this.encoders = Collections.unmodifiableList(encoders);
+		this.decoders = Collections.unmodifiableList(decoders);
+		this.constructors = Collections.unmodifiableList(constructors);
+		this.properties = Collections.unmodifiableMap(properties);
+		this.propertyNames = Collections.unmodifiableSet(propertyNames);
+	}
+	
+	private void addProperty(String name, ValueSpec spec) {
+		if(propertyNames.add(name)) {
+			properties.put(name, spec);
+		}else if(!spec.equals(properties.get(name))) {
+			// Declared more than once with different types, so there is no single spec to decode the property as
+			properties.remove(name);
+		}
+	}
+
+	public Class<?> getType() {
+		return type;
+	}
+
+	public List<ValueEncoder> getEncoders() {
+		return encoders;
+	}
+
+	public List<FieldDecoder> getDecoders() {
+		return decoders;
+	}
+
+	public List<ConstructorDecoder> getConstructors() {
+		return constructors;
+	}
+
+	/**
+	 * Returns how the property by the given name is decoded by the fields and constructor parameters of this class
+	 * @param name The JSON name of the property
+	 * @return The spec of the property or {@code null} if this class doesn't decode a property by that name or its declarations decode it as different types
+	 */
+	public ValueSpec getPropertySpec(String name) {
+		return properties.get(name);
+	}
+	
+	/**
+	 * @param name The JSON name of the property
+	 * @return Whether a field or constructor parameter of this class decodes the property by the given name
+	 */
+	public boolean hasProperty(String name) {
+		return propertyNames.contains(name);
+	}
+
+	/**
+	 * @return Whether this class overrides {@link JSONConvertible#preDeserialize(JSONObject)} and therefore needs the complete JSON object to be decoded
+	 */
+	public boolean hasCustomPreDeserialize() {
+		return customPreDeserialize;
+	}
+
+	public Method getDecodePrimitiveMethod() {
+		if(decodePrimitiveException != null) throw decodePrimitiveException;
+		return decodePrimitiveMethod;
+	}
+
+	public static JSONClassCodec of(Class<?> type) {
+		return CODECS.get(type);
+	}
+
+	private static Set<Field> getFields(Class<?> clz) {
+		Set<Field> fs = new LinkedHashSet<>();
+		Class<?> cls = clz;
+		while(!cls.equals(Object.class)) {
+			fs.addAll(Arrays.asList(cls.getDeclaredFields()));
+			cls = cls.getSuperclass();
+			if(cls == null) break;
+		}
+		return fs;
+	}
+
+	private static Set<Method> getMethods(Class<?> clz) {
+		Set<Method> fs = new LinkedHashSet<>();
+		Class<?> cls = clz;
+		while(!cls.equals(Object.class)) {
+			fs.addAll(Arrays.asList(cls.getDeclaredMethods()));
+			Arrays.stream(cls.getInterfaces()).forEach(i -> fs.addAll(getMethods(i)));
+			cls = cls.getSuperclass();
+			if(cls == null) break;
+		}
+		return fs;
+	}
+
+	static class ListType {
+
+		private JSONListType type;
+		private JSONComplexListType complexType;
+		private JSONPrimitiveListType primitiveType;
+
+		private ListType(JSONListType type, JSONComplexListType complexType, JSONPrimitiveListType primitiveType) {
+			this.type = type;
+			this.complexType = complexType;
+			this.primitiveType = primitiveType;
+		}
+
+		public JSONListType getType() {
+			return type;
+		}
+
+		public JSONComplexListType getComplexType() {
+			return complexType;
+		}
+
+		public JSONPrimitiveListType getPrimitiveType() {
+			return primitiveType;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof ListType)) return false;
+			ListType o = (ListType) obj;
+			return Objects.equals(type, o.type) && Objects.equals(complexType, o.complexType) && Objects.equals(primitiveType, o.primitiveType);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(type, complexType, primitiveType);
+		}
+
+		private static ListType of(AnnotatedElement element) {
+			JSONListType lT = element.getAnnotation(JSONListType.class);
+			JSONComplexListType clT = element.getAnnotation(JSONComplexListType.class);
+			JSONPrimitiveListType prT = element.getAnnotation(JSONPrimitiveListType.class);
+			if(lT == null && clT == null && prT == null) return null;
+			return new ListType(lT, clT, prT);
+		}
+
+	}
+
+	static class ValueSpec {
+
+		private Class<?> type;
+		private ListType listType;
+
+		private ValueSpec(Class<?> type, ListType listType) {
+			this.type = type;
+			this.listType = listType;
+		}
+
+		public Class<?> getType() {
+			return type;
+		}
+
+		public ListType getListType() {
+			return listType;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof ValueSpec)) return false;
+			ValueSpec o = (ValueSpec) obj;
+			return type.equals(o.type) && Objects.equals(listType, o.listType);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(type, listType);
+		}
+
+	}
+
+	static class ValueEncoder {
+
+		private String name;
+		private Field field;
+		private Method method;
+
+		private ValueEncoder(String name, Field field, Method method) {
+			this.name = name;
+			this.field = field;
+			this.method = method;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Object get(Object instance) throws ReflectiveOperationException {
+			return field != null ? field.get(instance) : method.invoke(instance);
+		}
+
+	}
+
+	static class FieldDecoder {
+
+		private String name;
+		private Field field;
+		private ValueSpec spec;
+
+		private FieldDecoder(String name, Field field, ListType listType) {
+			this.name = name;
+			this.field = field;
+			this.spec = new ValueSpec(field.getType(), listType);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Field getField() {
+			return field;
+		}
+
+		public Class<?> getType() {
+			return spec.getType();
+		}
+
+		public ListType getListType() {
+			return spec.getListType();
+		}
+
+		public ValueSpec getSpec() {
+			return spec;
+		}
+
+	}
+
+	static class ConstructorDecoder {
+
+		private Constructor<?> constructor;
+		private ParameterDecoder[] parameters;
+
+		private ConstructorDecoder(Constructor<?> constructor, ParameterDecoder[] parameters) {
+			this.constructor = constructor;
+			this.parameters = parameters;
+		}
+
+		public Constructor<?> getConstructor() {
+			return constructor;
+		}
+
+		public ParameterDecoder[] getParameters() {
+			return parameters;
+		}
+
+	}
+
+	static class ParameterDecoder {
+
+		private String name;
+		private boolean mustBePresent;
+		private ValueSpec spec;
+		private String description;
+
+		private ParameterDecoder(String name, boolean mustBePresent, Class<?> type, ListType listType, String description) {
+			this.name = name;
+			this.mustBePresent = mustBePresent;
+			this.spec = new ValueSpec(type, listType);
+			this.description = description;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public boolean isMustBePresent() {
+			return mustBePresent;
+		}
+
+		public Class<?> getType() {
+			return spec.getType();
+		}
+
+		public ListType getListType() {
+			return spec.getListType();
+		}
+
+		public ValueSpec getSpec() {
+			return spec;
+		}
+
+		@Override
+		public String toString() {
+			return description;
+		}
+
+	}
+
+}
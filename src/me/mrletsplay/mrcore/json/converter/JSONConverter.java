@@ -1,21 +1,22 @@
 package me.mrletsplay.mrcore.json.converter;
 
+import java.io.InputStream;
 import java.lang.reflect.Array;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 import me.mrletsplay.mrcore.json.JSONArray;
+import me.mrletsplay.mrcore.json.JSONBinaryFormat;
 import me.mrletsplay.mrcore.json.JSONObject;
+import me.mrletsplay.mrcore.json.JSONParseException;
+import me.mrletsplay.mrcore.json.JSONReader;
+import me.mrletsplay.mrcore.json.JSONToken;
 import me.mrletsplay.mrcore.json.JSONType;
 import me.mrletsplay.mrcore.misc.FriendlyException;
 import me.mrletsplay.mrcore.misc.MiscUtils;
@@ -33,6 +34,17 @@ public class JSONConverter {
 		return (JSONObject) encode0(convertible, includeClass);
 	}
 	
+	/**
+	 * Encodes the given object into the compact binary form of its JSON representation
+	 * @param convertible The object to encode
+	 * @param includeClass Whether to include the {@code _class} property
+	 * @return The binary form of the encoded object
+	 * @see JSONBinaryFormat
+	 */
+	public static byte[] encodeObjectBinary(JSONConvertible convertible, boolean includeClass) {
+		return JSONBinaryFormat.formatObject(encode0(convertible, includeClass));
+	}
+	
 	private static Object encode0(Object value, boolean includeClass) {
 		if(value == null) return null;
 		if(value instanceof List<?>) {
@@ -45,26 +57,10 @@ public class JSONConverter {
 		}else if(value instanceof JSONConvertible) {
 			JSONObject obj = new JSONObject();
 			((JSONConvertible) value).preSerialize(obj);
-			for(Field f : getFields(value.getClass())) {
-				JSONValue v = f.getAnnotation(JSONValue.class);
-				if(v == null || !v.encode()) continue;
-				String fName = v.value().isEmpty() ? f.getName() : v.value();
-				f.setAccessible(true);
+			for(JSONClassCodec.ValueEncoder en : JSONClassCodec.of(value.getClass()).getEncoders()) {
 				try {
-					obj.set(fName, encode0(f.get(value), includeClass));
-				} catch (IllegalArgumentException | IllegalAccessException e) {
-					throw new FriendlyException(e);
-				}
-			}
-			for(Method m : getMethods(value.getClass())) {
-				JSONValue v = m.getAnnotation(JSONValue.class);
-				if(v == null || !v.encode()) continue;
-				if(m.getParameterCount() != 0) throw new IllegalArgumentException("Method has parameters");
-				String fName = v.value().isEmpty() ? m.getName() : v.value();
-				m.setAccessible(true);
-				try {
-					obj.set(fName, encode0(m.invoke(value), includeClass));
-				} catch (IllegalArgumentException | IllegalAccessException | InvocationTargetException e) {
+					obj.set(en.getName(), encode0(en.get(value), includeClass));
+				} catch (IllegalArgumentException | ReflectiveOperationException e) {
 					throw new FriendlyException(e);
 				}
 			}
@@ -83,31 +79,6 @@ public class JSONConverter {
 		}
 	}
 	
-	private static Set<Field> getFields(Class<?> clz) {
-		if(!JSONConvertible.class.isAssignableFrom(clz)) return Collections.emptySet();
-		Set<Field> fs = new HashSet<>();
-		Class<?> cls = clz;
-		while(!cls.equals(Object.class)) {
-			fs.addAll(Arrays.asList(cls.getDeclaredFields()));
-			cls = cls.getSuperclass();
-			if(cls == null) break;
-		}
-		return fs;
-	}
-	
-	private static Set<Method> getMethods(Class<?> clz) {
-		if(!JSONConvertible.class.isAssignableFrom(clz)) return Collections.emptySet();
-		Set<Method> fs = new HashSet<>();
-		Class<?> cls = clz;
-		while(!cls.equals(Object.class)) {
-			fs.addAll(Arrays.asList(cls.getDeclaredMethods()));
-			Arrays.stream(cls.getInterfaces()).forEach(i -> fs.addAll(getMethods(i)));
-			cls = cls.getSuperclass();
-			if(cls == null) break;
-		}
-		return fs;
-	}
-	
 	private static JSONArray encodeArray0(Object[] array, boolean includeClass) {
 		JSONArray arr = new JSONArray();
 		for(Object v : array) arr.add(encode0(v, includeClass));
@@ -122,41 +93,109 @@ public class JSONConverter {
 		return decodeObject(object, clazz, JSONConverter.class.getClassLoader());
 	}
 	
+	/**
+	 * Decodes an object from the binary form of its JSON representation as created by {@link #encodeObjectBinary(JSONConvertible, boolean)}
+	 * @param <T> The type of object to decode
+	 * @param data The binary data to decode
+	 * @param clazz The class to decode the object as
+	 * @return The decoded object
+	 * @throws JSONParseException If the data is not a valid encoded JSON object
+	 * @see JSONBinaryFormat
+	 */
+	public static <T extends JSONConvertible> T decodeBinaryObject(byte[] data, Class<T> clazz) {
+		return decodeObject(JSONObject.fromBinary(data), clazz);
+	}
+	
+	/**
+	 * Decodes a JSON string directly into an object of the given class.<br>
+	 * Unlike {@link #decodeObject(JSONObject, Class)}, this reads the string using a {@link JSONReader} and binds the values straight to the constructor parameters and fields of the class, without building an intermediate {@link JSONObject} tree
+	 * @param <T> The type of object to decode
+	 * @param json The JSON string to decode
+	 * @param clazz The class to decode the object as
+	 * @return The decoded object
+	 * @throws JSONParseException If the string is not valid JSON
+	 * @see #decodeObject(JSONReader, Class, ClassLoader)
+	 */
+	public static <T extends JSONConvertible> T decodeObject(String json, Class<T> clazz) {
+		return decodeFully(new JSONReader(json), clazz, JSONConverter.class.getClassLoader());
+	}
+	
+	/**
+	 * Decodes UTF-8 encoded JSON read from the given input stream directly into an object of the given class
+	 * @param <T> The type of object to decode
+	 * @param in The input stream to read from
+	 * @param clazz The class to decode the object as
+	 * @return The decoded object
+	 * @throws JSONParseException If the input is not valid JSON
+	 * @see #decodeObject(String, Class)
+	 */
+	public static <T extends JSONConvertible> T decodeObject(InputStream in, Class<T> clazz) {
+		return decodeFully(new JSONReader(in), clazz, JSONConverter.class.getClassLoader());
+	}
+	
+	/**
+	 * Decodes the next value of the given reader directly into an object of the given class.<br>
+	 * If the reader is positioned at a {@link JSONToken#FIELD_NAME} or hasn't read any token yet, the next value is read first.<br>
+	 * After this method returns, the reader will be positioned at the last token of the decoded value.<br>
+	 * <br>
+	 * Properties which are not needed by the class are skipped without being materialized. This is only done for {@code final} classes, other classes keep all properties as raw JSON values, because a subclass specified using the {@code _class} property might need or redeclare them.<br>
+	 * Properties which are declared more than once with different types are also kept as raw JSON values and decoded separately for every declaration.<br>
+	 * Classes overriding {@link JSONConvertible#preDeserialize(JSONObject)} need the complete JSON object and will therefore fall back to {@link #decodeObject(JSONObject, Class, ClassLoader)}
+	 * @param <T> The type of object to decode
+	 * @param reader The reader to read from
+	 * @param clazz The class to decode the object as
+	 * @param loader The class loader to load classes specified using the {@code _class} property from
+	 * @return The decoded object
+	 * @throws JSONParseException If the input is not valid JSON
+	 */
+	public static <T extends JSONConvertible> T decodeObject(JSONReader reader, Class<T> clazz, ClassLoader loader) {
+		if(reader.getCurrentToken() == null || reader.getCurrentToken() == JSONToken.FIELD_NAME) reader.next();
+		return clazz.cast(stream0(reader, clazz, loader));
+	}
+	
+	private static <T extends JSONConvertible> T decodeFully(JSONReader reader, Class<T> clazz, ClassLoader loader) {
+		T t = decodeObject(reader, clazz, loader);
+		reader.next();
+		return t;
+	}
+	
 	public static <T extends JSONPrimitiveConvertible> T decodePrimitive(Object object, Class<T> clazz) {
 		return decodePrimitive0(clazz, object);
 	}
 	
-	private static <T extends JSONConvertible> T createObject0(JSONObject object, Class<T> clazz, ClassLoader loader) {
-		List<Constructor<?>> constrs = Arrays.stream(clazz.getDeclaredConstructors()).filter(c -> c.isAnnotationPresent(JSONConstructor.class)).collect(Collectors.toList());
+	private static <T extends JSONConvertible> T createObject0(PropertySource source, Class<T> clazz, ClassLoader loader) {
+		List<JSONClassCodec.ConstructorDecoder> constrs = JSONClassCodec.of(clazz).getConstructors();
 		if(constrs.isEmpty()) throw new IllegalArgumentException("No constructor available for class " + clazz.getName());
-		T t = null;
-		c: for(Constructor<?> c : constrs) {
-			List<Object> params = new ArrayList<>();
-			for(Parameter p : c.getParameters()) {
-				JSONParameter param = p.getAnnotation(JSONParameter.class);
-				if(param == null) throw new IllegalArgumentException("JSON constructor parameter \"" + p + "\" isn't annotated");
-				String vName = param.value();
-				if(param.mustBePresent() && !object.has(vName)) continue c;
-				Object pValue = object.has(vName) ? object.get(vName) : null;
-				JSONListType lParam = p.getAnnotation(JSONListType.class);
-				JSONComplexListType clParam = p.getAnnotation(JSONComplexListType.class);
-				JSONPrimitiveListType prParam = p.getAnnotation(JSONPrimitiveListType.class);
-				if(lParam != null || clParam != null || prParam != null) {
-					params.add(decodeList0((JSONArray) pValue, loader, lParam, clParam, prParam));
-				}else {
-					params.add(decode0(pValue, p.getType(), loader));
-				}
+		c: for(JSONClassCodec.ConstructorDecoder c : constrs) {
+			JSONClassCodec.ParameterDecoder[] ps = c.getParameters();
+			Object[] params = new Object[ps.length];
+			for(int i = 0; i < ps.length; i++) {
+				JSONClassCodec.ParameterDecoder p = ps[i];
+				if(p == null) throw new IllegalArgumentException("JSON constructor parameter \"" + c.getConstructor().getParameters()[i] + "\" isn't annotated");
+				String vName = p.getName();
+				boolean has = source.has(vName);
+				if(p.isMustBePresent() && !has) continue c;
+				params[i] = has ? source.decode(vName, p.getSpec(), loader) : null;
 			}
-			c.setAccessible(true);
 			try {
-				t = clazz.cast(c.newInstance(params.toArray(new Object[params.size()])));
+				return clazz.cast(c.getConstructor().newInstance(params));
 			} catch (InstantiationException | IllegalAccessException | IllegalArgumentException
 					| InvocationTargetException e) {
 				continue;
 			}
 		}
-		if(t == null) throw new IllegalArgumentException("No suitable/working constructor found for class " + clazz.getName());
-		return t;
+		throw new IllegalArgumentException("No suitable/working constructor found for class " + clazz.getName());
+	}
+	
+	private static void populateObject0(JSONConvertible t, PropertySource source, Class<?> clazz, ClassLoader loader) {
+		for(JSONClassCodec.FieldDecoder f : JSONClassCodec.of(clazz).getDecoders()) {
+			String fName = f.getName();
+			if(source.has(fName)) {
+				try {
+					f.getField().set(t, source.decode(fName, f.getSpec(), loader));
+				} catch (IllegalAccessException ignored) {}
+			}
+		}
 	}
 	
 	private static <T extends JSONPrimitiveConvertible> T decodePrimitive0(Class<T> clazz, Object value) {
@@ -176,16 +215,11 @@ public class JSONConverter {
 //		if(t == null) throw new IllegalArgumentException("No suitable/working constructor found for class " + clazz.getName());
 //		return t;
 		
+		Method voM = JSONClassCodec.of(clazz).getDecodePrimitiveMethod();
 		try {
-			Method voM = clazz.getMethod("decodePrimitive", Object.class);
-			voM.setAccessible(true);
-			try {
-				return clazz.cast(voM.invoke(null, value));
-			} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-				throw new IllegalArgumentException("Failed to invoke decodePrimitive method", e);
-			}
-		} catch (NoSuchMethodException | SecurityException e) {
-			throw new IllegalArgumentException("Class " + clazz.getName() + " doesn't have the static method decodePrimitive(Object)", e);
+			return clazz.cast(voM.invoke(null, value));
+		} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+			throw new IllegalArgumentException("Failed to invoke decodePrimitive method", e);
 		}
 	}
 	
@@ -193,35 +227,11 @@ public class JSONConverter {
 		if(value == null) return null;
 		if(JSONConvertible.class.isAssignableFrom(clazz)) {
 			JSONObject o = (JSONObject) value;
-			Class<? extends JSONConvertible> jClass = clazz.asSubclass(JSONConvertible.class);
-			if(o.isOfType("_class", JSONType.STRING)) {
-				try {
-					Class<?> nClass = Class.forName(o.getString("_class"), true, loader);
-					if(JSONConvertible.class.isAssignableFrom(nClass)) {
-						jClass = nClass.asSubclass(JSONConvertible.class);
-					}
-				} catch (ClassNotFoundException ignored) {}
-			}
-			JSONConvertible t = createObject0(o, jClass, loader);
+			Class<? extends JSONConvertible> jClass = resolveClass0(clazz.asSubclass(JSONConvertible.class), o.isOfType("_class", JSONType.STRING) ? o.getString("_class") : null, loader);
+			PropertySource source = new TreePropertySource(o);
+			JSONConvertible t = createObject0(source, jClass, loader);
 			t.preDeserialize(o);
-			for(Field f : getFields(jClass)) {
-				JSONValue v = f.getAnnotation(JSONValue.class);
-				JSONListType lT = f.getAnnotation(JSONListType.class);
-				JSONComplexListType clT = f.getAnnotation(JSONComplexListType.class);
-				JSONPrimitiveListType prT = f.getAnnotation(JSONPrimitiveListType.class);
-				if(v == null || !v.decode()) continue;
-				String fName = v.value().isEmpty() ? f.getName() : v.value();
-				if(o.has(fName)) {
-					f.setAccessible(true);
-					try {
-						if(lT != null || clT != null || prT != null) {
-							f.set(t, decodeList0(o.getJSONArray(fName), loader, lT, clT, prT));
-						}else {
-							f.set(t, decode0(o.get(fName), f.getType(), loader));
-						}
-					} catch (IllegalAccessException ignored) {}
-				}
-			}
+			populateObject0(t, source, jClass, loader);
 			return t;
 		}else if(JSONPrimitiveConvertible.class.isAssignableFrom(clazz)) {
 			return decodePrimitive0(clazz.asSubclass(JSONPrimitiveConvertible.class), value);
@@ -234,7 +244,7 @@ public class JSONConverter {
 			return a;
 		}else if(Enum.class.isAssignableFrom(clazz)) {
 			try {
-				return clazz.getMethod("valueOf", String.class).invoke(null, (String) value);
+				return decodeEnum0(clazz, (String) value);
 			} catch (Exception e) {
 				throw new IllegalArgumentException("Failed to get enum value", e);
 			}
@@ -245,8 +255,25 @@ public class JSONConverter {
 		}
 	}
 	
-	private static List<Object> decodeList0(JSONArray value, ClassLoader loader, JSONListType type, JSONComplexListType complexType, JSONPrimitiveListType primitiveType) {
+	private static Class<? extends JSONConvertible> resolveClass0(Class<? extends JSONConvertible> clazz, String className, ClassLoader loader) {
+		if(className == null) return clazz;
+		try {
+			Class<?> nClass = Class.forName(className, true, loader);
+			if(JSONConvertible.class.isAssignableFrom(nClass)) return nClass.asSubclass(JSONConvertible.class);
+		} catch (ClassNotFoundException ignored) {}
+		return clazz;
+	}
+	
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static Object decodeEnum0(Class<?> clazz, String value) {
+		return Enum.valueOf((Class) clazz, value);
+	}
+	
+	private static List<Object> decodeList0(JSONArray value, ClassLoader loader, JSONClassCodec.ListType listType) {
 		if(value == null) return null;
+		JSONListType type = listType.getType();
+		JSONComplexListType complexType = listType.getComplexType();
+		JSONPrimitiveListType primitiveType = listType.getPrimitiveType();
 		List<Object> list = new ArrayList<>();
 		for(Object o : value) {
 			if(o == null) list.add(null);
@@ -265,4 +292,160 @@ public class JSONConverter {
 		return list;
 	}
 	
+	private static Object stream0(JSONReader reader, Class<?> clazz, ClassLoader loader) {
+		JSONToken token = reader.getCurrentToken();
+		if(token == JSONToken.VALUE_NULL) return null;
+		if(JSONConvertible.class.isAssignableFrom(clazz)) {
+			if(token != JSONToken.START_OBJECT) throw new IllegalArgumentException("Expected JSON object for " + clazz.getName() + ", got " + token);
+			return streamObject0(reader, clazz.asSubclass(JSONConvertible.class), loader);
+		}else if(clazz.isArray()) {
+			if(token != JSONToken.START_ARRAY) throw new IllegalArgumentException("Expected JSON array for " + clazz.getName() + ", got " + token);
+			List<Object> elements = new ArrayList<>();
+			while(reader.next() != JSONToken.END_ARRAY) {
+				elements.add(stream0(reader, clazz.getComponentType(), loader));
+			}
+			Object a = Array.newInstance(clazz.getComponentType(), elements.size());
+			for(int i = 0; i < elements.size(); i++) {
+				Array.set(a, i, elements.get(i));
+			}
+			return a;
+		}else {
+			// Primitive convertibles, enums and plain JSON values only need the (usually scalar) value itself
+			return decode0(reader.readValue(), clazz, loader);
+		}
+	}
+	
+	private static JSONConvertible streamObject0(JSONReader reader, Class<? extends JSONConvertible> clazz, ClassLoader loader) {
+		JSONClassCodec codec = JSONClassCodec.of(clazz);
+		if(codec.hasCustomPreDeserialize()) return (JSONConvertible) decode0(reader.readValue(), clazz, loader);
+		boolean isFinal = Modifier.isFinal(clazz.getModifiers());
+		StreamPropertySource source = new StreamPropertySource();
+		String className = null;
+		while(reader.next() == JSONToken.FIELD_NAME) {
+			String name = reader.getFieldName();
+			reader.next();
+			if(name.equals("_class") && reader.getCurrentToken() == JSONToken.VALUE_STRING) {
+				className = reader.getString();
+				continue;
+			}
+			// Only final classes can't be replaced by a subclass which decodes the property differently
+			JSONClassCodec.ValueSpec spec = isFinal ? codec.getPropertySpec(name) : null;
+			if(spec != null) {
+				Object v = spec.getListType() != null ? streamList0(reader, loader, spec.getListType()) : stream0(reader, spec.getType(), loader);
+				source.put(name, spec, v);
+			}else if(isFinal && !codec.hasProperty(name)) {
+				reader.skipValue();
+			}else {
+				source.put(name, null, reader.readValue());
+			}
+		}
+		Class<? extends JSONConvertible> jClass = resolveClass0(clazz, className, loader);
+		if(!jClass.equals(clazz) && JSONClassCodec.of(jClass).hasCustomPreDeserialize()) {
+			// The subclass needs the complete object, which has already been consumed, so it has to be reconstructed
+			JSONObject o = source.toJSONObject();
+			o.set("_class", className);
+			return (JSONConvertible) decode0(o, jClass, loader);
+		}
+		JSONConvertible t = createObject0(source, jClass, loader);
+		populateObject0(t, source, jClass, loader);
+		return t;
+	}
+	
+	private static List<Object> streamList0(JSONReader reader, ClassLoader loader, JSONClassCodec.ListType listType) {
+		JSONToken token = reader.getCurrentToken();
+		if(token == JSONToken.VALUE_NULL) return null;
+		if(token != JSONToken.START_ARRAY) throw new IllegalArgumentException("Expected JSON array, got " + token);
+		JSONListType type = listType.getType();
+		JSONComplexListType complexType = listType.getComplexType();
+		JSONPrimitiveListType primitiveType = listType.getPrimitiveType();
+		List<Object> list = new ArrayList<>();
+		while(reader.next() != JSONToken.END_ARRAY) {
+			if(type != null) {
+				Object o = reader.readValue();
+				if(o == null) {
+					list.add(null);
+					continue;
+				}
+				NullableOptional<Object> v = MiscUtils.callSafely(() -> type.value().cast(o));
+				if(!v.isPresent()) throw new IllegalArgumentException("Invalid JSON value type, cannot cast " + o.getClass().getName() + " to " + type.value());
+				list.add(v.get());
+			}else if(complexType != null) {
+				list.add(stream0(reader, complexType.value(), loader));
+			}else {
+				list.add(stream0(reader, primitiveType.value(), loader));
+			}
+		}
+		return list;
+	}
+	
+	private static interface PropertySource {
+		
+		public boolean has(String name);
+		
+		public Object decode(String name, JSONClassCodec.ValueSpec spec, ClassLoader loader);
+		
+	}
+	
+	private static class TreePropertySource implements PropertySource {
+		
+		private JSONObject object;
+		
+		public TreePropertySource(JSONObject object) {
+			this.object = object;
+		}
+		
+		@Override
+		public boolean has(String name) {
+			return object.has(name);
+		}
+		
+		@Override
+		public Object decode(String name, JSONClassCodec.ValueSpec spec, ClassLoader loader) {
+			Object value = object.get(name);
+			if(spec.getListType() != null) return decodeList0((JSONArray) value, loader, spec.getListType());
+			return decode0(value, spec.getType(), loader);
+		}
+		
+	}
+	
+	private static class StreamPropertySource implements PropertySource {
+		
+		private Map<String, JSONClassCodec.ValueSpec> specs;
+		private Map<String, Object> values;
+		
+		public StreamPropertySource() {
+			this.specs = new HashMap<>();
+			this.values = new LinkedHashMap<>();
+		}
+		
+		public void put(String name, JSONClassCodec.ValueSpec spec, Object value) {
+			specs.put(name, spec);
+			values.put(name, value);
+		}
+		
+		@Override
+		public boolean has(String name) {
+			return values.containsKey(name);
+		}
+		
+		@Override
+		public Object decode(String name, JSONClassCodec.ValueSpec spec, ClassLoader loader) {
+			JSONClassCodec.ValueSpec decodedAs = specs.get(name);
+			Object value = values.get(name);
+			if(decodedAs != null && decodedAs.equals(spec)) return value;
+			// Value was kept as a raw JSON value, so it is decoded for every declaration on its own
+			if(spec.getListType() != null) return decodeList0((JSONArray) value, loader, spec.getListType());
+			return decode0(value, spec.getType(), loader);
+		}
+		
+		public JSONObject toJSONObject() {
+			JSONObject o = new JSONObject();
+			for(Map.Entry<String, Object> en : values.entrySet()) {
+				o.set(en.getKey(), specs.get(en.getKey()) == null ? en.getValue() : encode0(en.getValue(), true));
+			}
+			return o;
+		}
+		
+	}
+	
 }
@@ -3,24 +3,35 @@ package me.mrletsplay.mrcore.locale.file;
 import java.io.File;
 import java.io.OutputStream;
 
+import me.mrletsplay.mrcore.config.ConfigFileWatcher;
+import me.mrletsplay.mrcore.config.ConfigFlag;
 import me.mrletsplay.mrcore.config.ConfigLoader;
-import me.mrletsplay.mrcore.config.CustomConfig;
-import me.mrletsplay.mrcore.config.impl.DefaultFileCustomConfig;
+import me.mrletsplay.mrcore.config.ConfigProperty;
+import me.mrletsplay.mrcore.config.FileCustomConfig;
+import me.mrletsplay.mrcore.config.impl.ConcurrentFileCustomConfig;
 import me.mrletsplay.mrcore.locale.Locale;
 import me.mrletsplay.mrcore.locale.LocalizedObject;
 
 public class FileLocale implements Locale {
 	
-	private CustomConfig config;
+	private FileCustomConfig config;
 	
 	public FileLocale(File file) {
 		if(file != null) {
-			this.config = ConfigLoader.loadFileConfig(file);
+			this.config = ConfigLoader.loadConcurrentFileConfig(file, ConfigFlag.BINARY_SNAPSHOT);
 		}else {
-			this.config = new DefaultFileCustomConfig(null);
+			this.config = new ConcurrentFileCustomConfig(null);
 		}
 	}
 	
+	/**
+	 * Returns the config backing this locale. The config is thread-safe, so it can be watched using a {@link ConfigFileWatcher} without specifying an executor
+	 * @return The config of this locale
+	 */
+	public FileCustomConfig getConfig() {
+		return config;
+	}
+	
 	@Override
 	public void applyDefaults(LocalizedObject<?>... objects) {
 		for(LocalizedObject<?> obj : objects) {
@@ -30,7 +41,8 @@ public class FileLocale implements Locale {
 
 	@Override
 	public <T> T get(LocalizedObject<T> object) {
-		Object o = config.getProperty(object.getPath()).getValue();
+		ConfigProperty p = config.getProperty(object.getPath());
+		Object o = p == null ? null : p.getValue();
 		return o == null ? object.getDefault() : object.cast(o);
 	}
 
@@ -1,7 +1,11 @@
 package me.mrletsplay.mrcore.locale.file;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
+import me.mrletsplay.mrcore.config.ConfigChangeListener;
+import me.mrletsplay.mrcore.config.ConfigFileWatcher;
 import me.mrletsplay.mrcore.locale.AbstractLocaleProvider;
 import me.mrletsplay.mrcore.locale.Locale;
 import me.mrletsplay.mrcore.locale.LocalizedObject;
@@ -9,18 +13,33 @@ import me.mrletsplay.mrcore.locale.LocalizedObject;
 public class FileLocaleProvider extends AbstractLocaleProvider {
 
 	private File localeFolder;
+	private List<FileLocale> fileLocales;
 	
 	public FileLocaleProvider(File localeFolder) {
 		this.localeFolder = localeFolder;
+		this.fileLocales = new ArrayList<>();
 		if(localeFolder != null) {
 			localeFolder.mkdirs();
 			for(File l : localeFolder.listFiles()) {
 				if(!l.getName().matches("[a-zA-Z0-9\\-_]+\\.yml")) continue; // Treat as invalid locale
-				registerLocale(l.getName().substring(0, l.getName().length() - ".yml".length()), new FileLocale(localeFolder));
+				FileLocale locale = new FileLocale(l);
+				fileLocales.add(locale);
+				registerLocale(l.getName().substring(0, l.getName().length() - ".yml".length()), locale);
 			}
 		}
 	}
 	
+	/**
+	 * Reloads the locales loaded from the locale folder whenever their files are changed
+	 * @param watcher The watcher to use
+	 * @param listener The listener to call after a locale was reloaded, may be null
+	 */
+	public void watchLocales(ConfigFileWatcher watcher, ConfigChangeListener listener) {
+		for(FileLocale l : fileLocales) {
+			watcher.watch(l.getConfig(), listener);
+		}
+	}
+	
 	public File getLocaleFolder() {
 		return localeFolder;
 	}
@@ -5,24 +5,64 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.util.concurrent.CompletableFuture;
 
 import me.mrletsplay.mrcore.mysql.impl.MySQLConnection;
 import me.mrletsplay.mrcore.mysql.protocol.MySQLServerConnection;
+import me.mrletsplay.mrcore.mysql.protocol.misc.MySQLException;
 
 public class MySQL {
 
 	public static MySQLConnection connect(String host, int port, String userName, String password, String database) throws UnknownHostException, IOException {
+		return connect(host, port, userName, password, database, false);
+	}
+	
+	/**
+	 * Connects to the server, optionally using the compressed protocol.<br>
+	 * Compression reduces the amount of data transferred for large result sets at the cost of some CPU time. It is only used if the server supports it, see {@link MySQLServerConnection#getCompression()}
+	 * @param host The host of the server
+	 * @param port The port of the server
+	 * @param userName The user name to log in with
+	 * @param password The password to log in with
+	 * @param database The database to connect to, may be {@code null}
+	 * @param compress Whether to use the compressed protocol
+	 * @return The connection
+	 * @throws UnknownHostException If the host can't be resolved
+	 * @throws IOException If an I/O error occurs
+	 */
+	public static MySQLConnection connect(String host, int port, String userName, String password, String database, boolean compress) throws UnknownHostException, IOException {
 		Socket s = new Socket(host, port);
+		s.setTcpNoDelay(true); // Packets are buffered and flushed manually
 		InputStream in = s.getInputStream();
 		OutputStream out = s.getOutputStream();
-		return new MySQLConnection(new MySQLServerConnection(s, in, out, userName, password, database));
+		return new MySQLConnection(new MySQLServerConnection(s, in, out, userName, password, database, compress));
 	}
 
 	public static MySQLConnection connect(String host, int port, String userName, String password) throws UnknownHostException, IOException {
 		Socket s = new Socket(host, port);
+		s.setTcpNoDelay(true); // Packets are buffered and flushed manually
 		InputStream in = s.getInputStream();
 		OutputStream out = s.getOutputStream();
 		return new MySQLConnection(new MySQLServerConnection(s, in, out, userName, password, null));
 	}
 	
+	/**
+	 * Connects to the server asynchronously on the {@link MySQLAsync#getDefaultExecutor() default executor}
+	 * @param host The host of the server
+	 * @param port The port of the server
+	 * @param userName The user name to log in with
+	 * @param password The password to log in with
+	 * @param database The database to connect to, may be {@code null}
+	 * @return A future which is completed with the connection
+	 */
+	public static CompletableFuture<MySQLConnection> connectAsync(String host, int port, String userName, String password, String database) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return connect(host, port, userName, password, database);
+			} catch (IOException e) {
+				throw new MySQLException(e);
+			}
+		}, MySQLAsync.getDefaultExecutor());
+	}
+	
 }
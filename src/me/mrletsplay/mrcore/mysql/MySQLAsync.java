@@ -0,0 +1,72 @@
+package me.mrletsplay.mrcore.mysql;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides the executor used for asynchronous MySQL operations such as {@link me.mrletsplay.mrcore.mysql.impl.MySQLConnection#queryAsync(String)}<br>
+ * On Java 21 and newer, every operation runs on its own virtual thread, so waiting for the server only parks the virtual thread while the JVM multiplexes all connections over a small number of carrier threads.<br>
+ * On older versions, a cached pool of daemon threads is used instead
+ * @author MrLetsplay2003
+ */
+public class MySQLAsync {
+
+	private static volatile Executor defaultExecutor;
+
+	private MySQLAsync() {}
+
+	/**
+	 * @return The executor asynchronous operations are run on
+	 */
+	public static Executor getDefaultExecutor() {
+		if(defaultExecutor == null) {
+			synchronized (MySQLAsync.class) {
+				if(defaultExecutor == null) defaultExecutor = createDefaultExecutor();
+			}
+		}
+		return defaultExecutor;
+	}
+
+	/**
+	 * Sets the executor asynchronous operations are run on. Operations of the same connection will still never run concurrently
+	 * @param executor The executor to use
+	 */
+	public static void setDefaultExecutor(Executor executor) {
+		if(executor == null) throw new IllegalArgumentException("Executor must not be null");
+		defaultExecutor = executor;
+	}
+
+	/**
+	 * @return Whether asynchronous operations run on virtual threads by default
+	 */
+	public static boolean isVirtualThreadsAvailable() {
+		try {
+			Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return true;
+		}catch(NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	private static Executor createDefaultExecutor() {
+		ExecutorService virtual = createVirtualThreadExecutor();
+		if(virtual != null) return virtual;
+		AtomicInteger threadCount = new AtomicInteger();
+		return Executors.newCachedThreadPool(r -> {
+			Thread t = new Thread(r, "MySQL-Async-" + threadCount.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	private static ExecutorService createVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}catch(ReflectiveOperationException | RuntimeException e) {
+			return null; // Not supported by this JVM
+		}
+	}
+
+}
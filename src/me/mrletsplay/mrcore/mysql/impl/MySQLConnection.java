@@ -1,15 +1,27 @@
 package me.mrletsplay.mrcore.mysql.impl;
 
+import java.util.concurrent.CompletableFuture;
+
+import me.mrletsplay.mrcore.mysql.impl.columnar.ColumnarResultSet;
 import me.mrletsplay.mrcore.mysql.impl.statement.PreparedStatement;
+import me.mrletsplay.mrcore.mysql.impl.statement.StatementCache;
 import me.mrletsplay.mrcore.mysql.impl.statement.simple.MySQLStatement;
 import me.mrletsplay.mrcore.mysql.protocol.MySQLServerConnection;
+import me.mrletsplay.mrcore.mysql.protocol.misc.MySQLException;
 
 public class MySQLConnection {
 
+	/**
+	 * The default number of prepared statements each connection keeps open
+	 */
+	public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+	
 	private MySQLServerConnection serverConnection;
+	private StatementCache statementCache;
 	
 	public MySQLConnection(MySQLServerConnection serverConnection) {
 		this.serverConnection = serverConnection;
+		this.statementCache = new StatementCache(DEFAULT_STATEMENT_CACHE_SIZE);
 	}
 	
 	public void selectSchema(String schemaName) {
@@ -24,11 +36,104 @@ public class MySQLConnection {
 		return serverConnection.query(stmt.asString());
 	}
 	
+	/**
+	 * Sends the given query and returns a cursor which reads the resulting rows one by one as it is advanced
+	 * @param query The query to send
+	 * @return A cursor over the resulting rows or {@code null} if the query doesn't produce a result set
+	 * @see ResultCursor
+	 */
+	public ResultCursor queryCursor(String query) {
+		return serverConnection.queryCursor(query);
+	}
+	
+	public ResultCursor queryCursor(MySQLStatement stmt) {
+		return serverConnection.queryCursor(stmt.asString());
+	}
+	
+	/**
+	 * Sends the given query and reads the result directly into a column-oriented result set. Rows are decoded one by one, so the complete row-based result is never held in memory
+	 * @param query The query to send
+	 * @return The columnar result or {@code null} if the query doesn't produce a result set
+	 * @see ColumnarResultSet
+	 */
+	public ColumnarResultSet queryColumnar(String query) {
+		ResultCursor cursor = queryCursor(query);
+		if(cursor == null) return null;
+		try {
+			return new ColumnarResultSet(cursor);
+		}finally {
+			cursor.close();
+		}
+	}
+	
+	public ColumnarResultSet queryColumnar(MySQLStatement stmt) {
+		return queryColumnar(stmt.asString());
+	}
+	
+	/**
+	 * Prepares a statement on the server or returns the already prepared statement for the same query from this connection's {@link StatementCache}
+	 * @param query The query to prepare
+	 * @return The prepared statement
+	 */
 	public PreparedStatement prepareStatement(String query) {
-		return serverConnection.prepareStatement(query);
+		return statementCache.get(query, serverConnection::prepareStatement);
+	}
+	
+	public StatementCache getStatementCache() {
+		return statementCache;
+	}
+	
+	/**
+	 * Checks whether the connection to the server is still usable by sending a {@code COM_PING}
+	 * @return true if the server responded, false otherwise
+	 */
+	public boolean ping() {
+		if(!serverConnection.isConnected()) return false;
+		try {
+			serverConnection.ping();
+			return true;
+		}catch(MySQLException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Sends the given query asynchronously
+	 * @param query The query to send
+	 * @return A future which is completed with the result set or {@code null} if the query doesn't produce a result set
+	 * @see MySQLServerConnection#submitAsync(java.util.function.Supplier)
+	 */
+	public CompletableFuture<ResultSet> queryAsync(String query) {
+		return serverConnection.submitAsync(() -> query(query));
+	}
+	
+	public CompletableFuture<ResultSet> queryAsync(MySQLStatement stmt) {
+		return queryAsync(stmt.asString());
+	}
+	
+	/**
+	 * Prepares a statement asynchronously
+	 * @param query The query to prepare
+	 * @return A future which is completed with the prepared statement
+	 * @see #prepareStatement(String)
+	 */
+	public CompletableFuture<PreparedStatement> prepareStatementAsync(String query) {
+		return serverConnection.submitAsync(() -> prepareStatement(query));
+	}
+	
+	public CompletableFuture<Boolean> pingAsync() {
+		return serverConnection.submitAsync(this::ping);
+	}
+	
+	public CompletableFuture<Void> disconnectAsync() {
+		return serverConnection.submitAsync(() -> {
+			disconnect();
+			return null;
+		});
 	}
 	
 	public void disconnect() {
+		statementCache.invalidate(); // Statements are closed together with the connection
 		serverConnection.disconnect();
 	}
 	
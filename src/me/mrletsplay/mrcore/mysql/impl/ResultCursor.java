@@ -0,0 +1,108 @@
+package me.mrletsplay.mrcore.mysql.impl;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import me.mrletsplay.mrcore.mysql.impl.table.ColumnDefinition;
+import me.mrletsplay.mrcore.mysql.impl.table.TableRow;
+import me.mrletsplay.mrcore.mysql.protocol.MySQLServerConnection;
+import me.mrletsplay.mrcore.mysql.protocol.io.RawPacket;
+import me.mrletsplay.mrcore.mysql.protocol.misc.MySQLException;
+import me.mrletsplay.mrcore.mysql.protocol.packet.binary.MySQLResultSetRowBinaryPacket;
+import me.mrletsplay.mrcore.mysql.protocol.packet.text.MySQLResultSetRowPacket;
+
+/**
+ * A forward-only cursor over the rows of a result set<br>
+ * Unlike {@link ResultSet}, rows are only read from the connection and decoded when the cursor is advanced, so only the current row has to be kept in memory<br>
+ * <br>
+ * While a cursor is open, its connection can't be used for anything else. Sending another command on the same connection will {@link #close() close} the cursor and skip all of its remaining rows
+ * @author MrLetsplay2003
+ */
+public class ResultCursor implements Iterator<TableRow>, Iterable<TableRow>, AutoCloseable {
+
+	private MySQLServerConnection connection;
+	private ColumnDefinition[] columnDefinitions;
+	private boolean binary;
+	private int command;
+
+	private TableRow nextRow;
+	private boolean finished;
+
+	public ResultCursor(MySQLServerConnection connection, ColumnDefinition[] columnDefinitions, boolean binary, int command) {
+		this.connection = connection;
+		this.columnDefinitions = columnDefinitions;
+		this.binary = binary;
+		this.command = command;
+	}
+
+	public ColumnDefinition[] getColumnDefinitions() {
+		return columnDefinitions;
+	}
+
+	/**
+	 * @return Whether all rows have been read or the cursor was closed
+	 */
+	public boolean isFinished() {
+		return finished && nextRow == null;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if(nextRow != null) return true;
+		if(finished) return false;
+		RawPacket raw = readRow();
+		if(raw == null) return false;
+		try {
+			if(binary) {
+				nextRow = new TableRow(columnDefinitions, new MySQLResultSetRowBinaryPacket(connection, raw.getPayload(), command, columnDefinitions));
+			}else {
+				nextRow = new TableRow(columnDefinitions, new MySQLResultSetRowPacket(connection, raw.getPayload(), command));
+			}
+		} catch (IOException e) {
+			throw new MySQLException(e);
+		}
+		return true;
+	}
+
+	@Override
+	public TableRow next() {
+		if(!hasNext()) throw new NoSuchElementException();
+		TableRow row = nextRow;
+		nextRow = null;
+		return row;
+	}
+
+	/**
+	 * Returns this cursor. Because rows are consumed while iterating, a cursor can only be iterated once
+	 */
+	@Override
+	public Iterator<TableRow> iterator() {
+		return this;
+	}
+
+	private RawPacket readRow() {
+		try {
+			RawPacket raw = connection.readResultRow();
+			if(raw == null) finished = true;
+			return raw;
+		} catch (IOException e) {
+			finished = true;
+			connection.markBroken();
+			throw new MySQLException(e);
+		} catch (MySQLException e) {
+			finished = true;
+			throw e;
+		}
+	}
+
+	/**
+	 * Skips all remaining rows without decoding them, so the connection can be used for other commands again
+	 */
+	@Override
+	public void close() {
+		nextRow = null;
+		while(!finished) readRow();
+	}
+
+}
@@ -1,8 +1,13 @@
 package me.mrletsplay.mrcore.mysql.impl;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import me.mrletsplay.mrcore.mysql.impl.columnar.ColumnarResultSet;
 import me.mrletsplay.mrcore.mysql.impl.table.ColumnDefinition;
 import me.mrletsplay.mrcore.mysql.impl.table.TableColumn;
 import me.mrletsplay.mrcore.mysql.impl.table.TableRow;
@@ -14,29 +19,43 @@ public class ResultSet {
 	private ColumnDefinition[] columnDefinitions;
 	private TableColumn[] columns;
 	private TableRow[] rows;
+	private Map<String, Integer> columnIndices;
+	
+	/**
+	 * Creates a result set containing all of the remaining rows of the given cursor
+	 * @param cursor The cursor to read the rows from
+	 */
+	public ResultSet(ResultCursor cursor) {
+		initColumns(cursor.getColumnDefinitions());
+		List<TableRow> rows = new ArrayList<>();
+		cursor.forEachRemaining(rows::add);
+		this.rows = rows.toArray(new TableRow[rows.size()]);
+	}
 	
 	public ResultSet(MySQLResultSetPacket fromPacket) {
-		this.columnDefinitions = fromPacket.getColumnDefinitions();
-		this.columns = new TableColumn[fromPacket.getColumnDefinitions().length];
-		for(int i = 0; i < columns.length; i++) {
-			columns[i] = new TableColumn(this, fromPacket.getColumnDefinitions()[i], i);
-		}
+		initColumns(fromPacket.getColumnDefinitions());
 		this.rows = fromPacket.getResultSetRowPackets().stream()
 				.map(def -> new TableRow(this, def))
 				.toArray(TableRow[]::new);
 	}
 	
 	public ResultSet(MySQLResultSetBinaryPacket fromPacket) {
-		this.columnDefinitions = fromPacket.getColumnDefinitions();
-		this.columns = new TableColumn[fromPacket.getColumnDefinitions().length];
-		for(int i = 0; i < columns.length; i++) {
-			columns[i] = new TableColumn(this, fromPacket.getColumnDefinitions()[i], i);
-		}
+		initColumns(fromPacket.getColumnDefinitions());
 		this.rows = fromPacket.getResultSetRowPackets().stream()
 				.map(def -> new TableRow(this, def))
 				.toArray(TableRow[]::new);
 	}
 	
+	private void initColumns(ColumnDefinition[] columnDefinitions) {
+		this.columnDefinitions = columnDefinitions;
+		this.columns = new TableColumn[columnDefinitions.length];
+		this.columnIndices = new HashMap<>();
+		for(int i = 0; i < columns.length; i++) {
+			columns[i] = new TableColumn(this, columnDefinitions[i], i);
+			columnIndices.putIfAbsent(columnDefinitions[i].getColumnName(), i);
+		}
+	}
+	
 	public TableColumn[] getColumns() {
 		return columns;
 	}
@@ -46,9 +65,16 @@ public class ResultSet {
 	}
 	
 	public TableColumn getColumnByName(String name) {
-		return Arrays.stream(columns)
-				.filter(c -> c.getDefinition().getPhysicalName().toString().equals(name))
-				.findFirst().orElse(null);
+		Integer index = columnIndices.get(name);
+		return index == null ? null : columns[index];
+	}
+	
+	/**
+	 * @param name The physical name of the column
+	 * @return The index of the first column with the given name or -1 if there is no such column
+	 */
+	public int getColumnIndex(String name) {
+		return columnIndices.getOrDefault(name, -1);
 	}
 	
 	public TableRow getRow(int index) {
@@ -63,6 +89,15 @@ public class ResultSet {
 		return columnDefinitions;
 	}
 	
+	/**
+	 * Converts this result set into a column-oriented representation
+	 * @return The columnar result set
+	 * @see ColumnarResultSet
+	 */
+	public ColumnarResultSet toColumnar() {
+		return new ColumnarResultSet(this);
+	}
+	
 	public boolean isEmpty() {
 		return rows.length == 0;
 	}
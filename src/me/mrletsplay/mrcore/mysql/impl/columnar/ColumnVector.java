@@ -0,0 +1,104 @@
+package me.mrletsplay.mrcore.mysql.impl.columnar;
+
+import java.util.BitSet;
+
+import me.mrletsplay.mrcore.mysql.impl.table.ColumnDefinition;
+import me.mrletsplay.mrcore.mysql.protocol.type.MySQLDataType;
+
+/**
+ * The values of a single column of a {@link ColumnarResultSet}, stored in one contiguous array instead of one object per row<br>
+ * Which subclass is used depends on the Java type of the column, see {@link #forColumn(ColumnDefinition)}
+ * @author MrLetsplay2003
+ */
+public abstract class ColumnVector {
+
+	protected static final int INITIAL_CAPACITY = 16;
+	
+	private ColumnDefinition definition;
+	private BitSet nulls;
+	protected int size;
+	
+	public ColumnVector(ColumnDefinition definition) {
+		this.definition = definition;
+		this.nulls = new BitSet();
+	}
+	
+	public ColumnDefinition getDefinition() {
+		return definition;
+	}
+	
+	public MySQLDataType<?> getType() {
+		return definition.getColumnType();
+	}
+	
+	/**
+	 * @return The number of values in this column
+	 */
+	public int size() {
+		return size;
+	}
+	
+	public boolean isNull(int index) {
+		checkIndex(index);
+		return nulls.get(index);
+	}
+	
+	/**
+	 * @return The number of {@code null} values in this column
+	 */
+	public int getNullCount() {
+		return nulls.cardinality();
+	}
+	
+	/**
+	 * Appends a value to the end of this column
+	 * @param value The value to append, may be {@code null}
+	 */
+	public void append(Object value) {
+		ensureCapacity(size + 1);
+		if(value == null) {
+			nulls.set(size);
+		}else {
+			set(size, value);
+		}
+		size++;
+	}
+	
+	/**
+	 * Returns the value at the given index as an object. This boxes primitive values, so it should be avoided when scanning large columns
+	 * @param index The row index
+	 * @return The value or {@code null}
+	 */
+	public Object getObject(int index) {
+		return isNull(index) ? null : get(index);
+	}
+	
+	protected void checkIndex(int index) {
+		if(index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+	}
+	
+	protected abstract void ensureCapacity(int capacity);
+	
+	protected abstract void set(int index, Object value);
+	
+	protected abstract Object get(int index);
+	
+	/**
+	 * Shrinks the backing array to the actual number of values
+	 */
+	protected abstract void trim();
+	
+	/**
+	 * Creates an empty column vector for the given column
+	 * @param definition The column definition
+	 * @return A {@link LongColumnVector} for integer types, a {@link DoubleColumnVector} for floating point types, a {@link StringColumnVector} for string types or an {@link ObjectColumnVector} for everything else
+	 */
+	public static ColumnVector forColumn(ColumnDefinition definition) {
+		Class<?> type = definition.getColumnType().getJavaType();
+		if(type == Byte.class || type == Short.class || type == Integer.class || type == Long.class) return new LongColumnVector(definition);
+		if(type == Float.class || type == Double.class) return new DoubleColumnVector(definition);
+		if(type == String.class) return new StringColumnVector(definition);
+		return new ObjectColumnVector(definition);
+	}
+	
+}
@@ -0,0 +1,185 @@
+package me.mrletsplay.mrcore.mysql.impl.columnar;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import me.mrletsplay.mrcore.mysql.impl.ResultCursor;
+import me.mrletsplay.mrcore.mysql.impl.ResultSet;
+import me.mrletsplay.mrcore.mysql.impl.table.ColumnDefinition;
+import me.mrletsplay.mrcore.mysql.impl.table.TableEntry;
+import me.mrletsplay.mrcore.mysql.impl.table.TableRow;
+import me.mrletsplay.mrcore.mysql.protocol.misc.MySQLException;
+
+/**
+ * A column-oriented result set<br>
+ * Instead of one {@link TableRow} with one boxed value per cell, every column is stored in a single {@link ColumnVector}. Integer and floating point columns use primitive arrays and string columns are dictionary-encoded, which makes scanning or aggregating a column over many rows cheap and keeps the number of retained objects independent of the row count.<br>
+ * Use {@link me.mrletsplay.mrcore.mysql.impl.MySQLConnection#queryColumnar(String)} to read a result directly into this representation without keeping the rows around
+ * @author MrLetsplay2003
+ */
+public class ColumnarResultSet {
+
+	private ColumnDefinition[] columnDefinitions;
+	private ColumnVector[] columns;
+	private Map<String, Integer> columnIndices;
+	private int rowCount;
+	
+	/**
+	 * Creates a columnar result set containing all of the remaining rows of the given cursor
+	 * @param cursor The cursor to read the rows from
+	 */
+	public ColumnarResultSet(ResultCursor cursor) {
+		init(cursor.getColumnDefinitions());
+		cursor.forEachRemaining(this::addRow);
+		finish();
+	}
+	
+	/**
+	 * Creates a columnar copy of the given result set
+	 * @param resultSet The result set to copy
+	 */
+	public ColumnarResultSet(ResultSet resultSet) {
+		init(resultSet.getColumnDefinitions());
+		for(TableRow row : resultSet.getRows()) addRow(row);
+		finish();
+	}
+	
+	private void init(ColumnDefinition[] columnDefinitions) {
+		this.columnDefinitions = columnDefinitions;
+		this.columns = new ColumnVector[columnDefinitions.length];
+		this.columnIndices = new HashMap<>();
+		for(int i = 0; i < columns.length; i++) {
+			columns[i] = ColumnVector.forColumn(columnDefinitions[i]);
+			columnIndices.putIfAbsent(columnDefinitions[i].getColumnName(), i);
+		}
+	}
+	
+	private void addRow(TableRow row) {
+		TableEntry[] entries = row.getEntries();
+		for(int i = 0; i < columns.length; i++) {
+			columns[i].append(entries[i].getValue());
+		}
+		rowCount++;
+	}
+	
+	private void finish() {
+		for(ColumnVector c : columns) c.trim();
+	}
+	
+	public int getRowCount() {
+		return rowCount;
+	}
+	
+	public int getColumnCount() {
+		return columns.length;
+	}
+	
+	public ColumnDefinition[] getColumnDefinitions() {
+		return columnDefinitions;
+	}
+	
+	/**
+	 * @param name The physical name of the column
+	 * @return The index of the first column with the given name or -1 if there is no such column
+	 */
+	public int getColumnIndex(String name) {
+		return columnIndices.getOrDefault(name, -1);
+	}
+	
+	public ColumnVector[] getColumns() {
+		return columns;
+	}
+	
+	public ColumnVector getColumn(int index) {
+		return columns[index];
+	}
+	
+	/**
+	 * @param name The physical name of the column
+	 * @return The column with the given name or {@code null} if there is no such column
+	 */
+	public ColumnVector getColumn(String name) {
+		Integer index = columnIndices.get(name);
+		return index == null ? null : columns[index];
+	}
+	
+	/**
+	 * @param index The index of the column
+	 * @return The column as a {@link LongColumnVector}
+	 * @throws MySQLException If the column doesn't contain integer values
+	 */
+	public LongColumnVector getLongColumn(int index) {
+		return getColumn(index, LongColumnVector.class);
+	}
+	
+	public LongColumnVector getLongColumn(String name) {
+		return getLongColumn(requireColumnIndex(name));
+	}
+	
+	/**
+	 * @param index The index of the column
+	 * @return The column as a {@link DoubleColumnVector}
+	 * @throws MySQLException If the column doesn't contain floating point values
+	 */
+	public DoubleColumnVector getDoubleColumn(int index) {
+		return getColumn(index, DoubleColumnVector.class);
+	}
+	
+	public DoubleColumnVector getDoubleColumn(String name) {
+		return getDoubleColumn(requireColumnIndex(name));
+	}
+	
+	/**
+	 * @param index The index of the column
+	 * @return The column as a {@link StringColumnVector}
+	 * @throws MySQLException If the column doesn't contain string values
+	 */
+	public StringColumnVector getStringColumn(int index) {
+		return getColumn(index, StringColumnVector.class);
+	}
+	
+	public StringColumnVector getStringColumn(String name) {
+		return getStringColumn(requireColumnIndex(name));
+	}
+	
+	private <T extends ColumnVector> T getColumn(int index, Class<T> type) {
+		ColumnVector column = columns[index];
+		if(!type.isInstance(column)) throw new MySQLException("Invalid type");
+		return type.cast(column);
+	}
+	
+	private int requireColumnIndex(String name) {
+		Integer index = columnIndices.get(name);
+		if(index == null) throw new MySQLException("Invalid column \"" + name + "\" specified");
+		return index;
+	}
+	
+	public boolean isNull(int row, int column) {
+		return columns[column].isNull(row);
+	}
+	
+	public long getLong(int row, int column) {
+		return getLongColumn(column).getLong(row);
+	}
+	
+	public double getDouble(int row, int column) {
+		return getDoubleColumn(column).getDouble(row);
+	}
+	
+	public String getString(int row, int column) {
+		return getStringColumn(column).getString(row);
+	}
+	
+	public Object getObject(int row, int column) {
+		return columns[column].getObject(row);
+	}
+	
+	public boolean isEmpty() {
+		return rowCount == 0;
+	}
+	
+	@Override
+	public String toString() {
+		return "ColumnarResultSet [columns=" + columns.length + ", rows=" + rowCount + "]";
+	}
+	
+}
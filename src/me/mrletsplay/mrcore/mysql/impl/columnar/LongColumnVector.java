@@ -0,0 +1,73 @@
+package me.mrletsplay.mrcore.mysql.impl.columnar;
+
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+import me.mrletsplay.mrcore.mysql.impl.table.ColumnDefinition;
+
+/**
+ * A column of integer values, stored as a {@code long[]}
+ * @author MrLetsplay2003
+ */
+public class LongColumnVector extends ColumnVector {
+
+	private long[] values;
+	
+	public LongColumnVector(ColumnDefinition definition) {
+		super(definition);
+		this.values = new long[INITIAL_CAPACITY];
+	}
+	
+	/**
+	 * @param index The row index
+	 * @return The value at the given index or 0 if it is {@code null}
+	 */
+	public long getLong(int index) {
+		checkIndex(index);
+		return values[index];
+	}
+	
+	/**
+	 * @return The sum of all values in this column, ignoring {@code null}s
+	 */
+	public long sum() {
+		long sum = 0;
+		for(int i = 0; i < size; i++) sum += values[i]; // null values are stored as 0
+		return sum;
+	}
+	
+	/**
+	 * @return A stream over all values in this column, including {@code null}s as 0
+	 */
+	public LongStream stream() {
+		return Arrays.stream(values, 0, size);
+	}
+	
+	/**
+	 * @return A copy of the values of this column
+	 */
+	public long[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+	
+	@Override
+	protected void ensureCapacity(int capacity) {
+		if(capacity > values.length) values = Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+	}
+	
+	@Override
+	protected void set(int index, Object value) {
+		values[index] = ((Number) value).longValue();
+	}
+	
+	@Override
+	protected Object get(int index) {
+		return values[index];
+	}
+	
+	@Override
+	protected void trim() {
+		if(values.length != size) values = Arrays.copyOf(values, size);
+	}
+	
+}
@@ -0,0 +1,50 @@
+package me.mrletsplay.mrcore.mysql.impl.columnar;
+
+import java.util.Arrays;
+
+import me.mrletsplay.mrcore.mysql.impl.table.ColumnDefinition;
+
+/**
+ * A column of values which don't have a more compact representation, e.g. decimals, dates or blobs
+ * @author MrLetsplay2003
+ */
+public class ObjectColumnVector extends ColumnVector {
+
+	private Object[] values;
+	
+	public ObjectColumnVector(ColumnDefinition definition) {
+		super(definition);
+		this.values = new Object[INITIAL_CAPACITY];
+	}
+	
+	/**
+	 * @param <T> The type of the value
+	 * @param index The row index
+	 * @param type The class of the value
+	 * @return The value at the given index or {@code null}
+	 */
+	public <T> T get(int index, Class<T> type) {
+		return type.cast(getObject(index));
+	}
+	
+	@Override
+	protected void ensureCapacity(int capacity) {
+		if(capacity > values.length) values = Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+	}
+	
+	@Override
+	protected void set(int index, Object value) {
+		values[index] = value;
+	}
+	
+	@Override
+	protected Object get(int index) {
+		return values[index];
+	}
+	
+	@Override
+	protected void trim() {
+		if(values.length != size) values = Arrays.copyOf(values, size);
+	}
+	
+}
@@ -0,0 +1,120 @@
+package me.mrletsplay.mrcore.mysql.impl.columnar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import me.mrletsplay.mrcore.mysql.impl.table.ColumnDefinition;
+
+/**
+ * A column of string values, stored dictionary-encoded<br>
+ * Every distinct string is only stored once and rows only reference it by its code. Columns with few distinct values (e.g. names or states) therefore only need one {@code int} per row
+ * @author MrLetsplay2003
+ */
+public class StringColumnVector extends ColumnVector {
+
+	private int[] codes;
+	private List<String> dictionary;
+	private Map<String, Integer> dictionaryCodes;
+	
+	public StringColumnVector(ColumnDefinition definition) {
+		super(definition);
+		this.codes = new int[INITIAL_CAPACITY];
+		this.dictionary = new ArrayList<>();
+		this.dictionaryCodes = new HashMap<>();
+	}
+	
+	/**
+	 * @param index The row index
+	 * @return The value at the given index or {@code null}
+	 */
+	public String getString(int index) {
+		checkIndex(index);
+		int code = codes[index];
+		return code == -1 ? null : dictionary.get(code);
+	}
+	
+	/**
+	 * @param index The row index
+	 * @return The dictionary code of the value at the given index or -1 if it is {@code null}
+	 * @see #getDictionary()
+	 */
+	public int getCode(int index) {
+		checkIndex(index);
+		return codes[index];
+	}
+	
+	/**
+	 * @param value The value to look up
+	 * @return The dictionary code of the given value or -1 if it doesn't occur in this column
+	 */
+	public int getCode(String value) {
+		return dictionaryCodes.getOrDefault(value, -1);
+	}
+	
+	/**
+	 * @return The distinct non-null values of this column, indexed by their code
+	 */
+	public List<String> getDictionary() {
+		return Collections.unmodifiableList(dictionary);
+	}
+	
+	/**
+	 * @return The number of distinct non-null values in this column
+	 */
+	public int getDistinctCount() {
+		return dictionary.size();
+	}
+	
+	/**
+	 * Counts the rows containing the given value by only comparing dictionary codes
+	 * @param value The value to count
+	 * @return The number of rows containing the value
+	 */
+	public int count(String value) {
+		int code = getCode(value);
+		if(code == -1) return 0;
+		int count = 0;
+		for(int i = 0; i < size; i++) {
+			if(codes[i] == code) count++;
+		}
+		return count;
+	}
+	
+	@Override
+	protected void ensureCapacity(int capacity) {
+		if(capacity > codes.length) codes = Arrays.copyOf(codes, Math.max(capacity, codes.length * 2));
+	}
+	
+	@Override
+	public void append(Object value) {
+		super.append(value);
+		if(value == null) codes[size - 1] = -1;
+	}
+	
+	@Override
+	protected void set(int index, Object value) {
+		String str = (String) value;
+		Integer code = dictionaryCodes.get(str);
+		if(code == null) {
+			code = dictionary.size();
+			dictionary.add(str);
+			dictionaryCodes.put(str, code);
+		}
+		codes[index] = code;
+	}
+	
+	@Override
+	protected Object get(int index) {
+		return dictionary.get(codes[index]);
+	}
+	
+	@Override
+	protected void trim() {
+		if(codes.length != size) codes = Arrays.copyOf(codes, size);
+	}
+	
+}
@@ -1,6 +1,14 @@
 package me.mrletsplay.mrcore.mysql.impl.statement;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import me.mrletsplay.mrcore.mysql.impl.MySQLConnection;
+import me.mrletsplay.mrcore.mysql.impl.ResultCursor;
 import me.mrletsplay.mrcore.mysql.impl.ResultSet;
+import me.mrletsplay.mrcore.mysql.protocol.MySQLServerConnection;
+import me.mrletsplay.mrcore.mysql.protocol.misc.MySQLException;
 import me.mrletsplay.mrcore.mysql.protocol.packet.text.MySQLPrepareStatementResponsePacket;
 
 public class PreparedStatement {
@@ -8,6 +16,8 @@ public class PreparedStatement {
 	private MySQLPrepareStatementResponsePacket definingPacket;
 	private StatementParameter[] parameters;
 	private int id;
+	private List<Object[]> batch;
+	private boolean closed;
 	
 	public PreparedStatement(MySQLPrepareStatementResponsePacket fromPacket) {
 		this.definingPacket = fromPacket;
@@ -15,6 +25,7 @@ public class PreparedStatement {
 							.map(p -> new StatementParameter(p))
 							.toArray(StatementParameter[]::new);
 		this.id = fromPacket.getStatementID();
+		this.batch = new ArrayList<>();
 	}
 	
 	public MySQLPrepareStatementResponsePacket getDefiningPacket() {
@@ -33,12 +44,103 @@ public class PreparedStatement {
 		return id;
 	}
 	
+	/**
+	 * Resets the values of all parameters to {@code null}, like for a newly prepared statement
+	 */
+	public void clearParameters() {
+		for(StatementParameter p : parameters) {
+			p.setValue(null);
+		}
+	}
+	
 	public ResultSet execute() {
 		return definingPacket.getConnection().executeStatement(this);
 	}
 	
+	/**
+	 * Executes this statement and returns a cursor which reads the resulting rows one by one as it is advanced
+	 * @return A cursor over the resulting rows or {@code null} if the statement doesn't produce a result set
+	 * @see ResultCursor
+	 */
+	public ResultCursor executeCursor() {
+		return definingPacket.getConnection().executeStatementCursor(this);
+	}
+	
+	/**
+	 * Executes this statement asynchronously using the parameter values at the time of calling this method
+	 * @return A future which is completed with the result set or {@code null} if the statement doesn't produce a result set
+	 * @see MySQLServerConnection#submitAsync(java.util.function.Supplier)
+	 */
+	public CompletableFuture<ResultSet> executeAsync() {
+		MySQLServerConnection con = definingPacket.getConnection();
+		Object[] values = getParameterValues();
+		return con.submitAsync(() -> con.executeStatement(this, values));
+	}
+	
+	/**
+	 * Adds the current parameter values to this statement's batch. The parameter values are kept, so only the values which differ for the next execution have to be changed
+	 * @see #executeBatch()
+	 */
+	public void addBatch() {
+		batch.add(getParameterValues());
+	}
+	
+	private Object[] getParameterValues() {
+		Object[] values = new Object[parameters.length];
+		for(int i = 0; i < parameters.length; i++) {
+			values[i] = parameters[i].getValue();
+		}
+		return values;
+	}
+	
+	public int getBatchSize() {
+		return batch.size();
+	}
+	
+	public void clearBatch() {
+		batch.clear();
+	}
+	
+	/**
+	 * Executes this statement once for every set of parameter values added using {@link #addBatch()} and clears the batch afterwards.<br>
+	 * The executions are pipelined, so the whole batch only takes a few network round trips instead of one per execution
+	 * @return The number of affected rows for each execution, -1 for executions which returned a result set
+	 * @throws MySQLException If one of the executions fails
+	 * @see MySQLServerConnection#executeStatementBatch(PreparedStatement, List)
+	 */
+	public long[] executeBatch() {
+		if(batch.isEmpty()) return new long[0];
+		try {
+			return definingPacket.getConnection().executeStatementBatch(this, batch);
+		}finally {
+			batch.clear();
+		}
+	}
+	
+	/**
+	 * Executes the current batch asynchronously and clears it
+	 * @return A future which is completed with the number of affected rows for each execution
+	 * @see #executeBatch()
+	 */
+	public CompletableFuture<long[]> executeBatchAsync() {
+		List<Object[]> values = new ArrayList<>(batch);
+		batch.clear();
+		if(values.isEmpty()) return CompletableFuture.completedFuture(new long[0]);
+		MySQLServerConnection con = definingPacket.getConnection();
+		return con.submitAsync(() -> con.executeStatementBatch(this, values));
+	}
+	
+	/**
+	 * Closes this statement on the server. Statements returned by {@link MySQLConnection#prepareStatement(String)} are managed by the connection's {@link StatementCache} and should not be closed manually
+	 */
 	public void close() {
+		if(closed) return;
+		closed = true;
 		definingPacket.getConnection().closeStatement(this);
 	}
 	
+	public boolean isClosed() {
+		return closed;
+	}
+	
 }
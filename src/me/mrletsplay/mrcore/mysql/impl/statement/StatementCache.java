@@ -0,0 +1,147 @@
+package me.mrletsplay.mrcore.mysql.impl.statement;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A least-recently-used cache of server-side prepared statements, keyed by their SQL text<br>
+ * Statements which are evicted from the cache are closed on the server using {@code COM_STMT_CLOSE}. Because of that, statements returned by the cache should neither be closed manually nor be kept after more than {@link #getMaxSize()} other statements have been prepared on the same connection
+ * @author MrLetsplay2003
+ */
+public class StatementCache {
+
+	private int maxSize;
+	private LinkedHashMap<String, PreparedStatement> statements;
+	private long hits, misses, evictions;
+
+	/**
+	 * Creates a new statement cache
+	 * @param maxSize The maximum number of statements to keep open. A size of 0 disables caching
+	 */
+	public StatementCache(int maxSize) {
+		if(maxSize < 0) throw new IllegalArgumentException("Max size must be positive");
+		this.maxSize = maxSize;
+		this.statements = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Returns the cached statement for the given SQL text or prepares and caches a new one using the given function, evicting and closing the least recently used statement if the cache is full
+	 * @param sql The SQL text of the statement
+	 * @param prepareFunction The function used to prepare the statement on a cache miss
+	 * @return The prepared statement
+	 */
+	public PreparedStatement get(String sql, Function<String, PreparedStatement> prepareFunction) {
+		PreparedStatement stmt = statements.get(sql);
+		if(stmt != null && !stmt.isClosed()) {
+			hits++;
+			return stmt;
+		}
+		misses++;
+		if(stmt != null) statements.remove(sql);
+		stmt = prepareFunction.apply(sql);
+		if(maxSize == 0) return stmt;
+		statements.put(sql, stmt);
+		evict(maxSize);
+		return stmt;
+	}
+
+	private void evict(int size) {
+		if(statements.size() <= size) return;
+		List<PreparedStatement> evicted = new ArrayList<>();
+		Iterator<PreparedStatement> it = statements.values().iterator();
+		while(statements.size() > size) {
+			evicted.add(it.next());
+			it.remove();
+		}
+		for(PreparedStatement s : evicted) {
+			if(!s.isClosed()) s.close();
+			evictions++;
+		}
+	}
+
+	/**
+	 * Sets the maximum number of statements to keep open, closing the least recently used statements if there are currently more
+	 * @param maxSize The new maximum size. A size of 0 disables caching
+	 */
+	public void setMaxSize(int maxSize) {
+		if(maxSize < 0) throw new IllegalArgumentException("Max size must be positive");
+		this.maxSize = maxSize;
+		evict(maxSize);
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @return The number of statements which are currently cached
+	 */
+	public int size() {
+		return statements.size();
+	}
+
+	/**
+	 * Closes and removes all cached statements
+	 */
+	public void clear() {
+		List<PreparedStatement> open = new ArrayList<>(statements.values());
+		statements.clear();
+		for(PreparedStatement s : open) {
+			if(!s.isClosed()) s.close();
+		}
+	}
+
+	/**
+	 * Removes all cached statements without closing them, e.g. because the connection they were prepared on has been closed
+	 */
+	public void invalidate() {
+		statements.clear();
+	}
+
+	/**
+	 * @return The number of times a cached statement was reused
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return The number of times a statement had to be prepared
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return The number of statements which were closed because the cache was full
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * @return The fraction of lookups which were answered from the cache, between 0 and 1
+	 */
+	public double getHitRate() {
+		long total = hits + misses;
+		return total == 0 ? 0 : hits / (double) total;
+	}
+
+	/**
+	 * Resets the hit, miss and eviction counters
+	 */
+	public void resetStatistics() {
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+	}
+
+	@Override
+	public String toString() {
+		return "StatementCache [size=" + statements.size() + "/" + maxSize + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "]";
+	}
+
+}
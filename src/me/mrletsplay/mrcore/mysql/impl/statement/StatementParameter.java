@@ -25,6 +25,11 @@ public class StatementParameter {
 		return dataType;
 	}
 	
+	/**
+	 * Sets the value of this parameter<br>
+	 * Values are sent in the native binary format of their Java type (e.g. {@link Long} as {@code LONGLONG}, {@link java.sql.Timestamp} as {@code DATETIME}), see {@link MySQLDataTypes#getTypeForValue(Object)}. Values of other types have to match the parameter's {@link #getDataType() data type}
+	 * @param value The value to set, may be {@code null}
+	 */
 	public void setValue(Object value) {
 		this.value = value;
 	}
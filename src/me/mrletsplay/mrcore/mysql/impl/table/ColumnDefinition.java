@@ -21,6 +21,7 @@ public class ColumnDefinition {
 		columnType;
 	
 	private MySQLColumnDefinition41Packet definingPacket;
+	private String columnName;
 	
 	public ColumnDefinition(MySQLColumnDefinition41Packet fromPacket) {
 		this.definingPacket = fromPacket;
@@ -53,6 +54,14 @@ public class ColumnDefinition {
 		return orgName;
 	}
 	
+	/**
+	 * @return The physical name of this column as a string. Unlike {@link #getPhysicalName()}{@code .toString()}, the string is only decoded once
+	 */
+	public String getColumnName() {
+		if(columnName == null) columnName = orgName.toString();
+		return columnName;
+	}
+	
 	public short getCharSet() {
 		return charSet;
 	}
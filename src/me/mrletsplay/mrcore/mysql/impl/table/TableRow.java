@@ -11,26 +11,34 @@ import me.mrletsplay.mrcore.mysql.protocol.type.MySQLDataType;
 
 public class TableRow {
 
-	private ResultSet resultSet;
+	private ColumnDefinition[] columns;
 	private TableEntry[] entries;
 	
 	private MySQLBasePacket definingPacket;
 	
 	public TableRow(ResultSet resultSet, MySQLResultSetRowPacket fromPacket) {
-		this.resultSet = resultSet;
+		this(resultSet.getColumnDefinitions(), fromPacket);
+	}
+	
+	public TableRow(ResultSet resultSet, MySQLResultSetRowBinaryPacket fromPacket) {
+		this(resultSet.getColumnDefinitions(), fromPacket);
+	}
+	
+	public TableRow(ColumnDefinition[] columns, MySQLResultSetRowPacket fromPacket) {
+		this.columns = columns;
 		this.definingPacket = fromPacket;
-		entries = new TableEntry[resultSet.getColumns().length];
-		for(int i = 0; i < resultSet.getColumns().length; i++) {
-			entries[i] = new TableEntry(resultSet.getColumn(i).getDefinition().getColumnType(), fromPacket.getEncodedData().get(i));
+		entries = new TableEntry[columns.length];
+		for(int i = 0; i < columns.length; i++) {
+			entries[i] = new TableEntry(columns[i].getColumnType(), fromPacket.getEncodedData().get(i));
 		}
 	}
 	
-	public TableRow(ResultSet resultSet, MySQLResultSetRowBinaryPacket fromPacket) {
-		this.resultSet = resultSet;
+	public TableRow(ColumnDefinition[] columns, MySQLResultSetRowBinaryPacket fromPacket) {
+		this.columns = columns;
 		this.definingPacket = fromPacket;
-		entries = new TableEntry[resultSet.getColumns().length];
-		for(int i = 0; i < resultSet.getColumns().length; i++) {
-			entries[i] = new TableEntry(resultSet.getColumn(i).getDefinition().getColumnType(), fromPacket.getEncodedData().get(i));
+		entries = new TableEntry[columns.length];
+		for(int i = 0; i < columns.length; i++) {
+			entries[i] = new TableEntry(columns[i].getColumnType(), fromPacket.getEncodedData().get(i));
 		}
 	}
 	
@@ -43,8 +51,8 @@ public class TableRow {
 	}
 	
 	public TableEntry getEntry(String columnName) {
-		for(int i = 0; i < resultSet.getColumns().length; i++) {
-			if(resultSet.getColumn(i).getDefinition().getPhysicalName().toString().equals(columnName)) {
+		for(int i = 0; i < columns.length; i++) {
+			if(columns[i].getColumnName().equals(columnName)) {
 				return entries[i];
 			}
 		}
@@ -52,20 +60,24 @@ public class TableRow {
 	}
 	
 	public <T> T getEntry(int index, MySQLDataType<T> type) {
-		if(!resultSet.getColumn(index).getDefinition().getColumnType().equals(type)) throw new MySQLException("Invalid type");
+		if(!columns[index].getColumnType().equals(type)) throw new MySQLException("Invalid type");
 		return type.getJavaType().cast(entries[index].getValue());
 	}
 	
 	public <T> T getEntry(String columnName, MySQLDataType<T> type) {
-		for(int i = 0; i < resultSet.getColumns().length; i++) {
-			if(resultSet.getColumn(i).getDefinition().getPhysicalName().toString().equals(columnName)) {
-				if(!resultSet.getColumn(i).getDefinition().getColumnType().equals(type)) throw new MySQLException("Invalid type");
+		for(int i = 0; i < columns.length; i++) {
+			if(columns[i].getColumnName().equals(columnName)) {
+				if(!columns[i].getColumnType().equals(type)) throw new MySQLException("Invalid type");
 				return type.getJavaType().cast(entries[i].getValue());
 			}
 		}
 		throw new MySQLException("Invalid column \"" + columnName + "\" specified");
 	}
 	
+	public ColumnDefinition[] getColumnDefinitions() {
+		return columns;
+	}
+	
 	public MySQLBasePacket getDefiningPacket() {
 		return definingPacket;
 	}
@@ -0,0 +1,441 @@
+package me.mrletsplay.mrcore.mysql.pool;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import me.mrletsplay.mrcore.mysql.MySQL;
+import me.mrletsplay.mrcore.mysql.MySQLAsync;
+import me.mrletsplay.mrcore.mysql.impl.MySQLConnection;
+import me.mrletsplay.mrcore.mysql.protocol.misc.MySQLException;
+
+/**
+ * A thread-safe pool of MySQL connections<br>
+ * Since a single {@link MySQLConnection} can only be used by one thread at a time, every thread should {@link #borrow() borrow} its own connection from the pool and return it by closing it afterwards:
+ * <pre>
+ * try(PooledMySQLConnection con = pool.borrow()) {
+ *   ResultSet rs = con.query("SELECT ...");
+ * }
+ * </pre>
+ * The pool keeps at least {@code minSize} connections open and creates more on demand up to {@code maxSize}. Idle connections above the minimum are disconnected after the {@link #setIdleTimeout(long) idle timeout}.<br>
+ * Connections which have been idle for longer than the {@link #setValidationInterval(long) validation interval} are checked using {@code COM_PING} before being handed out. Connections on which an I/O or protocol error occurred are disconnected when they are returned instead of being reused
+ * @author MrLetsplay2003
+ */
+public class MySQLConnectionPool implements AutoCloseable {
+
+	private static final long MAINTENANCE_INTERVAL = 5000;
+
+	private String host, userName, password, database;
+	private int port;
+	private int minSize, maxSize;
+
+	private volatile long
+		idleTimeout = TimeUnit.MINUTES.toMillis(10),
+		borrowTimeout = TimeUnit.SECONDS.toMillis(30),
+		validationInterval = TimeUnit.SECONDS.toMillis(30);
+
+	private Semaphore permits;
+	private BlockingDeque<PooledMySQLConnection> idle;
+	private Lock availableLock;
+	private Condition available;
+	private AtomicInteger totalConnections, activeConnections;
+	private AtomicLong borrowCount, timeoutCount, createdCount, evictedCount, totalWaitNanos, maxWaitNanos;
+	private ScheduledExecutorService maintenance;
+	private boolean compress;
+	private volatile boolean closed;
+
+	/**
+	 * Creates a new connection pool and opens {@code minSize} connections
+	 * @param host The host of the MySQL server
+	 * @param port The port of the MySQL server
+	 * @param userName The user name to log in with
+	 * @param password The password to log in with
+	 * @param database The database to connect to, may be {@code null}
+	 * @param minSize The minimum number of connections to keep open
+	 * @param maxSize The maximum number of connections to open
+	 * @throws MySQLException If one of the initial connections can't be opened
+	 */
+	public MySQLConnectionPool(String host, int port, String userName, String password, String database, int minSize, int maxSize) {
+		this(host, port, userName, password, database, minSize, maxSize, false);
+	}
+
+	/**
+	 * Creates a new connection pool and opens {@code minSize} connections
+	 * @param host The host of the MySQL server
+	 * @param port The port of the MySQL server
+	 * @param userName The user name to log in with
+	 * @param password The password to log in with
+	 * @param database The database to connect to, may be {@code null}
+	 * @param minSize The minimum number of connections to keep open
+	 * @param maxSize The maximum number of connections to open
+	 * @param compress Whether connections should use the compressed protocol
+	 * @throws MySQLException If one of the initial connections can't be opened
+	 * @see MySQL#connect(String, int, String, String, String, boolean)
+	 */
+	public MySQLConnectionPool(String host, int port, String userName, String password, String database, int minSize, int maxSize, boolean compress) {
+		if(minSize < 0 || maxSize < 1 || minSize > maxSize) throw new IllegalArgumentException("Invalid pool size (min: " + minSize + ", max: " + maxSize + ")");
+		this.host = host;
+		this.port = port;
+		this.userName = userName;
+		this.password = password;
+		this.database = database;
+		this.compress = compress;
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		this.permits = new Semaphore(maxSize, true);
+		this.idle = new LinkedBlockingDeque<>();
+		this.availableLock = new ReentrantLock();
+		this.available = availableLock.newCondition();
+		this.totalConnections = new AtomicInteger();
+		this.activeConnections = new AtomicInteger();
+		this.borrowCount = new AtomicLong();
+		this.timeoutCount = new AtomicLong();
+		this.createdCount = new AtomicLong();
+		this.evictedCount = new AtomicLong();
+		this.totalWaitNanos = new AtomicLong();
+		this.maxWaitNanos = new AtomicLong();
+
+		try {
+			fill();
+		}catch(MySQLException e) {
+			close();
+			throw e;
+		}
+
+		this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "MySQL-Pool-Maintenance");
+			t.setDaemon(true);
+			return t;
+		});
+		maintenance.scheduleWithFixedDelay(this::maintain, MAINTENANCE_INTERVAL, MAINTENANCE_INTERVAL, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Sets the time after which idle connections above the minimum pool size are disconnected
+	 * @param idleTimeout The idle timeout in milliseconds
+	 * @return This pool
+	 */
+	public MySQLConnectionPool setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+		return this;
+	}
+
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	/**
+	 * Sets the maximum time {@link #borrow()} waits for a connection to become available
+	 * @param borrowTimeout The borrow timeout in milliseconds
+	 * @return This pool
+	 */
+	public MySQLConnectionPool setBorrowTimeout(long borrowTimeout) {
+		this.borrowTimeout = borrowTimeout;
+		return this;
+	}
+
+	public long getBorrowTimeout() {
+		return borrowTimeout;
+	}
+
+	/**
+	 * Sets the time after which an idle connection is validated using {@code COM_PING} before being handed out again
+	 * @param validationInterval The validation interval in milliseconds
+	 * @return This pool
+	 */
+	public MySQLConnectionPool setValidationInterval(long validationInterval) {
+		this.validationInterval = validationInterval;
+		return this;
+	}
+
+	public long getValidationInterval() {
+		return validationInterval;
+	}
+
+	public boolean isCompressed() {
+		return compress;
+	}
+
+	public int getMinSize() {
+		return minSize;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Borrows a connection from this pool, waiting for up to the {@link #setBorrowTimeout(long) borrow timeout} if all connections are in use
+	 * @return A connection which must be returned to the pool by calling {@link PooledMySQLConnection#close()}
+	 * @throws MySQLException If no connection became available in time or a new connection can't be opened
+	 */
+	public PooledMySQLConnection borrow() {
+		if(closed) throw new MySQLException("Pool is closed");
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeout);
+		try {
+			if(!permits.tryAcquire(borrowTimeout, TimeUnit.MILLISECONDS)) {
+				timeoutCount.incrementAndGet();
+				throw new MySQLException("Timed out waiting for a connection");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MySQLException(e);
+		}
+
+		try {
+			PooledMySQLConnection con = null;
+			while(con == null) {
+				if(closed) throw new MySQLException("Pool is closed");
+				con = idle.pollFirst();
+				if(con != null && !validate(con)) {
+					discard(con);
+					con = null;
+				}
+				if(con == null && reserve()) con = open();
+				if(con == null) awaitAvailable(deadline); // All connections are in transit, e.g. being opened or discarded by the maintenance task
+			}
+			con.setBorrowed(true);
+			activeConnections.incrementAndGet();
+			borrowCount.incrementAndGet();
+			long wait = System.nanoTime() - start;
+			totalWaitNanos.addAndGet(wait);
+			maxWaitNanos.accumulateAndGet(wait, Math::max);
+			return con;
+		}catch(RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Borrows a connection, applies the given function to it and returns the connection to the pool afterwards
+	 * @param <T> The return type of the function
+	 * @param function The function to apply
+	 * @return The value returned by the function
+	 * @throws MySQLException If no connection became available in time or a new connection can't be opened
+	 */
+	public <T> T withConnection(Function<MySQLConnection, T> function) {
+		try(PooledMySQLConnection con = borrow()) {
+			return function.apply(con);
+		}
+	}
+
+	/**
+	 * Asynchronously borrows a connection, applies the given function to it and returns the connection to the pool afterwards.<br>
+	 * Both waiting for a connection and the function itself run on the {@link MySQLAsync#getDefaultExecutor() default executor}, so this is safe to call from threads which must not block
+	 * @param <T> The return type of the function
+	 * @param function The function to apply
+	 * @return A future which is completed with the value returned by the function
+	 */
+	public <T> CompletableFuture<T> withConnectionAsync(Function<MySQLConnection, T> function) {
+		return CompletableFuture.supplyAsync(() -> withConnection(function), MySQLAsync.getDefaultExecutor());
+	}
+
+	void release(PooledMySQLConnection con) {
+		if(!con.isBorrowed()) return;
+		con.setBorrowed(false);
+		activeConnections.decrementAndGet();
+		try {
+			if(closed || !con.isConnected() || con.isBroken()) {
+				discard(con);
+				return;
+			}
+			con.setLastUsed(System.currentTimeMillis());
+			idle.offerFirst(con);
+			signalAvailable();
+		}finally {
+			permits.release();
+		}
+	}
+
+	private void awaitAvailable(long deadline) {
+		availableLock.lock();
+		try {
+			while(!closed && idle.isEmpty() && totalConnections.get() >= maxSize) {
+				long remaining = deadline - System.nanoTime();
+				if(remaining <= 0) {
+					timeoutCount.incrementAndGet();
+					throw new MySQLException("Timed out waiting for a connection");
+				}
+				available.awaitNanos(remaining);
+			}
+		}catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MySQLException(e);
+		}finally {
+			availableLock.unlock();
+		}
+	}
+
+	private void signalAvailable() {
+		availableLock.lock();
+		try {
+			available.signalAll();
+		}finally {
+			availableLock.unlock();
+		}
+	}
+
+	private boolean validate(PooledMySQLConnection con) {
+		if(!con.isConnected() || con.isBroken()) return false;
+		long now = System.currentTimeMillis();
+		if(now - con.getLastUsed() < validationInterval && now - con.getLastValidated() < validationInterval) return true;
+		if(!con.ping()) return false;
+		con.setLastValidated(now);
+		return true;
+	}
+
+	private boolean reserve() {
+		while(true) {
+			int total = totalConnections.get();
+			if(total >= maxSize) return false;
+			if(totalConnections.compareAndSet(total, total + 1)) return true;
+		}
+	}
+
+	private PooledMySQLConnection open() {
+		try {
+			PooledMySQLConnection con = new PooledMySQLConnection(this, MySQL.connect(host, port, userName, password, database, compress).getServerConnection());
+			createdCount.incrementAndGet();
+			return con;
+		} catch (IOException | RuntimeException e) {
+			totalConnections.decrementAndGet();
+			signalAvailable();
+			throw e instanceof MySQLException ? (MySQLException) e : new MySQLException("Failed to open connection", e);
+		}
+	}
+
+	private void discard(PooledMySQLConnection con) {
+		totalConnections.decrementAndGet();
+		signalAvailable();
+		if(!con.isConnected()) return;
+		try {
+			con.disconnect();
+		}catch(MySQLException e) {
+			// Connection is already broken
+		}
+	}
+
+	private void fill() {
+		while(!closed && totalConnections.get() < minSize && reserve()) {
+			idle.offerLast(open());
+			signalAvailable();
+		}
+	}
+
+	private void maintain() {
+		try {
+			long now = System.currentTimeMillis();
+			Iterator<PooledMySQLConnection> it = idle.descendingIterator();
+			while(it.hasNext() && totalConnections.get() > minSize) {
+				PooledMySQLConnection con = it.next();
+				if(now - con.getLastUsed() < idleTimeout) break; // Connections are ordered by last use
+				if(!idle.removeLastOccurrence(con)) continue;
+				discard(con);
+				evictedCount.incrementAndGet();
+			}
+			fill();
+		}catch(MySQLException e) {
+			// Try again on the next run
+		}
+	}
+
+	/**
+	 * @return The number of open connections, including the ones which are currently borrowed
+	 */
+	public int getTotalConnections() {
+		return totalConnections.get();
+	}
+
+	/**
+	 * @return The number of connections which are currently borrowed
+	 */
+	public int getActiveConnections() {
+		return activeConnections.get();
+	}
+
+	/**
+	 * @return The number of open connections which are currently not borrowed
+	 */
+	public int getIdleConnections() {
+		return idle.size();
+	}
+
+	/**
+	 * @return The fraction of the maximum pool size which is currently borrowed, between 0 and 1
+	 */
+	public double getUtilization() {
+		return activeConnections.get() / (double) maxSize;
+	}
+
+	/**
+	 * @return The number of successful calls to {@link #borrow()}
+	 */
+	public long getBorrowCount() {
+		return borrowCount.get();
+	}
+
+	/**
+	 * @return The number of calls to {@link #borrow()} which timed out
+	 */
+	public long getTimeoutCount() {
+		return timeoutCount.get();
+	}
+
+	/**
+	 * @return The number of connections which were opened by this pool
+	 */
+	public long getCreatedCount() {
+		return createdCount.get();
+	}
+
+	/**
+	 * @return The number of connections which were disconnected because they were idle for too long
+	 */
+	public long getEvictedCount() {
+		return evictedCount.get();
+	}
+
+	/**
+	 * @return The average time successful calls to {@link #borrow()} took, in milliseconds
+	 */
+	public double getAverageWaitTime() {
+		long count = borrowCount.get();
+		return count == 0 ? 0 : totalWaitNanos.get() / (double) count / 1_000_000D;
+	}
+
+	/**
+	 * @return The longest time a successful call to {@link #borrow()} took, in milliseconds
+	 */
+	public double getMaxWaitTime() {
+		return maxWaitNanos.get() / 1_000_000D;
+	}
+
+	/**
+	 * Closes this pool and disconnects all idle connections. Borrowed connections will be disconnected once they are returned
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		if(maintenance != null) maintenance.shutdownNow();
+		PooledMySQLConnection con;
+		while((con = idle.pollFirst()) != null) {
+			discard(con);
+		}
+		signalAvailable();
+	}
+
+}
@@ -0,0 +1,80 @@
+package me.mrletsplay.mrcore.mysql.pool;
+
+import me.mrletsplay.mrcore.mysql.impl.MySQLConnection;
+import me.mrletsplay.mrcore.mysql.impl.statement.PreparedStatement;
+import me.mrletsplay.mrcore.mysql.protocol.MySQLServerConnection;
+
+/**
+ * A connection which belongs to a {@link MySQLConnectionPool}<br>
+ * Calling {@link #close()} returns the connection to its pool instead of disconnecting it, so it should always be used in a try-with-resources block.<br>
+ * <br>
+ * Prepared statements are kept in the connection's {@link #getStatementCache() statement cache} across borrows, so statements returned by {@link #prepareStatement(String)} should not be closed manually. Their parameter values and batch are reset every time they are returned
+ * @author MrLetsplay2003
+ */
+public class PooledMySQLConnection extends MySQLConnection implements AutoCloseable {
+
+	private MySQLConnectionPool pool;
+	private boolean borrowed;
+	private long lastUsed, lastValidated;
+
+	PooledMySQLConnection(MySQLConnectionPool pool, MySQLServerConnection serverConnection) {
+		super(serverConnection);
+		this.pool = pool;
+		this.lastUsed = System.currentTimeMillis();
+		this.lastValidated = lastUsed;
+	}
+
+	public MySQLConnectionPool getPool() {
+		return pool;
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String query) {
+		PreparedStatement stmt = super.prepareStatement(query);
+		// Don't leak parameter or batched values of a previous borrower
+		stmt.clearParameters();
+		stmt.clearBatch();
+		return stmt;
+	}
+
+	boolean isConnected() {
+		return getServerConnection().isConnected();
+	}
+
+	boolean isBroken() {
+		return getServerConnection().isBroken();
+	}
+
+	boolean isBorrowed() {
+		return borrowed;
+	}
+
+	void setBorrowed(boolean borrowed) {
+		this.borrowed = borrowed;
+	}
+
+	long getLastUsed() {
+		return lastUsed;
+	}
+
+	void setLastUsed(long lastUsed) {
+		this.lastUsed = lastUsed;
+	}
+
+	long getLastValidated() {
+		return lastValidated;
+	}
+
+	void setLastValidated(long lastValidated) {
+		this.lastValidated = lastValidated;
+	}
+
+	/**
+	 * Returns this connection to its pool
+	 */
+	@Override
+	public void close() {
+		pool.release(this);
+	}
+
+}
@@ -1,35 +1,45 @@
 package me.mrletsplay.mrcore.mysql.protocol;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import me.mrletsplay.mrcore.misc.FlagCompound;
 import me.mrletsplay.mrcore.misc.FlagCompound.CombinationMode;
+import me.mrletsplay.mrcore.mysql.MySQLAsync;
+import me.mrletsplay.mrcore.mysql.impl.ResultCursor;
 import me.mrletsplay.mrcore.mysql.impl.ResultSet;
 import me.mrletsplay.mrcore.mysql.impl.statement.PreparedStatement;
 import me.mrletsplay.mrcore.mysql.impl.statement.StatementParameter;
+import me.mrletsplay.mrcore.mysql.impl.table.ColumnDefinition;
 import me.mrletsplay.mrcore.mysql.impl.table.TableColumn;
 import me.mrletsplay.mrcore.mysql.protocol.auth.MySQLAuthPlugin;
 import me.mrletsplay.mrcore.mysql.protocol.auth.MySQLAuthPluginBase;
 import me.mrletsplay.mrcore.mysql.protocol.command.MySQLCommand;
 import me.mrletsplay.mrcore.mysql.protocol.flag.MySQLCapabilityFlag;
+import me.mrletsplay.mrcore.mysql.protocol.io.MySQLCompression;
 import me.mrletsplay.mrcore.mysql.protocol.io.MySQLReader;
 import me.mrletsplay.mrcore.mysql.protocol.io.MySQLWriter;
 import me.mrletsplay.mrcore.mysql.protocol.io.RawPacket;
 import me.mrletsplay.mrcore.mysql.protocol.misc.MySQLCharset;
 import me.mrletsplay.mrcore.mysql.protocol.misc.MySQLException;
 import me.mrletsplay.mrcore.mysql.protocol.misc.NullBitmap;
-import me.mrletsplay.mrcore.mysql.protocol.packet.binary.MySQLResultSetBinaryPacket;
+import me.mrletsplay.mrcore.mysql.protocol.misc.SerialExecutor;
 import me.mrletsplay.mrcore.mysql.protocol.packet.server.MySQLERRPacket;
 import me.mrletsplay.mrcore.mysql.protocol.packet.server.MySQLOKPacket;
 import me.mrletsplay.mrcore.mysql.protocol.packet.server.MySQLServerPacket;
 import me.mrletsplay.mrcore.mysql.protocol.packet.server.MySQLServerPacketType;
 import me.mrletsplay.mrcore.mysql.protocol.packet.text.MySQLPrepareStatementResponsePacket;
-import me.mrletsplay.mrcore.mysql.protocol.packet.text.MySQLResultSetPacket;
+import me.mrletsplay.mrcore.mysql.protocol.packet.text.MySQLColumnDefinition41Packet;
+import me.mrletsplay.mrcore.mysql.protocol.type.MySQLDataType;
+import me.mrletsplay.mrcore.mysql.protocol.type.MySQLDataTypes;
 import me.mrletsplay.mrcore.mysql.protocol.type.MySQLString;
 
 public class MySQLServerConnection {
@@ -45,6 +55,11 @@ public class MySQLServerConnection {
 			MySQLCapabilityFlag.CLIENT_MULTI_RESULTS,
 			MySQLCapabilityFlag.CLIENT_PS_MULTI_RESULTS
 		);
+	
+	/**
+	 * The maximum number of statement executions which are sent before their responses are read
+	 */
+	public static final int BATCH_WINDOW_SIZE = 256;
 
 	private Socket socket;
 	private InputStream in;
@@ -63,8 +78,28 @@ public class MySQLServerConnection {
 	private MySQLString authPluginName;
 	private String username, database;
 	private MySQLAuthPluginBase authPlugin;
+	private ResultCursor activeCursor;
+	private SerialExecutor asyncExecutor;
+	private MySQLCompression compression;
+	private volatile boolean broken;
 	
 	public MySQLServerConnection(Socket socket, InputStream in, OutputStream out, String username, String password, String database) throws IOException {
+		this(socket, in, out, username, password, database, false);
+	}
+	
+	/**
+	 * Creates a new connection and logs in
+	 * @param socket The socket connected to the server
+	 * @param in The socket's input stream
+	 * @param out The socket's output stream
+	 * @param username The user name to log in with
+	 * @param password The password to log in with
+	 * @param database The database to connect to, may be {@code null}
+	 * @param compress Whether to use the compressed protocol if the server supports it
+	 * @throws IOException If an I/O error occurs
+	 * @see MySQLCompression
+	 */
+	public MySQLServerConnection(Socket socket, InputStream in, OutputStream out, String username, String password, String database, boolean compress) throws IOException {
 		this.socket = socket;
 		this.in = in;
 		this.out = out;
@@ -72,14 +107,15 @@ public class MySQLServerConnection {
 		this.database = database;
 		this.clientCapabilityFlags = new FlagCompound(defaultCapabilityFlags);
 		if(database != null) this.clientCapabilityFlags.addFlag(MySQLCapabilityFlag.CLIENT_CONNECT_WITH_DB);
+		if(compress) this.clientCapabilityFlags.addFlag(MySQLCapabilityFlag.CLIENT_COMPRESS);
 		init(password);
 	}
 	
 	private void init(String password) throws IOException {
 		globalReader = new MySQLReader(in);
-		globalWriter = new MySQLWriter(out);
+		globalWriter = new MySQLWriter(new BufferedOutputStream(out, 16384)); // Header and payload are sent in a single write
 		RawPacket handshake = readPacket();
-		MySQLReader hReader = new MySQLReader(new ByteArrayInputStream(handshake.getPayload()));
+		MySQLReader hReader = new MySQLReader(handshake.getPayload());
 		protocolVersion = (byte) hReader.read();
 		serverVersion = hReader.readNullTerminatedString();
 		connectionID = (int) hReader.readFixedLengthInteger(4);
@@ -105,8 +141,10 @@ public class MySQLServerConnection {
 			}
 			commonCapabilityFlags = FlagCompound.combine(serverCapabilityFlags, clientCapabilityFlags, CombinationMode.AND);
 		}
-		this.authPluginData = authPluginData.getBytes();
-		sendHandshakeResponse(password, authPluginData.getBytes());
+		byte[] authData = authPluginData.getBytes();
+		if(authData.length > 0 && authData[authData.length - 1] == 0) authData = Arrays.copyOf(authData, authData.length - 1); // The scramble is null-terminated, the terminator isn't part of the seed
+		this.authPluginData = authData;
+		sendHandshakeResponse(password, authData);
 	}
 	
 	private void sendHandshakeResponse(String password, byte[] authPluginData) throws IOException {
@@ -145,10 +183,30 @@ public class MySQLServerConnection {
 		authPlugin.handleFurtherProcessing(this);
 		awaitOkay("Failed to connect");
 		newLifecycle();
+		if(hasCapability(MySQLCapabilityFlag.CLIENT_COMPRESS)) enableCompression();
+	}
+	
+	private void enableCompression() {
+		// Everything after the authentication is compressed. The server doesn't send anything before the next command, so nothing can be left in the reader's buffer
+		compression = new MySQLCompression();
+		globalReader = new MySQLReader(compression.wrap(in));
+		globalWriter = new MySQLWriter(compression.wrap(out));
+	}
+	
+	/**
+	 * @return The compression layer of this connection or {@code null} if the connection isn't compressed
+	 */
+	public MySQLCompression getCompression() {
+		return compression;
+	}
+	
+	public boolean isCompressed() {
+		return compression != null;
 	}
 	
 	public void newLifecycle() {
 		lastSequenceID = -1; // New connection lifecycle
+		if(compression != null) compression.resetSequence();
 	}
 	
 	public byte[] getAuthPluginData() {
@@ -216,7 +274,21 @@ public class MySQLServerConnection {
 	}
 	
 	public void sendPacket(RawPacket packet) throws IOException {
-		globalWriter.writePacket(++lastSequenceID, packet);
+		sendPacket(packet, true);
+	}
+	
+	/**
+	 * Sends a packet using the next sequence id
+	 * @param packet The packet to send
+	 * @param flush Whether to flush the connection afterwards. If this is false, the packet might not be sent until {@link #flush()} is called
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void sendPacket(RawPacket packet, boolean flush) throws IOException {
+		globalWriter.writePacket(++lastSequenceID, packet, flush);
+	}
+	
+	public void flush() throws IOException {
+		globalWriter.flush();
 	}
 	
 	private MySQLOKPacket awaitOkay(String errorMessage) throws IOException {
@@ -229,10 +301,25 @@ public class MySQLServerConnection {
 			case ERR:
 				throw new MySQLException(errorMessage + ": \"" + ((MySQLERRPacket) r).getErrorMessage() + "\" (from Server)");
 			default:
+				markBroken(); // Unexpected response, we can't know what else the server is going to send
 				throw new MySQLException(errorMessage);
 		}
 	}
 	
+	/**
+	 * Runs the given operation asynchronously on the {@link MySQLAsync#getDefaultExecutor() default executor}.<br>
+	 * Operations submitted to the same connection are run one after another in submission order, so they never use the connection concurrently. Blocking operations must not be used while asynchronous operations are still pending
+	 * @param <T> The result type of the operation
+	 * @param operation The operation to run
+	 * @return A future which is completed with the result of the operation
+	 */
+	public <T> CompletableFuture<T> submitAsync(Supplier<T> operation) {
+		synchronized (this) {
+			if(asyncExecutor == null) asyncExecutor = new SerialExecutor(MySQLAsync.getDefaultExecutor());
+		}
+		return CompletableFuture.supplyAsync(operation, asyncExecutor);
+	}
+	
 	public boolean hasData() throws IOException {
 		return globalReader.hasMore();
 	}
@@ -244,28 +331,82 @@ public class MySQLServerConnection {
 		return raw;
 	}
 	
+	/**
+	 * Reads the next row of the result set that is currently being received
+	 * @return The row packet or {@code null} if there are no more rows
+	 * @throws IOException If an I/O error occurs
+	 * @throws MySQLException If the server sent an error instead of a row
+	 */
+	public RawPacket readResultRow() throws IOException {
+		RawPacket raw = readPacket();
+		if(raw == null) {
+			activeCursor = null;
+			markBroken();
+			throw new MySQLException("Missing end of result set");
+		}
+		int header = raw.getPayload()[0] & 0xFF;
+		if(header == 0xfe && raw.getPayload().length < RawPacket.MAX_SIZE) { // OK/EOF packet, rows can only start with 0xfe if they are at least 0xffffff bytes long
+			activeCursor = null;
+			newLifecycle();
+			return null;
+		}
+		if(header == 0xff) {
+			activeCursor = null;
+			newLifecycle();
+			throw new MySQLException(((MySQLERRPacket) raw.parseServerPacket(this)).getErrorMessage().toString());
+		}
+		return raw;
+	}
+	
+	private ResultCursor readResult(int command, boolean binary) throws IOException {
+		return readResult(readPacket(), command, binary);
+	}
+	
+	private ResultCursor readResult(RawPacket raw, int command, boolean binary) throws IOException {
+		if(raw.getServerPacketType().equals(MySQLServerPacketType.OK)) {
+			newLifecycle();
+			return null; // No further data
+		}
+		if(raw.getServerPacketType().equals(MySQLServerPacketType.ERR)) {
+			newLifecycle();
+			throw new MySQLException(((MySQLERRPacket) raw.parseServerPacket(this)).getErrorMessage().toString()); // No further data
+		}
+		MySQLReader r = new MySQLReader(raw.getPayload());
+		int columnCount = (int) r.readLengthEncodedInteger();
+		ColumnDefinition[] columns = new ColumnDefinition[columnCount];
+		for(int i = 0; i < columnCount; i++) {
+			columns[i] = new ColumnDefinition(readPacket().parseTextPacket(this, MySQLColumnDefinition41Packet.class, command));
+		}
+		if(!hasCapability(MySQLCapabilityFlag.CLIENT_DEPRECATE_EOF)) readPacket(); // EOF packet after the column definitions
+		activeCursor = new ResultCursor(this, columns, binary, command);
+		return activeCursor;
+	}
+	
+	private void finishActiveCursor() {
+		if(activeCursor != null) activeCursor.close();
+	}
+	
 	public ResultSet query(String query) {
+		ResultCursor cursor = queryCursor(query);
+		return cursor == null ? null : new ResultSet(cursor);
+	}
+	
+	public ResultCursor queryCursor(String query) {
+		finishActiveCursor();
 		try {
 			ByteArrayOutputStream bOut = new ByteArrayOutputStream();
 			MySQLWriter w = new MySQLWriter(bOut);
 			w.write(MySQLCommand.COM_QUERY);
 			w.writeString(new MySQLString(query));
 			sendPacket(RawPacket.of(bOut.toByteArray()));
-			RawPacket raw = readPacket();
-			if(raw.getServerPacketType().equals(MySQLServerPacketType.OK)) {
-				newLifecycle();
-				return null; // No further data
-			}
-			if(raw.getServerPacketType().equals(MySQLServerPacketType.ERR)) throw new MySQLException(((MySQLERRPacket) raw.parseServerPacket(this)).getErrorMessage().toString()); // No further data
-			MySQLResultSetPacket packet = raw.parseTextPacket(this, MySQLResultSetPacket.class, MySQLCommand.COM_QUERY);
-			newLifecycle();
-			return new ResultSet(packet);
+			return readResult(MySQLCommand.COM_QUERY, false);
 		} catch (IOException e) {
-			throw new MySQLException(e);
+			throw ioError(e);
 		}
 	}
 	
 	public PreparedStatement prepareStatement(String query) {
+		finishActiveCursor();
 		try {
 			ByteArrayOutputStream bOut = new ByteArrayOutputStream();
 			MySQLWriter w = new MySQLWriter(bOut);
@@ -278,50 +419,135 @@ public class MySQLServerConnection {
 			newLifecycle();
 			return new PreparedStatement(packet);
 		} catch (IOException e) {
-			throw new MySQLException(e);
+			throw ioError(e);
 		}
 	}
 	
 	public ResultSet executeStatement(PreparedStatement statement) {
+		ResultCursor cursor = executeStatementCursor(statement);
+		return cursor == null ? null : new ResultSet(cursor);
+	}
+	
+	/**
+	 * Executes the statement with the given parameter values instead of the values currently set on the statement's parameters
+	 * @param statement The statement to execute
+	 * @param values The parameter values, in the same order as the statement's parameters
+	 * @return The result set or {@code null} if the statement doesn't produce a result set
+	 */
+	public ResultSet executeStatement(PreparedStatement statement, Object[] values) {
+		ResultCursor cursor = executeStatementCursor(statement, values);
+		return cursor == null ? null : new ResultSet(cursor);
+	}
+	
+	public ResultCursor executeStatementCursor(PreparedStatement statement) {
+		Object[] values = new Object[statement.getParameters().length];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = statement.getParameter(i).getValue();
+		}
+		return executeStatementCursor(statement, values);
+	}
+	
+	public ResultCursor executeStatementCursor(PreparedStatement statement, Object[] values) {
+		if(statement.isClosed()) throw new MySQLException("Statement is closed");
+		finishActiveCursor();
 		try {
-			ByteArrayOutputStream bOut = new ByteArrayOutputStream();
-			MySQLWriter w = new MySQLWriter(bOut);
-			w.write(MySQLCommand.COM_STMT_EXECUTE);
-			w.writeFixedLengthInteger(4, statement.getID());
-			w.write(0x00); // Flags
-			w.writeFixedLengthInteger(4, 0x01); // Iteration count (always 1)
-			if(statement.getParameters().length > 0) {
-				NullBitmap bitmap = new NullBitmap(statement.getParameters().length, 0);
-				for(int i = 0; i < statement.getParameters().length; i++) {
-					if(statement.getParameter(i).getValue() == null) bitmap.setNullBit(i);
-				}
-				w.write(bitmap.getBytes());
-				w.write(0x01); // new-params-bound-flag
-				for(StatementParameter p : statement.getParameters()) {
-					w.write(p.getDataType().getSQLIdentifier());
-					w.write(0x80); // Flag byte
+			sendPacket(RawPacket.of(encodeExecute(statement, values)));
+			return readResult(MySQLCommand.COM_STMT_EXECUTE, true);
+		} catch (IOException e) {
+			throw ioError(e);
+		}
+	}
+	
+	/**
+	 * Executes the statement once for every set of parameter values.<br>
+	 * Instead of waiting for the response to every execution before sending the next one, up to {@value #BATCH_WINDOW_SIZE} executions are sent at once and their responses are read afterwards, so a batch only needs a fraction of the network round trips.<br>
+	 * If one of the executions fails, the remaining executions of the same window will still have been executed by the server, but no further windows will be sent
+	 * @param statement The statement to execute
+	 * @param batch The parameter values for each execution, in the same order as the statement's parameters
+	 * @return The number of affected rows for each execution, -1 for executions which returned a result set
+	 * @throws MySQLException If one of the executions fails or an I/O error occurs
+	 */
+	public long[] executeStatementBatch(PreparedStatement statement, List<Object[]> batch) {
+		if(statement.isClosed()) throw new MySQLException("Statement is closed");
+		finishActiveCursor();
+		long[] affectedRows = new long[batch.size()];
+		try {
+			for(int start = 0; start < batch.size(); start += BATCH_WINDOW_SIZE) {
+				int end = Math.min(batch.size(), start + BATCH_WINDOW_SIZE);
+				for(int i = start; i < end; i++) {
+					newLifecycle(); // Every execution is a separate command
+					sendPacket(RawPacket.of(encodeExecute(statement, batch.get(i))), false);
 				}
-				for(StatementParameter p : statement.getParameters()) {
-					if(p.getValue() != null) w.writeLengthEncodedString(p.getFormattedValue());
+				flush();
+				
+				MySQLException error = null;
+				for(int i = start; i < end; i++) {
+					newLifecycle();
+					try {
+						RawPacket raw = readPacket();
+						if(raw.getServerPacketType().equals(MySQLServerPacketType.OK)) {
+							affectedRows[i] = ((MySQLOKPacket) raw.parseServerPacket(this)).getAffectedRows();
+						}else {
+							ResultCursor cursor = readResult(raw, MySQLCommand.COM_STMT_EXECUTE, true);
+							if(cursor != null) cursor.close();
+							affectedRows[i] = -1;
+						}
+					}catch(MySQLException e) {
+						if(error == null) error = new MySQLException("Batch execution " + i + " failed: " + e.getMessage(), e);
+					}
 				}
+				if(error != null) throw error;
 			}
-			sendPacket(RawPacket.of(bOut.toByteArray()));
-			MySQLResultSetBinaryPacket raw = readPacket().parseBinaryPacket(this, MySQLResultSetBinaryPacket.class, MySQLCommand.COM_STMT_EXECUTE);
-			newLifecycle();
-			return new ResultSet(raw);
+			return affectedRows;
 		} catch (IOException e) {
-			throw new MySQLException(e);
+			throw ioError(e);
+		}finally {
+			newLifecycle();
+		}
+	}
+	
+	private byte[] encodeExecute(PreparedStatement statement, Object[] values) throws IOException {
+		StatementParameter[] parameters = statement.getParameters();
+		if(values.length != parameters.length) throw new MySQLException("Expected " + parameters.length + " parameter values, got " + values.length);
+		ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+		MySQLWriter w = new MySQLWriter(bOut);
+		w.write(MySQLCommand.COM_STMT_EXECUTE);
+		w.writeFixedLengthInteger(4, statement.getID());
+		w.write(0x00); // Flags
+		w.writeFixedLengthInteger(4, 0x01); // Iteration count (always 1)
+		if(parameters.length > 0) {
+			NullBitmap bitmap = new NullBitmap(parameters.length, 0);
+			for(int i = 0; i < parameters.length; i++) {
+				if(values[i] == null) bitmap.setNullBit(i);
+			}
+			w.write(bitmap.getBytes());
+			w.write(0x01); // new-params-bound-flag
+			MySQLDataType<?>[] types = new MySQLDataType<?>[parameters.length];
+			for(int i = 0; i < parameters.length; i++) {
+				MySQLDataType<?> type = values[i] == null ? null : MySQLDataTypes.getTypeForValue(values[i]);
+				types[i] = type != null ? type : parameters[i].getDataType();
+				w.write(types[i].getSQLIdentifier());
+				w.write(0x00); // Flag byte (signed)
+			}
+			for(int i = 0; i < parameters.length; i++) {
+				if(values[i] != null) types[i].write(w, values[i]);
+			}
 		}
+		return bOut.toByteArray();
 	}
 	
 	public void closeStatement(PreparedStatement statement) {
+		finishActiveCursor();
 		try {
 			ByteArrayOutputStream bOut = new ByteArrayOutputStream();
 			MySQLWriter w = new MySQLWriter(bOut);
 			w.write(MySQLCommand.COM_STMT_CLOSE);
 			w.writeFixedLengthInteger(4, statement.getID());
+			sendPacket(RawPacket.of(bOut.toByteArray())); // The server doesn't respond to COM_STMT_CLOSE
 		} catch (IOException e) {
-			throw new MySQLException(e);
+			throw ioError(e);
+		}finally {
+			newLifecycle();
 		}
 	}
 	
@@ -330,6 +556,7 @@ public class MySQLServerConnection {
 	}
 	
 	public void selectSchema(String schemaName) {
+		finishActiveCursor();
 		try {
 			ByteArrayOutputStream bOut = new ByteArrayOutputStream();
 			MySQLWriter w = new MySQLWriter(bOut);
@@ -340,15 +567,56 @@ public class MySQLServerConnection {
 			this.database = schemaName;
 			newLifecycle();
 		} catch (IOException e) {
-			throw new MySQLException(e);
+			throw ioError(e);
+		}
+	}
+	
+	/**
+	 * Sends a {@code COM_PING} to check whether the server is still reachable
+	 * @throws MySQLException If the server doesn't respond properly or an I/O error occurs
+	 */
+	public void ping() {
+		finishActiveCursor();
+		try {
+			sendPacket(RawPacket.of(MySQLCommand.COM_PING));
+			awaitOkay("Ping failed");
+		} catch (IOException e) {
+			throw ioError(e);
+		}finally {
+			newLifecycle();
 		}
 	}
 	
+	public boolean isConnected() {
+		return !socket.isClosed();
+	}
+	
+	/**
+	 * Marks this connection as broken. This should be called when an I/O or protocol error occurs while communicating with the server, because the connection might then have unread data or an unexpected sequence id and can't be used for further commands
+	 */
+	public void markBroken() {
+		this.broken = true;
+	}
+	
+	/**
+	 * @return Whether an I/O or protocol error occurred on this connection
+	 * @see #markBroken()
+	 */
+	public boolean isBroken() {
+		return broken;
+	}
+	
+	private MySQLException ioError(IOException e) {
+		markBroken();
+		return new MySQLException(e);
+	}
+	
 	public void disconnect() {
+		finishActiveCursor();
 		try {
 			sendPacket(RawPacket.of(MySQLCommand.COM_QUIT));
 		} catch (IOException e) {
-			throw new MySQLException(e);
+			throw ioError(e);
 		}
 		try {
 			awaitOkay("Improper disconnect");
@@ -361,7 +629,7 @@ public class MySQLServerConnection {
 		try {
 			if(!socket.isClosed()) socket.close();
 		} catch (IOException e) {
-			throw new MySQLException(e);
+			throw ioError(e);
 		}
 	}
 	
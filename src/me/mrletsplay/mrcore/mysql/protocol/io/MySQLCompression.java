@@ -0,0 +1,326 @@
+package me.mrletsplay.mrcore.mysql.protocol.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Implements the framing of the MySQL compressed protocol ({@code CLIENT_COMPRESS}) using zlib<br>
+ * The streams returned by {@link #wrap(InputStream)} and {@link #wrap(OutputStream)} sit between the socket and {@link MySQLReader}/{@link MySQLWriter}, so the packet layer doesn't need to know about compression at all.<br>
+ * Data written to the output stream is buffered until the stream is flushed and then sent as one or more compressed packets. Payloads smaller than the {@link #setThreshold(int) threshold} or which don't get smaller when compressed are sent uncompressed
+ * @author MrLetsplay2003
+ */
+public class MySQLCompression {
+
+	/**
+	 * The default minimum payload size for compression, the same as the one used by the MySQL server
+	 */
+	public static final int DEFAULT_THRESHOLD = 50;
+	
+	private static final int
+		HEADER_SIZE = 7,
+		MAX_CHUNK_SIZE = 0xffffff,
+		SHRINK_SIZE = 1024 * 1024;
+	
+	private int threshold, level;
+	private byte sequenceID;
+	private long compressedBytesRead, uncompressedBytesRead, compressedBytesWritten, uncompressedBytesWritten;
+	
+	public MySQLCompression() {
+		this.threshold = DEFAULT_THRESHOLD;
+		this.level = Deflater.DEFAULT_COMPRESSION;
+	}
+	
+	/**
+	 * Sets the minimum size of data that will be compressed before being sent. Smaller payloads are sent uncompressed, since compressing them would only cost time
+	 * @param threshold The threshold in bytes
+	 * @return This object
+	 */
+	public MySQLCompression setThreshold(int threshold) {
+		this.threshold = threshold;
+		return this;
+	}
+	
+	public int getThreshold() {
+		return threshold;
+	}
+	
+	/**
+	 * Sets the zlib compression level to use for sent data
+	 * @param level The level, between 0 and 9 or {@link Deflater#DEFAULT_COMPRESSION}
+	 * @return This object
+	 */
+	public MySQLCompression setLevel(int level) {
+		if((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) throw new IllegalArgumentException("Invalid compression level");
+		this.level = level;
+		return this;
+	}
+	
+	public int getLevel() {
+		return level;
+	}
+	
+	/**
+	 * Resets the sequence id of compressed packets. Like the sequence id of regular packets, this needs to happen for every new command
+	 */
+	public void resetSequence() {
+		sequenceID = 0;
+	}
+	
+	public InputStream wrap(InputStream in) {
+		return new CompressedInputStream(in);
+	}
+	
+	public OutputStream wrap(OutputStream out) {
+		return new CompressedOutputStream(out);
+	}
+	
+	/**
+	 * @return The number of bytes received over the network, including the compressed packet headers
+	 */
+	public long getCompressedBytesRead() {
+		return compressedBytesRead;
+	}
+	
+	/**
+	 * @return The number of bytes received after decompression
+	 */
+	public long getUncompressedBytesRead() {
+		return uncompressedBytesRead;
+	}
+	
+	/**
+	 * @return The number of bytes sent over the network, including the compressed packet headers
+	 */
+	public long getCompressedBytesWritten() {
+		return compressedBytesWritten;
+	}
+	
+	/**
+	 * @return The number of bytes sent before compression
+	 */
+	public long getUncompressedBytesWritten() {
+		return uncompressedBytesWritten;
+	}
+	
+	/**
+	 * @return The ratio between the uncompressed and compressed size of received data, e.g. 4 if the data was compressed to a quarter of its size. 1 if nothing has been received yet
+	 */
+	public double getReadRatio() {
+		return compressedBytesRead == 0 ? 1 : uncompressedBytesRead / (double) compressedBytesRead;
+	}
+	
+	/**
+	 * @return The ratio between the uncompressed and compressed size of sent data. 1 if nothing has been sent yet
+	 */
+	public double getWriteRatio() {
+		return compressedBytesWritten == 0 ? 1 : uncompressedBytesWritten / (double) compressedBytesWritten;
+	}
+	
+	/**
+	 * @return The ratio between the uncompressed and compressed size of all data transferred in both directions
+	 */
+	public double getCompressionRatio() {
+		long compressed = compressedBytesRead + compressedBytesWritten;
+		return compressed == 0 ? 1 : (uncompressedBytesRead + uncompressedBytesWritten) / (double) compressed;
+	}
+	
+	@Override
+	public String toString() {
+		return "MySQLCompression [read=" + uncompressedBytesRead + "/" + compressedBytesRead + ", written=" + uncompressedBytesWritten + "/" + compressedBytesWritten + ", ratio=" + String.format("%.2f", getCompressionRatio()) + "]";
+	}
+	
+	private class CompressedInputStream extends InputStream {
+	
+		private InputStream in;
+		private Inflater inflater;
+		private byte[] header, buffer;
+		private int position;
+	
+		public CompressedInputStream(InputStream in) {
+			this.in = in;
+			this.inflater = new Inflater();
+			this.header = new byte[HEADER_SIZE];
+			this.buffer = new byte[0];
+		}
+	
+		private boolean nextFrame() throws IOException {
+			if(!readFully(header, true)) return false;
+			int compressedLength = (header[0] & 0xFF) | (header[1] & 0xFF) << 8 | (header[2] & 0xFF) << 16;
+			int uncompressedLength = (header[4] & 0xFF) | (header[5] & 0xFF) << 8 | (header[6] & 0xFF) << 16;
+			sequenceID = (byte) (header[3] + 1);
+			byte[] data = new byte[compressedLength];
+			readFully(data, false);
+			compressedBytesRead += HEADER_SIZE + compressedLength;
+	
+			if(uncompressedLength == 0) { // Sent uncompressed
+				buffer = data;
+			}else {
+				buffer = new byte[uncompressedLength];
+				inflater.reset();
+				inflater.setInput(data);
+				try {
+					int off = 0;
+					while(off < uncompressedLength && !inflater.finished()) {
+						int len = inflater.inflate(buffer, off, uncompressedLength - off);
+						if(len == 0 && inflater.needsInput()) break;
+						off += len;
+					}
+					if(off != uncompressedLength) throw new IOException("Compressed packet has invalid length (expected " + uncompressedLength + ", got " + off + ")");
+				} catch (DataFormatException e) {
+					throw new IOException("Invalid compressed packet", e);
+				}
+			}
+			uncompressedBytesRead += buffer.length;
+			position = 0;
+			return true;
+		}
+	
+		private boolean readFully(byte[] data, boolean allowEOF) throws IOException {
+			int off = 0;
+			while(off < data.length) {
+				int len = in.read(data, off, data.length - off);
+				if(len == -1) {
+					if(allowEOF && off == 0) return false;
+					throw new EOFException("Unexpected end of stream");
+				}
+				off += len;
+			}
+			return true;
+		}
+	
+		@Override
+		public int read() throws IOException {
+			while(position == buffer.length) {
+				if(!nextFrame()) return -1;
+			}
+			return buffer[position++] & 0xFF;
+		}
+	
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if(len == 0) return 0;
+			while(position == buffer.length) {
+				if(!nextFrame()) return -1;
+			}
+			int n = Math.min(len, buffer.length - position);
+			System.arraycopy(buffer, position, b, off, n);
+			position += n;
+			return n;
+		}
+	
+		@Override
+		public int available() throws IOException {
+			int buffered = buffer.length - position;
+			if(buffered > 0) return buffered;
+			return in.available() > 0 ? 1 : 0;
+		}
+	
+		@Override
+		public void close() throws IOException {
+			inflater.end();
+			in.close();
+		}
+	
+	}
+	
+	private class CompressedOutputStream extends OutputStream {
+	
+		private OutputStream out;
+		private Deflater deflater;
+		private byte[] buffer, compressBuffer, header;
+		private int size;
+	
+		public CompressedOutputStream(OutputStream out) {
+			this.out = out;
+			this.deflater = new Deflater();
+			this.buffer = new byte[8192];
+			this.compressBuffer = new byte[8192];
+			this.header = new byte[HEADER_SIZE];
+		}
+	
+		private void ensureCapacity(int capacity) {
+			if(capacity > buffer.length) buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+		}
+	
+		@Override
+		public void write(int b) throws IOException {
+			ensureCapacity(size + 1);
+			buffer[size++] = (byte) b;
+		}
+	
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			ensureCapacity(size + len);
+			System.arraycopy(b, off, buffer, size, len);
+			size += len;
+		}
+	
+		@Override
+		public void flush() throws IOException {
+			int off = 0;
+			while(off < size) {
+				int len = Math.min(size - off, MAX_CHUNK_SIZE);
+				writeFrame(off, len);
+				off += len;
+			}
+			size = 0;
+			if(buffer.length > SHRINK_SIZE) buffer = new byte[8192]; // Don't keep large buffers around after sending huge payloads
+			if(compressBuffer.length > SHRINK_SIZE) compressBuffer = new byte[8192];
+			out.flush();
+		}
+	
+		private void writeFrame(int offset, int length) throws IOException {
+			int compressedLength = length >= threshold ? compress(offset, length) : -1;
+			uncompressedBytesWritten += length;
+			if(compressedLength == -1) {
+				writeHeader(length, 0);
+				out.write(buffer, offset, length);
+				compressedBytesWritten += HEADER_SIZE + length;
+			}else {
+				writeHeader(compressedLength, length);
+				out.write(compressBuffer, 0, compressedLength);
+				compressedBytesWritten += HEADER_SIZE + compressedLength;
+			}
+		}
+	
+		private int compress(int offset, int length) {
+			deflater.reset();
+			deflater.setLevel(level);
+			deflater.setInput(buffer, offset, length);
+			deflater.finish();
+			if(compressBuffer.length < length) compressBuffer = new byte[length];
+			int compressedLength = 0;
+			while(!deflater.finished()) {
+				if(compressedLength == length) return -1; // Not smaller than the original
+				compressedLength += deflater.deflate(compressBuffer, compressedLength, length - compressedLength);
+			}
+			return compressedLength < length ? compressedLength : -1;
+		}
+	
+		private void writeHeader(int compressedLength, int uncompressedLength) throws IOException {
+			header[0] = (byte) compressedLength;
+			header[1] = (byte) (compressedLength >> 8);
+			header[2] = (byte) (compressedLength >> 16);
+			header[3] = sequenceID++;
+			header[4] = (byte) uncompressedLength;
+			header[5] = (byte) (uncompressedLength >> 8);
+			header[6] = (byte) (uncompressedLength >> 16);
+			out.write(header);
+		}
+	
+		@Override
+		public void close() throws IOException {
+			flush();
+			deflater.end();
+			out.close();
+		}
+	
+	}
+	
+}
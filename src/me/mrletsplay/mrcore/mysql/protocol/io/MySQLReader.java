@@ -1,33 +1,133 @@
 package me.mrletsplay.mrcore.mysql.protocol.io;
 
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 
 import me.mrletsplay.mrcore.mysql.protocol.type.MySQLString;
 
+/**
+ * Reads MySQL protocol data types from either a stream or a single packet payload<br>
+ * All data is decoded directly from an internal little-endian {@link ByteBuffer}. When reading from a stream, that buffer is refilled in large chunks instead of reading single bytes from the underlying stream, when reading from a payload, the payload array is wrapped without being copied
+ */
 public class MySQLReader {
 
+	private static final int BUFFER_SIZE = 16384;
+	
 	private InputStream in;
+	private ByteBuffer buffer;
 	
+	/**
+	 * Creates a buffered reader reading from the given stream
+	 * @param in The stream to read from
+	 */
 	public MySQLReader(InputStream in) {
 		this.in = in;
+		this.buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		this.buffer.limit(0);
+	}
+	
+	/**
+	 * Creates a reader reading from the given payload. The array is used directly and not copied
+	 * @param payload The payload to read from
+	 */
+	public MySQLReader(byte[] payload) {
+		this(ByteBuffer.wrap(payload));
+	}
+	
+	/**
+	 * Creates a reader reading the remaining bytes of the given buffer. The buffer's content is shared, its position and limit are not modified
+	 * @param payload The buffer to read from
+	 */
+	public MySQLReader(ByteBuffer payload) {
+		this.buffer = payload.slice().order(ByteOrder.LITTLE_ENDIAN);
+	}
+	
+	private boolean fill(int numBytes) throws IOException {
+		if(buffer.remaining() >= numBytes) return true;
+		if(in == null) return false;
+		buffer.compact();
+		try {
+			while(buffer.position() < numBytes) {
+				int len = in.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+				if(len == -1) return false;
+				buffer.position(buffer.position() + len);
+			}
+		}finally {
+			buffer.flip();
+		}
+		return true;
+	}
+	
+	private void require(int numBytes) throws IOException {
+		if(!fill(numBytes)) throw new EOFException("Unexpected end of stream");
 	}
 	
 	public boolean hasMore() throws IOException {
-		return in.available() > 0;
+		return buffer.hasRemaining() || (in != null && in.available() > 0);
 	}
 	
 	public int read() throws IOException {
-		return in.read();
+		if(!fill(1)) return -1;
+		return buffer.get() & 0xFF;
+	}
+	
+	/**
+	 * Returns the next byte without consuming it
+	 * @return The next byte or -1 if the end of the data has been reached
+	 * @throws IOException If an I/O error occurs
+	 */
+	public int peek() throws IOException {
+		if(!fill(1)) return -1;
+		return buffer.get(buffer.position()) & 0xFF;
 	}
 	
 	public byte[] read(int numBytes) throws IOException {
 		byte[] buf = new byte[numBytes];
-		in.read(buf);
+		read(buf, 0, numBytes);
 		return buf;
 	}
 	
+	private void read(byte[] dest, int offset, int numBytes) throws IOException {
+		int buffered = Math.min(buffer.remaining(), numBytes);
+		buffer.get(dest, offset, buffered);
+		int off = buffered;
+		if(off < numBytes && in == null) throw new EOFException("Unexpected end of data");
+		while(off < numBytes) { // Read the rest directly into the destination to avoid copying it twice
+			int len = in.read(dest, offset + off, numBytes - off);
+			if(len == -1) throw new EOFException("Unexpected end of stream");
+			off += len;
+		}
+	}
+	
+	/**
+	 * Returns a view of the next {@code numBytes} bytes and skips them. The returned buffer shares its content with this reader's payload, so no data is copied.<br>
+	 * When reading from a stream, the view is only valid until the next read operation
+	 * @param numBytes The number of bytes to slice
+	 * @return A little-endian buffer containing exactly the requested bytes
+	 * @throws IOException If not enough data is available
+	 */
+	public ByteBuffer slice(int numBytes) throws IOException {
+		if(in != null && numBytes > buffer.capacity()) return ByteBuffer.wrap(read(numBytes)).order(ByteOrder.LITTLE_ENDIAN);
+		require(numBytes);
+		ByteBuffer slice = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		slice.limit(numBytes);
+		buffer.position(buffer.position() + numBytes);
+		return slice;
+	}
+	
+	public void skip(int numBytes) throws IOException {
+		int buffered = Math.min(buffer.remaining(), numBytes);
+		buffer.position(buffer.position() + buffered);
+		for(int i = buffered; i < numBytes; i++) {
+			if(read() == -1) throw new EOFException("Unexpected end of data");
+		}
+	}
+	
 	public byte[] readReversed(int numBytes) throws IOException {
 		return reverseBytes(read(numBytes));
 	}
@@ -40,35 +140,41 @@ public class MySQLReader {
 		return newArray;
 	}
 	
+	/**
+	 * Reads a packet, reassembling payloads which were split into multiple packets because they exceeded {@link RawPacket#MAX_SIZE}.<br>
+	 * Continuation payloads are read directly into a single growing array instead of being copied once per packet
+	 * @return The packet or {@code null} if an empty packet was read
+	 * @throws IOException If an I/O error occurs
+	 */
 	public RawPacket readPacket() throws IOException {
-		RawPacket raw = readSingularPacket();
-		if(raw == null) return null;
-		int len = raw.getLength();
-		while(len == RawPacket.MAX_SIZE) {
-			RawPacket r = readSingularPacket();
-			raw.append(r);
-			len = r.getLength();
-		}
-		return raw;
-	}
-	
-	private RawPacket readSingularPacket() throws IOException {
+		require(4);
 		int length = (int) readFixedLengthInteger(3);
-		if(length < 0) throw new IOException("Invalid packet length");
+		byte sequenceID = buffer.get();
 		if(length == 0) return null;
-		byte sequenceID = (byte) readFixedLengthInteger(1);
-		byte[] payload = read(length);
-		return new RawPacket(length, sequenceID, payload);
+		byte[] payload = new byte[length];
+		read(payload, 0, length);
+		if(length < RawPacket.MAX_SIZE) return new RawPacket(length, sequenceID, payload);
+		int total = length;
+		while(length == RawPacket.MAX_SIZE) {
+			require(4);
+			length = (int) readFixedLengthInteger(3);
+			sequenceID = buffer.get();
+			if(total + length > payload.length) {
+				if((long) total + length > Integer.MAX_VALUE - 8) throw new IOException("Packet too large");
+				payload = Arrays.copyOf(payload, (int) Math.min(Integer.MAX_VALUE - 8, Math.max((long) payload.length * 2, (long) total + length)));
+			}
+			read(payload, total, length);
+			total += length;
+		}
+		if(payload.length != total) payload = Arrays.copyOf(payload, total);
+		return new RawPacket(total, sequenceID, payload);
 	}
 	
 	public long readFixedLengthInteger(int length) throws IOException {
-		return fromByteArray(read(length));
-	}
-	
-	private long fromByteArray(byte[] bytes) {
+		require(length);
 		long total = 0;
-		for(int i = 0; i < bytes.length; i++) {
-			total += ((int) bytes[i] & 0xFF) << (8 * i);
+		for(int i = 0; i < length; i++) {
+			total |= (buffer.get() & 0xFFL) << (8 * i);
 		}
 		return total;
 	}
@@ -80,11 +186,11 @@ public class MySQLReader {
 //		}else if(len == 0xfb) { // NULL value of ResultSetRow?
 //			return 0xfb;
 		}else if(len == 0xfc) {
-			return fromByteArray(read(2));
+			return readFixedLengthInteger(2);
 		}else if(len == 0xfd) {
-			return fromByteArray(read(3));
+			return readFixedLengthInteger(3);
 		}else if(len == 0xfe) {
-			return fromByteArray(read(8));
+			return readFixedLengthInteger(8);
 		}else {
 			return -1L;
 		}
@@ -92,10 +198,15 @@ public class MySQLReader {
 	
 	public MySQLString readEOFString() throws IOException {
 		ByteArrayOutputStream out = new ByteArrayOutputStream();
-		byte[] buf = new byte[4096];
-		int len;
-		while((len = in.read(buf)) > 0) {
-			out.write(buf, 0, len);
+		byte[] buffered = new byte[buffer.remaining()];
+		buffer.get(buffered);
+		out.write(buffered);
+		if(in != null) {
+			byte[] buf = new byte[4096];
+			int len;
+			while((len = in.read(buf)) > 0) {
+				out.write(buf, 0, len);
+			}
 		}
 		return new MySQLString(out.toByteArray());
 	}
@@ -105,12 +216,24 @@ public class MySQLReader {
 	}
 	
 	public MySQLString readNullTerminatedString() throws IOException {
-		ByteArrayOutputStream out = new ByteArrayOutputStream();
-		int lByte;
-		while((lByte = in.read()) != 0) {
-			out.write(lByte);
+		ByteArrayOutputStream out = null;
+		while(true) {
+			int start = buffer.position(), end = buffer.limit();
+			for(int i = start; i < end; i++) {
+				if(buffer.get(i) != 0) continue;
+				byte[] bytes = new byte[i - start];
+				buffer.get(bytes);
+				buffer.get(); // Null terminator
+				if(out == null) return new MySQLString(bytes);
+				out.write(bytes);
+				return new MySQLString(out.toByteArray());
+			}
+			if(out == null) out = new ByteArrayOutputStream();
+			byte[] part = new byte[end - start];
+			buffer.get(part);
+			out.write(part);
+			require(1);
 		}
-		return new MySQLString(out.toByteArray());
 	}
 	
 	public MySQLString readLengthEncodedString() throws IOException {
@@ -8,9 +8,11 @@ import me.mrletsplay.mrcore.mysql.protocol.type.MySQLString;
 public class MySQLWriter {
 
 	private OutputStream out;
+	private byte[] header;
 	
 	public MySQLWriter(OutputStream out) {
 		this.out = out;
+		this.header = new byte[4];
 	}
 	
 	public void write(int b) throws IOException {
@@ -26,17 +28,43 @@ public class MySQLWriter {
 	}
 	
 	public int writePacket(byte startingSequenceID, RawPacket packet) throws IOException {
-		RawPacket[] chopped = packet.chop();
-		for(RawPacket r : chopped) {
-			writeSingularPacket(startingSequenceID++, r);
+		return writePacket(startingSequenceID, packet, true);
+	}
+	
+	/**
+	 * Writes the packet, splitting it into multiple packets if its payload exceeds {@link RawPacket#MAX_SIZE}.<br>
+	 * The payload is written directly from the packet's array without being copied
+	 * @param startingSequenceID The sequence id of the first packet
+	 * @param packet The packet to write
+	 * @param flush Whether to flush the underlying stream afterwards. Not flushing allows multiple packets to be sent at once
+	 * @return The number of packets written
+	 * @throws IOException If an I/O error occurs
+	 */
+	public int writePacket(byte startingSequenceID, RawPacket packet, boolean flush) throws IOException {
+		byte[] payload = packet.getPayload();
+		int offset = 0, count = 0;
+		while(true) {
+			int len = Math.min(payload.length - offset, RawPacket.MAX_SIZE);
+			writeSingularPacket(startingSequenceID++, payload, offset, len);
+			offset += len;
+			count++;
+			if(len < RawPacket.MAX_SIZE) break; // A payload of exactly 0xffffff bytes is followed by an empty packet
 		}
-		return chopped.length;
+		if(flush) out.flush();
+		return count;
+	}
+	
+	public void flush() throws IOException {
+		out.flush();
 	}
 	
-	private void writeSingularPacket(byte sequenceID, RawPacket packet) throws IOException {
-		writeFixedLengthInteger(3, packet.getLength());
-		writeFixedLengthInteger(1, sequenceID);
-		write(packet.getPayload());
+	private void writeSingularPacket(byte sequenceID, byte[] payload, int offset, int length) throws IOException {
+		header[0] = (byte) length;
+		header[1] = (byte) (length >> 8);
+		header[2] = (byte) (length >> 16);
+		header[3] = sequenceID;
+		out.write(header);
+		out.write(payload, offset, length);
 	}
 	
 	public void writeFixedLengthInteger(int length, int integer) throws IOException {
@@ -46,15 +74,24 @@ public class MySQLWriter {
 		if(length >= 4) write((integer >> 24) & 0xff);
 	}
 	
-	public void writeLengthEncodedInteger(int integer) throws IOException {
-		if(integer < 0xff) {
-			writeFixedLengthInteger(1, integer);
-		}else if(integer < 0xffff) {
-			writeFixedLengthInteger(2, 0xfc + integer);
-		}else if(integer < 0xffffff) {
-			writeFixedLengthInteger(3, 0xfd + integer);
+	public void writeFixedLengthInteger(int length, long integer) throws IOException {
+		for(int i = 0; i < length; i++) {
+			write((int) (integer >> (8 * i)) & 0xff);
+		}
+	}
+	
+	public void writeLengthEncodedInteger(long integer) throws IOException {
+		if(integer < 0xfb) {
+			write((int) integer);
+		}else if(integer <= 0xffff) {
+			write(0xfc);
+			writeFixedLengthInteger(2, (int) integer);
+		}else if(integer <= 0xffffff) {
+			write(0xfd);
+			writeFixedLengthInteger(3, (int) integer);
 		}else {
-			writeFixedLengthInteger(4, 0xfe + integer);
+			write(0xfe);
+			writeFixedLengthInteger(8, integer);
 		}
 	}
 	
@@ -1,6 +1,8 @@
 package me.mrletsplay.mrcore.mysql.protocol.io;
 
 import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 
 import me.mrletsplay.mrcore.mysql.protocol.MySQLServerConnection;
@@ -49,11 +51,19 @@ public class RawPacket {
 		return payload;
 	}
 	
+	/**
+	 * @return A read-only little-endian view of this packet's payload which shares its content with the payload array
+	 */
+	public ByteBuffer getPayloadBuffer() {
+		return ByteBuffer.wrap(payload).asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+	}
+	
 	public void append(RawPacket other) {
-		byte[] newPayload = new byte[payload.length + other.payload.length];
-		System.arraycopy(payload, 0, newPayload, 0, payload.length);
+		byte[] newPayload = Arrays.copyOf(payload, payload.length + other.payload.length);
 		System.arraycopy(other.payload, 0, newPayload, payload.length, other.payload.length);
 		this.payload = newPayload;
+		this.length = newPayload.length;
+		this.sequenceID = other.sequenceID;
 	}
 	
 	public RawPacket[] chop() {
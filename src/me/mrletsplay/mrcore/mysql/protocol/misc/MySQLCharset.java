@@ -12,6 +12,9 @@ public class MySQLCharset {
 		KOI8R_GENERAL_CI = 7,
 		LATIN1_SWEDISH_CI = 8,
 		LATIN2_GENERAL_CI = 9,
-		SWE7_SWEDISH_CI = 10;
+		SWE7_SWEDISH_CI = 10,
+		UTF8_GENERAL_CI = 33,
+		UTF8MB4_GENERAL_CI = 45,
+		BINARY = 63;
 	
 }
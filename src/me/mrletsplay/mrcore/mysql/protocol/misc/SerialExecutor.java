@@ -0,0 +1,48 @@
+package me.mrletsplay.mrcore.mysql.protocol.misc;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * An executor which runs its tasks one at a time in submission order using another executor<br>
+ * Used to keep the asynchronous operations of a single connection in order while still sharing threads between connections
+ * @author MrLetsplay2003
+ */
+public class SerialExecutor implements Executor {
+
+	private Executor executor;
+	private Queue<Runnable> tasks;
+	private Runnable active;
+
+	public SerialExecutor(Executor executor) {
+		this.executor = executor;
+		this.tasks = new ArrayDeque<>();
+	}
+
+	@Override
+	public synchronized void execute(Runnable command) {
+		tasks.add(() -> {
+			try {
+				command.run();
+			}finally {
+				scheduleNext();
+			}
+		});
+		if(active == null) scheduleNext();
+	}
+
+	private synchronized void scheduleNext() {
+		active = tasks.poll();
+		if(active == null) return;
+		try {
+			executor.execute(active);
+		}catch(RejectedExecutionException e) {
+			// Don't block the remaining tasks, they are scheduled again by the next call to execute(Runnable)
+			active = null;
+			throw e;
+		}
+	}
+
+}
@@ -1,6 +1,5 @@
 package me.mrletsplay.mrcore.mysql.protocol.packet.binary;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -22,7 +21,7 @@ public class MySQLResultSetBinaryPacket implements MySQLBinaryPacket {
 
 	public MySQLResultSetBinaryPacket(MySQLServerConnection con, byte[] payload, int command) throws IOException, InterruptedException {
 		this.payload = payload;
-		MySQLReader r = new MySQLReader(new ByteArrayInputStream(payload));
+		MySQLReader r = new MySQLReader(payload);
 		columnCount = (int) r.readLengthEncodedInteger();
 		columnDefinitionPackets = new ArrayList<>();
 		for(int i = 0; i < columnCount; i++) {
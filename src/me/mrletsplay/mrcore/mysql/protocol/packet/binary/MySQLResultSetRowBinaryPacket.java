@@ -1,6 +1,5 @@
 package me.mrletsplay.mrcore.mysql.protocol.packet.binary;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -17,7 +16,7 @@ public class MySQLResultSetRowBinaryPacket implements MySQLBinaryPacket {
 	
 	public MySQLResultSetRowBinaryPacket(MySQLServerConnection con, byte[] payload, int command, ColumnDefinition[] columns) throws IOException {
 		this.payload = payload;
-		MySQLReader r = new MySQLReader(new ByteArrayInputStream(payload));
+		MySQLReader r = new MySQLReader(payload);
 		r.read(); // Packet header
 		encodedData = new ArrayList<>();
 		NullBitmap bm = new NullBitmap(r.read(NullBitmap.getRequiredBytes(columns.length, 2)), 2);
@@ -1,6 +1,5 @@
 package me.mrletsplay.mrcore.mysql.protocol.packet.server;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 
 import me.mrletsplay.mrcore.mysql.protocol.MySQLServerConnection;
@@ -16,7 +15,7 @@ public class MySQLERRPacket implements MySQLServerPacket {
 	
 	public MySQLERRPacket(MySQLServerConnection con, byte[] data) throws IOException {
 		this.payload = data;
-		MySQLReader reader = new MySQLReader(new ByteArrayInputStream(data));
+		MySQLReader reader = new MySQLReader(data);
 		reader.read(); // ERR header
 		errorCode = (short) reader.readFixedLengthInteger(2);
 		
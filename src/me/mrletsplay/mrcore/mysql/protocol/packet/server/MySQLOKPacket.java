@@ -1,6 +1,5 @@
 package me.mrletsplay.mrcore.mysql.protocol.packet.server;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 
 import me.mrletsplay.mrcore.misc.FlagCompound;
@@ -21,7 +20,7 @@ public class MySQLOKPacket implements MySQLServerPacket {
 	@SuppressWarnings("unused")
 	public MySQLOKPacket(MySQLServerConnection con, byte[] data) throws IOException {
 		this.payload = data;
-		MySQLReader reader = new MySQLReader(new ByteArrayInputStream(data));
+		MySQLReader reader = new MySQLReader(data);
 		reader.read(); // OK header (0x00 or 0xfe)
 		this.affectedRows = reader.readLengthEncodedInteger();
 		this.lastInsertedID = reader.readLengthEncodedInteger();
@@ -43,7 +42,7 @@ public class MySQLOKPacket implements MySQLServerPacket {
 		}
 		
 		if(this.sessionStateChanges != null) {
-			MySQLReader iReader = new MySQLReader(new ByteArrayInputStream(sessionStateChanges));
+			MySQLReader iReader = new MySQLReader(sessionStateChanges);
 			byte iType = (byte) iReader.read();
 			byte[] iData = iReader.readLengthEncodedString().getBytes();
 			// TODO: Session state changes
@@ -1,6 +1,5 @@
 package me.mrletsplay.mrcore.mysql.protocol.packet.text;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 
 import me.mrletsplay.mrcore.mysql.protocol.MySQLServerConnection;
@@ -35,7 +34,7 @@ public class MySQLColumnDefinition41Packet implements MySQLTextPacket {
 	
 	public MySQLColumnDefinition41Packet(MySQLServerConnection con, byte[] payload, int command) throws IOException {
 		this.payload = payload;
-		MySQLReader r = new MySQLReader(new ByteArrayInputStream(payload));
+		MySQLReader r = new MySQLReader(payload);
 		catalog = r.readLengthEncodedString();
 		schema = r.readLengthEncodedString();
 		table = r.readLengthEncodedString();
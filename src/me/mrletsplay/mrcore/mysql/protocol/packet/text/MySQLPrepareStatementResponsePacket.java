@@ -1,6 +1,5 @@
 package me.mrletsplay.mrcore.mysql.protocol.packet.text;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -19,7 +18,7 @@ public class MySQLPrepareStatementResponsePacket implements MySQLTextPacket {
 	public MySQLPrepareStatementResponsePacket(MySQLServerConnection con, byte[] payload, int command) throws IOException {
 		this.payload = payload;
 		this.connection = con;
-		MySQLReader r = new MySQLReader(new ByteArrayInputStream(payload));
+		MySQLReader r = new MySQLReader(payload);
 		r.read(); // Status: OK [00]
 		statementID = (int) r.readFixedLengthInteger(4);
 		columnCount = (short) r.readFixedLengthInteger(2);
@@ -1,6 +1,5 @@
 package me.mrletsplay.mrcore.mysql.protocol.packet.text;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -21,7 +20,7 @@ public class MySQLResultSetPacket implements MySQLTextPacket {
 	
 	public MySQLResultSetPacket(MySQLServerConnection con, byte[] payload, int command) throws IOException {
 		this.payload = payload;
-		MySQLReader r = new MySQLReader(new ByteArrayInputStream(payload));
+		MySQLReader r = new MySQLReader(payload);
 		columnCount = (int) r.readLengthEncodedInteger();
 		columnDefinitionPackets = new ArrayList<>();
 		for(int i = 0; i < columnCount; i++) {
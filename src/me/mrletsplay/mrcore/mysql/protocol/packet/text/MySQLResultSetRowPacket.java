@@ -1,8 +1,6 @@
 package me.mrletsplay.mrcore.mysql.protocol.packet.text;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.PushbackInputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,16 +15,14 @@ public class MySQLResultSetRowPacket implements MySQLTextPacket {
 	
 	public MySQLResultSetRowPacket(MySQLServerConnection con, byte[] payload, int command) throws IOException {
 		this.payload = payload;
-		PushbackInputStream pb = new PushbackInputStream(new ByteArrayInputStream(payload));
-		MySQLReader r = new MySQLReader(pb);
+		MySQLReader r = new MySQLReader(payload);
 		encodedData = new ArrayList<>();
 		while(r.hasMore()) {
-			int b = pb.read();
-			if(b == 0xfb) {
+			if(r.peek() == 0xfb) {
+				r.read();
 				this.encodedData.add(null);
 				continue;
 			}
-			pb.unread(b);
 			this.encodedData.add(r.readLengthEncodedString());
 		}
 	}
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.util.function.Function;
 
 import me.mrletsplay.mrcore.mysql.protocol.io.MySQLReader;
+import me.mrletsplay.mrcore.mysql.protocol.io.MySQLWriter;
 import me.mrletsplay.mrcore.mysql.protocol.misc.MySQLException;
 
 public class MySQLDataType<T> {
@@ -14,6 +15,7 @@ public class MySQLDataType<T> {
 	private Function<MySQLString, T> parsingFunction;
 	private Function<T, String> formattingFunction;
 	private UnsafeFunction<MySQLReader, T> readingFunction;
+	private UnsafeBiConsumer<MySQLWriter, T> writingFunction;
 	
 //	public MySQLDataType(int identifier, Class<T> javaType, Function<MySQLString, T> parsingFunction, Function<T, MySQLString> formattingFunction) {
 //		this.identifier = (byte) identifier;
@@ -23,16 +25,21 @@ public class MySQLDataType<T> {
 //		MySQLDataTypes.DEFAULT_TYPES.add(this);
 //	}
 	
-	public MySQLDataType(String name, int identifier, Class<T> javaType, Function<MySQLString, T> parsingFunction, Function<T, String> formattingFunction, UnsafeFunction<MySQLReader, T> readingFunction) {
+	public MySQLDataType(String name, int identifier, Class<T> javaType, Function<MySQLString, T> parsingFunction, Function<T, String> formattingFunction, UnsafeFunction<MySQLReader, T> readingFunction, UnsafeBiConsumer<MySQLWriter, T> writingFunction) {
 		this.name = name;
 		this.identifier = (byte) identifier;
 		this.javaType = javaType;
 		this.parsingFunction = parsingFunction;
 		this.formattingFunction = formattingFunction;
 		this.readingFunction = readingFunction;
+		this.writingFunction = writingFunction;
 		MySQLDataTypes.DEFAULT_TYPES.add(this);
 	}
 	
+	public MySQLDataType(String name, int identifier, Class<T> javaType, Function<MySQLString, T> parsingFunction, Function<T, String> formattingFunction, UnsafeFunction<MySQLReader, T> readingFunction) {
+		this(name, identifier, javaType, parsingFunction, formattingFunction, readingFunction, null);
+	}
+	
 	public MySQLDataType(String name, int identifier, Class<T> javaType, Function<MySQLString, T> parsingFunction, Function<T, String> formattingFunction) {
 		this(name, identifier, javaType, parsingFunction, formattingFunction, null);
 	}
@@ -71,6 +78,28 @@ public class MySQLDataType<T> {
 		}
 	}
 	
+	/**
+	 * Writes the value in the binary protocol format of this type, as used for the parameters of {@code COM_STMT_EXECUTE}.<br>
+	 * Types without a native binary format are written as a length-encoded string
+	 * @param writer The writer to write to
+	 * @param value The value to write, must not be {@code null}
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void write(MySQLWriter writer, Object value) throws IOException {
+		if(!javaType.isInstance(value)) throw new MySQLException("Invalid type: " + value.getClass().getName());
+		if(writingFunction == null) {
+			writer.writeLengthEncodedString(format(value));
+			return;
+		}
+		try {
+			writingFunction.accept(writer, javaType.cast(value));
+		} catch (IOException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new MySQLException(e);
+		}
+	}
+	
 	@Override
 	public boolean equals(Object o) {
 		return (o instanceof MySQLDataType<?>) && ((MySQLDataType<?>) o).getSQLIdentifier() == identifier;
@@ -83,4 +112,11 @@ public class MySQLDataType<T> {
 		
 	}
 	
+	@FunctionalInterface
+	public static interface UnsafeBiConsumer<A, B> {
+		
+		public void accept(A a, B b) throws Exception;
+		
+	}
+	
 }
@@ -2,16 +2,17 @@ package me.mrletsplay.mrcore.mysql.protocol.type;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.math.BigInteger;
 import java.sql.Date;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.ZoneOffset;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 
 import me.mrletsplay.mrcore.mysql.protocol.io.MySQLReader;
+import me.mrletsplay.mrcore.mysql.protocol.io.MySQLWriter;
 import me.mrletsplay.mrcore.mysql.protocol.misc.MySQLException;
 
 public class MySQLDataTypes {
@@ -22,29 +23,29 @@ public class MySQLDataTypes {
 				DECIMAL = new MySQLDataType<>("decimal", 0x00, BigDecimal.class, s -> new BigDecimal(s.toString()), d -> d.toString()),
 				NEWDECIMAL = new MySQLDataType<>("newdecimal", 0xf6, BigDecimal.class, s -> new BigDecimal(s.toString()), d -> d.toString());
 	
-	public static final MySQLDataType<Byte> TINY = new MySQLDataType<>("tiny", 0x01, Byte.class, s -> Byte.valueOf(s.toString()), b -> b.toString(), r -> new BigInteger(r.readReversed(1)).byteValue());
+	public static final MySQLDataType<Byte> TINY = new MySQLDataType<>("tiny", 0x01, Byte.class, s -> Byte.valueOf(s.toString()), b -> b.toString(), r -> (byte) r.read(), (w, b) -> w.write(b));
 	
 	public static final MySQLDataType<Short>
-				SHORT = new MySQLDataType<>("short", 0x02, Short.class, s -> Short.valueOf(s.toString()), s -> s.toString(), r -> new BigInteger(r.readReversed(2)).shortValue()),
-				YEAR = new MySQLDataType<>("year", 0x0d, Short.class, s -> Short.valueOf(s.toString()), s -> s.toString(), r -> new BigInteger(r.readReversed(2)).shortValue());
+				SHORT = new MySQLDataType<>("short", 0x02, Short.class, s -> Short.valueOf(s.toString()), s -> s.toString(), r -> (short) r.readFixedLengthInteger(2), (w, s) -> w.writeFixedLengthInteger(2, s)),
+				YEAR = new MySQLDataType<>("year", 0x0d, Short.class, s -> Short.valueOf(s.toString()), s -> s.toString(), r -> (short) r.readFixedLengthInteger(2), (w, s) -> w.writeFixedLengthInteger(2, s));
 	
 	public static final MySQLDataType<Integer>
-				LONG = new MySQLDataType<>("long", 0x03, Integer.class, s -> Integer.valueOf(s.toString()), i -> i.toString(), r -> new BigInteger(r.readReversed(4)).intValue()),
-				INT24 = new MySQLDataType<>("int24",0x09, Integer.class, s -> Integer.valueOf(s.toString()), i -> i.toString(), r -> new BigInteger(r.readReversed(4)).intValue());
+				LONG = new MySQLDataType<>("long", 0x03, Integer.class, s -> Integer.valueOf(s.toString()), i -> i.toString(), r -> (int) r.readFixedLengthInteger(4), (w, i) -> w.writeFixedLengthInteger(4, i)),
+				INT24 = new MySQLDataType<>("int24",0x09, Integer.class, s -> Integer.valueOf(s.toString()), i -> i.toString(), r -> (int) r.readFixedLengthInteger(4), (w, i) -> w.writeFixedLengthInteger(4, i));
 	
-	public static final MySQLDataType<Float> FLOAT = new MySQLDataType<>("float", 0x04, Float.class, s -> Float.valueOf(s.toString()), f -> f.toString(), r -> Float.intBitsToFloat((int) r.readFixedLengthInteger(4)));
+	public static final MySQLDataType<Float> FLOAT = new MySQLDataType<>("float", 0x04, Float.class, s -> Float.valueOf(s.toString()), f -> f.toString(), r -> Float.intBitsToFloat((int) r.readFixedLengthInteger(4)), (w, f) -> w.writeFixedLengthInteger(4, Float.floatToIntBits(f)));
 	
-	public static final MySQLDataType<Double> DOUBLE = new MySQLDataType<>("double", 0x05, Double.class, s -> Double.valueOf(s.toString()), f -> f.toString(), r -> Double.longBitsToDouble(r.readFixedLengthInteger(8)));
+	public static final MySQLDataType<Double> DOUBLE = new MySQLDataType<>("double", 0x05, Double.class, s -> Double.valueOf(s.toString()), f -> f.toString(), r -> Double.longBitsToDouble(r.readFixedLengthInteger(8)), (w, d) -> w.writeFixedLengthInteger(8, Double.doubleToLongBits(d)));
 	
 	public static final MySQLDataType<Void> NULL = new MySQLDataType<>("null", 0x06, Void.class, s -> null, v -> null);
 	public static final MySQLDataType<Timestamp>
-				TIMESTAMP = new MySQLDataType<>("timestamp", 0x07, Timestamp.class, s -> Timestamp.valueOf(s.toString()), t -> t.toString(), r -> new Timestamp(readTime(r))),
-				DATETIME = new MySQLDataType<>("datetime", 0x0c, Timestamp.class, s -> Timestamp.valueOf(s.toString()), t -> t.toString(), r -> new Timestamp(readTime(r)));
+				TIMESTAMP = new MySQLDataType<>("timestamp", 0x07, Timestamp.class, s -> Timestamp.valueOf(s.toString()), t -> t.toString(), r -> readTimestamp(r), (w, t) -> writeTimestamp(w, t)),
+				DATETIME = new MySQLDataType<>("datetime", 0x0c, Timestamp.class, s -> Timestamp.valueOf(s.toString()), t -> t.toString(), r -> readTimestamp(r), (w, t) -> writeTimestamp(w, t));
 	
-	public static final MySQLDataType<Long> LONGLONG = new MySQLDataType<>("longlong", 0x08, Long.class, s -> Long.valueOf(s.toString()), l -> l.toString(), r -> new BigInteger(r.readReversed(8)).longValue());
+	public static final MySQLDataType<Long> LONGLONG = new MySQLDataType<>("longlong", 0x08, Long.class, s -> Long.valueOf(s.toString()), l -> l.toString(), r -> r.readFixedLengthInteger(8), (w, l) -> w.writeFixedLengthInteger(8, l));
 	
-	public static final MySQLDataType<Date> DATE = new MySQLDataType<>("date", 0x0a, Date.class, s -> Date.valueOf(s.toString()), d -> d.toString(), r -> new Date(readTime(r)));	
-	public static final MySQLDataType<Time> TIME = new MySQLDataType<>("time", 0x0b, Time.class, s -> Time.valueOf(s.toString()), t -> t.toString(), r -> new Time(readTime(r)));
+	public static final MySQLDataType<Date> DATE = new MySQLDataType<>("date", 0x0a, Date.class, s -> Date.valueOf(s.toString()), d -> d.toString(), r -> readDate(r), (w, d) -> writeDate(w, d));	
+	public static final MySQLDataType<Time> TIME = new MySQLDataType<>("time", 0x0b, Time.class, s -> Time.valueOf(s.toString()), t -> t.toString(), r -> readTime(r), (w, t) -> writeTime(w, t));
 	
 	public static final MySQLDataType<String>
 				VARCHAR = new MySQLDataType<>("varchar", 0x0f, String.class, s -> s.toString(), s -> s),
@@ -52,10 +53,10 @@ public class MySQLDataTypes {
 				STRING = new MySQLDataType<>("string", 0xfe, String.class, s -> s.toString(), s -> s);
 	
 	public static final MySQLDataType<MySQLString>
-				TINY_BLOB = new MySQLDataType<>("tinyblob", 0xf9, MySQLString.class, s -> s, s -> s.toString()),
-				MEDIUM_BLOB = new MySQLDataType<>("mediumblob", 0xfa, MySQLString.class, s -> s, s -> s.toString()),
-				LONG_BLOB = new MySQLDataType<>("longblob", 0xfb, MySQLString.class, s -> s, s -> s.toString()),
-				BLOB = new MySQLDataType<>("blob", 0xfc, MySQLString.class, s -> s, s -> s.toString());
+				TINY_BLOB = new MySQLDataType<>("tinyblob", 0xf9, MySQLString.class, s -> s, s -> s.toString(), null, (w, b) -> w.writeLengthEncodedString(b)),
+				MEDIUM_BLOB = new MySQLDataType<>("mediumblob", 0xfa, MySQLString.class, s -> s, s -> s.toString(), null, (w, b) -> w.writeLengthEncodedString(b)),
+				LONG_BLOB = new MySQLDataType<>("longblob", 0xfb, MySQLString.class, s -> s, s -> s.toString(), null, (w, b) -> w.writeLengthEncodedString(b)),
+				BLOB = new MySQLDataType<>("blob", 0xfc, MySQLString.class, s -> s, s -> s.toString(), null, (w, b) -> w.writeLengthEncodedString(b));
 	
 	public static MySQLDataType<?> getTypeById(byte identifier) {
 		return DEFAULT_TYPES.stream()
@@ -63,14 +64,32 @@ public class MySQLDataTypes {
 				.findFirst().orElseThrow(() -> new MySQLException("Invalid/unsupported data type identifier: "+Integer.toHexString(identifier)));
 	}
 	
-	private static long readTime(MySQLReader r) throws IOException {
+	/**
+	 * Determines the type a non-null parameter value is sent as in the binary protocol, based on its Java type
+	 * @param value The value
+	 * @return The matching type or {@code null} if there is no type for the value's class
+	 */
+	public static MySQLDataType<?> getTypeForValue(Object value) {
+		if(value instanceof String) return VAR_STRING;
+		if(value instanceof Long) return LONGLONG;
+		if(value instanceof Integer) return LONG;
+		if(value instanceof Short) return SHORT;
+		if(value instanceof Byte) return TINY;
+		if(value instanceof Double) return DOUBLE;
+		if(value instanceof Float) return FLOAT;
+		if(value instanceof Timestamp) return DATETIME;
+		if(value instanceof Date) return DATE;
+		if(value instanceof Time) return TIME;
+		if(value instanceof BigDecimal) return NEWDECIMAL;
+		if(value instanceof MySQLString) return BLOB;
+		return null;
+	}
+	
+	private static Timestamp readTimestamp(MySQLReader r) throws IOException {
 		int len = r.read();
-		int year = 0, month = 0, day = 0, hour = 0, minute = 0, second = 0, micros = 0;
-		if(len >= 4) {
-			year = (int) r.readFixedLengthInteger(2);
-			month = r.read();
-			day = r.read();
-		}
+		if(len == 0) return null; // Zero date
+		int year = (int) r.readFixedLengthInteger(2), month = r.read(), day = r.read();
+		int hour = 0, minute = 0, second = 0, micros = 0;
 		if(len >= 7) {
 			hour = r.read();
 			minute = r.read();
@@ -79,7 +98,55 @@ public class MySQLDataTypes {
 		if(len == 11) {
 			micros = (int) r.readFixedLengthInteger(4);
 		}
-		return LocalDateTime.of(year, month, day, hour, minute, second, micros * 1000).toInstant(ZoneOffset.UTC).toEpochMilli();
+		if(month == 0 || day == 0) return null; // Zero date
+		return Timestamp.valueOf(LocalDateTime.of(year, month, day, hour, minute, second, micros * 1000));
+	}
+	
+	private static Date readDate(MySQLReader r) throws IOException {
+		Timestamp t = readTimestamp(r);
+		return t == null ? null : Date.valueOf(t.toLocalDateTime().toLocalDate());
+	}
+	
+	private static Time readTime(MySQLReader r) throws IOException {
+		int len = r.read();
+		if(len == 0) return Time.valueOf(LocalTime.MIDNIGHT);
+		boolean negative = r.read() == 1;
+		long days = r.readFixedLengthInteger(4);
+		int hour = r.read(), minute = r.read(), second = r.read();
+		if(len == 12) r.readFixedLengthInteger(4); // Microseconds, not supported by java.sql.Time
+		long seconds = ((days * 24 + hour) * 60 + minute) * 60 + second;
+		return new Time((negative ? -seconds : seconds) * 1000 + Time.valueOf(LocalTime.MIDNIGHT).getTime());
+	}
+	
+	private static void writeTimestamp(MySQLWriter w, Timestamp timestamp) throws IOException {
+		LocalDateTime t = timestamp.toLocalDateTime();
+		int micros = t.getNano() / 1000;
+		w.write(micros != 0 ? 11 : 7);
+		w.writeFixedLengthInteger(2, t.getYear());
+		w.write(t.getMonthValue());
+		w.write(t.getDayOfMonth());
+		w.write(t.getHour());
+		w.write(t.getMinute());
+		w.write(t.getSecond());
+		if(micros != 0) w.writeFixedLengthInteger(4, micros);
+	}
+	
+	private static void writeDate(MySQLWriter w, Date date) throws IOException {
+		LocalDate d = date.toLocalDate();
+		w.write(4);
+		w.writeFixedLengthInteger(2, d.getYear());
+		w.write(d.getMonthValue());
+		w.write(d.getDayOfMonth());
+	}
+	
+	private static void writeTime(MySQLWriter w, Time time) throws IOException {
+		LocalTime t = time.toLocalTime();
+		w.write(8);
+		w.write(0); // Not negative
+		w.writeFixedLengthInteger(4, 0); // Days
+		w.write(t.getHour());
+		w.write(t.getMinute());
+		w.write(t.getSecond());
 	}
 	
 }
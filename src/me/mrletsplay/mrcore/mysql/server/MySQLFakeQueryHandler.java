@@ -0,0 +1,18 @@
+package me.mrletsplay.mrcore.mysql.server;
+
+/**
+ * Decides how a {@link MySQLFakeServer} responds to queries and prepared statement executions
+ * @author MrLetsplay2003
+ */
+@FunctionalInterface
+public interface MySQLFakeQueryHandler {
+
+	/**
+	 * Handles a query
+	 * @param query The SQL text of the query or prepared statement
+	 * @param parameters The decoded parameters of a prepared statement execution or an empty array for plain queries
+	 * @return The result to send to the client
+	 */
+	public MySQLFakeResult handle(String query, Object[] parameters);
+	
+}
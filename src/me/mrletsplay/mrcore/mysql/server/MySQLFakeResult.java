@@ -0,0 +1,169 @@
+package me.mrletsplay.mrcore.mysql.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import me.mrletsplay.mrcore.mysql.protocol.type.MySQLDataType;
+
+/**
+ * The response of a {@link MySQLFakeServer} to a query or statement execution, created by a {@link MySQLFakeQueryHandler}<br>
+ * A result is either an OK packet, an error or a result set. Result sets can either contain a fixed list of rows or generate their rows on demand, which allows sending very large results without keeping them in memory
+ * @author MrLetsplay2003
+ */
+public class MySQLFakeResult {
+
+	private boolean error;
+	private long affectedRows, lastInsertID;
+	private int errorCode;
+	private String sqlState, errorMessage;
+	
+	private String[] columnNames;
+	private MySQLDataType<?>[] columnTypes;
+	private List<Object[]> rows;
+	private int rowCount;
+	private IntFunction<Object[]> rowGenerator;
+	
+	private MySQLFakeResult() {}
+	
+	public boolean isError() {
+		return error;
+	}
+	
+	public boolean isResultSet() {
+		return columnNames != null;
+	}
+	
+	public long getAffectedRows() {
+		return affectedRows;
+	}
+	
+	public long getLastInsertID() {
+		return lastInsertID;
+	}
+	
+	public int getErrorCode() {
+		return errorCode;
+	}
+	
+	public String getSQLState() {
+		return sqlState;
+	}
+	
+	public String getErrorMessage() {
+		return errorMessage;
+	}
+	
+	public String[] getColumnNames() {
+		return columnNames;
+	}
+	
+	public MySQLDataType<?>[] getColumnTypes() {
+		return columnTypes;
+	}
+	
+	/**
+	 * Adds a row to this result set
+	 * @param values The values of the row, one for every column. Values may be {@code null}
+	 * @return This result
+	 * @throws IllegalStateException If this result is not a result set or its rows are generated
+	 */
+	public MySQLFakeResult addRow(Object... values) {
+		if(rows == null) throw new IllegalStateException("Result doesn't have a list of rows");
+		if(values.length != columnNames.length) throw new IllegalArgumentException("Row must contain exactly " + columnNames.length + " values");
+		rows.add(values);
+		rowCount++;
+		return this;
+	}
+	
+	public int getRowCount() {
+		return rowCount;
+	}
+	
+	/**
+	 * @param index The index of the row
+	 * @return The values of the row at the given index
+	 */
+	public Object[] getRow(int index) {
+		if(rowGenerator != null) return rowGenerator.apply(index);
+		return rows.get(index);
+	}
+	
+	/**
+	 * @return An OK result without any affected rows
+	 */
+	public static MySQLFakeResult ok() {
+		return ok(0, 0);
+	}
+	
+	/**
+	 * @param affectedRows The number of affected rows
+	 * @param lastInsertID The last insert id
+	 * @return An OK result
+	 */
+	public static MySQLFakeResult ok(long affectedRows, long lastInsertID) {
+		MySQLFakeResult r = new MySQLFakeResult();
+		r.affectedRows = affectedRows;
+		r.lastInsertID = lastInsertID;
+		return r;
+	}
+	
+	/**
+	 * @param errorCode The MySQL error code
+	 * @param errorMessage The error message
+	 * @return An error result with the SQL state {@code HY000}
+	 */
+	public static MySQLFakeResult error(int errorCode, String errorMessage) {
+		return error(errorCode, "HY000", errorMessage);
+	}
+	
+	/**
+	 * @param errorCode The MySQL error code
+	 * @param sqlState The five character SQL state
+	 * @param errorMessage The error message
+	 * @return An error result
+	 */
+	public static MySQLFakeResult error(int errorCode, String sqlState, String errorMessage) {
+		if(sqlState.length() != 5) throw new IllegalArgumentException("SQL state must be 5 characters long");
+		MySQLFakeResult r = new MySQLFakeResult();
+		r.error = true;
+		r.errorCode = errorCode;
+		r.sqlState = sqlState;
+		r.errorMessage = errorMessage;
+		return r;
+	}
+	
+	/**
+	 * Creates an empty result set. Rows can be added using {@link #addRow(Object...)}
+	 * @param columnNames The names of the columns
+	 * @param columnTypes The types of the columns
+	 * @return The result set
+	 */
+	public static MySQLFakeResult resultSet(String[] columnNames, MySQLDataType<?>[] columnTypes) {
+		if(columnNames.length != columnTypes.length) throw new IllegalArgumentException("Column names and types must have the same length");
+		MySQLFakeResult r = new MySQLFakeResult();
+		r.columnNames = columnNames;
+		r.columnTypes = columnTypes;
+		r.rows = new ArrayList<>();
+		return r;
+	}
+	
+	/**
+	 * Creates a result set whose rows are generated while they are sent
+	 * @param columnNames The names of the columns
+	 * @param columnTypes The types of the columns
+	 * @param rowCount The number of rows
+	 * @param rowGenerator The function generating the values of the row with the given index
+	 * @return The result set
+	 */
+	public static MySQLFakeResult resultSet(String[] columnNames, MySQLDataType<?>[] columnTypes, int rowCount, IntFunction<Object[]> rowGenerator) {
+		if(columnNames.length != columnTypes.length) throw new IllegalArgumentException("Column names and types must have the same length");
+		MySQLFakeResult r = new MySQLFakeResult();
+		r.columnNames = columnNames;
+		r.columnTypes = columnTypes;
+		r.rowCount = rowCount;
+		r.rowGenerator = rowGenerator;
+		return r;
+	}
+	
+}
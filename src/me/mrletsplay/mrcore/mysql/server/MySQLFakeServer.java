@@ -0,0 +1,302 @@
+package me.mrletsplay.mrcore.mysql.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import me.mrletsplay.mrcore.mysql.protocol.auth.MySQLAuthPlugin;
+import me.mrletsplay.mrcore.mysql.protocol.command.MySQLCommand;
+import me.mrletsplay.mrcore.mysql.protocol.misc.MySQLException;
+
+/**
+ * A minimal, embeddable MySQL server which speaks enough of the client/server protocol to be used with {@link me.mrletsplay.mrcore.mysql.MySQL#connect(String, int, String, String, String)}<br>
+ * It doesn't store any data. Every query and prepared statement execution is answered by a {@link MySQLFakeQueryHandler}, which makes it possible to test and benchmark the client without a real server.<br>
+ * <br>
+ * Supported are:
+ * <ul>
+ * <li>the {@code mysql_native_password} and {@code caching_sha2_password} authentication plugins (including the RSA based full authentication)</li>
+ * <li>{@code COM_QUERY}, {@code COM_PING}, {@code COM_INIT_DB}, {@code COM_RESET_CONNECTION} and {@code COM_QUIT}</li>
+ * <li>{@code COM_STMT_PREPARE}, {@code COM_STMT_EXECUTE} (using the binary protocol) and {@code COM_STMT_CLOSE}</li>
+ * <li>payloads larger than 16 MiB which are split into multiple packets</li>
+ * <li>the compressed protocol, see {@link #setCompressionSupported(boolean)}</li>
+ * </ul>
+ * Example usage:
+ * <pre>
+ * MySQLFakeServer server = new MySQLFakeServer()
+ * 	.setQueryHandler((query, params) -&gt; MySQLFakeResult.ok(1, 0))
+ * 	.start();
+ * MySQLConnection con = MySQL.connect("localhost", server.getPort(), "root", "", null);
+ * </pre>
+ * @author MrLetsplay2003
+ */
+public class MySQLFakeServer implements AutoCloseable {
+
+	/**
+	 * The server version reported during the handshake
+	 */
+	public static final String SERVER_VERSION = "8.0.0-mrcore-fake";
+	
+	private String userName, password;
+	private MySQLAuthPlugin authPlugin;
+	private boolean compressionSupported, fullAuthentication;
+	private MySQLFakeQueryHandler queryHandler;
+	
+	private ServerSocket serverSocket;
+	private Thread acceptThread;
+	private KeyPair rsaKeyPair;
+	private Set<MySQLFakeServerConnection> connections;
+	private AtomicInteger connectionIDs;
+	private AtomicLong connectionCount, commandCount, queryCount, prepareCount, executeCount;
+	
+	public MySQLFakeServer() {
+		this.userName = "root";
+		this.password = "";
+		this.authPlugin = MySQLAuthPlugin.MYSQL_NATIVE_PASSWORD;
+		this.compressionSupported = true;
+		this.queryHandler = (query, params) -> MySQLFakeResult.ok();
+		this.connections = Collections.newSetFromMap(new ConcurrentHashMap<>());
+		this.connectionIDs = new AtomicInteger();
+		this.connectionCount = new AtomicLong();
+		this.commandCount = new AtomicLong();
+		this.queryCount = new AtomicLong();
+		this.prepareCount = new AtomicLong();
+		this.executeCount = new AtomicLong();
+	}
+	
+	/**
+	 * Sets the credentials clients need to log in with. Defaults to {@code root} with an empty password
+	 * @param userName The user name
+	 * @param password The password
+	 * @return This server
+	 */
+	public MySQLFakeServer setCredentials(String userName, String password) {
+		this.userName = userName;
+		this.password = password;
+		return this;
+	}
+	
+	/**
+	 * Sets the authentication plugin offered to clients. Defaults to {@link MySQLAuthPlugin#MYSQL_NATIVE_PASSWORD}
+	 * @param authPlugin The plugin, either {@link MySQLAuthPlugin#MYSQL_NATIVE_PASSWORD} or {@link MySQLAuthPlugin#CACHING_SHA2_PASSWORD}
+	 * @return This server
+	 */
+	public MySQLFakeServer setAuthPlugin(MySQLAuthPlugin authPlugin) {
+		if(authPlugin != MySQLAuthPlugin.MYSQL_NATIVE_PASSWORD && authPlugin != MySQLAuthPlugin.CACHING_SHA2_PASSWORD) throw new IllegalArgumentException("Unsupported auth plugin: " + authPlugin.getName());
+		this.authPlugin = authPlugin;
+		return this;
+	}
+	
+	public MySQLAuthPlugin getAuthPlugin() {
+		return authPlugin;
+	}
+	
+	/**
+	 * Sets whether {@code caching_sha2_password} authentication should always take the full authentication path, as if the password wasn't cached by the server. Ignored for other plugins
+	 * @param fullAuthentication Whether to always require full authentication
+	 * @return This server
+	 */
+	public MySQLFakeServer setFullAuthentication(boolean fullAuthentication) {
+		this.fullAuthentication = fullAuthentication;
+		return this;
+	}
+	
+	public boolean isFullAuthentication() {
+		return fullAuthentication;
+	}
+	
+	/**
+	 * Sets whether the server offers the compressed protocol ({@code CLIENT_COMPRESS}) to clients. Enabled by default
+	 * @param compressionSupported Whether compression is supported
+	 * @return This server
+	 */
+	public MySQLFakeServer setCompressionSupported(boolean compressionSupported) {
+		this.compressionSupported = compressionSupported;
+		return this;
+	}
+	
+	public boolean isCompressionSupported() {
+		return compressionSupported;
+	}
+	
+	/**
+	 * Sets the handler used to answer queries and prepared statement executions. By default, every query is answered with an OK packet
+	 * @param queryHandler The query handler
+	 * @return This server
+	 */
+	public MySQLFakeServer setQueryHandler(MySQLFakeQueryHandler queryHandler) {
+		if(queryHandler == null) throw new IllegalArgumentException("Query handler must not be null");
+		this.queryHandler = queryHandler;
+		return this;
+	}
+	
+	public MySQLFakeQueryHandler getQueryHandler() {
+		return queryHandler;
+	}
+	
+	/**
+	 * Starts the server on a free port on the loopback address
+	 * @return This server
+	 * @throws MySQLException If the server can't be started
+	 * @see #getPort()
+	 */
+	public MySQLFakeServer start() {
+		return start(0);
+	}
+	
+	/**
+	 * Starts the server on the given port on the loopback address
+	 * @param port The port to listen on or 0 to use a free port
+	 * @return This server
+	 * @throws MySQLException If the server can't be started
+	 */
+	public MySQLFakeServer start(int port) {
+		if(serverSocket != null) throw new IllegalStateException("Server is already running");
+		try {
+			serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		} catch (IOException e) {
+			throw new MySQLException("Failed to start server", e);
+		}
+		acceptThread = new Thread(this::acceptConnections, "MySQL-Fake-Server-" + serverSocket.getLocalPort());
+		acceptThread.setDaemon(true);
+		acceptThread.start();
+		return this;
+	}
+	
+	private void acceptConnections() {
+		while(!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				MySQLFakeServerConnection con = new MySQLFakeServerConnection(this, socket, connectionIDs.incrementAndGet());
+				connections.add(con);
+				connectionCount.incrementAndGet();
+				Thread t = new Thread(con, "MySQL-Fake-Connection-" + con.getConnectionID());
+				t.setDaemon(true);
+				t.start();
+			} catch (SocketException e) {
+				return; // Server was closed
+			} catch (IOException e) {
+				continue;
+			}
+		}
+	}
+	
+	/**
+	 * @return The port the server is listening on
+	 * @throws IllegalStateException If the server isn't running
+	 */
+	public int getPort() {
+		if(serverSocket == null) throw new IllegalStateException("Server is not running");
+		return serverSocket.getLocalPort();
+	}
+	
+	public boolean isRunning() {
+		return serverSocket != null && !serverSocket.isClosed();
+	}
+	
+	/**
+	 * @return The number of currently open client connections
+	 */
+	public int getOpenConnections() {
+		return connections.size();
+	}
+	
+	/**
+	 * @return The total number of client connections accepted by this server
+	 */
+	public long getConnectionCount() {
+		return connectionCount.get();
+	}
+	
+	/**
+	 * @return The total number of commands received by this server
+	 */
+	public long getCommandCount() {
+		return commandCount.get();
+	}
+	
+	/**
+	 * @return The number of {@code COM_QUERY} commands received by this server
+	 */
+	public long getQueryCount() {
+		return queryCount.get();
+	}
+	
+	/**
+	 * @return The number of {@code COM_STMT_PREPARE} commands received by this server
+	 */
+	public long getPrepareCount() {
+		return prepareCount.get();
+	}
+	
+	/**
+	 * @return The number of {@code COM_STMT_EXECUTE} commands received by this server
+	 */
+	public long getExecuteCount() {
+		return executeCount.get();
+	}
+	
+	/**
+	 * Stops accepting connections and closes all open connections
+	 */
+	@Override
+	public void close() {
+		if(serverSocket == null) return;
+		try {
+			serverSocket.close();
+		} catch (IOException ignored) {}
+		for(MySQLFakeServerConnection con : connections) con.close();
+		connections.clear();
+	}
+	
+	String getUserName() {
+		return userName;
+	}
+	
+	String getPassword() {
+		return password;
+	}
+	
+	synchronized KeyPair getRSAKeyPair() {
+		if(rsaKeyPair == null) {
+			try {
+				KeyPairGenerator gen = KeyPairGenerator.getInstance("RSA");
+				gen.initialize(2048);
+				rsaKeyPair = gen.generateKeyPair();
+			} catch (NoSuchAlgorithmException e) {
+				throw new MySQLException(e);
+			}
+		}
+		return rsaKeyPair;
+	}
+	
+	void onCommand(int command) {
+		commandCount.incrementAndGet();
+		switch(command) {
+			case MySQLCommand.COM_QUERY:
+				queryCount.incrementAndGet();
+				break;
+			case MySQLCommand.COM_STMT_PREPARE:
+				prepareCount.incrementAndGet();
+				break;
+			case MySQLCommand.COM_STMT_EXECUTE:
+				executeCount.incrementAndGet();
+				break;
+		}
+	}
+	
+	void onClose(MySQLFakeServerConnection con) {
+		connections.remove(con);
+	}
+	
+}
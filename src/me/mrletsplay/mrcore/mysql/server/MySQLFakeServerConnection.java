@@ -0,0 +1,467 @@
+package me.mrletsplay.mrcore.mysql.server;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.Cipher;
+
+import me.mrletsplay.mrcore.misc.FlagCompound;
+import me.mrletsplay.mrcore.mysql.protocol.auth.MySQLAuthPlugin;
+import me.mrletsplay.mrcore.mysql.protocol.auth.MySQLCachingSha2Auth;
+import me.mrletsplay.mrcore.mysql.protocol.command.MySQLCommand;
+import me.mrletsplay.mrcore.mysql.protocol.flag.MySQLCapabilityFlag;
+import me.mrletsplay.mrcore.mysql.protocol.flag.MySQLStatusFlag;
+import me.mrletsplay.mrcore.mysql.protocol.io.MySQLCompression;
+import me.mrletsplay.mrcore.mysql.protocol.io.MySQLReader;
+import me.mrletsplay.mrcore.mysql.protocol.io.MySQLWriter;
+import me.mrletsplay.mrcore.mysql.protocol.io.RawPacket;
+import me.mrletsplay.mrcore.mysql.protocol.misc.MySQLCharset;
+import me.mrletsplay.mrcore.mysql.protocol.misc.MySQLException;
+import me.mrletsplay.mrcore.mysql.protocol.misc.NullBitmap;
+import me.mrletsplay.mrcore.mysql.protocol.type.MySQLDataType;
+import me.mrletsplay.mrcore.mysql.protocol.type.MySQLDataTypes;
+import me.mrletsplay.mrcore.mysql.protocol.type.MySQLString;
+
+/**
+ * The server side of a single client connection to a {@link MySQLFakeServer}
+ * @author MrLetsplay2003
+ */
+class MySQLFakeServerConnection implements Runnable {
+
+	private static final int
+		SCRAMBLE_LENGTH = 20,
+		ROWS_PER_FLUSH = 256,
+		STATUS = MySQLStatusFlag.SERVER_STATUS_AUTOCOMMIT;
+	
+	private static final FlagCompound SERVER_CAPABILITIES = new FlagCompound(
+			MySQLCapabilityFlag.CLIENT_LONG_PASSWORD,
+			MySQLCapabilityFlag.CLIENT_CONNECT_WITH_DB,
+			MySQLCapabilityFlag.CLIENT_PROTOCOL_41,
+			MySQLCapabilityFlag.CLIENT_TRANSACTIONS,
+			MySQLCapabilityFlag.CLIENT_SECURE_CONNECTION,
+			MySQLCapabilityFlag.CLIENT_PLUGIN_AUTH,
+			MySQLCapabilityFlag.CLIENT_PLUGIN_AUTH_LENENC_CLIENT_DATA,
+			MySQLCapabilityFlag.CLIENT_DEPRECATE_EOF
+		);
+	
+	private MySQLFakeServer server;
+	private Socket socket;
+	private int connectionID;
+	
+	private InputStream in;
+	private OutputStream out;
+	private MySQLReader reader;
+	private MySQLWriter writer;
+	private byte sequenceID;
+	
+	private byte[] scramble;
+	private FlagCompound capabilities;
+	private Map<Integer, PreparedStatement> statements;
+	private int nextStatementID;
+	
+	public MySQLFakeServerConnection(MySQLFakeServer server, Socket socket, int connectionID) throws IOException {
+		this.server = server;
+		this.socket = socket;
+		this.connectionID = connectionID;
+		this.in = socket.getInputStream();
+		this.out = new BufferedOutputStream(socket.getOutputStream(), 16384);
+		this.reader = new MySQLReader(in);
+		this.writer = new MySQLWriter(out);
+		this.statements = new HashMap<>();
+		this.nextStatementID = 1;
+	}
+	
+	public int getConnectionID() {
+		return connectionID;
+	}
+	
+	@Override
+	public void run() {
+		try {
+			if(!authenticate()) return;
+			while(!socket.isClosed()) {
+				RawPacket packet = readPacket();
+				if(packet == null) continue;
+				if(!handleCommand(packet)) break;
+			}
+		} catch (IOException | MySQLException e) {
+			// Connection closed or the client sent something unexpected
+		}finally {
+			close();
+		}
+	}
+	
+	private boolean authenticate() throws IOException {
+		scramble = new byte[SCRAMBLE_LENGTH];
+		SecureRandom random = new SecureRandom();
+		for(int i = 0; i < scramble.length; i++) scramble[i] = (byte) (random.nextInt(94) + 33); // Printable, non-null characters like the real server
+		
+		FlagCompound serverCapabilities = new FlagCompound(SERVER_CAPABILITIES.getCompound());
+		if(server.isCompressionSupported()) serverCapabilities.addFlag(MySQLCapabilityFlag.CLIENT_COMPRESS);
+		int caps = (int) serverCapabilities.getCompound();
+		
+		ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+		MySQLWriter w = new MySQLWriter(bOut);
+		w.write(10); // Protocol version
+		w.writeNullTerminatedString(new MySQLString(MySQLFakeServer.SERVER_VERSION));
+		w.writeFixedLengthInteger(4, connectionID);
+		w.write(Arrays.copyOfRange(scramble, 0, 8));
+		w.write(0); // Filler
+		w.writeFixedLengthInteger(2, caps & 0xFFFF);
+		w.write(MySQLCharset.UTF8MB4_GENERAL_CI);
+		w.writeFixedLengthInteger(2, STATUS);
+		w.writeFixedLengthInteger(2, caps >>> 16);
+		w.write(SCRAMBLE_LENGTH + 1);
+		w.write(new byte[10]); // Reserved
+		w.write(Arrays.copyOfRange(scramble, 8, SCRAMBLE_LENGTH));
+		w.write(0);
+		w.writeNullTerminatedString(new MySQLString(server.getAuthPlugin().getName()));
+		sequenceID = 0;
+		sendPacket(bOut.toByteArray());
+		
+		RawPacket response = readPacket();
+		MySQLReader r = new MySQLReader(response.getPayload());
+		capabilities = new FlagCompound(r.readFixedLengthInteger(4) & serverCapabilities.getCompound());
+		r.read(4); // Max packet size
+		r.read(); // Charset
+		r.read(23); // Reserved
+		String user = r.readNullTerminatedString().toString();
+		byte[] authResponse;
+		if(capabilities.hasFlag(MySQLCapabilityFlag.CLIENT_PLUGIN_AUTH_LENENC_CLIENT_DATA)) {
+			authResponse = r.read((int) r.readLengthEncodedInteger());
+		}else {
+			authResponse = r.read(r.read());
+		}
+		if(capabilities.hasFlag(MySQLCapabilityFlag.CLIENT_CONNECT_WITH_DB) && r.hasMore()) r.readNullTerminatedString(); // Database
+		
+		if(!user.equals(server.getUserName()) || !checkPassword(authResponse)) {
+			sendError(1045, "28000", "Access denied for user '" + user + "'");
+			return false;
+		}
+		sendOK(0, 0);
+		
+		if(capabilities.hasFlag(MySQLCapabilityFlag.CLIENT_COMPRESS)) {
+			MySQLCompression compression = new MySQLCompression();
+			reader = new MySQLReader(compression.wrap(in));
+			writer = new MySQLWriter(compression.wrap(socket.getOutputStream()));
+		}
+		return true;
+	}
+	
+	private boolean checkPassword(byte[] authResponse) throws IOException {
+		String password = server.getPassword();
+		if(server.getAuthPlugin() == MySQLAuthPlugin.MYSQL_NATIVE_PASSWORD) {
+			return MessageDigest.isEqual(authResponse, scrambleNative(password));
+		}
+		
+		byte[] expected;
+		try {
+			expected = MySQLCachingSha2Auth.scrambleCachingSha2(password.getBytes(StandardCharsets.UTF_8), scramble);
+		} catch (Exception e) {
+			throw new MySQLException(e);
+		}
+		if(!server.isFullAuthentication()) {
+			sendPacket(new byte[] {0x01, 0x03}); // Fast auth success
+			return MessageDigest.isEqual(authResponse, expected);
+		}
+		
+		sendPacket(new byte[] {0x01, 0x04}); // Perform full authentication
+		RawPacket request = readPacket();
+		if(request == null || request.getPayload()[0] != 0x02) return false; // Public key request
+		String key = "-----BEGIN PUBLIC KEY-----\n" + Base64.getMimeEncoder(64, new byte[] {'\n'}).encodeToString(server.getRSAKeyPair().getPublic().getEncoded()) + "\n-----END PUBLIC KEY-----\n";
+		ByteArrayOutputStream keyPacket = new ByteArrayOutputStream();
+		keyPacket.write(0x01);
+		keyPacket.write(key.getBytes(StandardCharsets.US_ASCII));
+		sendPacket(keyPacket.toByteArray());
+		
+		RawPacket encrypted = readPacket();
+		if(encrypted == null) return false;
+		try {
+			Cipher cipher = Cipher.getInstance("RSA/ECB/OAEPWithSHA-1AndMGF1Padding");
+			cipher.init(Cipher.DECRYPT_MODE, server.getRSAKeyPair().getPrivate());
+			byte[] decrypted = cipher.doFinal(encrypted.getPayload());
+			for(int i = 0; i < decrypted.length; i++) decrypted[i] ^= scramble[i % scramble.length];
+			byte[] expectedPassword = (password + "\0").getBytes(StandardCharsets.UTF_8);
+			return MessageDigest.isEqual(decrypted, expectedPassword);
+		} catch (Exception e) {
+			return false;
+		}
+	}
+	
+	private byte[] scrambleNative(String password) {
+		// SHA1( password ) XOR SHA1( scramble <concat> SHA1( SHA1( password ) ) )
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			byte[] stage1 = digest.digest(password.getBytes(StandardCharsets.UTF_8));
+			byte[] stage2 = digest.digest(stage1);
+			digest.update(scramble);
+			digest.update(stage2);
+			byte[] right = digest.digest();
+			for(int i = 0; i < stage1.length; i++) stage1[i] ^= right[i];
+			return stage1;
+		} catch (NoSuchAlgorithmException e) {
+			throw new MySQLException(e);
+		}
+	}
+	
+	private boolean handleCommand(RawPacket packet) throws IOException {
+		byte[] payload = packet.getPayload();
+		int command = payload[0];
+		server.onCommand(command);
+		switch(command) {
+			case MySQLCommand.COM_QUIT:
+				return false;
+			case MySQLCommand.COM_PING:
+			case MySQLCommand.COM_INIT_DB:
+			case MySQLCommand.COM_RESET_CONNECTION:
+				sendOK(0, 0);
+				break;
+			case MySQLCommand.COM_QUERY:
+			{
+				String query = new String(payload, 1, payload.length - 1, StandardCharsets.UTF_8);
+				sendResult(server.getQueryHandler().handle(query, new Object[0]), false);
+				break;
+			}
+			case MySQLCommand.COM_STMT_PREPARE:
+			{
+				String query = new String(payload, 1, payload.length - 1, StandardCharsets.UTF_8);
+				prepareStatement(query);
+				break;
+			}
+			case MySQLCommand.COM_STMT_EXECUTE:
+				executeStatement(payload);
+				break;
+			case MySQLCommand.COM_STMT_CLOSE:
+			{
+				MySQLReader r = new MySQLReader(payload);
+				r.read();
+				statements.remove((int) r.readFixedLengthInteger(4)); // No response
+				break;
+			}
+			default:
+				sendError(1047, "08S01", "Unknown command");
+				break;
+		}
+		return true;
+	}
+	
+	private void prepareStatement(String query) throws IOException {
+		int paramCount = countParameters(query);
+		int id = nextStatementID++;
+		statements.put(id, new PreparedStatement(query, paramCount));
+		
+		ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+		MySQLWriter w = new MySQLWriter(bOut);
+		w.write(0x00);
+		w.writeFixedLengthInteger(4, id);
+		w.writeFixedLengthInteger(2, 0); // Columns are only sent with the result
+		w.writeFixedLengthInteger(2, paramCount);
+		w.write(0); // Filler
+		w.writeFixedLengthInteger(2, 0); // Warnings
+		sendPacket(bOut.toByteArray(), false);
+		for(int i = 0; i < paramCount; i++) {
+			sendPacket(columnDefinition("?", MySQLDataTypes.VAR_STRING), false);
+		}
+		if(paramCount > 0 && !capabilities.hasFlag(MySQLCapabilityFlag.CLIENT_DEPRECATE_EOF)) sendEOF(false);
+		writer.flush();
+	}
+	
+	private static int countParameters(String query) {
+		int count = 0;
+		char quote = 0;
+		for(int i = 0; i < query.length(); i++) {
+			char c = query.charAt(i);
+			if(quote != 0) {
+				if(c == '\\') i++;
+				else if(c == quote) quote = 0;
+			}else if(c == '\'' || c == '"' || c == '`') {
+				quote = c;
+			}else if(c == '?') {
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	private void executeStatement(byte[] payload) throws IOException {
+		MySQLReader r = new MySQLReader(payload);
+		r.read(); // Command
+		int id = (int) r.readFixedLengthInteger(4);
+		PreparedStatement stmt = statements.get(id);
+		if(stmt == null) {
+			sendError(1243, "HY000", "Unknown prepared statement handler (" + id + ") given to mysqld_stmt_execute");
+			return;
+		}
+		r.read(); // Flags
+		r.read(4); // Iteration count
+		Object[] params = new Object[stmt.paramCount];
+		if(stmt.paramCount > 0) {
+			NullBitmap nulls = new NullBitmap(r.read(NullBitmap.getRequiredBytes(stmt.paramCount, 0)), 0);
+			if(r.read() == 1) { // New params bound
+				for(int i = 0; i < stmt.paramCount; i++) {
+					stmt.paramTypes[i] = MySQLDataTypes.getTypeById((byte) r.read());
+					r.read(); // Unsigned flag
+				}
+			}
+			for(int i = 0; i < stmt.paramCount; i++) {
+				if(nulls.hasNullBit(i)) continue;
+				if(stmt.paramTypes[i] == null) throw new MySQLException("Parameter types were never sent");
+				params[i] = stmt.paramTypes[i].read(r);
+			}
+		}
+		sendResult(server.getQueryHandler().handle(stmt.query, params), true);
+	}
+	
+	private void sendResult(MySQLFakeResult result, boolean binary) throws IOException {
+		if(result == null) result = MySQLFakeResult.ok();
+		if(result.isError()) {
+			sendError(result.getErrorCode(), result.getSQLState(), result.getErrorMessage());
+			return;
+		}
+		if(!result.isResultSet()) {
+			sendOK(result.getAffectedRows(), result.getLastInsertID());
+			return;
+		}
+		
+		String[] names = result.getColumnNames();
+		MySQLDataType<?>[] types = result.getColumnTypes();
+		ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+		MySQLWriter w = new MySQLWriter(bOut);
+		w.writeLengthEncodedInteger(names.length);
+		sendPacket(bOut.toByteArray(), false);
+		for(int i = 0; i < names.length; i++) {
+			sendPacket(columnDefinition(names[i], types[i]), false);
+		}
+		if(!capabilities.hasFlag(MySQLCapabilityFlag.CLIENT_DEPRECATE_EOF)) sendEOF(false);
+		
+		for(int i = 0; i < result.getRowCount(); i++) {
+			Object[] row = result.getRow(i);
+			bOut.reset();
+			if(binary) {
+				NullBitmap nulls = new NullBitmap(types.length, 2);
+				for(int j = 0; j < types.length; j++) {
+					if(row[j] == null) nulls.setNullBit(j);
+				}
+				w.write(0x00);
+				w.write(nulls.getBytes());
+				for(int j = 0; j < types.length; j++) {
+					if(row[j] != null) types[j].write(w, row[j]);
+				}
+			}else {
+				for(int j = 0; j < types.length; j++) {
+					if(row[j] == null) {
+						w.write(0xfb);
+					}else {
+						w.writeLengthEncodedString(types[j].format(row[j]));
+					}
+				}
+			}
+			sendPacket(bOut.toByteArray(), false);
+			if(i % ROWS_PER_FLUSH == ROWS_PER_FLUSH - 1) writer.flush();
+		}
+		
+		if(capabilities.hasFlag(MySQLCapabilityFlag.CLIENT_DEPRECATE_EOF)) {
+			sendOK(0xfe, 0, 0, false); // OK packet with an EOF header
+		}else {
+			sendEOF(false);
+		}
+		writer.flush();
+	}
+	
+	private byte[] columnDefinition(String name, MySQLDataType<?> type) throws IOException {
+		ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+		MySQLWriter w = new MySQLWriter(bOut);
+		w.writeLengthEncodedString(new MySQLString("def"));
+		w.writeLengthEncodedString(new MySQLString("")); // Schema
+		w.writeLengthEncodedString(new MySQLString("")); // Table
+		w.writeLengthEncodedString(new MySQLString("")); // Original table
+		w.writeLengthEncodedString(new MySQLString(name));
+		w.writeLengthEncodedString(new MySQLString(name));
+		w.write(0x0c); // Length of the fixed length fields
+		w.writeFixedLengthInteger(2, MySQLCharset.UTF8MB4_GENERAL_CI);
+		w.writeFixedLengthInteger(4, 0); // Column length
+		w.write(type.getSQLIdentifier());
+		w.writeFixedLengthInteger(2, 0); // Flags
+		w.write(0); // Decimals
+		w.writeFixedLengthInteger(2, 0); // Filler
+		return bOut.toByteArray();
+	}
+	
+	private void sendOK(long affectedRows, long lastInsertID) throws IOException {
+		sendOK(0x00, affectedRows, lastInsertID, true);
+	}
+	
+	private void sendOK(int header, long affectedRows, long lastInsertID, boolean flush) throws IOException {
+		ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+		MySQLWriter w = new MySQLWriter(bOut);
+		w.write(header);
+		w.writeLengthEncodedInteger(affectedRows);
+		w.writeLengthEncodedInteger(lastInsertID);
+		w.writeFixedLengthInteger(2, STATUS);
+		w.writeFixedLengthInteger(2, 0); // Warnings
+		sendPacket(bOut.toByteArray(), flush);
+	}
+	
+	private void sendEOF(boolean flush) throws IOException {
+		sendPacket(new byte[] {(byte) 0xfe, 0, 0, (byte) STATUS, (byte) (STATUS >> 8)}, flush);
+	}
+	
+	private void sendError(int code, String sqlState, String message) throws IOException {
+		ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+		MySQLWriter w = new MySQLWriter(bOut);
+		w.write(0xff);
+		w.writeFixedLengthInteger(2, code);
+		w.write('#');
+		w.write(sqlState.getBytes(StandardCharsets.US_ASCII));
+		w.write(message.getBytes(StandardCharsets.UTF_8));
+		sendPacket(bOut.toByteArray());
+	}
+	
+	private RawPacket readPacket() throws IOException {
+		RawPacket packet = reader.readPacket();
+		if(packet != null) sequenceID = (byte) (packet.getSequenceID() + 1);
+		return packet;
+	}
+	
+	private void sendPacket(byte[] payload) throws IOException {
+		sendPacket(payload, true);
+	}
+	
+	private void sendPacket(byte[] payload, boolean flush) throws IOException {
+		sequenceID += writer.writePacket(sequenceID, RawPacket.of(payload), flush);
+	}
+	
+	public void close() {
+		try {
+			socket.close();
+		} catch (IOException ignored) {}
+		server.onClose(this);
+	}
+	
+	private static class PreparedStatement {
+		
+		private String query;
+		private int paramCount;
+		private MySQLDataType<?>[] paramTypes;
+		
+		public PreparedStatement(String query, int paramCount) {
+			this.query = query;
+			this.paramCount = paramCount;
+			this.paramTypes = new MySQLDataType<?>[paramCount];
+		}
+		
+	}
+	
+}